@@ -0,0 +1,147 @@
+package nl.topicus.jdbc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import com.google.cloud.ByteArray;
+import com.google.common.io.ByteStreams;
+import com.google.rpc.Code;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+
+/**
+ * Read-only implementation of java.sql.Blob for Google Cloud Spanner. The blob is a view on the
+ * {@link ByteArray} value that was returned by Cloud Spanner, and does not copy the value unless a
+ * byte array is requested.
+ * 
+ * @author loite
+ *
+ */
+public class CloudSpannerBlob implements Blob {
+  private static final String FREE_EXCEPTION =
+      "free() has been called, blob is no longer available";
+
+  private static final String READ_ONLY = "Cloud Spanner blobs are read-only";
+
+  private ByteArray value;
+
+  public CloudSpannerBlob(ByteArray value) {
+    this.value = value;
+  }
+
+  /**
+   * @return The value of this blob without copying it
+   * @throws SQLException if free() has been called on this blob
+   */
+  public ByteArray getByteArray() throws SQLException {
+    checkFree();
+    return value;
+  }
+
+  private void checkFree() throws SQLException {
+    if (value == null) {
+      throw new CloudSpannerSQLException(FREE_EXCEPTION, Code.FAILED_PRECONDITION);
+    }
+  }
+
+  private void checkPosition(long pos, long length) throws SQLException {
+    if (pos < 1 || length < 0 || pos - 1 + length > value.length()) {
+      throw new CloudSpannerSQLException(
+          "Invalid position " + pos + " and length " + length + " for blob of length "
+              + value.length(),
+          Code.INVALID_ARGUMENT);
+    }
+  }
+
+  @Override
+  public long length() throws SQLException {
+    checkFree();
+    return value.length();
+  }
+
+  @Override
+  public byte[] getBytes(long pos, int length) throws SQLException {
+    checkFree();
+    int count = (int) Math.min(length, Math.max(0L, value.length() - pos + 1));
+    checkPosition(pos, count);
+    byte[] res = new byte[count];
+    try (InputStream stream = getBinaryStream(pos, count)) {
+      ByteStreams.readFully(stream, res);
+    } catch (IOException e) {
+      throw new CloudSpannerSQLException("Could not read blob: " + e.getMessage(), Code.INTERNAL,
+          e);
+    }
+    return res;
+  }
+
+  @Override
+  public InputStream getBinaryStream() throws SQLException {
+    checkFree();
+    return value.asInputStream();
+  }
+
+  @Override
+  public InputStream getBinaryStream(long pos, long length) throws SQLException {
+    checkFree();
+    checkPosition(pos, length);
+    InputStream stream = value.asInputStream();
+    try {
+      ByteStreams.skipFully(stream, pos - 1);
+    } catch (IOException e) {
+      throw new CloudSpannerSQLException("Could not read blob: " + e.getMessage(), Code.INTERNAL,
+          e);
+    }
+    return ByteStreams.limit(stream, length);
+  }
+
+  @Override
+  public long position(byte[] pattern, long start) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public long position(Blob pattern, long start) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public int setBytes(long pos, byte[] bytes) throws SQLException {
+    throw new SQLFeatureNotSupportedException(READ_ONLY);
+  }
+
+  @Override
+  public int setBytes(long pos, byte[] bytes, int offset, int len) throws SQLException {
+    throw new SQLFeatureNotSupportedException(READ_ONLY);
+  }
+
+  @Override
+  public OutputStream setBinaryStream(long pos) throws SQLException {
+    throw new SQLFeatureNotSupportedException(READ_ONLY);
+  }
+
+  @Override
+  public void truncate(long len) throws SQLException {
+    throw new SQLFeatureNotSupportedException(READ_ONLY);
+  }
+
+  @Override
+  public void free() throws SQLException {
+    this.value = null;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof CloudSpannerBlob))
+      return false;
+    CloudSpannerBlob blob = (CloudSpannerBlob) other;
+    return value == null ? blob.value == null : value.equals(blob.value);
+  }
+
+  @Override
+  public int hashCode() {
+    return value == null ? 0 : value.hashCode();
+  }
+
+}
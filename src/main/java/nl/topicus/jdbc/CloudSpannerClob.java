@@ -0,0 +1,144 @@
+package nl.topicus.jdbc;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Clob;
+import java.sql.NClob;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import com.google.rpc.Code;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+
+/**
+ * Read-only implementation of java.sql.Clob and java.sql.NClob for Google Cloud Spanner. The clob
+ * is a view on the STRING value that was returned by Cloud Spanner.
+ * 
+ * @author loite
+ *
+ */
+public class CloudSpannerClob implements NClob {
+  private static final String FREE_EXCEPTION =
+      "free() has been called, clob is no longer available";
+
+  private static final String READ_ONLY = "Cloud Spanner clobs are read-only";
+
+  private String value;
+
+  public CloudSpannerClob(String value) {
+    this.value = value;
+  }
+
+  private void checkFree() throws SQLException {
+    if (value == null) {
+      throw new CloudSpannerSQLException(FREE_EXCEPTION, Code.FAILED_PRECONDITION);
+    }
+  }
+
+  private void checkPosition(long pos, long length) throws SQLException {
+    if (pos < 1 || length < 0 || pos - 1 + length > value.length()) {
+      throw new CloudSpannerSQLException(
+          "Invalid position " + pos + " and length " + length + " for clob of length "
+              + value.length(),
+          Code.INVALID_ARGUMENT);
+    }
+  }
+
+  @Override
+  public long length() throws SQLException {
+    checkFree();
+    return value.length();
+  }
+
+  @Override
+  public String getSubString(long pos, int length) throws SQLException {
+    checkFree();
+    int count = (int) Math.min(length, Math.max(0L, value.length() - pos + 1));
+    checkPosition(pos, count);
+    return value.substring((int) pos - 1, (int) pos - 1 + count);
+  }
+
+  @Override
+  public Reader getCharacterStream() throws SQLException {
+    checkFree();
+    return new StringReader(value);
+  }
+
+  @Override
+  public Reader getCharacterStream(long pos, long length) throws SQLException {
+    checkFree();
+    checkPosition(pos, length);
+    return new StringReader(value.substring((int) pos - 1, (int) (pos - 1 + length)));
+  }
+
+  @Override
+  public InputStream getAsciiStream() throws SQLException {
+    checkFree();
+    return new ByteArrayInputStream(value.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  @Override
+  public long position(String searchstr, long start) throws SQLException {
+    checkFree();
+    int index = value.indexOf(searchstr, (int) start - 1);
+    return index == -1 ? -1L : index + 1L;
+  }
+
+  @Override
+  public long position(Clob searchstr, long start) throws SQLException {
+    return position(searchstr.getSubString(1L, (int) searchstr.length()), start);
+  }
+
+  @Override
+  public int setString(long pos, String str) throws SQLException {
+    throw new SQLFeatureNotSupportedException(READ_ONLY);
+  }
+
+  @Override
+  public int setString(long pos, String str, int offset, int len) throws SQLException {
+    throw new SQLFeatureNotSupportedException(READ_ONLY);
+  }
+
+  @Override
+  public OutputStream setAsciiStream(long pos) throws SQLException {
+    throw new SQLFeatureNotSupportedException(READ_ONLY);
+  }
+
+  @Override
+  public Writer setCharacterStream(long pos) throws SQLException {
+    throw new SQLFeatureNotSupportedException(READ_ONLY);
+  }
+
+  @Override
+  public void truncate(long len) throws SQLException {
+    throw new SQLFeatureNotSupportedException(READ_ONLY);
+  }
+
+  @Override
+  public void free() throws SQLException {
+    this.value = null;
+  }
+
+  @Override
+  public String toString() {
+    return value;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof CloudSpannerClob))
+      return false;
+    CloudSpannerClob clob = (CloudSpannerClob) other;
+    return value == null ? clob.value == null : value.equals(clob.value);
+  }
+
+  @Override
+  public int hashCode() {
+    return value == null ? 0 : value.hashCode();
+  }
+
+}
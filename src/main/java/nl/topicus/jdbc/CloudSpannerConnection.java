@@ -18,11 +18,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.Semaphore;
 import java.util.function.Supplier;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -42,9 +44,11 @@ import com.google.cloud.spanner.DatabaseId;
 import com.google.cloud.spanner.Instance;
 import com.google.cloud.spanner.Operation;
 import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.SessionPoolOptions;
 import com.google.cloud.spanner.Spanner;
 import com.google.cloud.spanner.SpannerException;
 import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.TimestampBound;
 import com.google.cloud.spanner.Type;
 import com.google.cloud.spanner.Type.StructField;
 import com.google.cloud.spanner.Value;
@@ -131,6 +135,38 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
   private boolean originalBatchReadOnly;
   private boolean batchReadOnly;
 
+  private int partitionParallelism;
+
+  private int originalPartitionParallelism;
+
+  private boolean mergePartitionResults;
+
+  private boolean originalMergePartitionResults;
+
+  private long maxPartitions;
+
+  private long originalMaxPartitions;
+
+  private long partitionSizeBytes;
+
+  private long originalPartitionSizeBytes;
+
+  private boolean prefetchResults;
+
+  private boolean originalPrefetchResults;
+
+  private int bulkWriteParallelism;
+
+  private int originalBulkWriteParallelism;
+
+  private long queryResultCacheTTL;
+
+  private long originalQueryResultCacheTTL;
+
+  private TimestampBound readTimestampBound = TimestampBound.strong();
+
+  private TimestampBound originalReadTimestampBound = TimestampBound.strong();
+
   private final RunningOperationsStore operations = new RunningOperationsStore();
 
   private final String url;
@@ -155,10 +191,40 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
   private Integer simulateMajorVersion;
   private Integer simulateMinorVersion;
 
+  public static final int DEFAULT_MAX_IN_FLIGHT_ASYNC_STATEMENTS = 16;
+
+  /**
+   * Semaphore that can also reduce the number of available permits without blocking
+   */
+  private static final class AsyncStatementPermits extends Semaphore {
+    private static final long serialVersionUID = 1L;
+
+    private AsyncStatementPermits(int permits) {
+      super(permits, true);
+    }
+
+    private void reduce(int reduction) {
+      reducePermits(reduction);
+    }
+  }
+
+  private final AsyncStatementPermits asyncStatementPermits =
+      new AsyncStatementPermits(DEFAULT_MAX_IN_FLIGHT_ASYNC_STATEMENTS);
+
+  private int maxInFlightAsyncStatements = DEFAULT_MAX_IN_FLIGHT_ASYNC_STATEMENTS;
+
   private CloudSpannerTransaction transaction;
 
   private Timestamp lastCommitTimestamp;
 
+  private long validationWindow;
+
+  /**
+   * The time in milliseconds of the last successful request to Cloud Spanner, or 0 if no request
+   * has succeeded yet
+   */
+  private volatile long lastSuccessfulRequest;
+
   private MetaDataStore metaDataStore;
 
   private static int nextConnectionID = 1;
@@ -205,7 +271,8 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
 
   CloudSpannerConnection(CloudSpannerDriver driver, String url,
       CloudSpannerDatabaseSpecification database, String credentialsPath, String oauthToken,
-      Properties suppliedProperties, boolean useCustomHost) throws SQLException {
+      Properties suppliedProperties, boolean useCustomHost,
+      SessionPoolSettings sessionPoolSettings) throws SQLException {
     this.driver = driver;
     this.database = database;
     this.url = url;
@@ -247,14 +314,16 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
         }
         host = url.substring("jdbc:cloudspanner:".length(), endIndex);
       }
-      spanner = driver.getSpanner(database.project, credentials, host);
+      spanner = driver.getSpanner(database.project, credentials, host, sessionPoolSettings);
+      // Creating the first database client of a Spanner instance also creates the session pool of
+      // the database, which starts creating MinSessions sessions in the background.
       dbClient = spanner.getDatabaseClient(
           DatabaseId.of(spanner.getOptions().getProjectId(), database.instance, database.database));
       BatchClient batchClient = spanner.getBatchClient(
           DatabaseId.of(spanner.getOptions().getProjectId(), database.instance, database.database));
       adminClient = spanner.getDatabaseAdminClient();
       transaction = new CloudSpannerTransaction(dbClient, batchClient, this);
-      metaDataStore = new MetaDataStore(this);
+      metaDataStore = new MetaDataStore(this, CloudSpannerDriver.getSchemaCache(database));
     } catch (SpannerException e) {
       throw new CloudSpannerSQLException(
           "Error when opening Google Cloud Spanner connection: " + e.getMessage(), e);
@@ -386,12 +455,21 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
         Operation<Void, UpdateDatabaseDdlMetadata> operation =
             adminClient.updateDatabaseDdl(database.instance, database.database, sql, null);
         if (asyncDdlOperations) {
-          operations.addOperation(sql, operation);
+          // Metadata and query results that are read while the operation is running must not
+          // survive the operation
+          SchemaCache schemaCache = getSchemaCache();
+          operations.addOperation(sql, operation, () -> {
+            if (schemaCache != null)
+              schemaCache.invalidate();
+            CloudSpannerDriver.getQueryResultCache().invalidate(database);
+          });
         } else {
           do {
             operation = operation.waitFor();
           } while (!operation.isDone());
+          CloudSpannerDriver.getQueryResultCache().invalidate(database);
         }
+        metaDataStore.clear();
         return operation.getResult();
       } catch (SpannerException e) {
         throw new CloudSpannerSQLException("Could not execute DDL statement(s) "
@@ -402,14 +480,7 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
   }
 
   private List<String> getActualSql(List<String> sql) throws SQLException {
-    List<DDLStatement> statements = DDLStatement.parseDdlStatements(sql);
-    List<String> actualSql = new ArrayList<>(sql.size());
-    for (DDLStatement statement : statements) {
-      if (statement.shouldExecute(this)) {
-        actualSql.add(statement.getSql());
-      }
-    }
-    return actualSql;
+    return DDLStatement.getExecutableSql(this, DDLStatement.parseDdlStatements(sql));
   }
 
   /**
@@ -429,6 +500,7 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
    */
   public void waitForDdlOperations() throws SQLException {
     operations.waitForOperations();
+    metaDataStore.clear();
   }
 
   /**
@@ -495,6 +567,7 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
   public void commit() throws SQLException {
     checkClosed();
     lastCommitTimestamp = getTransaction().commit();
+    markSuccessfulRequest();
   }
 
   @Override
@@ -633,6 +706,8 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
   public boolean isValid(int timeout) throws SQLException {
     if (isClosed())
       return false;
+    if (isRecentlyUsed())
+      return true;
     Statement statement = createStatement();
     statement.setQueryTimeout(timeout);
     try (ResultSet rs = statement.executeQuery("SELECT 1")) {
@@ -648,10 +723,23 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
     return CloudSpannerArray.createArray(typeName, elements);
   }
 
+  public CloudSpannerDatabaseSpecification getDatabaseSpecification() {
+    return database;
+  }
+
   public TableKeyMetaData getTable(String name) throws SQLException {
     return metaDataStore.getTable(name);
   }
 
+  /**
+   * 
+   * @return The schema cache that is shared by all connections to the same database, or
+   *         <code>null</code> if this connection does not use a shared schema cache
+   */
+  SchemaCache getSchemaCache() {
+    return metaDataStore.getSchemaCache();
+  }
+
   @Override
   public Properties getSuppliedProperties() {
     return suppliedProperties;
@@ -745,7 +833,7 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
    */
   public int setDynamicConnectionProperty(String propertyName, String propertyValue)
       throws SQLException {
-    return getPropertySetter(propertyName).apply(Boolean.valueOf(propertyValue));
+    return getPropertySetter(propertyName).apply(propertyValue);
   }
 
   /**
@@ -760,29 +848,61 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
     return getPropertySetter(propertyName).apply(getOriginalValueGetter(propertyName).get());
   }
 
-  private Supplier<Boolean> getOriginalValueGetter(String propertyName) {
+  private Supplier<String> getOriginalValueGetter(String propertyName) {
     if (propertyName.equalsIgnoreCase(
         ConnectionProperties.getPropertyName(ConnectionProperties.ALLOW_EXTENDED_MODE))) {
-      return this::isOriginalAllowExtendedMode;
+      return () -> String.valueOf(isOriginalAllowExtendedMode());
     }
     if (propertyName.equalsIgnoreCase(
         ConnectionProperties.getPropertyName(ConnectionProperties.ASYNC_DDL_OPERATIONS))) {
-      return this::isOriginalAsyncDdlOperations;
+      return () -> String.valueOf(isOriginalAsyncDdlOperations());
     }
     if (propertyName.equalsIgnoreCase(
         ConnectionProperties.getPropertyName(ConnectionProperties.AUTO_BATCH_DDL_OPERATIONS))) {
-      return this::isOriginalAutoBatchDdlOperations;
+      return () -> String.valueOf(isOriginalAutoBatchDdlOperations());
     }
     if (propertyName.equalsIgnoreCase(
         ConnectionProperties.getPropertyName(ConnectionProperties.REPORT_DEFAULT_SCHEMA_AS_NULL))) {
-      return this::isOriginalReportDefaultSchemaAsNull;
+      return () -> String.valueOf(isOriginalReportDefaultSchemaAsNull());
     }
     if (propertyName.equalsIgnoreCase(
         ConnectionProperties.getPropertyName(ConnectionProperties.BATCH_READ_ONLY_MODE))) {
-      return this::isOriginalBatchReadOnly;
+      return () -> String.valueOf(isOriginalBatchReadOnly());
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.PARTITION_PARALLELISM))) {
+      return () -> String.valueOf(getOriginalPartitionParallelism());
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.MERGE_PARTITION_RESULTS))) {
+      return () -> String.valueOf(isOriginalMergePartitionResults());
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.MAX_PARTITIONS))) {
+      return () -> String.valueOf(getOriginalMaxPartitions());
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.PARTITION_SIZE_BYTES))) {
+      return () -> String.valueOf(getOriginalPartitionSizeBytes());
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.PREFETCH_RESULTS))) {
+      return () -> String.valueOf(isOriginalPrefetchResults());
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.BULK_WRITE_PARALLELISM))) {
+      return () -> String.valueOf(getOriginalBulkWriteParallelism());
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.QUERY_RESULT_CACHE_TTL))) {
+      return () -> String.valueOf(getOriginalQueryResultCacheTTL());
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.READ_ONLY_STALENESS))) {
+      return () -> ConnectionProperties.formatTimestampBound(getOriginalReadTimestampBound());
     }
     // Return a no-op to avoid null checks
-    return () -> false;
+    return () -> "false";
   }
 
   @FunctionalInterface
@@ -790,31 +910,82 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
     R apply(T t) throws SQLException;
   }
 
-  private SqlFunction<Boolean, Integer> getPropertySetter(String propertyName) {
+  private SqlFunction<String, Integer> getPropertySetter(String propertyName) {
     if (propertyName.equalsIgnoreCase(
         ConnectionProperties.getPropertyName(ConnectionProperties.ALLOW_EXTENDED_MODE))) {
-      return this::setAllowExtendedMode;
+      return value -> setAllowExtendedMode(Boolean.valueOf(value));
     }
     if (propertyName.equalsIgnoreCase(
         ConnectionProperties.getPropertyName(ConnectionProperties.ASYNC_DDL_OPERATIONS))) {
-      return this::setAsyncDdlOperations;
+      return value -> setAsyncDdlOperations(Boolean.valueOf(value));
     }
     if (propertyName.equalsIgnoreCase(
         ConnectionProperties.getPropertyName(ConnectionProperties.AUTO_BATCH_DDL_OPERATIONS))) {
-      return this::setAutoBatchDdlOperations;
+      return value -> setAutoBatchDdlOperations(Boolean.valueOf(value));
     }
     if (propertyName.equalsIgnoreCase(
         ConnectionProperties.getPropertyName(ConnectionProperties.REPORT_DEFAULT_SCHEMA_AS_NULL))) {
-      return this::setReportDefaultSchemaAsNull;
+      return value -> setReportDefaultSchemaAsNull(Boolean.valueOf(value));
     }
     if (propertyName.equalsIgnoreCase(
         ConnectionProperties.getPropertyName(ConnectionProperties.BATCH_READ_ONLY_MODE))) {
-      return this::setBatchReadOnly;
+      return value -> setBatchReadOnly(Boolean.valueOf(value));
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.PARTITION_PARALLELISM))) {
+      return value -> setPartitionParallelism(parseIntProperty(propertyName, value));
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.MERGE_PARTITION_RESULTS))) {
+      return value -> setMergePartitionResults(Boolean.valueOf(value));
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.MAX_PARTITIONS))) {
+      return value -> setMaxPartitions(parseLongProperty(propertyName, value));
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.PARTITION_SIZE_BYTES))) {
+      return value -> setPartitionSizeBytes(parseLongProperty(propertyName, value));
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.PREFETCH_RESULTS))) {
+      return value -> setPrefetchResults(Boolean.valueOf(value));
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.BULK_WRITE_PARALLELISM))) {
+      return value -> setBulkWriteParallelism(parseIntProperty(propertyName, value));
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.QUERY_RESULT_CACHE_TTL))) {
+      return value -> setQueryResultCacheTTL(parseLongProperty(propertyName, value));
+    }
+    if (propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.READ_ONLY_STALENESS))) {
+      return this::setReadOnlyStaleness;
     }
     // Return a no-op to avoid null checks
     return x -> 0;
   }
 
+  private static int parseIntProperty(String propertyName, String value) throws SQLException {
+    long res = parseLongProperty(propertyName, value);
+    if (res < Integer.MIN_VALUE || res > Integer.MAX_VALUE)
+      throw new CloudSpannerSQLException(
+          "Invalid value for connection property " + propertyName + ": " + value,
+          Code.INVALID_ARGUMENT);
+    return (int) res;
+  }
+
+  private static long parseLongProperty(String propertyName, String value) throws SQLException {
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      throw new CloudSpannerSQLException(
+          "Invalid value for connection property " + propertyName + ": " + value,
+          Code.INVALID_ARGUMENT, e);
+    }
+  }
+
   public ResultSet getDynamicConnectionProperties(CloudSpannerStatement statement)
       throws SQLException {
     return getDynamicConnectionProperty(statement, null);
@@ -822,6 +993,23 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
 
   public ResultSet getDynamicConnectionProperty(CloudSpannerStatement statement,
       String propertyName) throws SQLException {
+    return createResultSet(statement, getDynamicConnectionPropertyValues(propertyName));
+  }
+
+  /**
+   * Resets all dynamic connection properties that have been changed on this connection to their
+   * original values.
+   * 
+   * @throws SQLException Throws {@link SQLException} if a property could not be reset
+   */
+  public void resetDynamicConnectionProperties() throws SQLException {
+    for (Entry<String, String> entry : getDynamicConnectionPropertyValues(null).entrySet()) {
+      if (!Objects.equals(entry.getValue(), getOriginalValueGetter(entry.getKey()).get()))
+        resetDynamicConnectionProperty(entry.getKey());
+    }
+  }
+
+  private Map<String, String> getDynamicConnectionPropertyValues(String propertyName) {
     Map<String, String> values = new HashMap<>();
     if (propertyName == null || propertyName.equalsIgnoreCase(
         ConnectionProperties.getPropertyName(ConnectionProperties.ALLOW_EXTENDED_MODE))) {
@@ -850,7 +1038,48 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
       values.put(ConnectionProperties.getPropertyName(ConnectionProperties.BATCH_READ_ONLY_MODE),
           String.valueOf(isBatchReadOnly()));
     }
-    return createResultSet(statement, values);
+    if (propertyName == null || propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.PARTITION_PARALLELISM))) {
+      values.put(ConnectionProperties.getPropertyName(ConnectionProperties.PARTITION_PARALLELISM),
+          String.valueOf(getPartitionParallelism()));
+    }
+    if (propertyName == null || propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.MERGE_PARTITION_RESULTS))) {
+      values.put(
+          ConnectionProperties.getPropertyName(ConnectionProperties.MERGE_PARTITION_RESULTS),
+          String.valueOf(isMergePartitionResults()));
+    }
+    if (propertyName == null || propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.MAX_PARTITIONS))) {
+      values.put(ConnectionProperties.getPropertyName(ConnectionProperties.MAX_PARTITIONS),
+          String.valueOf(getMaxPartitions()));
+    }
+    if (propertyName == null || propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.PARTITION_SIZE_BYTES))) {
+      values.put(ConnectionProperties.getPropertyName(ConnectionProperties.PARTITION_SIZE_BYTES),
+          String.valueOf(getPartitionSizeBytes()));
+    }
+    if (propertyName == null || propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.PREFETCH_RESULTS))) {
+      values.put(ConnectionProperties.getPropertyName(ConnectionProperties.PREFETCH_RESULTS),
+          String.valueOf(isPrefetchResults()));
+    }
+    if (propertyName == null || propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.BULK_WRITE_PARALLELISM))) {
+      values.put(ConnectionProperties.getPropertyName(ConnectionProperties.BULK_WRITE_PARALLELISM),
+          String.valueOf(getBulkWriteParallelism()));
+    }
+    if (propertyName == null || propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.QUERY_RESULT_CACHE_TTL))) {
+      values.put(ConnectionProperties.getPropertyName(ConnectionProperties.QUERY_RESULT_CACHE_TTL),
+          String.valueOf(getQueryResultCacheTTL()));
+    }
+    if (propertyName == null || propertyName.equalsIgnoreCase(
+        ConnectionProperties.getPropertyName(ConnectionProperties.READ_ONLY_STALENESS))) {
+      values.put(ConnectionProperties.getPropertyName(ConnectionProperties.READ_ONLY_STALENESS),
+          getReadOnlyStaleness());
+    }
+    return values;
   }
 
   private ResultSet createResultSet(CloudSpannerStatement statement, Map<String, String> values)
@@ -873,6 +1102,36 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
     return new CloudSpannerResultSet(statement, rs, null);
   }
 
+  /**
+   * Returns a ResultSet with the session pool and channel settings of the {@link Spanner} instance
+   * of this connection. Connections that have not been opened by the driver report the defaults of
+   * the client library.
+   * 
+   * @param statement The statement that requested the settings
+   * @return A ResultSet with the name and value of each setting
+   * @throws SQLException If a database error occurs
+   */
+  public ResultSet getSessionPoolSettings(CloudSpannerStatement statement) throws SQLException {
+    SessionPoolOptions options = spanner == null ? SessionPoolOptions.newBuilder().build()
+        : spanner.getOptions().getSessionPoolOptions();
+    Map<String, String> values = new LinkedHashMap<>();
+    values.put(ConnectionProperties.getPropertyName(ConnectionProperties.MIN_SESSIONS),
+        String.valueOf(options.getMinSessions()));
+    values.put(ConnectionProperties.getPropertyName(ConnectionProperties.MAX_SESSIONS),
+        String.valueOf(options.getMaxSessions()));
+    values.put(ConnectionProperties.getPropertyName(ConnectionProperties.MAX_IDLE_SESSIONS),
+        String.valueOf(options.getMaxIdleSessions()));
+    values.put(ConnectionProperties.getPropertyName(ConnectionProperties.WRITE_SESSIONS_FRACTION),
+        String.valueOf(options.getWriteSessionsFraction()));
+    values.put(
+        ConnectionProperties.getPropertyName(ConnectionProperties.KEEP_ALIVE_INTERVAL_MINUTES),
+        String.valueOf(options.getKeepAliveIntervalMinutes()));
+    if (spanner != null)
+      values.put(ConnectionProperties.getPropertyName(ConnectionProperties.NUM_CHANNELS),
+          String.valueOf(spanner.getOptions().getRpcChannels().size()));
+    return createResultSet(statement, values);
+  }
+
   /**
    * 
    * @return The commit timestamp of the last transaction that committed succesfully
@@ -1013,6 +1272,191 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
     this.originalBatchReadOnly = originalBatchReadOnly;
   }
 
+  @Override
+  public int getPartitionParallelism() {
+    return partitionParallelism;
+  }
+
+  @Override
+  public int setPartitionParallelism(int partitionParallelism) {
+    Preconditions.checkArgument(partitionParallelism >= 0,
+        "Partition parallelism may not be negative");
+    this.partitionParallelism = partitionParallelism;
+    return 1;
+  }
+
+  int getOriginalPartitionParallelism() {
+    return originalPartitionParallelism;
+  }
+
+  void setOriginalPartitionParallelism(int originalPartitionParallelism) {
+    this.originalPartitionParallelism = originalPartitionParallelism;
+  }
+
+  @Override
+  public boolean isMergePartitionResults() {
+    return mergePartitionResults;
+  }
+
+  @Override
+  public int setMergePartitionResults(boolean mergePartitionResults) {
+    this.mergePartitionResults = mergePartitionResults;
+    return 1;
+  }
+
+  boolean isOriginalMergePartitionResults() {
+    return originalMergePartitionResults;
+  }
+
+  void setOriginalMergePartitionResults(boolean originalMergePartitionResults) {
+    this.originalMergePartitionResults = originalMergePartitionResults;
+  }
+
+  @Override
+  public long getMaxPartitions() {
+    return maxPartitions;
+  }
+
+  @Override
+  public int setMaxPartitions(long maxPartitions) {
+    Preconditions.checkArgument(maxPartitions >= 0L, "Max partitions may not be negative");
+    this.maxPartitions = maxPartitions;
+    return 1;
+  }
+
+  long getOriginalMaxPartitions() {
+    return originalMaxPartitions;
+  }
+
+  void setOriginalMaxPartitions(long originalMaxPartitions) {
+    this.originalMaxPartitions = originalMaxPartitions;
+  }
+
+  @Override
+  public long getPartitionSizeBytes() {
+    return partitionSizeBytes;
+  }
+
+  @Override
+  public int setPartitionSizeBytes(long partitionSizeBytes) {
+    Preconditions.checkArgument(partitionSizeBytes >= 0L,
+        "Partition size bytes may not be negative");
+    this.partitionSizeBytes = partitionSizeBytes;
+    return 1;
+  }
+
+  long getOriginalPartitionSizeBytes() {
+    return originalPartitionSizeBytes;
+  }
+
+  void setOriginalPartitionSizeBytes(long originalPartitionSizeBytes) {
+    this.originalPartitionSizeBytes = originalPartitionSizeBytes;
+  }
+
+  @Override
+  public boolean isPrefetchResults() {
+    return prefetchResults;
+  }
+
+  @Override
+  public int setPrefetchResults(boolean prefetchResults) {
+    this.prefetchResults = prefetchResults;
+    return 1;
+  }
+
+  boolean isOriginalPrefetchResults() {
+    return originalPrefetchResults;
+  }
+
+  void setOriginalPrefetchResults(boolean originalPrefetchResults) {
+    this.originalPrefetchResults = originalPrefetchResults;
+  }
+
+  @Override
+  public int getBulkWriteParallelism() {
+    return bulkWriteParallelism;
+  }
+
+  @Override
+  public int setBulkWriteParallelism(int bulkWriteParallelism) {
+    Preconditions.checkArgument(bulkWriteParallelism >= 0,
+        "Bulk write parallelism may not be negative");
+    this.bulkWriteParallelism = bulkWriteParallelism;
+    return 1;
+  }
+
+  int getOriginalBulkWriteParallelism() {
+    return originalBulkWriteParallelism;
+  }
+
+  void setOriginalBulkWriteParallelism(int originalBulkWriteParallelism) {
+    this.originalBulkWriteParallelism = originalBulkWriteParallelism;
+  }
+
+  @Override
+  public long getQueryResultCacheTTL() {
+    return queryResultCacheTTL;
+  }
+
+  @Override
+  public int setQueryResultCacheTTL(long queryResultCacheTTL) {
+    Preconditions.checkArgument(queryResultCacheTTL >= 0L,
+        "Query result cache TTL may not be negative");
+    this.queryResultCacheTTL = queryResultCacheTTL;
+    return 1;
+  }
+
+  long getOriginalQueryResultCacheTTL() {
+    return originalQueryResultCacheTTL;
+  }
+
+  void setOriginalQueryResultCacheTTL(long originalQueryResultCacheTTL) {
+    this.originalQueryResultCacheTTL = originalQueryResultCacheTTL;
+  }
+
+  @Override
+  public TimestampBound getReadTimestampBound() {
+    return readTimestampBound;
+  }
+
+  @Override
+  public String getReadOnlyStaleness() {
+    return ConnectionProperties.formatTimestampBound(readTimestampBound);
+  }
+
+  @Override
+  public int setReadOnlyStaleness(String readOnlyStaleness) throws SQLException {
+    return setReadTimestampBound(ConnectionProperties.parseTimestampBound(readOnlyStaleness));
+  }
+
+  /**
+   * Sets the timestamp bound of queries in autocommit mode and of read-only and batch read-only
+   * transactions.
+   * 
+   * @param readTimestampBound The timestamp bound to use
+   * @return 1 if the property was set
+   * @throws SQLException if a transaction is running
+   */
+  public int setReadTimestampBound(TimestampBound readTimestampBound) throws SQLException {
+    Preconditions.checkNotNull(readTimestampBound);
+    checkClosed();
+    if (!readTimestampBound.equals(this.readTimestampBound) && getTransaction().isRunning()) {
+      throw new CloudSpannerSQLException(
+          "There is currently a transaction running. Commit or rollback the running transaction before changing the read-only staleness.",
+          Code.FAILED_PRECONDITION);
+    }
+    this.readTimestampBound = readTimestampBound;
+    return 1;
+  }
+
+  TimestampBound getOriginalReadTimestampBound() {
+    return originalReadTimestampBound;
+  }
+
+  void setOriginalReadTimestampBound(TimestampBound originalReadTimestampBound) {
+    this.originalReadTimestampBound = originalReadTimestampBound;
+  }
+
   private void checkSavepointPossible() throws SQLException {
     checkClosed();
     if (getAutoCommit())
@@ -1054,6 +1498,35 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
     transaction.releaseSavepoint(savepoint);
   }
 
+  /**
+   * 
+   * @return The permits for executing asynchronous statements on this connection
+   */
+  public Semaphore getAsyncStatementPermits() {
+    return asyncStatementPermits;
+  }
+
+  @Override
+  public int getMaxInFlightAsyncStatements() {
+    synchronized (asyncStatementPermits) {
+      return maxInFlightAsyncStatements;
+    }
+  }
+
+  @Override
+  public void setMaxInFlightAsyncStatements(int maxInFlightAsyncStatements) {
+    Preconditions.checkArgument(maxInFlightAsyncStatements > 0,
+        "The maximum number of asynchronous statements must be at least 1");
+    synchronized (asyncStatementPermits) {
+      int difference = maxInFlightAsyncStatements - this.maxInFlightAsyncStatements;
+      if (difference > 0)
+        asyncStatementPermits.release(difference);
+      else if (difference < 0)
+        asyncStatementPermits.reduce(-difference);
+      this.maxInFlightAsyncStatements = maxInFlightAsyncStatements;
+    }
+  }
+
   @Override
   public boolean isUseCustomHost() {
     return useCustomHost;
@@ -1063,4 +1536,32 @@ public class CloudSpannerConnection extends AbstractCloudSpannerConnection {
     this.useCustomHost = useCustomHost;
   }
 
+  @Override
+  public long getValidationWindow() {
+    return validationWindow;
+  }
+
+  @Override
+  public void setValidationWindow(long validationWindow) {
+    Preconditions.checkArgument(validationWindow >= 0L, "Validation window may not be negative");
+    this.validationWindow = validationWindow;
+  }
+
+  /**
+   * Records that a request to Cloud Spanner on this connection has succeeded. A connection that
+   * has had a successful request within the validation window is considered valid by
+   * {@link #isValid(int)} without a new round trip to Cloud Spanner.
+   */
+  public void markSuccessfulRequest() {
+    if (validationWindow > 0L)
+      lastSuccessfulRequest = System.currentTimeMillis();
+  }
+
+  private boolean isRecentlyUsed() {
+    if (validationWindow == 0L || dbClient == null)
+      return false;
+    long last = lastSuccessfulRequest;
+    return last > 0L && System.currentTimeMillis() - last < validationWindow;
+  }
+
 }
@@ -8,6 +8,8 @@ import java.sql.RowIdLifetime;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Types;
+import nl.topicus.jdbc.resultset.CloudSpannerResultSet;
+import nl.topicus.jdbc.resultset.MaterializedResultSet;
 import nl.topicus.jdbc.statement.CloudSpannerPreparedStatement;
 
 public class CloudSpannerDatabaseMetaData extends AbstractCloudSpannerDatabaseMetaData {
@@ -662,6 +664,31 @@ public class CloudSpannerDatabaseMetaData extends AbstractCloudSpannerDatabaseMe
     return statement;
   }
 
+  /**
+   * Executes a meta data query and caches the result in the schema cache of the database. Cached
+   * results are returned from memory until a DDL statement is executed or the cache expires.
+   */
+  private ResultSet executeCachedQuery(String sql, String... params) throws SQLException {
+    SchemaCache cache = connection.getSchemaCache();
+    if (cache == null)
+      return prepareStatement(sql, params).executeQuery();
+    StringBuilder key = new StringBuilder(sql);
+    for (String param : params) {
+      if (param != null)
+        key.append('\0').append(param.toUpperCase());
+    }
+    MaterializedResultSet result = cache.getResult(key.toString());
+    if (result == null) {
+      long version = cache.getVersion();
+      ResultSet rs = prepareStatement(sql, params).executeQuery();
+      if (!(rs instanceof CloudSpannerResultSet))
+        return rs;
+      result = MaterializedResultSet.of((CloudSpannerResultSet) rs);
+      cache.putResult(key.toString(), result, version);
+    }
+    return result.createResultSet(connection.createStatement(), sql);
+  }
+
   private String getCatalogSchemaTableWhereClause(String alias, String catalog, String schema,
       String table) {
     StringBuilder res = new StringBuilder();
@@ -683,9 +710,7 @@ public class CloudSpannerDatabaseMetaData extends AbstractCloudSpannerDatabaseMe
     sql = sql + getCatalogSchemaTableWhereClause("T", catalog, schemaPattern, tableNamePattern);
     sql = sql + "ORDER BY TABLE_NAME";
 
-    CloudSpannerPreparedStatement statement =
-        prepareStatement(sql, catalog, schemaPattern, tableNamePattern);
-    return statement.executeQuery();
+    return executeCachedQuery(sql, catalog, schemaPattern, tableNamePattern);
   }
 
   @Override
@@ -716,9 +741,7 @@ public class CloudSpannerDatabaseMetaData extends AbstractCloudSpannerDatabaseMe
       sql = sql + "AND UPPER(COLUMN_NAME) LIKE ? ";
     sql = sql + "ORDER BY TABLE_CATALOG, TABLE_SCHEMA, TABLE_NAME, ORDINAL_POSITION ";
 
-    CloudSpannerPreparedStatement statement =
-        prepareStatement(sql, catalog, schemaPattern, tableNamePattern, columnNamePattern);
-    return statement.executeQuery();
+    return executeCachedQuery(sql, catalog, schemaPattern, tableNamePattern, columnNamePattern);
   }
 
   @Override
@@ -781,8 +804,7 @@ public class CloudSpannerDatabaseMetaData extends AbstractCloudSpannerDatabaseMe
     sql = sql + getCatalogSchemaTableWhereClause("IDX", catalog, schema, table);
     sql = sql + "ORDER BY COLS.ORDINAL_POSITION ";
 
-    PreparedStatement statement = prepareStatement(sql, catalog, schema, table);
-    return statement.executeQuery();
+    return executeCachedQuery(sql, catalog, schema, table);
   }
 
   @Override
@@ -860,7 +882,22 @@ public class CloudSpannerDatabaseMetaData extends AbstractCloudSpannerDatabaseMe
       sql = sql + " AND UPPER(IDX.INDEX_NAME) LIKE ? ";
     sql = sql + "ORDER BY IS_UNIQUE, IDX.INDEX_NAME, ORDINAL_POSITION ";
 
-    PreparedStatement statement = prepareStatement(sql, catalog, schema, table, indexName);
+    return executeCachedQuery(sql, catalog, schema, table, indexName);
+  }
+
+  /**
+   * Returns the names of all tables and indexes in the default schema of the database in one result
+   * set. The result set has the columns OBJECT_TYPE ('TABLE' or 'INDEX') and OBJECT_NAME. The
+   * query is always executed on Cloud Spanner and is not cached, so that the result also reflects
+   * DDL operations that are still running or that have been executed by other clients.
+   * 
+   * @return A result set containing all tables and indexes of the database
+   * @throws SQLException if a database error occurs
+   */
+  public ResultSet getTablesAndIndexes() throws SQLException {
+    CloudSpannerPreparedStatement statement =
+        prepareStatement(CloudSpannerDatabaseMetaDataConstants.GET_TABLES_AND_INDEXES);
+    statement.setUseQueryResultCache(false);
     return statement.executeQuery();
   }
 
@@ -1125,9 +1162,7 @@ public class CloudSpannerDatabaseMetaData extends AbstractCloudSpannerDatabaseMe
       sql = sql + "AND UPPER(COLUMN_NAME) LIKE ? ";
     sql = sql + "ORDER BY TABLE_CATALOG, TABLE_SCHEMA, TABLE_NAME, ORDINAL_POSITION ";
 
-    CloudSpannerPreparedStatement statement =
-        prepareStatement(sql, catalog, schemaPattern, tableNamePattern, columnNamePattern);
-    return statement.executeQuery();
+    return executeCachedQuery(sql, catalog, schemaPattern, tableNamePattern, columnNamePattern);
   }
 
   @Override
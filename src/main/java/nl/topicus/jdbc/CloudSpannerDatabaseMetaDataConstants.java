@@ -92,6 +92,11 @@ public abstract class CloudSpannerDatabaseMetaDataConstants {
           + "INNER JOIN INFORMATION_SCHEMA.INDEX_COLUMNS COL on IDX.TABLE_CATALOG=COL.TABLE_CATALOG AND IDX.TABLE_SCHEMA=COL.TABLE_SCHEMA AND IDX.TABLE_NAME=COL.TABLE_NAME AND IDX.INDEX_NAME=COL.INDEX_NAME "
           + CloudSpannerDatabaseMetaDataConstants.WHERE_1_EQUALS_1;
 
+  public static final String GET_TABLES_AND_INDEXES =
+      "SELECT 'TABLE' AS OBJECT_TYPE, TABLE_NAME AS OBJECT_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_CATALOG='' AND TABLE_SCHEMA='' "
+          + "UNION ALL "
+          + "SELECT 'INDEX' AS OBJECT_TYPE, INDEX_NAME AS OBJECT_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_CATALOG='' AND TABLE_SCHEMA='' ";
+
   // Prevent instantiation
   private CloudSpannerDatabaseMetaDataConstants() {}
 
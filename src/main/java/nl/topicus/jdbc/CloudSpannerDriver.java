@@ -13,6 +13,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import com.google.auth.Credentials;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.NoCredentials;
@@ -20,8 +22,15 @@ import com.google.cloud.spanner.Spanner;
 import com.google.cloud.spanner.SpannerExceptionFactory;
 import com.google.cloud.spanner.SpannerOptions;
 import com.google.cloud.spanner.SpannerOptions.Builder;
+import com.google.cloud.spanner.TimestampBound;
 import com.google.common.base.Preconditions;
+import com.google.rpc.Code;
 import nl.topicus.jdbc.CloudSpannerConnection.CloudSpannerDatabaseSpecification;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+import nl.topicus.jdbc.resultset.QueryResultCache;
+import nl.topicus.jdbc.statement.ParsedStatementCache;
+import nl.topicus.jdbc.transaction.TransactionMonitor;
+import nl.topicus.jdbc.transaction.TransactionThreadPool;
 
 public class CloudSpannerDriver implements Driver {
   static {
@@ -41,6 +50,18 @@ public class CloudSpannerDriver implements Driver {
   static boolean logLevelSet = false;
   // the number of milliseconds before a transaction is considered long-running
   private static long longTransactionTrigger = 10000L;
+  // cache of parsed sql statements that is shared by all connections
+  private static final ParsedStatementCache parsedStatementCache = new ParsedStatementCache();
+  // cache of query results of read-only connections that is shared by all connections
+  private static final QueryResultCache queryResultCache = new QueryResultCache();
+  // pool of threads that execute read/write transactions for all connections
+  private static final TransactionThreadPool transactionThreadPool = new TransactionThreadPool();
+  // keep-alive and long-running detection for the read/write transactions of all connections
+  private static final TransactionMonitor transactionMonitor = new TransactionMonitor();
+  // schema caches that are shared by all connections to the same database
+  private static final ConcurrentMap<CloudSpannerDatabaseSpecification, SchemaCache> schemaCaches =
+      new ConcurrentHashMap<>();
+  private static long schemaCacheTTL = SchemaCache.DEFAULT_TTL_MILLIS;
 
   static final int MAJOR_VERSION = 1;
 
@@ -53,19 +74,24 @@ public class CloudSpannerDriver implements Driver {
 
     private final Credentials credentials;
 
-    private SpannerKey(String host, String projectId, Credentials credentials) {
+    private final SessionPoolSettings sessionPoolSettings;
+
+    private SpannerKey(String host, String projectId, Credentials credentials,
+        SessionPoolSettings sessionPoolSettings) {
       this.host = host;
       this.projectId = projectId;
       this.credentials = credentials;
+      this.sessionPoolSettings = sessionPoolSettings;
     }
 
-    private static SpannerKey of(String host, String projectId, Credentials credentials) {
-      return new SpannerKey(host, projectId, credentials);
+    private static SpannerKey of(String host, String projectId, Credentials credentials,
+        SessionPoolSettings sessionPoolSettings) {
+      return new SpannerKey(host, projectId, credentials, sessionPoolSettings);
     }
 
     @Override
     public int hashCode() {
-      return Objects.hash(host, projectId, credentials);
+      return Objects.hash(host, projectId, credentials, sessionPoolSettings);
     }
 
     @Override
@@ -76,7 +102,8 @@ public class CloudSpannerDriver implements Driver {
         return false;
       SpannerKey other = (SpannerKey) o;
       return Objects.equals(host, other.host) && Objects.equals(projectId, other.projectId)
-          && Objects.equals(credentials, other.credentials);
+          && Objects.equals(credentials, other.credentials)
+          && Objects.equals(sessionPoolSettings, other.sessionPoolSettings);
     }
   }
 
@@ -135,11 +162,19 @@ public class CloudSpannerDriver implements Driver {
     ConnectionProperties properties = ConnectionProperties.parse(url);
     // Get connection properties from properties
     properties.setAdditionalConnectionProperties(info);
+    TimestampBound readTimestampBound = properties.readOnlyStaleness == null ? null
+        : ConnectionProperties.parseTimestampBound(properties.readOnlyStaleness);
+    SessionPoolSettings sessionPoolSettings = SessionPoolSettings.of(properties);
+    if (properties.transactionThreadPoolSize != null)
+      initTransactionThreadPoolSize(properties.transactionThreadPoolSize);
+    if (properties.queryResultCacheSize != null)
+      initQueryResultCacheSize(properties.queryResultCacheSize);
 
     CloudSpannerDatabaseSpecification database = new CloudSpannerDatabaseSpecification(
         properties.project, properties.instance, properties.database);
     CloudSpannerConnection connection = new CloudSpannerConnection(this, url, database,
-        properties.keyFile, properties.oauthToken, info, properties.useCustomHost);
+        properties.keyFile, properties.oauthToken, info, properties.useCustomHost,
+        sessionPoolSettings);
     connection.setSimulateProductName(properties.productName);
     connection.setSimulateMajorVersion(properties.majorVersion);
     connection.setSimulateMinorVersion(properties.minorVersion);
@@ -153,7 +188,37 @@ public class CloudSpannerDriver implements Driver {
     connection.setOriginalReportDefaultSchemaAsNull(properties.reportDefaultSchemaAsNull);
     connection.setBatchReadOnly(properties.batchReadOnlyMode);
     connection.setOriginalBatchReadOnly(properties.batchReadOnlyMode);
+    if (properties.partitionParallelism != null) {
+      connection.setPartitionParallelism(properties.partitionParallelism);
+      connection.setOriginalPartitionParallelism(properties.partitionParallelism);
+    }
+    connection.setMergePartitionResults(properties.mergePartitionResults);
+    connection.setOriginalMergePartitionResults(properties.mergePartitionResults);
+    connection.setPrefetchResults(properties.prefetchResults);
+    connection.setOriginalPrefetchResults(properties.prefetchResults);
+    if (properties.bulkWriteParallelism != null) {
+      connection.setBulkWriteParallelism(properties.bulkWriteParallelism);
+      connection.setOriginalBulkWriteParallelism(properties.bulkWriteParallelism);
+    }
+    if (properties.maxPartitions != null) {
+      connection.setMaxPartitions(properties.maxPartitions);
+      connection.setOriginalMaxPartitions(properties.maxPartitions);
+    }
+    if (properties.partitionSizeBytes != null) {
+      connection.setPartitionSizeBytes(properties.partitionSizeBytes);
+      connection.setOriginalPartitionSizeBytes(properties.partitionSizeBytes);
+    }
     connection.setUseCustomHost(properties.useCustomHost);
+    if (properties.validationWindow != null)
+      connection.setValidationWindow(properties.validationWindow);
+    if (properties.queryResultCacheTTL != null) {
+      connection.setQueryResultCacheTTL(properties.queryResultCacheTTL);
+      connection.setOriginalQueryResultCacheTTL(properties.queryResultCacheTTL);
+    }
+    if (readTimestampBound != null) {
+      connection.setReadTimestampBound(readTimestampBound);
+      connection.setOriginalReadTimestampBound(readTimestampBound);
+    }
     registerConnection(connection);
 
     return connection;
@@ -215,10 +280,12 @@ public class CloudSpannerDriver implements Driver {
    * @param host The host to connect to. Normally this is https://spanner.googleapis.com, but you
    *        could also use a (local) emulator. If null, no host will be set and the default host of
    *        Google Cloud Spanner will be used.
+   * @param sessionPoolSettings The session pool and channel settings of the connection
    * @return The {@link Spanner} instance to use
    */
-  synchronized Spanner getSpanner(String projectId, Credentials credentials, String host) {
-    SpannerKey key = SpannerKey.of(host, projectId, credentials);
+  synchronized Spanner getSpanner(String projectId, Credentials credentials, String host,
+      SessionPoolSettings sessionPoolSettings) {
+    SpannerKey key = SpannerKey.of(host, projectId, credentials, sessionPoolSettings);
     Spanner spanner = spanners.get(key);
     if (spanner == null) {
       spanner = createSpanner(key);
@@ -237,6 +304,7 @@ public class CloudSpannerDriver implements Driver {
       builder.setCredentials(NoCredentials.getInstance());
     if (key.host != null)
       builder.setHost(key.host);
+    key.sessionPoolSettings.apply(builder);
     SpannerOptions options = builder.build();
     return options.getService();
   }
@@ -320,12 +388,11 @@ public class CloudSpannerDriver implements Driver {
   }
 
   /**
-   * Sets the number of milliseconds that should be used to consider a transaction long-running. If
-   * a log writer has been set for JDBC by calling
+   * Sets the number of milliseconds that should be used to consider a transaction long-running.
+   * Transactions that are running for more than this number of milliseconds are counted by the
+   * {@link TransactionMonitor} of the driver. If a log writer has been set for JDBC by calling
    * {@link DriverManager#setLogWriter(java.io.PrintWriter)} and the log level of the Cloud Spanner
-   * Driver has been set to at least INFO, transactions that are running for more than this number
-   * of milliseconds will log this to the log writer. If the log level of the Cloud Spanner Driver
-   * is set to at least DEBUG, then the driver will also log the stack trace of the call that
+   * Driver is set to at least DEBUG, then the driver will also log the stack trace of the call that
    * started the transaction, making it easier to find the part of your code that is responsible for
    * the long-running transaction.
    * 
@@ -339,6 +406,165 @@ public class CloudSpannerDriver implements Driver {
     }
   }
 
+  /**
+   * 
+   * @return The cache of parsed sql statements that is shared by all connections of this driver
+   */
+  public static ParsedStatementCache getParsedStatementCache() {
+    return parsedStatementCache;
+  }
+
+  /**
+   * Sets the maximum number of parsed sql statements that the driver will cache. The default is
+   * {@link ParsedStatementCache#DEFAULT_MAX_SIZE}. Setting the size to zero disables the cache.
+   * 
+   * @param size The maximum number of parsed statements to cache
+   */
+  public static void setParsedStatementCacheSize(int size) {
+    parsedStatementCache.setMaxSize(size);
+  }
+
+  /**
+   * 
+   * @return The cache of query results that is shared by all connections of this driver
+   */
+  public static QueryResultCache getQueryResultCache() {
+    return queryResultCache;
+  }
+
+  /**
+   * Sets the maximum number of bytes that the driver will use for caching query results. The
+   * default is {@link QueryResultCache#DEFAULT_MAX_BYTES}. The cache is only used by read-only
+   * connections that have set a QueryResultCacheTTL. Setting the size to zero disables the cache.
+   * This value can also be set once with the connection property QueryResultCacheSize.
+   * 
+   * @param bytes The maximum number of bytes of the cached query results
+   */
+  public static void setQueryResultCacheSize(long bytes) {
+    queryResultCache.setMaxBytes(bytes);
+  }
+
+  /**
+   * 
+   * @return The pool of threads that execute the read/write transactions of all connections of this
+   *         driver
+   */
+  public static TransactionThreadPool getTransactionThreadPool() {
+    return transactionThreadPool;
+  }
+
+  /**
+   * Sets the maximum number of read/write transactions that can be active at the same time for all
+   * connections of this driver. Transactions that are started when this maximum has been reached,
+   * will wait until another transaction has finished. The default is
+   * {@link TransactionThreadPool#UNBOUNDED}. The size can also be set once with the connection
+   * property TransactionThreadPoolSize.
+   * 
+   * @param size The maximum number of active read/write transactions, or 0 for unbounded
+   */
+  public static void setTransactionThreadPoolSize(int size) {
+    transactionThreadPool.setMaxSize(size);
+  }
+
+  /**
+   * Applies the TransactionThreadPoolSize of a connection URL. The pool is shared by all
+   * connections of the driver, so a URL may only set the size if it has not been set yet, or if it
+   * specifies the size that is already in effect.
+   */
+  private static void initTransactionThreadPoolSize(int size) throws SQLException {
+    synchronized (transactionThreadPool) {
+      int current = transactionThreadPool.getMaxSize();
+      if (current == TransactionThreadPool.UNBOUNDED) {
+        transactionThreadPool.setMaxSize(size);
+      } else if (current != size) {
+        throw new CloudSpannerSQLException("TransactionThreadPoolSize=" + size
+            + " conflicts with the size of the transaction thread pool of the driver (" + current
+            + "). Use the same value for all connections, or set the size with CloudSpannerDriver.setTransactionThreadPoolSize(int).",
+            Code.INVALID_ARGUMENT);
+      }
+    }
+  }
+
+  /**
+   * Applies the QueryResultCacheSize of a connection URL. The cache is shared by all connections of
+   * the driver, so a URL may only set the size if it has not been changed yet, or if it specifies
+   * the size that is already in effect.
+   */
+  private static void initQueryResultCacheSize(long bytes) throws SQLException {
+    synchronized (queryResultCache) {
+      long current = queryResultCache.getMaxBytes();
+      if (current == QueryResultCache.DEFAULT_MAX_BYTES) {
+        queryResultCache.setMaxBytes(bytes);
+      } else if (current != bytes) {
+        throw new CloudSpannerSQLException("QueryResultCacheSize=" + bytes
+            + " conflicts with the size of the query result cache of the driver (" + current
+            + "). Use the same value for all connections, or set the size with CloudSpannerDriver.setQueryResultCacheSize(long).",
+            Code.INVALID_ARGUMENT);
+      }
+    }
+  }
+
+  /**
+   * 
+   * @return The monitor that keeps the read/write transactions of all connections of this driver
+   *         alive, and that keeps track of idle and long-running transactions
+   */
+  public static TransactionMonitor getTransactionMonitor() {
+    return transactionMonitor;
+  }
+
+  /**
+   * Use virtual threads for read/write transactions. This setting only has effect on JDK 21 and
+   * higher.
+   * 
+   * @param useVirtualThreads true if read/write transactions should be executed on virtual threads
+   */
+  public static void setUseVirtualTransactionThreads(boolean useVirtualThreads) {
+    transactionThreadPool.setUseVirtualThreads(useVirtualThreads);
+  }
+
+  /**
+   * 
+   * @param database The database to get the schema cache for
+   * @return The schema cache that is shared by all connections to the given database
+   */
+  static SchemaCache getSchemaCache(CloudSpannerDatabaseSpecification database) {
+    return schemaCaches.computeIfAbsent(database, key -> {
+      SchemaCache cache = new SchemaCache();
+      cache.setTTL(getSchemaCacheTTL());
+      return cache;
+    });
+  }
+
+  public static synchronized long getSchemaCacheTTL() {
+    return schemaCacheTTL;
+  }
+
+  /**
+   * Sets the maximum number of milliseconds that the driver will cache the schema of a database.
+   * The cached schema is used for translating DML statements into mutations. The cache of a
+   * database is also invalidated when a DDL statement is executed on one of its connections. The
+   * default is 5 minutes.
+   * 
+   * @param ttl The number of milliseconds that a schema may be cached. Only values larger than zero
+   *        are allowed.
+   */
+  public static synchronized void setSchemaCacheTTL(long ttl) {
+    Preconditions.checkArgument(ttl > 0L);
+    schemaCacheTTL = ttl;
+    for (SchemaCache cache : schemaCaches.values())
+      cache.setTTL(ttl);
+  }
+
+  /**
+   * Invalidates the cached schemas of all databases, for example because the schema of a database
+   * has been changed by another application.
+   */
+  public static void invalidateSchemaCaches() {
+    for (SchemaCache cache : schemaCaches.values())
+      cache.invalidate();
+  }
+
   public static void setLogLevel(int logLevel) {
     synchronized (CloudSpannerDriver.class) {
       logger.setLogLevel(logLevel);
@@ -0,0 +1,834 @@
+package nl.topicus.jdbc;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.TimestampBound;
+import com.google.rpc.Code;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+
+/**
+ * The connection handle that is handed out to a client by a {@link CloudSpannerPooledConnection}.
+ * All calls are delegated to the physical connection, except for {@link #close()}, which returns
+ * the physical connection to the pool. Statements that are created by the handle are wrapped in
+ * pooled statements that return the handle as their connection.
+ *
+ * @author loite
+ *
+ */
+class CloudSpannerPooledConnectionHandle implements ICloudSpannerConnection {
+  private final CloudSpannerPooledConnection pooledConnection;
+
+  private Connection con;
+
+  private boolean automatic = false;
+
+  CloudSpannerPooledConnectionHandle(CloudSpannerPooledConnection pooledConnection,
+      Connection con) {
+    this.pooledConnection = pooledConnection;
+    this.con = con;
+  }
+
+  private Connection checkOpen() throws SQLException {
+    Connection res = con;
+    if (res == null || res.isClosed()) {
+      throw new CloudSpannerSQLException(getClosedMessage(), Code.FAILED_PRECONDITION);
+    }
+    return res;
+  }
+
+  /**
+   * The methods of {@link ICloudSpannerConnection} that do not declare a {@link SQLException}
+   * throw an {@link IllegalStateException} if the handle has been closed.
+   */
+  private ICloudSpannerConnection cloudSpannerConnection() {
+    Connection res = con;
+    if (res == null) {
+      throw new IllegalStateException(getClosedMessage());
+    }
+    return (ICloudSpannerConnection) res;
+  }
+
+  private String getClosedMessage() {
+    return automatic
+        ? "Connection has been closed automatically because a new connection was opened for the same PooledConnection or the PooledConnection has been closed."
+        : "Connection has been closed.";
+  }
+
+  /**
+   * Tells the listeners of the pooled connection about the exception if it is fatal.
+   */
+  <E extends SQLException> E connectionError(E e) {
+    pooledConnection.fireConnectionError(e);
+    return e;
+  }
+
+  /**
+   * @return this handle, or <code>null</code> if the handle has been closed
+   */
+  Connection getOpenHandle() {
+    return con == null ? null : this;
+  }
+
+  /**
+   * Closes this handle because a new handle was opened for the same pooled connection or the
+   * pooled connection has been closed. No close event is fired: see JDBC 2.0 Optional Package spec
+   * section 6.3
+   */
+  void closeAutomatically() {
+    if (con != null) {
+      automatic = true;
+    }
+    con = null;
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return con == null || con.isClosed();
+  }
+
+  @Override
+  public void close() throws SQLException {
+    // we are already closed and a double close is not an error.
+    if (con == null) {
+      return;
+    }
+    SQLException ex = null;
+    if (!con.isClosed()) {
+      if (!pooledConnection.isXA() && !con.getAutoCommit()) {
+        try {
+          con.rollback();
+        } catch (SQLException e) {
+          ex = e;
+        }
+      }
+      con.clearWarnings();
+    }
+    con = null;
+    pooledConnection.handleClosed(this);
+    if (ex != null) {
+      throw ex;
+    }
+  }
+
+  @Override
+  public Statement createStatement() throws SQLException {
+    try {
+      return new CloudSpannerPooledStatement(this, checkOpen().createStatement());
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public Statement createStatement(int resultSetType, int resultSetConcurrency)
+      throws SQLException {
+    try {
+      return new CloudSpannerPooledStatement(this,
+          checkOpen().createStatement(resultSetType, resultSetConcurrency));
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public Statement createStatement(int resultSetType, int resultSetConcurrency,
+      int resultSetHoldability) throws SQLException {
+    try {
+      return new CloudSpannerPooledStatement(this, checkOpen().createStatement(resultSetType,
+          resultSetConcurrency, resultSetHoldability));
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql) throws SQLException {
+    try {
+      return new CloudSpannerPooledPreparedStatement(this, checkOpen().prepareStatement(sql));
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int resultSetType,
+      int resultSetConcurrency) throws SQLException {
+    try {
+      return new CloudSpannerPooledPreparedStatement(this,
+          checkOpen().prepareStatement(sql, resultSetType, resultSetConcurrency));
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int resultSetType,
+      int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+    try {
+      return new CloudSpannerPooledPreparedStatement(this, checkOpen().prepareStatement(sql,
+          resultSetType, resultSetConcurrency, resultSetHoldability));
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys)
+      throws SQLException {
+    try {
+      return new CloudSpannerPooledPreparedStatement(this,
+          checkOpen().prepareStatement(sql, autoGeneratedKeys));
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int[] columnIndexes)
+      throws SQLException {
+    try {
+      return new CloudSpannerPooledPreparedStatement(this,
+          checkOpen().prepareStatement(sql, columnIndexes));
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, String[] columnNames)
+      throws SQLException {
+    try {
+      return new CloudSpannerPooledPreparedStatement(this,
+          checkOpen().prepareStatement(sql, columnNames));
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql) throws SQLException {
+    try {
+      return new CloudSpannerPooledCallableStatement(this, checkOpen().prepareCall(sql));
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency)
+      throws SQLException {
+    try {
+      return new CloudSpannerPooledCallableStatement(this,
+          checkOpen().prepareCall(sql, resultSetType, resultSetConcurrency));
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency,
+      int resultSetHoldability) throws SQLException {
+    try {
+      return new CloudSpannerPooledCallableStatement(this, checkOpen().prepareCall(sql,
+          resultSetType, resultSetConcurrency, resultSetHoldability));
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    try {
+      return checkOpen().unwrap(iface);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    try {
+      return checkOpen().isWrapperFor(iface);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public String nativeSQL(String sql) throws SQLException {
+    try {
+      return checkOpen().nativeSQL(sql);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void setAutoCommit(boolean autoCommit) throws SQLException {
+    try {
+      checkOpen().setAutoCommit(autoCommit);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public boolean getAutoCommit() throws SQLException {
+    try {
+      return checkOpen().getAutoCommit();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void commit() throws SQLException {
+    try {
+      checkOpen().commit();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void rollback() throws SQLException {
+    try {
+      checkOpen().rollback();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public DatabaseMetaData getMetaData() throws SQLException {
+    try {
+      return checkOpen().getMetaData();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void setReadOnly(boolean readOnly) throws SQLException {
+    try {
+      checkOpen().setReadOnly(readOnly);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public boolean isReadOnly() throws SQLException {
+    try {
+      return checkOpen().isReadOnly();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void setCatalog(String catalog) throws SQLException {
+    try {
+      checkOpen().setCatalog(catalog);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public String getCatalog() throws SQLException {
+    try {
+      return checkOpen().getCatalog();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void setTransactionIsolation(int level) throws SQLException {
+    try {
+      checkOpen().setTransactionIsolation(level);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public int getTransactionIsolation() throws SQLException {
+    try {
+      return checkOpen().getTransactionIsolation();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    try {
+      return checkOpen().getWarnings();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    try {
+      checkOpen().clearWarnings();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public Map<String, Class<?>> getTypeMap() throws SQLException {
+    try {
+      return checkOpen().getTypeMap();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+    try {
+      checkOpen().setTypeMap(map);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void setHoldability(int holdability) throws SQLException {
+    try {
+      checkOpen().setHoldability(holdability);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public int getHoldability() throws SQLException {
+    try {
+      return checkOpen().getHoldability();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public Savepoint setSavepoint() throws SQLException {
+    try {
+      return checkOpen().setSavepoint();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public Savepoint setSavepoint(String name) throws SQLException {
+    try {
+      return checkOpen().setSavepoint(name);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void rollback(Savepoint savepoint) throws SQLException {
+    try {
+      checkOpen().rollback(savepoint);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+    try {
+      checkOpen().releaseSavepoint(savepoint);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public Clob createClob() throws SQLException {
+    try {
+      return checkOpen().createClob();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public Blob createBlob() throws SQLException {
+    try {
+      return checkOpen().createBlob();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public NClob createNClob() throws SQLException {
+    try {
+      return checkOpen().createNClob();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public SQLXML createSQLXML() throws SQLException {
+    try {
+      return checkOpen().createSQLXML();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public boolean isValid(int timeout) throws SQLException {
+    try {
+      return checkOpen().isValid(timeout);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void setClientInfo(String name, String value) throws SQLClientInfoException {
+    try {
+      cloudSpannerConnection().setClientInfo(name, value);
+    } catch (SQLClientInfoException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void setClientInfo(Properties properties) throws SQLClientInfoException {
+    try {
+      cloudSpannerConnection().setClientInfo(properties);
+    } catch (SQLClientInfoException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public String getClientInfo(String name) throws SQLException {
+    try {
+      return checkOpen().getClientInfo(name);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public Properties getClientInfo() throws SQLException {
+    try {
+      return checkOpen().getClientInfo();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+    try {
+      return checkOpen().createArrayOf(typeName, elements);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+    try {
+      return checkOpen().createStruct(typeName, attributes);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void setSchema(String schema) throws SQLException {
+    try {
+      checkOpen().setSchema(schema);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public String getSchema() throws SQLException {
+    try {
+      return checkOpen().getSchema();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void abort(Executor executor) throws SQLException {
+    try {
+      checkOpen().abort(executor);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+    try {
+      checkOpen().setNetworkTimeout(executor, milliseconds);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public int getNetworkTimeout() throws SQLException {
+    try {
+      return checkOpen().getNetworkTimeout();
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public String getUrl() {
+    return cloudSpannerConnection().getUrl();
+  }
+
+  @Override
+  public String getProductName() {
+    return cloudSpannerConnection().getProductName();
+  }
+
+  @Override
+  public void setSimulateProductName(String productName) {
+    cloudSpannerConnection().setSimulateProductName(productName);
+  }
+
+  @Override
+  public void setSimulateMajorVersion(Integer majorVersion) {
+    cloudSpannerConnection().setSimulateMajorVersion(majorVersion);
+  }
+
+  @Override
+  public void setSimulateMinorVersion(Integer minorVersion) {
+    cloudSpannerConnection().setSimulateMinorVersion(minorVersion);
+  }
+
+  @Override
+  public Properties getSuppliedProperties() {
+    return cloudSpannerConnection().getSuppliedProperties();
+  }
+
+  @Override
+  public boolean isAllowExtendedMode() {
+    return cloudSpannerConnection().isAllowExtendedMode();
+  }
+
+  @Override
+  public int setAllowExtendedMode(boolean allowExtendedMode) {
+    return cloudSpannerConnection().setAllowExtendedMode(allowExtendedMode);
+  }
+
+  @Override
+  public boolean isAsyncDdlOperations() {
+    return cloudSpannerConnection().isAsyncDdlOperations();
+  }
+
+  @Override
+  public int setAsyncDdlOperations(boolean asyncDdlOperations) {
+    return cloudSpannerConnection().setAsyncDdlOperations(asyncDdlOperations);
+  }
+
+  @Override
+  public boolean isAutoBatchDdlOperations() {
+    return cloudSpannerConnection().isAutoBatchDdlOperations();
+  }
+
+  @Override
+  public int setAutoBatchDdlOperations(boolean autoBatchDdlOperations) {
+    return cloudSpannerConnection().setAutoBatchDdlOperations(autoBatchDdlOperations);
+  }
+
+  @Override
+  public boolean isReportDefaultSchemaAsNull() {
+    return cloudSpannerConnection().isReportDefaultSchemaAsNull();
+  }
+
+  @Override
+  public int setReportDefaultSchemaAsNull(boolean reportDefaultSchemaAsNull) {
+    return cloudSpannerConnection().setReportDefaultSchemaAsNull(reportDefaultSchemaAsNull);
+  }
+
+  @Override
+  public String getClientId() {
+    return cloudSpannerConnection().getClientId();
+  }
+
+  @Override
+  public Timestamp getLastCommitTimestamp() {
+    return cloudSpannerConnection().getLastCommitTimestamp();
+  }
+
+  @Override
+  public Timestamp getReadTimestamp() {
+    return cloudSpannerConnection().getReadTimestamp();
+  }
+
+  @Override
+  public boolean isBatchReadOnly() {
+    return cloudSpannerConnection().isBatchReadOnly();
+  }
+
+  @Override
+  public int setBatchReadOnly(boolean batchReadOnly) throws SQLException {
+    try {
+      return ((ICloudSpannerConnection) checkOpen()).setBatchReadOnly(batchReadOnly);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public int getPartitionParallelism() {
+    return cloudSpannerConnection().getPartitionParallelism();
+  }
+
+  @Override
+  public int setPartitionParallelism(int partitionParallelism) {
+    return cloudSpannerConnection().setPartitionParallelism(partitionParallelism);
+  }
+
+  @Override
+  public boolean isMergePartitionResults() {
+    return cloudSpannerConnection().isMergePartitionResults();
+  }
+
+  @Override
+  public int setMergePartitionResults(boolean mergePartitionResults) {
+    return cloudSpannerConnection().setMergePartitionResults(mergePartitionResults);
+  }
+
+  @Override
+  public long getMaxPartitions() {
+    return cloudSpannerConnection().getMaxPartitions();
+  }
+
+  @Override
+  public int setMaxPartitions(long maxPartitions) {
+    return cloudSpannerConnection().setMaxPartitions(maxPartitions);
+  }
+
+  @Override
+  public long getPartitionSizeBytes() {
+    return cloudSpannerConnection().getPartitionSizeBytes();
+  }
+
+  @Override
+  public int setPartitionSizeBytes(long partitionSizeBytes) {
+    return cloudSpannerConnection().setPartitionSizeBytes(partitionSizeBytes);
+  }
+
+  @Override
+  public boolean isPrefetchResults() {
+    return cloudSpannerConnection().isPrefetchResults();
+  }
+
+  @Override
+  public int setPrefetchResults(boolean prefetchResults) {
+    return cloudSpannerConnection().setPrefetchResults(prefetchResults);
+  }
+
+  @Override
+  public int getBulkWriteParallelism() {
+    return cloudSpannerConnection().getBulkWriteParallelism();
+  }
+
+  @Override
+  public int setBulkWriteParallelism(int bulkWriteParallelism) {
+    return cloudSpannerConnection().setBulkWriteParallelism(bulkWriteParallelism);
+  }
+
+  @Override
+  public long getQueryResultCacheTTL() {
+    return cloudSpannerConnection().getQueryResultCacheTTL();
+  }
+
+  @Override
+  public int setQueryResultCacheTTL(long queryResultCacheTTL) {
+    return cloudSpannerConnection().setQueryResultCacheTTL(queryResultCacheTTL);
+  }
+
+  @Override
+  public TimestampBound getReadTimestampBound() {
+    return cloudSpannerConnection().getReadTimestampBound();
+  }
+
+  @Override
+  public String getReadOnlyStaleness() {
+    return cloudSpannerConnection().getReadOnlyStaleness();
+  }
+
+  @Override
+  public int setReadOnlyStaleness(String readOnlyStaleness) throws SQLException {
+    try {
+      return ((ICloudSpannerConnection) checkOpen()).setReadOnlyStaleness(readOnlyStaleness);
+    } catch (SQLException e) {
+      throw connectionError(e);
+    }
+  }
+
+  @Override
+  public boolean isUseCustomHost() {
+    return cloudSpannerConnection().isUseCustomHost();
+  }
+
+  @Override
+  public int getMaxInFlightAsyncStatements() {
+    return cloudSpannerConnection().getMaxInFlightAsyncStatements();
+  }
+
+  @Override
+  public void setMaxInFlightAsyncStatements(int maxInFlightAsyncStatements) {
+    cloudSpannerConnection().setMaxInFlightAsyncStatements(maxInFlightAsyncStatements);
+  }
+
+  @Override
+  public long getValidationWindow() {
+    return cloudSpannerConnection().getValidationWindow();
+  }
+
+  @Override
+  public void setValidationWindow(long validationWindow) {
+    cloudSpannerConnection().setValidationWindow(validationWindow);
+  }
+
+  @Override
+  public String toString() {
+    return "Pooled connection wrapping physical connection " + con;
+  }
+
+}
@@ -0,0 +1,512 @@
+package nl.topicus.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import com.google.rpc.Code;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+
+/**
+ * A statement that is created by a {@link CloudSpannerPooledConnectionHandle}. All calls are
+ * delegated to the physical statement, except for {@link #getConnection()}, which returns the
+ * connection handle instead of the physical connection.
+ *
+ * @author loite
+ *
+ */
+class CloudSpannerPooledStatement implements Statement {
+  private final CloudSpannerPooledConnectionHandle con;
+
+  private Statement st;
+
+  CloudSpannerPooledStatement(CloudSpannerPooledConnectionHandle con, Statement st) {
+    this.con = con;
+    this.st = st;
+  }
+
+  final Statement checkOpen() throws SQLException {
+    Statement res = st;
+    if (res == null || res.isClosed()) {
+      throw new CloudSpannerSQLException("Statement has been closed.", Code.FAILED_PRECONDITION);
+    }
+    return res;
+  }
+
+  /**
+   * Tells the listeners of the pooled connection about the exception if it is fatal.
+   */
+  final SQLException statementError(SQLException e) {
+    return con.connectionError(e);
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return st == null || st.isClosed();
+  }
+
+  @Override
+  public void close() throws SQLException {
+    if (st == null || st.isClosed()) {
+      return;
+    }
+    final Statement oldSt = st;
+    st = null;
+    oldSt.close();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    checkOpen();
+    // the connection handle, not the physical connection
+    return con.getOpenHandle();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    try {
+      return checkOpen().unwrap(iface);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    try {
+      return checkOpen().isWrapperFor(iface);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public ResultSet executeQuery(String sql) throws SQLException {
+    try {
+      return checkOpen().executeQuery(sql);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public int executeUpdate(String sql) throws SQLException {
+    try {
+      return checkOpen().executeUpdate(sql);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public int getMaxFieldSize() throws SQLException {
+    try {
+      return checkOpen().getMaxFieldSize();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public void setMaxFieldSize(int max) throws SQLException {
+    try {
+      checkOpen().setMaxFieldSize(max);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public int getMaxRows() throws SQLException {
+    try {
+      return checkOpen().getMaxRows();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public void setMaxRows(int max) throws SQLException {
+    try {
+      checkOpen().setMaxRows(max);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public void setEscapeProcessing(boolean enable) throws SQLException {
+    try {
+      checkOpen().setEscapeProcessing(enable);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public int getQueryTimeout() throws SQLException {
+    try {
+      return checkOpen().getQueryTimeout();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public void setQueryTimeout(int seconds) throws SQLException {
+    try {
+      checkOpen().setQueryTimeout(seconds);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public void cancel() throws SQLException {
+    try {
+      checkOpen().cancel();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    try {
+      return checkOpen().getWarnings();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    try {
+      checkOpen().clearWarnings();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public void setCursorName(String name) throws SQLException {
+    try {
+      checkOpen().setCursorName(name);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public boolean execute(String sql) throws SQLException {
+    try {
+      return checkOpen().execute(sql);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public ResultSet getResultSet() throws SQLException {
+    try {
+      return checkOpen().getResultSet();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public int getUpdateCount() throws SQLException {
+    try {
+      return checkOpen().getUpdateCount();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public boolean getMoreResults() throws SQLException {
+    try {
+      return checkOpen().getMoreResults();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public void setFetchDirection(int direction) throws SQLException {
+    try {
+      checkOpen().setFetchDirection(direction);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public int getFetchDirection() throws SQLException {
+    try {
+      return checkOpen().getFetchDirection();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public void setFetchSize(int rows) throws SQLException {
+    try {
+      checkOpen().setFetchSize(rows);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public int getFetchSize() throws SQLException {
+    try {
+      return checkOpen().getFetchSize();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public int getResultSetConcurrency() throws SQLException {
+    try {
+      return checkOpen().getResultSetConcurrency();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public int getResultSetType() throws SQLException {
+    try {
+      return checkOpen().getResultSetType();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public void addBatch(String sql) throws SQLException {
+    try {
+      checkOpen().addBatch(sql);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public void clearBatch() throws SQLException {
+    try {
+      checkOpen().clearBatch();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public int[] executeBatch() throws SQLException {
+    try {
+      return checkOpen().executeBatch();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public boolean getMoreResults(int current) throws SQLException {
+    try {
+      return checkOpen().getMoreResults(current);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public ResultSet getGeneratedKeys() throws SQLException {
+    try {
+      return checkOpen().getGeneratedKeys();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+    try {
+      return checkOpen().executeUpdate(sql, autoGeneratedKeys);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+    try {
+      return checkOpen().executeUpdate(sql, columnIndexes);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+    try {
+      return checkOpen().executeUpdate(sql, columnNames);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+    try {
+      return checkOpen().execute(sql, autoGeneratedKeys);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+    try {
+      return checkOpen().execute(sql, columnIndexes);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public boolean execute(String sql, String[] columnNames) throws SQLException {
+    try {
+      return checkOpen().execute(sql, columnNames);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public int getResultSetHoldability() throws SQLException {
+    try {
+      return checkOpen().getResultSetHoldability();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public void setPoolable(boolean poolable) throws SQLException {
+    try {
+      checkOpen().setPoolable(poolable);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public boolean isPoolable() throws SQLException {
+    try {
+      return checkOpen().isPoolable();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public void closeOnCompletion() throws SQLException {
+    try {
+      checkOpen().closeOnCompletion();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public boolean isCloseOnCompletion() throws SQLException {
+    try {
+      return checkOpen().isCloseOnCompletion();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public long getLargeUpdateCount() throws SQLException {
+    try {
+      return checkOpen().getLargeUpdateCount();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public void setLargeMaxRows(long max) throws SQLException {
+    try {
+      checkOpen().setLargeMaxRows(max);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public long getLargeMaxRows() throws SQLException {
+    try {
+      return checkOpen().getLargeMaxRows();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public long[] executeLargeBatch() throws SQLException {
+    try {
+      return checkOpen().executeLargeBatch();
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql) throws SQLException {
+    try {
+      return checkOpen().executeLargeUpdate(sql);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+    try {
+      return checkOpen().executeLargeUpdate(sql, autoGeneratedKeys);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+    try {
+      return checkOpen().executeLargeUpdate(sql, columnIndexes);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+    try {
+      return checkOpen().executeLargeUpdate(sql, columnNames);
+    } catch (SQLException e) {
+      throw statementError(e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Pooled statement wrapping physical statement " + st;
+  }
+
+}
@@ -0,0 +1,395 @@
+package nl.topicus.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+import com.google.common.base.Preconditions;
+import com.google.rpc.Code;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+
+/**
+ * A {@link javax.sql.DataSource} that keeps a pool of physical connections to Google Cloud
+ * Spanner. Connections that are closed by the application are returned to the pool instead of
+ * being closed. Before a connection is returned to the pool, any open transaction is rolled back
+ * and all dynamic connection properties that have been changed by the application are reset to
+ * their original values.
+ *
+ * <p>
+ * Idle connections are kept on a lock-free stack, so that the most recently used connection is
+ * handed out first. An idle connection is only validated with {@link Connection#isValid(int)}
+ * when it has been idle for longer than the validation interval, so that borrowing a connection
+ * that was recently used does not require a round trip to Cloud Spanner.
+ * </p>
+ *
+ * @author loite
+ *
+ */
+public class CloudSpannerPoolingDataSource extends CloudSpannerDataSource
+    implements AutoCloseable {
+  public static final int DEFAULT_MAX_POOL_SIZE = 10;
+
+  public static final long DEFAULT_CONNECTION_TIMEOUT_MILLIS = 30000L;
+
+  public static final long DEFAULT_VALIDATION_INTERVAL_MILLIS = 5000L;
+
+  private int maxPoolSize = DEFAULT_MAX_POOL_SIZE;
+
+  private long connectionTimeout = DEFAULT_CONNECTION_TIMEOUT_MILLIS;
+
+  private long validationInterval = DEFAULT_VALIDATION_INTERVAL_MILLIS;
+
+  private int validationTimeout = 5;
+
+  private boolean defaultAutoCommit = true;
+
+  private final ConcurrentLinkedDeque<PoolEntry> idle = new ConcurrentLinkedDeque<>();
+
+  private volatile Semaphore permits;
+
+  private volatile boolean closed;
+
+  private final AtomicInteger totalCount = new AtomicInteger();
+
+  private final LongAdder borrowCount = new LongAdder();
+
+  private final LongAdder borrowNanos = new LongAdder();
+
+  private final LongAdder waitCount = new LongAdder();
+
+  private final LongAdder waitNanos = new LongAdder();
+
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  private final LongAdder createdCount = new LongAdder();
+
+  private final LongAdder destroyedCount = new LongAdder();
+
+  private final LongAdder validationFailureCount = new LongAdder();
+
+  private final LongAdder timeoutCount = new LongAdder();
+
+  /**
+   * A physical connection of the pool. The entry listens to the close events of the connection
+   * handles that are handed out to the application.
+   */
+  private final class PoolEntry implements ConnectionEventListener {
+    private final CloudSpannerConnection connection;
+
+    private final CloudSpannerPooledConnection pooledConnection;
+
+    private long lastUsed = System.nanoTime();
+
+    private volatile boolean borrowed;
+
+    private PoolEntry(CloudSpannerConnection connection) {
+      this.connection = connection;
+      this.pooledConnection = new CloudSpannerPooledConnection(connection, defaultAutoCommit);
+      this.pooledConnection.addConnectionEventListener(this);
+    }
+
+    @Override
+    public void connectionClosed(ConnectionEvent event) {
+      returnEntry(this);
+    }
+
+    @Override
+    public void connectionErrorOccurred(ConnectionEvent event) {
+      destroyEntry(this);
+      // The permit of an entry that failed while being borrowed is released by getConnection()
+      if (borrowed)
+        getPermits().release();
+    }
+  }
+
+  private Semaphore getPermits() {
+    Semaphore res = permits;
+    if (res == null) {
+      synchronized (this) {
+        res = permits;
+        if (res == null) {
+          res = new Semaphore(maxPoolSize, true);
+          permits = res;
+        }
+      }
+    }
+    return res;
+  }
+
+  /**
+   * Borrows a connection from the pool. If no idle connection is available and the pool has not
+   * reached its maximum size, a new physical connection is opened. Otherwise the call waits until
+   * a connection is returned to the pool or the connection timeout has elapsed.
+   */
+  @Override
+  public Connection getConnection() throws SQLException {
+    checkClosed();
+    long start = System.nanoTime();
+    Semaphore semaphore = getPermits();
+    if (!semaphore.tryAcquire()) {
+      waitCount.increment();
+      boolean acquired;
+      try {
+        acquired = semaphore.tryAcquire(connectionTimeout, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CloudSpannerSQLException("Interrupted while waiting for a connection",
+            Code.CANCELLED, e);
+      }
+      long waited = System.nanoTime() - start;
+      waitNanos.add(waited);
+      maxWaitNanos.accumulateAndGet(waited, Math::max);
+      if (!acquired) {
+        timeoutCount.increment();
+        throw new CloudSpannerSQLException("Timeout while waiting for a connection from the pool",
+            Code.DEADLINE_EXCEEDED);
+      }
+    }
+    try {
+      PoolEntry entry = takeEntry();
+      Connection res = entry.pooledConnection.getConnection();
+      entry.borrowed = true;
+      borrowCount.increment();
+      borrowNanos.add(System.nanoTime() - start);
+      return res;
+    } catch (SQLException | RuntimeException e) {
+      semaphore.release();
+      throw e;
+    }
+  }
+
+  private PoolEntry takeEntry() throws SQLException {
+    PoolEntry entry;
+    while ((entry = idle.pollFirst()) != null) {
+      if (isUsable(entry))
+        return entry;
+      validationFailureCount.increment();
+      destroyEntry(entry);
+    }
+    CloudSpannerConnection connection = (CloudSpannerConnection) super.getConnection();
+    createdCount.increment();
+    totalCount.incrementAndGet();
+    return new PoolEntry(connection);
+  }
+
+  private boolean isUsable(PoolEntry entry) {
+    try {
+      if (entry.connection.isClosed())
+        return false;
+      if (System.nanoTime() - entry.lastUsed < TimeUnit.MILLISECONDS.toNanos(validationInterval))
+        return true;
+      return entry.connection.isValid(validationTimeout);
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private void returnEntry(PoolEntry entry) {
+    entry.borrowed = false;
+    try {
+      if (closed || entry.connection.isClosed()) {
+        destroyEntry(entry);
+        return;
+      }
+      entry.connection.resetDynamicConnectionProperties();
+      if (entry.connection.isReadOnly())
+        entry.connection.setReadOnly(false);
+      entry.lastUsed = System.nanoTime();
+      idle.offerFirst(entry);
+      // The pool may have been closed while the entry was being returned
+      if (closed && idle.remove(entry))
+        destroyEntry(entry);
+    } catch (SQLException | RuntimeException e) {
+      destroyEntry(entry);
+    } finally {
+      getPermits().release();
+    }
+  }
+
+  private void destroyEntry(PoolEntry entry) {
+    entry.pooledConnection.removeConnectionEventListener(entry);
+    try {
+      entry.pooledConnection.close();
+    } catch (SQLException | RuntimeException e) {
+      // ignore, the connection is discarded
+    }
+    totalCount.decrementAndGet();
+    destroyedCount.increment();
+  }
+
+  private void checkClosed() throws SQLException {
+    if (closed)
+      throw new CloudSpannerSQLException("This data source has been closed",
+          Code.FAILED_PRECONDITION);
+  }
+
+  /**
+   * Closes all idle connections of the pool. Connections that are in use are closed when they are
+   * returned to the pool.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    PoolEntry entry;
+    while ((entry = idle.pollFirst()) != null)
+      destroyEntry(entry);
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  public int getMaxPoolSize() {
+    return maxPoolSize;
+  }
+
+  /**
+   * Sets the maximum number of physical connections of the pool. This value can only be set before
+   * the first connection is requested.
+   *
+   * @param maxPoolSize The maximum number of connections
+   */
+  public synchronized void setMaxPoolSize(int maxPoolSize) {
+    Preconditions.checkArgument(maxPoolSize > 0, "Max pool size must be larger than 0");
+    Preconditions.checkState(permits == null,
+        "The max pool size cannot be changed after the pool has been started");
+    this.maxPoolSize = maxPoolSize;
+  }
+
+  public long getConnectionTimeout() {
+    return connectionTimeout;
+  }
+
+  /**
+   * @param connectionTimeout The maximum number of milliseconds that a call to
+   *        {@link #getConnection()} will wait for a connection to become available
+   */
+  public void setConnectionTimeout(long connectionTimeout) {
+    Preconditions.checkArgument(connectionTimeout >= 0L,
+        "Connection timeout may not be negative");
+    this.connectionTimeout = connectionTimeout;
+  }
+
+  public long getValidationInterval() {
+    return validationInterval;
+  }
+
+  /**
+   * @param validationInterval The number of milliseconds that a connection may be idle before it
+   *        is validated with {@link Connection#isValid(int)} when it is borrowed from the pool
+   */
+  public void setValidationInterval(long validationInterval) {
+    Preconditions.checkArgument(validationInterval >= 0L,
+        "Validation interval may not be negative");
+    this.validationInterval = validationInterval;
+  }
+
+  public int getValidationTimeout() {
+    return validationTimeout;
+  }
+
+  /**
+   * @param validationTimeout The timeout in seconds of the validation of an idle connection
+   */
+  public void setValidationTimeout(int validationTimeout) {
+    Preconditions.checkArgument(validationTimeout >= 0, "Validation timeout may not be negative");
+    this.validationTimeout = validationTimeout;
+  }
+
+  public boolean isDefaultAutoCommit() {
+    return defaultAutoCommit;
+  }
+
+  /**
+   * @param defaultAutoCommit The autocommit mode of the connections that are handed out by this
+   *        pool
+   */
+  public void setDefaultAutoCommit(boolean defaultAutoCommit) {
+    this.defaultAutoCommit = defaultAutoCommit;
+  }
+
+  /**
+   * @return The number of physical connections in the pool, both idle and in use
+   */
+  public int getTotalCount() {
+    return totalCount.get();
+  }
+
+  /**
+   * @return The number of idle connections in the pool
+   */
+  public int getIdleCount() {
+    return idle.size();
+  }
+
+  /**
+   * @return The number of connections that are currently in use by the application
+   */
+  public int getActiveCount() {
+    return permits == null ? 0 : maxPoolSize - permits.availablePermits();
+  }
+
+  /**
+   * @return The number of threads that are waiting for a connection
+   */
+  public int getWaitingCount() {
+    return permits == null ? 0 : permits.getQueueLength();
+  }
+
+  public long getBorrowCount() {
+    return borrowCount.sum();
+  }
+
+  /**
+   * @return The average time in microseconds that it took to borrow a connection, including the
+   *         time waiting for a connection and opening new connections
+   */
+  public long getAverageBorrowMicros() {
+    long count = borrowCount.sum();
+    return count == 0L ? 0L : TimeUnit.NANOSECONDS.toMicros(borrowNanos.sum() / count);
+  }
+
+  /**
+   * @return The number of times that a thread had to wait for a connection to become available
+   */
+  public long getWaitCount() {
+    return waitCount.sum();
+  }
+
+  /**
+   * @return The total time in milliseconds that threads have waited for a connection
+   */
+  public long getTotalWaitMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(waitNanos.sum());
+  }
+
+  /**
+   * @return The longest time in milliseconds that a thread has waited for a connection
+   */
+  public long getMaxWaitMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+  }
+
+  public long getTimeoutCount() {
+    return timeoutCount.sum();
+  }
+
+  public long getCreatedCount() {
+    return createdCount.sum();
+  }
+
+  public long getDestroyedCount() {
+    return destroyedCount.sum();
+  }
+
+  public long getValidationFailureCount() {
+    return validationFailureCount.sum();
+  }
+
+}
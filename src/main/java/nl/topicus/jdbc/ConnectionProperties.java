@@ -3,11 +3,16 @@ package nl.topicus.jdbc;
 import java.sql.DriverPropertyInfo;
 import java.sql.SQLException;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.TimestampBound;
 import com.google.rpc.Code;
 import nl.topicus.jdbc.exception.CloudSpannerSQLException;
 
 final class ConnectionProperties {
-  public static final int NUMBER_OF_PROPERTIES = 14;
+  public static final int NUMBER_OF_PROPERTIES = 31;
 
   static String getPropertyName(String propertyPart) {
     return propertyPart.substring(0, propertyPart.length() - 1);
@@ -33,6 +38,30 @@ final class ConnectionProperties {
   static final String REPORT_DEFAULT_SCHEMA_AS_NULL = "ReportDefaultSchemaAsNull=";
   static final String BATCH_READ_ONLY_MODE = "BatchReadOnlyMode=";
   static final String USE_CUSTOM_HOST = "UseCustomHost=";
+  static final String TRANSACTION_THREAD_POOL_SIZE = "TransactionThreadPoolSize=";
+  static final String PARTITION_PARALLELISM = "PartitionParallelism=";
+  static final String MERGE_PARTITION_RESULTS = "MergePartitionResults=";
+  static final String MAX_PARTITIONS = "MaxPartitions=";
+  static final String PARTITION_SIZE_BYTES = "PartitionSizeBytes=";
+  static final String PREFETCH_RESULTS = "PrefetchResults=";
+  static final String BULK_WRITE_PARALLELISM = "BulkWriteParallelism=";
+  static final String QUERY_RESULT_CACHE_SIZE = "QueryResultCacheSize=";
+  static final String QUERY_RESULT_CACHE_TTL = "QueryResultCacheTTL=";
+  static final String READ_ONLY_STALENESS = "ReadOnlyStaleness=";
+  static final String MIN_SESSIONS = "MinSessions=";
+  static final String MAX_SESSIONS = "MaxSessions=";
+  static final String MAX_IDLE_SESSIONS = "MaxIdleSessions=";
+  static final String WRITE_SESSIONS_FRACTION = "WriteSessionsFraction=";
+  static final String KEEP_ALIVE_INTERVAL_MINUTES = "KeepAliveIntervalMinutes=";
+  static final String NUM_CHANNELS = "NumChannels=";
+  static final String VALIDATION_WINDOW = "ValidationWindow=";
+
+  private static final Pattern STALENESS_PATTERN =
+      Pattern.compile("(?is)\\s*(STRONG|EXACT_STALENESS|MAX_STALENESS|READ_TIMESTAMP"
+          + "|MIN_READ_TIMESTAMP)\\s*(.*?)\\s*");
+
+  private static final Pattern DURATION_PATTERN =
+      Pattern.compile("(?i)(\\d{1,18})\\s*(s|ms|us|ns)");
 
   String project = null;
   String instance = null;
@@ -48,6 +77,23 @@ final class ConnectionProperties {
   boolean reportDefaultSchemaAsNull = true;
   boolean batchReadOnlyMode = false;
   boolean useCustomHost = false;
+  Integer transactionThreadPoolSize = null;
+  Integer partitionParallelism = null;
+  boolean mergePartitionResults = false;
+  Long maxPartitions = null;
+  Long partitionSizeBytes = null;
+  boolean prefetchResults = false;
+  Integer bulkWriteParallelism = null;
+  Long queryResultCacheSize = null;
+  Long queryResultCacheTTL = null;
+  String readOnlyStaleness = null;
+  Integer minSessions = null;
+  Integer maxSessions = null;
+  Integer maxIdleSessions = null;
+  Float writeSessionsFraction = null;
+  Integer keepAliveIntervalMinutes = null;
+  Integer numChannels = null;
+  Long validationWindow = null;
 
   static ConnectionProperties parse(String url) throws SQLException {
     ConnectionProperties res = new ConnectionProperties();
@@ -91,6 +137,47 @@ final class ConnectionProperties {
           res.batchReadOnlyMode = Boolean.valueOf(conPart.substring(BATCH_READ_ONLY_MODE.length()));
         else if (conPartLower.startsWith(USE_CUSTOM_HOST.toLowerCase()))
           res.useCustomHost = Boolean.valueOf(conPart.substring(USE_CUSTOM_HOST.length()));
+        else if (conPartLower.startsWith(TRANSACTION_THREAD_POOL_SIZE.toLowerCase()))
+          res.transactionThreadPoolSize =
+              parseInteger(conPart.substring(TRANSACTION_THREAD_POOL_SIZE.length()));
+        else if (conPartLower.startsWith(PARTITION_PARALLELISM.toLowerCase()))
+          res.partitionParallelism =
+              parseInteger(conPart.substring(PARTITION_PARALLELISM.length()));
+        else if (conPartLower.startsWith(MERGE_PARTITION_RESULTS.toLowerCase()))
+          res.mergePartitionResults =
+              Boolean.valueOf(conPart.substring(MERGE_PARTITION_RESULTS.length()));
+        else if (conPartLower.startsWith(MAX_PARTITIONS.toLowerCase()))
+          res.maxPartitions = parseLong(conPart.substring(MAX_PARTITIONS.length()));
+        else if (conPartLower.startsWith(PARTITION_SIZE_BYTES.toLowerCase()))
+          res.partitionSizeBytes = parseLong(conPart.substring(PARTITION_SIZE_BYTES.length()));
+        else if (conPartLower.startsWith(PREFETCH_RESULTS.toLowerCase()))
+          res.prefetchResults = Boolean.valueOf(conPart.substring(PREFETCH_RESULTS.length()));
+        else if (conPartLower.startsWith(BULK_WRITE_PARALLELISM.toLowerCase()))
+          res.bulkWriteParallelism =
+              parseInteger(conPart.substring(BULK_WRITE_PARALLELISM.length()));
+        else if (conPartLower.startsWith(QUERY_RESULT_CACHE_SIZE.toLowerCase()))
+          res.queryResultCacheSize =
+              parseLong(conPart.substring(QUERY_RESULT_CACHE_SIZE.length()));
+        else if (conPartLower.startsWith(QUERY_RESULT_CACHE_TTL.toLowerCase()))
+          res.queryResultCacheTTL = parseLong(conPart.substring(QUERY_RESULT_CACHE_TTL.length()));
+        else if (conPartLower.startsWith(READ_ONLY_STALENESS.toLowerCase()))
+          res.readOnlyStaleness = conPart.substring(READ_ONLY_STALENESS.length());
+        else if (conPartLower.startsWith(MIN_SESSIONS.toLowerCase()))
+          res.minSessions = parseInteger(conPart.substring(MIN_SESSIONS.length()));
+        else if (conPartLower.startsWith(MAX_SESSIONS.toLowerCase()))
+          res.maxSessions = parseInteger(conPart.substring(MAX_SESSIONS.length()));
+        else if (conPartLower.startsWith(MAX_IDLE_SESSIONS.toLowerCase()))
+          res.maxIdleSessions = parseInteger(conPart.substring(MAX_IDLE_SESSIONS.length()));
+        else if (conPartLower.startsWith(WRITE_SESSIONS_FRACTION.toLowerCase()))
+          res.writeSessionsFraction =
+              parseFloat(conPart.substring(WRITE_SESSIONS_FRACTION.length()));
+        else if (conPartLower.startsWith(KEEP_ALIVE_INTERVAL_MINUTES.toLowerCase()))
+          res.keepAliveIntervalMinutes =
+              parseInteger(conPart.substring(KEEP_ALIVE_INTERVAL_MINUTES.length()));
+        else if (conPartLower.startsWith(NUM_CHANNELS.toLowerCase()))
+          res.numChannels = parseInteger(conPart.substring(NUM_CHANNELS.length()));
+        else if (conPartLower.startsWith(VALIDATION_WINDOW.toLowerCase()))
+          res.validationWindow = parseLong(conPart.substring(VALIDATION_WINDOW.length()));
         else
           throw new CloudSpannerSQLException("Unknown URL parameter " + conPart,
               Code.INVALID_ARGUMENT);
@@ -107,7 +194,111 @@ final class ConnectionProperties {
     }
   }
 
-  private static String defaultString(Integer val) {
+  private static Long parseLong(String val) {
+    try {
+      return Long.valueOf(val);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static Float parseFloat(String val) {
+    try {
+      return Float.valueOf(val);
+    } catch (NumberFormatException | NullPointerException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Parses a timestamp bound for read-only queries and transactions. Valid values are
+   * <code>STRONG</code>, <code>EXACT_STALENESS &lt;duration&gt;</code>,
+   * <code>MAX_STALENESS &lt;duration&gt;</code>, <code>READ_TIMESTAMP &lt;timestamp&gt;</code> and
+   * <code>MIN_READ_TIMESTAMP &lt;timestamp&gt;</code>. A duration is a number followed by one of
+   * the units s, ms, us or ns, and a timestamp is in RFC 3339 format, for example
+   * <code>MAX_STALENESS 10s</code> or <code>READ_TIMESTAMP 2018-01-01T10:00:00Z</code>.
+   * 
+   * @param value The value to parse
+   * @return The timestamp bound
+   * @throws SQLException if the value is not a valid timestamp bound
+   */
+  static TimestampBound parseTimestampBound(String value) throws SQLException {
+    Matcher matcher = value == null ? null : STALENESS_PATTERN.matcher(value);
+    if (matcher != null && matcher.matches()) {
+      String mode = matcher.group(1).toUpperCase();
+      String argument = matcher.group(2);
+      try {
+        switch (mode) {
+          case "STRONG":
+            if (argument.isEmpty())
+              return TimestampBound.strong();
+            break;
+          case "READ_TIMESTAMP":
+            return TimestampBound.ofReadTimestamp(Timestamp.parseTimestamp(argument));
+          case "MIN_READ_TIMESTAMP":
+            return TimestampBound.ofMinReadTimestamp(Timestamp.parseTimestamp(argument));
+          default:
+            Matcher duration = DURATION_PATTERN.matcher(argument);
+            if (duration.matches()) {
+              long num = Long.parseLong(duration.group(1));
+              TimeUnit unit = parseTimeUnit(duration.group(2));
+              return mode.equals("EXACT_STALENESS") ? TimestampBound.ofExactStaleness(num, unit)
+                  : TimestampBound.ofMaxStaleness(num, unit);
+            }
+        }
+      } catch (RuntimeException e) {
+        throw new CloudSpannerSQLException("Invalid read-only staleness: " + value,
+            Code.INVALID_ARGUMENT, e);
+      }
+    }
+    throw new CloudSpannerSQLException("Invalid read-only staleness: " + value,
+        Code.INVALID_ARGUMENT);
+  }
+
+  private static TimeUnit parseTimeUnit(String unit) {
+    switch (unit.toLowerCase()) {
+      case "s":
+        return TimeUnit.SECONDS;
+      case "ms":
+        return TimeUnit.MILLISECONDS;
+      case "us":
+        return TimeUnit.MICROSECONDS;
+      default:
+        return TimeUnit.NANOSECONDS;
+    }
+  }
+
+  /**
+   * @param bound The timestamp bound to format
+   * @return The timestamp bound in the format that is accepted by
+   *         {@link #parseTimestampBound(String)}
+   */
+  static String formatTimestampBound(TimestampBound bound) {
+    switch (bound.getMode()) {
+      case READ_TIMESTAMP:
+        return "READ_TIMESTAMP " + bound.getReadTimestamp();
+      case MIN_READ_TIMESTAMP:
+        return "MIN_READ_TIMESTAMP " + bound.getMinReadTimestamp();
+      case EXACT_STALENESS:
+        return "EXACT_STALENESS " + formatDuration(bound.getExactStaleness(TimeUnit.NANOSECONDS));
+      case MAX_STALENESS:
+        return "MAX_STALENESS " + formatDuration(bound.getMaxStaleness(TimeUnit.NANOSECONDS));
+      default:
+        return "STRONG";
+    }
+  }
+
+  private static String formatDuration(long nanos) {
+    if (nanos % 1000000000L == 0L)
+      return (nanos / 1000000000L) + "s";
+    if (nanos % 1000000L == 0L)
+      return (nanos / 1000000L) + "ms";
+    if (nanos % 1000L == 0L)
+      return (nanos / 1000L) + "us";
+    return nanos + "ns";
+  }
+
+  private static String defaultString(Number val) {
     return val == null ? null : val.toString();
   }
 
@@ -163,6 +354,59 @@ final class ConnectionProperties {
       useCustomHost = Boolean.valueOf(lowerCaseInfo.getProperty(
           USE_CUSTOM_HOST.substring(0, USE_CUSTOM_HOST.length() - 1).toLowerCase(),
           String.valueOf(useCustomHost)));
+      transactionThreadPoolSize = parseInteger(lowerCaseInfo.getProperty(
+          TRANSACTION_THREAD_POOL_SIZE.substring(0, TRANSACTION_THREAD_POOL_SIZE.length() - 1)
+              .toLowerCase(),
+          defaultString(transactionThreadPoolSize)));
+      partitionParallelism = parseInteger(lowerCaseInfo.getProperty(
+          PARTITION_PARALLELISM.substring(0, PARTITION_PARALLELISM.length() - 1).toLowerCase(),
+          defaultString(partitionParallelism)));
+      mergePartitionResults = Boolean.valueOf(lowerCaseInfo.getProperty(
+          MERGE_PARTITION_RESULTS.substring(0, MERGE_PARTITION_RESULTS.length() - 1).toLowerCase(),
+          String.valueOf(mergePartitionResults)));
+      maxPartitions = parseLong(lowerCaseInfo.getProperty(
+          MAX_PARTITIONS.substring(0, MAX_PARTITIONS.length() - 1).toLowerCase(),
+          defaultString(maxPartitions)));
+      partitionSizeBytes = parseLong(lowerCaseInfo.getProperty(
+          PARTITION_SIZE_BYTES.substring(0, PARTITION_SIZE_BYTES.length() - 1).toLowerCase(),
+          defaultString(partitionSizeBytes)));
+      prefetchResults = Boolean.valueOf(lowerCaseInfo.getProperty(
+          PREFETCH_RESULTS.substring(0, PREFETCH_RESULTS.length() - 1).toLowerCase(),
+          String.valueOf(prefetchResults)));
+      bulkWriteParallelism = parseInteger(lowerCaseInfo.getProperty(
+          BULK_WRITE_PARALLELISM.substring(0, BULK_WRITE_PARALLELISM.length() - 1).toLowerCase(),
+          defaultString(bulkWriteParallelism)));
+      queryResultCacheSize = parseLong(lowerCaseInfo.getProperty(
+          QUERY_RESULT_CACHE_SIZE.substring(0, QUERY_RESULT_CACHE_SIZE.length() - 1).toLowerCase(),
+          defaultString(queryResultCacheSize)));
+      queryResultCacheTTL = parseLong(lowerCaseInfo.getProperty(
+          QUERY_RESULT_CACHE_TTL.substring(0, QUERY_RESULT_CACHE_TTL.length() - 1).toLowerCase(),
+          defaultString(queryResultCacheTTL)));
+      readOnlyStaleness = lowerCaseInfo.getProperty(
+          READ_ONLY_STALENESS.substring(0, READ_ONLY_STALENESS.length() - 1).toLowerCase(),
+          readOnlyStaleness);
+      minSessions = parseInteger(lowerCaseInfo.getProperty(
+          MIN_SESSIONS.substring(0, MIN_SESSIONS.length() - 1).toLowerCase(),
+          defaultString(minSessions)));
+      maxSessions = parseInteger(lowerCaseInfo.getProperty(
+          MAX_SESSIONS.substring(0, MAX_SESSIONS.length() - 1).toLowerCase(),
+          defaultString(maxSessions)));
+      maxIdleSessions = parseInteger(lowerCaseInfo.getProperty(
+          MAX_IDLE_SESSIONS.substring(0, MAX_IDLE_SESSIONS.length() - 1).toLowerCase(),
+          defaultString(maxIdleSessions)));
+      writeSessionsFraction = parseFloat(lowerCaseInfo.getProperty(
+          WRITE_SESSIONS_FRACTION.substring(0, WRITE_SESSIONS_FRACTION.length() - 1).toLowerCase(),
+          defaultString(writeSessionsFraction)));
+      keepAliveIntervalMinutes = parseInteger(lowerCaseInfo.getProperty(
+          KEEP_ALIVE_INTERVAL_MINUTES.substring(0, KEEP_ALIVE_INTERVAL_MINUTES.length() - 1)
+              .toLowerCase(),
+          defaultString(keepAliveIntervalMinutes)));
+      numChannels = parseInteger(lowerCaseInfo.getProperty(
+          NUM_CHANNELS.substring(0, NUM_CHANNELS.length() - 1).toLowerCase(),
+          defaultString(numChannels)));
+      validationWindow = parseLong(lowerCaseInfo.getProperty(
+          VALIDATION_WINDOW.substring(0, VALIDATION_WINDOW.length() - 1).toLowerCase(),
+          defaultString(validationWindow)));
       if (!CloudSpannerDriver.logLevelSet)
         CloudSpannerDriver.setLogLevel(CloudSpannerDriver.OFF);
     }
@@ -230,6 +474,84 @@ final class ConnectionProperties {
         String.valueOf(useCustomHost));
     res[13].description =
         "Connect to a custom host instead of https://spanner.googleapis.com. This enables the use of a local emulator instead of Google Cloud Spanner";
+    res[14] = new DriverPropertyInfo(
+        TRANSACTION_THREAD_POOL_SIZE.substring(0, TRANSACTION_THREAD_POOL_SIZE.length() - 1),
+        defaultString(transactionThreadPoolSize));
+    res[14].description =
+        "The maximum number of read/write transactions that can be active at the same time for all connections of the driver. Transactions that are started when the maximum has been reached will wait until another transaction has finished. The default (0) is unbounded. This is a driver-wide setting, and the last value that is set by any connection is used.";
+    res[15] = new DriverPropertyInfo(
+        PARTITION_PARALLELISM.substring(0, PARTITION_PARALLELISM.length() - 1),
+        defaultString(partitionParallelism));
+    res[15].description =
+        "The number of partitions of a query in batch-read-only-mode that are executed at the same time. The rows of these partitions are fetched in the background before they are read. The default (0) executes each partition when the application moves to its result set.";
+    res[16] = new DriverPropertyInfo(
+        MERGE_PARTITION_RESULTS.substring(0, MERGE_PARTITION_RESULTS.length() - 1),
+        String.valueOf(mergePartitionResults));
+    res[16].description =
+        "Return the rows of all partitions of a query in batch-read-only-mode in one result set instead of one result set per partition. Only used when PartitionParallelism is larger than 0. The rows of the merged result set are returned in no particular order.";
+    res[17] = new DriverPropertyInfo(MAX_PARTITIONS.substring(0, MAX_PARTITIONS.length() - 1),
+        defaultString(maxPartitions));
+    res[17].description =
+        "The desired maximum number of partitions of a query in batch-read-only-mode. This is only a hint for Cloud Spanner, the actual number of partitions may differ. The default (0) lets Cloud Spanner decide.";
+    res[18] = new DriverPropertyInfo(
+        PARTITION_SIZE_BYTES.substring(0, PARTITION_SIZE_BYTES.length() - 1),
+        defaultString(partitionSizeBytes));
+    res[18].description =
+        "The desired data size in bytes of each partition of a query in batch-read-only-mode. This is only a hint for Cloud Spanner, the actual size of a partition may differ. The default (0) lets Cloud Spanner decide.";
+    res[19] = new DriverPropertyInfo(PREFETCH_RESULTS.substring(0, PREFETCH_RESULTS.length() - 1),
+        String.valueOf(prefetchResults));
+    res[19].description =
+        "Read the rows of queries on a background thread in chunks of the fetch size of the statement, so that reading rows from Cloud Spanner overlaps with processing the rows in the application.";
+    res[20] = new DriverPropertyInfo(
+        BULK_WRITE_PARALLELISM.substring(0, BULK_WRITE_PARALLELISM.length() - 1),
+        defaultString(bulkWriteParallelism));
+    res[20].description =
+        "The number of transactions that write the rows of a bulk INSERT ... SELECT or DELETE statement in extended mode at the same time, each on its own connection. The rows are read from the source query while the transactions are being written. The default (0) reads and writes all rows on one connection.";
+    res[21] = new DriverPropertyInfo(
+        QUERY_RESULT_CACHE_SIZE.substring(0, QUERY_RESULT_CACHE_SIZE.length() - 1),
+        defaultString(queryResultCacheSize));
+    res[21].description =
+        "The maximum number of bytes that the driver uses for caching the results of queries on read-only connections. The cached rows are stored outside the Java heap. The default is 64MB. This is a driver-wide setting that can only be set once. Connections that specify a different value are rejected.";
+    res[22] = new DriverPropertyInfo(
+        QUERY_RESULT_CACHE_TTL.substring(0, QUERY_RESULT_CACHE_TTL.length() - 1),
+        defaultString(queryResultCacheTTL));
+    res[22].description =
+        "The number of milliseconds that the result of a query on a read-only connection in autocommit mode may be served from the query result cache of the driver. Queries with the same sql string and parameter values that are executed within this time will return the cached result, which may be stale. The default (0) does not use the cache.";
+    res[23] = new DriverPropertyInfo(
+        READ_ONLY_STALENESS.substring(0, READ_ONLY_STALENESS.length() - 1), readOnlyStaleness);
+    res[23].description =
+        "The timestamp bound of queries in autocommit mode and of read-only and batch read-only transactions. Stale reads can be served by any replica of the database. Valid values are STRONG (default), EXACT_STALENESS <duration>, MAX_STALENESS <duration>, READ_TIMESTAMP <timestamp> and MIN_READ_TIMESTAMP <timestamp>, where a duration is a number followed by s, ms, us or ns (for example 10s), and a timestamp is in RFC 3339 format. MAX_STALENESS and MIN_READ_TIMESTAMP can only be used in autocommit mode.";
+    res[24] = new DriverPropertyInfo(MIN_SESSIONS.substring(0, MIN_SESSIONS.length() - 1),
+        defaultString(minSessions));
+    res[24].description =
+        "The minimum number of sessions in the session pool of the database. These sessions are created in the background when the first connection to the database is opened, so that the first transactions do not have to wait for new sessions to be created. Connections with different session pool settings use different Spanner instances.";
+    res[25] = new DriverPropertyInfo(MAX_SESSIONS.substring(0, MAX_SESSIONS.length() - 1),
+        defaultString(maxSessions));
+    res[25].description =
+        "The maximum number of sessions in the session pool of the database. Transactions that need a session when the maximum has been reached will wait until a session is returned to the pool.";
+    res[26] = new DriverPropertyInfo(
+        MAX_IDLE_SESSIONS.substring(0, MAX_IDLE_SESSIONS.length() - 1),
+        defaultString(maxIdleSessions));
+    res[26].description =
+        "The number of idle sessions above MinSessions that are kept in the session pool instead of being closed.";
+    res[27] = new DriverPropertyInfo(
+        WRITE_SESSIONS_FRACTION.substring(0, WRITE_SESSIONS_FRACTION.length() - 1),
+        defaultString(writeSessionsFraction));
+    res[27].description =
+        "The fraction (0.0-1.0) of the sessions in the session pool that are prepared for read/write transactions.";
+    res[28] = new DriverPropertyInfo(
+        KEEP_ALIVE_INTERVAL_MINUTES.substring(0, KEEP_ALIVE_INTERVAL_MINUTES.length() - 1),
+        defaultString(keepAliveIntervalMinutes));
+    res[28].description =
+        "The number of minutes between keep-alive requests for idle sessions in the session pool.";
+    res[29] = new DriverPropertyInfo(NUM_CHANNELS.substring(0, NUM_CHANNELS.length() - 1),
+        defaultString(numChannels));
+    res[29].description = "The number of gRPC channels that are used to connect to Cloud Spanner.";
+    res[30] = new DriverPropertyInfo(
+        VALIDATION_WINDOW.substring(0, VALIDATION_WINDOW.length() - 1),
+        defaultString(validationWindow));
+    res[30].description =
+        "The number of milliseconds after the last successful request to Cloud Spanner during which Connection.isValid(int) only checks the local state of the connection instead of executing a query on Cloud Spanner. The default (0) always executes a query.";
 
     return res;
   }
@@ -6,7 +6,11 @@ import java.io.StringReader;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 import com.google.rpc.Code;
 import nl.topicus.jdbc.exception.CloudSpannerSQLException;
@@ -215,8 +219,14 @@ class DDLStatement {
   }
 
   boolean shouldExecute(CloudSpannerConnection connection) throws SQLException {
-    if (getExistsStatement() == null || getExistsStatement() == ExistsStatement.NONE)
+    if (!hasExistsStatement())
       return true;
+    return getExistsStatement().shouldExecute(getObjectType().exists(connection, getObjectName()));
+  }
+
+  private boolean hasExistsStatement() throws SQLException {
+    if (getExistsStatement() == null || getExistsStatement() == ExistsStatement.NONE)
+      return false;
     if (getExistsStatement() == ExistsStatement.IF_NOT_EXISTS && getCommand() == Command.DROP)
       throw new CloudSpannerSQLException(
           "Invalid argument: Cannot use 'IF NOT EXISTS' when dropping an object",
@@ -225,8 +235,83 @@ class DDLStatement {
       throw new CloudSpannerSQLException(
           "Invalid argument: Cannot use 'IF EXISTS' when creating an object",
           Code.INVALID_ARGUMENT);
+    return true;
+  }
 
-    return getExistsStatement().shouldExecute(getObjectType().exists(connection, getObjectName()));
+  /**
+   * Determines which of the given statements should be executed and returns their sql. The tables
+   * and indexes of the database are fetched with one query for all IF [NOT] EXISTS clauses, and the
+   * tables and indexes that are created or dropped by earlier statements in the list are taken into
+   * account.
+   * 
+   * @param connection The connection to fetch the tables and indexes of the database with
+   * @param statements The statements to check
+   * @return The sql of the statements that should be executed
+   * @throws SQLException if an IF [NOT] EXISTS clause is invalid or a database error occurs
+   */
+  static List<String> getExecutableSql(CloudSpannerConnection connection,
+      List<DDLStatement> statements) throws SQLException {
+    SchemaObjects objects = null;
+    for (DDLStatement statement : statements) {
+      if (statement.hasExistsStatement() && statement.getObjectType() != ObjectType.UNKNOWN) {
+        objects = SchemaObjects.of(connection);
+        break;
+      }
+    }
+    List<String> res = new ArrayList<>(statements.size());
+    for (DDLStatement statement : statements) {
+      if (statement.hasExistsStatement()) {
+        // An object of an unknown type never exists, whether or not the tables and indexes have
+        // been fetched
+        boolean exists = objects != null
+            && objects.exists(statement.getObjectType(), statement.getObjectName());
+        if (!statement.getExistsStatement().shouldExecute(exists))
+          continue;
+      }
+      if (objects != null)
+        objects.apply(statement);
+      res.add(statement.getSql());
+    }
+    return res;
+  }
+
+  /**
+   * The names of the tables and indexes of a database, including the changes of the statements
+   * that precede the statement that is being checked.
+   */
+  private static final class SchemaObjects {
+    private final Map<ObjectType, Set<String>> names = new EnumMap<>(ObjectType.class);
+
+    private SchemaObjects() {
+      names.put(ObjectType.TABLE, new HashSet<>());
+      names.put(ObjectType.INDEX, new HashSet<>());
+    }
+
+    private static SchemaObjects of(CloudSpannerConnection connection) throws SQLException {
+      SchemaObjects res = new SchemaObjects();
+      try (ResultSet rs = connection.getMetaData().getTablesAndIndexes()) {
+        while (rs.next()) {
+          Set<String> set = res.names.get(ObjectType.valueOf(rs.getString("OBJECT_TYPE")));
+          set.add(rs.getString("OBJECT_NAME").toUpperCase());
+        }
+      }
+      return res;
+    }
+
+    private boolean exists(ObjectType type, String name) {
+      Set<String> set = names.get(type);
+      return set != null && set.contains(name.toUpperCase());
+    }
+
+    private void apply(DDLStatement statement) {
+      Set<String> set = names.get(statement.getObjectType());
+      if (set == null)
+        return;
+      if (statement.getCommand() == Command.CREATE)
+        set.add(statement.getObjectName().toUpperCase());
+      else if (statement.getCommand() == Command.DROP)
+        set.remove(statement.getObjectName().toUpperCase());
+    }
   }
 
   Command getCommand() {
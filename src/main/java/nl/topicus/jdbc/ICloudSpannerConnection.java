@@ -4,6 +4,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Properties;
 import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.TimestampBound;
 
 /**
  * Interface containing all extra methods that are provided by CloudSpannerConnection
@@ -50,6 +51,139 @@ public interface ICloudSpannerConnection extends Connection {
 
   public int setBatchReadOnly(boolean batchReadOnly) throws SQLException;
 
+  public int getPartitionParallelism();
+
+  /**
+   * Sets the number of partitions of a query in batch read-only mode that are executed at the same
+   * time. The rows of these partitions are fetched in the background before the client reads them.
+   * A value of 0 (default) executes each partition only when the client moves to its result set.
+   * 
+   * @param partitionParallelism The number of partitions to execute at the same time, or 0
+   * @return 1 if the property was set
+   */
+  public int setPartitionParallelism(int partitionParallelism);
+
+  public boolean isMergePartitionResults();
+
+  /**
+   * Return the rows of all partitions of a query in batch read-only mode in one result set instead
+   * of one result set per partition. This setting only has effect if the partition parallelism is
+   * larger than 0. The rows of the merged result set are not returned in any particular order.
+   * 
+   * @param mergePartitionResults true if the results of all partitions should be merged
+   * @return 1 if the property was set
+   */
+  public int setMergePartitionResults(boolean mergePartitionResults);
+
+  public long getMaxPartitions();
+
+  /**
+   * Sets the desired maximum number of partitions of a query in batch read-only mode. This value is
+   * a hint for Cloud Spanner, and the actual number of partitions may be different.
+   * 
+   * @param maxPartitions The desired maximum number of partitions, or 0 for the default of Cloud
+   *        Spanner
+   * @return 1 if the property was set
+   */
+  public int setMaxPartitions(long maxPartitions);
+
+  public long getPartitionSizeBytes();
+
+  /**
+   * Sets the desired data size of each partition of a query in batch read-only mode. This value is
+   * a hint for Cloud Spanner, and the actual size of the partitions may be different.
+   * 
+   * @param partitionSizeBytes The desired size in bytes, or 0 for the default of Cloud Spanner
+   * @return 1 if the property was set
+   */
+  public int setPartitionSizeBytes(long partitionSizeBytes);
+
+  public boolean isPrefetchResults();
+
+  /**
+   * Read the rows of queries on a background thread in chunks of the fetch size of the statement.
+   * The rows of a chunk are stored per column, and are handed over to the result set while the
+   * background thread continues with the next chunk.
+   * 
+   * @param prefetchResults true if the results of queries should be prefetched
+   * @return 1 if the property was set
+   */
+  public int setPrefetchResults(boolean prefetchResults);
+
+  public int getBulkWriteParallelism();
+
+  /**
+   * Sets the number of transactions that write the rows of a bulk INSERT ... SELECT or DELETE
+   * statement in extended mode at the same time. Each transaction is executed on its own copy of
+   * the connection, while the rows of the source query are read on the calling thread. A value of 0
+   * (default) reads and writes all rows on one connection.
+   * 
+   * @param bulkWriteParallelism The number of transactions to write at the same time, or 0
+   * @return 1 if the property was set
+   */
+  public int setBulkWriteParallelism(int bulkWriteParallelism);
+
+  public long getQueryResultCacheTTL();
+
+  /**
+   * Sets the number of milliseconds that the result of a query may be served from the query result
+   * cache of the driver. The cache is only used for queries on a read-only connection in autocommit
+   * mode that do not use strong reads. A result is never cached for longer than the staleness that
+   * the timestamp bound of the query allows. A value of 0 (default) does not use the cache.
+   * 
+   * @param queryResultCacheTTL The number of milliseconds that a query result may be cached, or 0
+   * @return 1 if the property was set
+   */
+  public int setQueryResultCacheTTL(long queryResultCacheTTL);
+
+  /**
+   * 
+   * @return The timestamp bound of queries in autocommit mode and of read-only and batch read-only
+   *         transactions
+   */
+  public TimestampBound getReadTimestampBound();
+
+  public String getReadOnlyStaleness();
+
+  /**
+   * Sets the timestamp bound of queries in autocommit mode and of read-only and batch read-only
+   * transactions. Stale reads can be served by any replica of the database without a round trip
+   * to the leader. Valid values are STRONG, EXACT_STALENESS &lt;duration&gt;, MAX_STALENESS
+   * &lt;duration&gt;, READ_TIMESTAMP &lt;timestamp&gt; and MIN_READ_TIMESTAMP &lt;timestamp&gt;,
+   * for example EXACT_STALENESS 10s. MAX_STALENESS and MIN_READ_TIMESTAMP can only be used in
+   * autocommit mode.
+   * 
+   * @param readOnlyStaleness The timestamp bound to use
+   * @return 1 if the property was set
+   * @throws SQLException if the value is not a valid timestamp bound, or if a transaction is
+   *         running
+   */
+  public int setReadOnlyStaleness(String readOnlyStaleness) throws SQLException;
+
   public boolean isUseCustomHost();
 
+  public int getMaxInFlightAsyncStatements();
+
+  /**
+   * Sets the maximum number of asynchronous statements that may be executing at the same time on
+   * this connection. Callers that try to execute more asynchronous statements are blocked until an
+   * asynchronous statement has finished.
+   * 
+   * @param maxInFlightAsyncStatements The maximum number of asynchronous statements. Must be at
+   *        least 1.
+   */
+  public void setMaxInFlightAsyncStatements(int maxInFlightAsyncStatements);
+
+  public long getValidationWindow();
+
+  /**
+   * Sets the number of milliseconds after the last successful request to Cloud Spanner during
+   * which {@link #isValid(int)} only checks the local state of the connection. Connections that
+   * have not had a successful request within this window are validated with a query. A value of 0
+   * (default) always validates with a query.
+   * 
+   * @param validationWindow The validation window in milliseconds, or 0
+   */
+  public void setValidationWindow(long validationWindow);
+
 }
@@ -0,0 +1,38 @@
+package nl.topicus.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface containing all extra methods that are provided by CloudSpannerPreparedStatement. Use
+ * {@link PreparedStatement#unwrap(Class)} to get access to these methods. The current parameter
+ * values are bound before the asynchronous methods return, so the parameters may be changed while
+ * the statement is being executed.
+ * 
+ * @author loite
+ *
+ */
+public interface ICloudSpannerPreparedStatement extends PreparedStatement, ICloudSpannerStatement {
+  /**
+   * Executes the query asynchronously.
+   * 
+   * @return A future that will return the result of the query
+   * @throws SQLException if the statement is invalid or if the caller was interrupted while waiting
+   *         for the in-flight limit of the connection
+   * @see ICloudSpannerStatement#executeQueryAsync(String)
+   */
+  public CompletableFuture<ResultSet> executeQueryAsync() throws SQLException;
+
+  /**
+   * Executes the update statement asynchronously.
+   * 
+   * @return A future that will return the update count
+   * @throws SQLException if the statement is invalid or if the caller was interrupted while waiting
+   *         for the in-flight limit of the connection
+   * @see ICloudSpannerStatement#executeUpdateAsync(String)
+   */
+  public CompletableFuture<Integer> executeUpdateAsync() throws SQLException;
+
+}
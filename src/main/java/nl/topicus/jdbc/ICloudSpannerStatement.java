@@ -0,0 +1,43 @@
+package nl.topicus.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface containing all extra methods that are provided by CloudSpannerStatement. Use
+ * {@link Statement#unwrap(Class)} to get access to these methods.
+ * 
+ * @author loite
+ *
+ */
+public interface ICloudSpannerStatement extends Statement {
+  /**
+   * Executes a query asynchronously. The sql statement is validated before this method returns,
+   * and the returned future is completed when the first results of the query are available. The
+   * caller is blocked if the maximum number of asynchronous statements of the connection are
+   * already in flight.
+   * 
+   * @param sql The query to execute
+   * @return A future that will return the result of the query
+   * @throws SQLException if the statement is invalid or if the caller was interrupted while waiting
+   *         for the in-flight limit of the connection
+   * @see ICloudSpannerConnection#setMaxInFlightAsyncStatements(int)
+   */
+  public CompletableFuture<ResultSet> executeQueryAsync(String sql) throws SQLException;
+
+  /**
+   * Executes an update statement asynchronously. Updates that are executed in autocommit mode are
+   * committed asynchronously. Updates that are executed in a transaction are buffered in the
+   * transaction before this method returns, and the returned future is already completed.
+   * 
+   * @param sql The update statement to execute
+   * @return A future that will return the update count
+   * @throws SQLException if the statement is invalid or if the caller was interrupted while waiting
+   *         for the in-flight limit of the connection
+   * @see ICloudSpannerConnection#setMaxInFlightAsyncStatements(int)
+   */
+  public CompletableFuture<Integer> executeUpdateAsync(String sql) throws SQLException;
+
+}
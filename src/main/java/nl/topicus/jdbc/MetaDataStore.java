@@ -4,38 +4,188 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Class for storing meta data needed for translating SQL statements into Cloud Spanner mutations,
- * such as key columns and their ordinal positions
+ * such as key columns and their ordinal positions. Tables are fetched from the {@link SchemaCache}
+ * that is shared by all connections to the same database, and are cached locally by the
+ * connection until the shared cache is invalidated.
  * 
  * @author loite
  *
  */
 public class MetaDataStore {
   /**
-   * Class for storing the primary key columns of a table in the correct order.
+   * Class for storing the key columns of a secondary index in the correct order, and the columns
+   * that are stored in the index.
    * 
    * @author loite
    *
    */
-  public class TableKeyMetaData {
+  public static class IndexKeyMetaData {
     private final String name;
 
     private final List<String> keyColumns = new ArrayList<>(2);
 
+    private final Map<String, String> keyColumnOrdering = new HashMap<>(2);
+
+    private final Set<String> storedColumns = new HashSet<>();
+
+    IndexKeyMetaData(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * 
+     * @return The upper case names of the key columns of the index in the order of the index
+     */
+    public List<String> getKeyColumns() {
+      return Collections.unmodifiableList(keyColumns);
+    }
+
+    /**
+     * 
+     * @param column The upper case name of a key column of the index
+     * @return ASC or DESC
+     */
+    public String getKeyColumnOrdering(String column) {
+      return keyColumnOrdering.get(column);
+    }
+
+    /**
+     * 
+     * @return The upper case names of the non-key columns that are stored in the index
+     */
+    public Set<String> getStoredColumns() {
+      return Collections.unmodifiableSet(storedColumns);
+    }
+  }
+
+  /**
+   * Class for storing the primary key columns of a table in the correct order, and the column types
+   * and indices of the table if these have been loaded.
+   * 
+   * @author loite
+   *
+   */
+  public static class TableKeyMetaData {
+    private final String name;
+
+    private final List<String> keyColumns = new ArrayList<>(2);
+
+    private final Map<String, String> keyColumnOrdering = new HashMap<>(2);
+
+    private final Map<String, String> columns = new LinkedHashMap<>();
+
+    private final Map<String, String> columnNames = new HashMap<>();
+
+    private final List<String> indices = new ArrayList<>();
+
+    private final Map<String, IndexKeyMetaData> indexKeys = new HashMap<>();
+
     TableKeyMetaData(String name) {
       this.name = name;
     }
 
+    void addKeyColumn(String column) {
+      keyColumns.add(column.toUpperCase());
+    }
+
+    void addKeyColumn(String column, String ordering) {
+      addKeyColumn(column);
+      if ("ASC".equalsIgnoreCase(ordering) || "DESC".equalsIgnoreCase(ordering))
+        keyColumnOrdering.put(column.toUpperCase(), ordering.toUpperCase());
+    }
+
+    void addColumn(String column, String spannerType) {
+      columns.put(column.toUpperCase(), spannerType);
+      columnNames.put(column.toUpperCase(), column);
+    }
+
+    void addIndex(String index) {
+      indices.add(index);
+    }
+
+    /**
+     * 
+     * @param index The name of a secondary index of this table
+     * @param column The name of a column in the index
+     * @param ordering ASC or DESC for a key column of the index, <code>null</code> for a column
+     *        that is stored in the index
+     */
+    void addIndexColumn(String index, String column, String ordering) {
+      IndexKeyMetaData metaData =
+          indexKeys.computeIfAbsent(index.toUpperCase(), key -> new IndexKeyMetaData(index));
+      if (ordering == null) {
+        metaData.storedColumns.add(column.toUpperCase());
+      } else {
+        metaData.keyColumns.add(column.toUpperCase());
+        metaData.keyColumnOrdering.put(column.toUpperCase(), ordering.toUpperCase());
+      }
+    }
+
     public List<String> getKeyColumns() {
       return keyColumns;
     }
 
+    /**
+     * 
+     * @param column The upper case name of a key column of this table
+     * @return ASC or DESC, or <code>null</code> if the ordering of the key column is not known
+     */
+    public String getKeyColumnOrdering(String column) {
+      return keyColumnOrdering.get(column);
+    }
+
+    /**
+     * 
+     * @return The upper case names of the columns of this table and their Cloud Spanner data types
+     *         in ordinal order, or an empty map if the columns have not been loaded
+     */
+    public Map<String, String> getColumns() {
+      return Collections.unmodifiableMap(columns);
+    }
+
+    /**
+     * 
+     * @param column The upper case name of a column of this table
+     * @return The name of the column as it is defined in the database, or <code>null</code> if the
+     *         column is not known
+     */
+    public String getColumnName(String column) {
+      return columnNames.get(column);
+    }
+
+    /**
+     * 
+     * @return The names of the secondary indices of this table
+     */
+    public List<String> getIndices() {
+      return Collections.unmodifiableList(indices);
+    }
+
+    /**
+     * 
+     * @param index The name of a secondary index of this table
+     * @return The key columns and stored columns of the index, or <code>null</code> if the columns
+     *         of the index have not been loaded
+     */
+    public IndexKeyMetaData getIndex(String index) {
+      return indexKeys.get(index.toUpperCase());
+    }
+
     @Override
     public boolean equals(Object o) {
       if (!(o instanceof TableKeyMetaData))
@@ -52,15 +202,37 @@ public class MetaDataStore {
 
   private final Connection connection;
 
+  private final SchemaCache schemaCache;
+
   private final Map<String, TableKeyMetaData> tables = new HashMap<>();
 
+  private long schemaCacheVersion;
+
   MetaDataStore(Connection connection) {
+    this(connection, null);
+  }
+
+  /**
+   * 
+   * @param connection The connection that owns this store
+   * @param schemaCache The cache that is shared by all connections to the same database, or
+   *        <code>null</code> if the store should read the key columns of each table directly from
+   *        the database meta data
+   */
+  MetaDataStore(Connection connection, SchemaCache schemaCache) {
     this.connection = connection;
+    this.schemaCache = schemaCache;
+    if (schemaCache != null)
+      this.schemaCacheVersion = schemaCache.getVersion();
   }
 
   public TableKeyMetaData getTable(String name) throws SQLException {
     if (name == null)
       return null;
+    if (schemaCache != null && schemaCache.getVersion() != schemaCacheVersion) {
+      tables.clear();
+      schemaCacheVersion = schemaCache.getVersion();
+    }
     TableKeyMetaData res = tables.get(name.toUpperCase());
     if (res == null) {
       res = initTable(name);
@@ -70,17 +242,31 @@ public class MetaDataStore {
   }
 
   private TableKeyMetaData initTable(String name) throws SQLException {
+    if (schemaCache != null)
+      return schemaCache.getTable((CloudSpannerConnection) connection, name);
     TableKeyMetaData table = new TableKeyMetaData(name);
     try (ResultSet rs = connection.getMetaData().getPrimaryKeys(null, null, name)) {
       while (rs.next()) {
-        table.keyColumns.add(rs.getString("COLUMN_NAME").toUpperCase());
+        table.addKeyColumn(rs.getString("COLUMN_NAME"));
       }
     }
     return table;
   }
 
+  /**
+   * Clears this store and invalidates the shared schema cache, for example because the schema of
+   * the database has been changed by this connection.
+   */
   void clear() {
     tables.clear();
+    if (schemaCache != null) {
+      schemaCache.invalidate();
+      schemaCacheVersion = schemaCache.getVersion();
+    }
+  }
+
+  SchemaCache getSchemaCache() {
+    return schemaCache;
   }
 
   void clearTable(String name) {
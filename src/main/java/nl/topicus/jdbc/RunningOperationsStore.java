@@ -4,9 +4,14 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.Operation;
 import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.SpannerException;
 import com.google.cloud.spanner.Struct;
 import com.google.cloud.spanner.Type;
 import com.google.cloud.spanner.Type.StructField;
@@ -18,24 +23,78 @@ import nl.topicus.jdbc.resultset.CloudSpannerResultSet;
 import nl.topicus.jdbc.statement.CloudSpannerStatement;
 
 /**
- * This class maintains a list of all long running (DDL-)operations of a connection.
+ * This class maintains a list of all long running (DDL-)operations of a connection. The state of
+ * the operations is refreshed by a driver-wide background poller with exponential backoff, and
+ * each operation completes a future when it is done.
  * 
  * @author loite
  *
  */
 class RunningOperationsStore {
+  static final long INITIAL_POLL_INTERVAL_MILLIS = 50L;
+
+  static final long MAX_POLL_INTERVAL_MILLIS = 1000L;
+
+  private static final ScheduledThreadPoolExecutor poller =
+      new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "Google Cloud Spanner JDBC DDL Operation Poller");
+        thread.setDaemon(true);
+        return thread;
+      });
+
   private static final class DdlOperation {
     private final Timestamp timeStarted;
 
     private final List<String> sql;
 
-    private Operation<Void, UpdateDatabaseDdlMetadata> operation;
+    private final String name;
+
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private final Runnable onDone;
+
+    private volatile Operation<Void, UpdateDatabaseDdlMetadata> operation;
+
+    private volatile String exception;
 
     private DdlOperation(Timestamp timeStarted, List<String> sql,
-        Operation<Void, UpdateDatabaseDdlMetadata> operation) {
+        Operation<Void, UpdateDatabaseDdlMetadata> operation, Runnable onDone) {
       this.timeStarted = timeStarted;
       this.sql = new ArrayList<>(sql);
+      this.name = operation.getName();
       this.operation = operation;
+      this.onDone = onDone;
+    }
+
+    /**
+     * Refreshes the state of the operation and schedules the next refresh if the operation has not
+     * yet finished.
+     */
+    private void poll(long interval) {
+      try {
+        if (!operation.isDone())
+          operation = operation.reload();
+        if (operation.isDone()) {
+          try {
+            operation.getResult();
+          } catch (Exception e) {
+            exception = e.getMessage();
+          }
+          onDone.run();
+          done.complete(null);
+        } else {
+          long next = Math.min(interval * 2, MAX_POLL_INTERVAL_MILLIS);
+          poller.schedule(() -> poll(next), interval, TimeUnit.MILLISECONDS);
+        }
+      } catch (Exception e) {
+        exception = e.getMessage();
+        onDone.run();
+        done.completeExceptionally(e);
+      }
+    }
+
+    private boolean isDone() {
+      return done.isDone();
     }
 
   }
@@ -45,67 +104,66 @@ class RunningOperationsStore {
   RunningOperationsStore() {}
 
   void addOperation(List<String> sql, Operation<Void, UpdateDatabaseDdlMetadata> operation) {
-    operations.add(new DdlOperation(Timestamp.now(), sql, operation));
+    addOperation(sql, operation, () -> {
+    });
+  }
+
+  /**
+   * Adds an operation to the store and starts polling it.
+   * 
+   * @param sql The DDL statements of the operation
+   * @param operation The operation to poll
+   * @param onDone Called on the poller thread when the operation has finished, also if it failed,
+   *        before any thread that waits for the operation is released
+   */
+  void addOperation(List<String> sql, Operation<Void, UpdateDatabaseDdlMetadata> operation,
+      Runnable onDone) {
+    DdlOperation op = new DdlOperation(Timestamp.now(), sql, operation, onDone);
+    operations.add(op);
+    poller.execute(() -> op.poll(INITIAL_POLL_INTERVAL_MILLIS));
   }
 
   int clearFinishedOperations() {
-    int count = 0;
-    int index = 0;
-    while (index < operations.size()) {
-      DdlOperation op = operations.get(index);
-      op.operation = op.operation.reload();
-      if (op.operation.isDone()) {
-        operations.remove(index);
-        count++;
-      } else {
-        index++;
-      }
-    }
-    return count;
+    int count = operations.size();
+    operations.removeIf(DdlOperation::isDone);
+    return count - operations.size();
   }
 
   void waitForOperations() throws SQLException {
-    boolean finished = false;
-    while (!finished) {
-      finished = true;
-      for (DdlOperation op : operations) {
-        op.operation = op.operation.reload();
-        if (!op.operation.isDone()) {
-          finished = false;
-          break;
-        }
-      }
-      try {
-        Thread.sleep(1000l);
-      } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
-        throw new CloudSpannerSQLException("Wait for DDL-operations interrupted", Code.CANCELLED,
-            e);
-      }
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[operations.size()];
+    for (int i = 0; i < futures.length; i++)
+      futures[i] = operations.get(i).done;
+    try {
+      CompletableFuture.allOf(futures).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CloudSpannerSQLException("Wait for DDL-operations interrupted", Code.CANCELLED, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof SpannerException)
+        throw new CloudSpannerSQLException((SpannerException) e.getCause());
+      throw new CloudSpannerSQLException(
+          "Could not get the state of the DDL-operations: " + e.getCause().getMessage(),
+          Code.UNKNOWN, e.getCause());
     }
   }
 
   /**
    * 
    * @return A result set of all DDL operations that have been issued on this connection since the
-   *         last clear operation.
+   *         last clear operation. The result set contains the state of the operations at the last
+   *         time that the background poller refreshed them.
    * @throws SQLException If a database error occurs
    */
   ResultSet getOperations(CloudSpannerStatement statement) throws SQLException {
     List<Struct> rows = new ArrayList<>(operations.size());
     for (DdlOperation op : operations) {
-      op.operation = op.operation.reload();
-      String exception = null;
-      try {
-        op.operation.getResult();
-      } catch (Exception e) {
-        exception = e.getMessage();
-      }
+      boolean done = op.isDone();
+      String exception = op.exception;
       for (String ddl : op.sql) {
-        rows.add(Struct.newBuilder().set("NAME").to(Value.string(op.operation.getName()))
-            .set("TIME_STARTED").to(Value.timestamp(op.timeStarted)).set("STATEMENT")
-            .to(Value.string(ddl)).set("DONE").to(Value.bool(op.operation.isDone()))
-            .set("EXCEPTION").to(Value.string(exception)).build());
+        rows.add(Struct.newBuilder().set("NAME").to(Value.string(op.name)).set("TIME_STARTED")
+            .to(Value.timestamp(op.timeStarted)).set("STATEMENT").to(Value.string(ddl))
+            .set("DONE").to(Value.bool(done)).set("EXCEPTION").to(Value.string(exception))
+            .build());
       }
     }
     com.google.cloud.spanner.ResultSet rs =
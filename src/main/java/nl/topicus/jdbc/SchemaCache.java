@@ -0,0 +1,212 @@
+package nl.topicus.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import com.google.common.base.Preconditions;
+import nl.topicus.jdbc.MetaDataStore.TableKeyMetaData;
+import nl.topicus.jdbc.resultset.MaterializedResultSet;
+import nl.topicus.jdbc.statement.CloudSpannerPreparedStatement;
+
+/**
+ * Thread-safe cache of the schema of one database that is shared by all connections to that
+ * database. The key columns, column types and indices of all tables are loaded with one query the
+ * first time a table is requested. Tables that are not found in the cache are loaded individually.
+ * The cache also contains the materialized results of {@link CloudSpannerDatabaseMetaData} queries.
+ * The cache is invalidated when a connection executes a DDL statement, and is refreshed when it is
+ * older than its time to live.
+ *
+ * @author loite
+ *
+ */
+class SchemaCache {
+  static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5L);
+
+  static final int MAX_CACHED_RESULTS = 1000;
+
+  private static final String KIND_KEY = "K";
+
+  private static final String KIND_COLUMN = "C";
+
+  private static final String KIND_INDEX = "I";
+
+  private static final String PRIMARY_KEY = "PRIMARY_KEY";
+
+  private static final String SCHEMA_QUERY =
+      "SELECT 'K' AS KIND, TABLE_NAME, COLUMN_NAME AS NAME, INDEX_NAME AS INFO, ORDINAL_POSITION, COLUMN_ORDERING AS ORDERING "
+          + "FROM INFORMATION_SCHEMA.INDEX_COLUMNS "
+          + "WHERE TABLE_CATALOG='' AND TABLE_SCHEMA='' %s"
+          + "UNION ALL "
+          + "SELECT 'C' AS KIND, TABLE_NAME, COLUMN_NAME AS NAME, SPANNER_TYPE AS INFO, ORDINAL_POSITION, CAST(NULL AS STRING) AS ORDERING "
+          + "FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_CATALOG='' AND TABLE_SCHEMA='' %s"
+          + "UNION ALL "
+          + "SELECT 'I' AS KIND, TABLE_NAME, INDEX_NAME AS NAME, INDEX_TYPE AS INFO, 0 AS ORDINAL_POSITION, CAST(NULL AS STRING) AS ORDERING "
+          + "FROM INFORMATION_SCHEMA.INDEXES "
+          + "WHERE TABLE_CATALOG='' AND TABLE_SCHEMA='' AND INDEX_TYPE='INDEX' %s"
+          + "ORDER BY TABLE_NAME, KIND, ORDINAL_POSITION, NAME";
+
+  private static final String TABLE_FILTER = "AND UPPER(TABLE_NAME)=? ";
+
+  private final ConcurrentMap<String, TableKeyMetaData> tables = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, MaterializedResultSet> results = new ConcurrentHashMap<>();
+
+  private final AtomicLong version = new AtomicLong();
+
+  private volatile boolean loaded;
+
+  private volatile long validSince = System.currentTimeMillis();
+
+  private volatile long ttl = DEFAULT_TTL_MILLIS;
+
+  /**
+   * Returns the meta data of a table from the cache, loading the schema of the database if
+   * necessary.
+   *
+   * @param connection The connection to use to load the schema
+   * @param name The name of the table
+   * @return The meta data of the table. If the table does not exist, the returned meta data will
+   *         not contain any columns.
+   * @throws SQLException if the schema could not be loaded
+   */
+  TableKeyMetaData getTable(CloudSpannerConnection connection, String name) throws SQLException {
+    String key = name.toUpperCase();
+    expireIfStale();
+    if (!loaded)
+      loadAll(connection);
+    TableKeyMetaData res = tables.get(key);
+    if (res == null) {
+      res = loadTable(connection, name);
+      TableKeyMetaData existing = tables.putIfAbsent(key, res);
+      if (existing != null)
+        res = existing;
+    }
+    return res;
+  }
+
+  private synchronized void loadAll(CloudSpannerConnection connection) throws SQLException {
+    if (loaded)
+      return;
+    Map<String, TableKeyMetaData> res =
+        load(connection, String.format(SCHEMA_QUERY, "", "", ""), null);
+    for (Map.Entry<String, TableKeyMetaData> entry : res.entrySet())
+      tables.putIfAbsent(entry.getKey(), entry.getValue());
+    loaded = true;
+  }
+
+  private TableKeyMetaData loadTable(CloudSpannerConnection connection, String name)
+      throws SQLException {
+    Map<String, TableKeyMetaData> res = load(connection,
+        String.format(SCHEMA_QUERY, TABLE_FILTER, TABLE_FILTER, TABLE_FILTER), name);
+    TableKeyMetaData table = res.get(name.toUpperCase());
+    return table == null ? new TableKeyMetaData(name) : table;
+  }
+
+  private static Map<String, TableKeyMetaData> load(CloudSpannerConnection connection, String sql,
+      String tableName) throws SQLException {
+    Map<String, TableKeyMetaData> res = new HashMap<>();
+    CloudSpannerPreparedStatement statement = connection.prepareStatement(sql);
+    statement.setForceSingleUseReadContext(true);
+    if (tableName != null) {
+      for (int i = 1; i <= 3; i++)
+        statement.setString(i, tableName.toUpperCase());
+    }
+    try (ResultSet rs = statement.executeQuery()) {
+      while (rs.next()) {
+        String name = rs.getString("TABLE_NAME");
+        TableKeyMetaData table =
+            res.computeIfAbsent(name.toUpperCase(), key -> new TableKeyMetaData(name));
+        String kind = rs.getString("KIND");
+        if (KIND_KEY.equals(kind) && PRIMARY_KEY.equals(rs.getString("INFO")))
+          table.addKeyColumn(rs.getString("NAME"), rs.getString("ORDERING"));
+        else if (KIND_KEY.equals(kind))
+          table.addIndexColumn(rs.getString("INFO"), rs.getString("NAME"),
+              rs.getString("ORDERING"));
+        else if (KIND_COLUMN.equals(kind))
+          table.addColumn(rs.getString("NAME"), rs.getString("INFO"));
+        else if (KIND_INDEX.equals(kind))
+          table.addIndex(rs.getString("NAME"));
+      }
+    } finally {
+      statement.close();
+    }
+    return res;
+  }
+
+  /**
+   *
+   * @param key The key of a meta data query, consisting of the sql string and its parameters
+   * @return The cached result of the query, or <code>null</code> if the query is not in the cache
+   */
+  MaterializedResultSet getResult(String key) {
+    expireIfStale();
+    return results.get(key);
+  }
+
+  /**
+   * Adds the result of a meta data query to the cache, unless the cache has been invalidated since
+   * the query was executed.
+   *
+   * @param key The key of the query, consisting of the sql string and its parameters
+   * @param result The result of the query
+   * @param queryVersion The version of the cache when the query was executed
+   */
+  synchronized void putResult(String key, MaterializedResultSet result, long queryVersion) {
+    if (queryVersion != version.get())
+      return;
+    if (results.size() >= MAX_CACHED_RESULTS)
+      results.clear();
+    results.put(key, result);
+  }
+
+  /**
+   * Removes all tables and meta data results from the cache. The schema will be loaded again the
+   * next time a table is requested.
+   */
+  synchronized void invalidate() {
+    version.incrementAndGet();
+    loaded = false;
+    validSince = System.currentTimeMillis();
+    tables.clear();
+    results.clear();
+  }
+
+  private void expireIfStale() {
+    if (System.currentTimeMillis() - validSince > ttl)
+      invalidate();
+  }
+
+  /**
+   * Returns the current version of the cache. Calling this method also invalidates the cache if it
+   * is older than its time to live.
+   *
+   * @return A number that is incremented each time the cache is invalidated
+   */
+  long getVersion() {
+    expireIfStale();
+    return version.get();
+  }
+
+  int size() {
+    return tables.size();
+  }
+
+  int getResultCount() {
+    return results.size();
+  }
+
+  long getTTL() {
+    return ttl;
+  }
+
+  void setTTL(long ttl) {
+    Preconditions.checkArgument(ttl > 0L);
+    this.ttl = ttl;
+  }
+
+}
@@ -0,0 +1,114 @@
+package nl.topicus.jdbc;
+
+import java.sql.SQLException;
+import java.util.Objects;
+import com.google.cloud.spanner.SessionPoolOptions;
+import com.google.cloud.spanner.SpannerOptions;
+import com.google.rpc.Code;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+
+/**
+ * The session pool and gRPC channel settings of a connection URL. Settings that are not specified
+ * use the defaults of the Cloud Spanner client library. The settings are part of the key of the
+ * {@link com.google.cloud.spanner.Spanner} instances of the driver, so connections with different
+ * settings use different Spanner instances and session pools.
+ *
+ * @author loite
+ *
+ */
+final class SessionPoolSettings {
+  static final SessionPoolSettings DEFAULT =
+      new SessionPoolSettings(null, null, null, null, null, null);
+
+  private final Integer minSessions;
+
+  private final Integer maxSessions;
+
+  private final Integer maxIdleSessions;
+
+  private final Float writeSessionsFraction;
+
+  private final Integer keepAliveIntervalMinutes;
+
+  private final Integer numChannels;
+
+  private SessionPoolSettings(Integer minSessions, Integer maxSessions, Integer maxIdleSessions,
+      Float writeSessionsFraction, Integer keepAliveIntervalMinutes, Integer numChannels) {
+    this.minSessions = minSessions;
+    this.maxSessions = maxSessions;
+    this.maxIdleSessions = maxIdleSessions;
+    this.writeSessionsFraction = writeSessionsFraction;
+    this.keepAliveIntervalMinutes = keepAliveIntervalMinutes;
+    this.numChannels = numChannels;
+  }
+
+  /**
+   * @param properties The properties of a connection URL
+   * @return The session pool settings of the properties
+   * @throws SQLException if the settings are not a valid session pool configuration
+   */
+  static SessionPoolSettings of(ConnectionProperties properties) throws SQLException {
+    SessionPoolSettings res = new SessionPoolSettings(properties.minSessions,
+        properties.maxSessions, properties.maxIdleSessions, properties.writeSessionsFraction,
+        properties.keepAliveIntervalMinutes, properties.numChannels);
+    if (res.equals(DEFAULT))
+      return DEFAULT;
+    if (res.numChannels != null && res.numChannels <= 0)
+      throw new CloudSpannerSQLException("NumChannels must be larger than 0",
+          Code.INVALID_ARGUMENT);
+    try {
+      res.createSessionPoolOptions();
+    } catch (IllegalArgumentException e) {
+      throw new CloudSpannerSQLException("Invalid session pool settings: " + e.getMessage(),
+          Code.INVALID_ARGUMENT, e);
+    }
+    return res;
+  }
+
+  private SessionPoolOptions createSessionPoolOptions() {
+    SessionPoolOptions.Builder builder = SessionPoolOptions.newBuilder();
+    if (minSessions != null)
+      builder.setMinSessions(minSessions);
+    if (maxSessions != null)
+      builder.setMaxSessions(maxSessions);
+    if (maxIdleSessions != null)
+      builder.setMaxIdleSessions(maxIdleSessions);
+    if (writeSessionsFraction != null)
+      builder.setWriteSessionsFraction(writeSessionsFraction);
+    if (keepAliveIntervalMinutes != null)
+      builder.setKeepAliveIntervalMinutes(keepAliveIntervalMinutes);
+    return builder.build();
+  }
+
+  /**
+   * Applies the settings to the options of a new Spanner instance.
+   *
+   * @param builder The builder of the options
+   */
+  void apply(SpannerOptions.Builder builder) {
+    if (this == DEFAULT)
+      return;
+    builder.setSessionPoolOption(createSessionPoolOptions());
+    if (numChannels != null)
+      builder.setNumChannels(numChannels);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(minSessions, maxSessions, maxIdleSessions, writeSessionsFraction,
+        keepAliveIntervalMinutes, numChannels);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof SessionPoolSettings))
+      return false;
+    SessionPoolSettings other = (SessionPoolSettings) o;
+    return Objects.equals(minSessions, other.minSessions)
+        && Objects.equals(maxSessions, other.maxSessions)
+        && Objects.equals(maxIdleSessions, other.maxIdleSessions)
+        && Objects.equals(writeSessionsFraction, other.writeSessionsFraction)
+        && Objects.equals(keepAliveIntervalMinutes, other.keepAliveIntervalMinutes)
+        && Objects.equals(numChannels, other.numChannels);
+  }
+}
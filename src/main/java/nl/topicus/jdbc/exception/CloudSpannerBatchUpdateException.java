@@ -0,0 +1,28 @@
+package nl.topicus.jdbc.exception;
+
+import java.sql.BatchUpdateException;
+import com.google.rpc.Code;
+
+/**
+ * Specific {@link BatchUpdateException} for Google Cloud Spanner. The update counts contain the
+ * results of the statements of the batch that were written before the batch failed.
+ * 
+ * @author loite
+ *
+ */
+public class CloudSpannerBatchUpdateException extends BatchUpdateException {
+  private static final long serialVersionUID = 1L;
+
+  private final Code code;
+
+  public CloudSpannerBatchUpdateException(String message, Code code, int[] updateCounts,
+      Throwable cause) {
+    super(message, null, code.getNumber(), updateCounts, cause);
+    this.code = code;
+  }
+
+  public Code getCode() {
+    return code;
+  }
+
+}
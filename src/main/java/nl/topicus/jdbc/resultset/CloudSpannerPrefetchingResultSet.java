@@ -0,0 +1,241 @@
+package nl.topicus.jdbc.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import com.google.cloud.spanner.SpannerException;
+import com.google.rpc.Code;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+import nl.topicus.jdbc.statement.CloudSpannerStatement;
+
+/**
+ * A {@link ResultSet} that returns rows that are fetched in the background by one or more
+ * producers. Each producer reads the rows of a query or of one or more partitions of a partitioned
+ * query into {@link ColumnarChunk}s and hands them over through a bounded queue, so that the
+ * producers can not run ahead of the consumer by more than a limited number of rows.
+ *
+ * @author loite
+ *
+ */
+public class CloudSpannerPrefetchingResultSet extends CloudSpannerResultSet {
+  static final int DEFAULT_CHUNK_SIZE = 256;
+
+  static final int QUEUE_CAPACITY = 16;
+
+  static final int SINGLE_PRODUCER_QUEUE_CAPACITY = 4;
+
+  static final class Chunk {
+    private final ColumnarChunk rows;
+
+    private final boolean last;
+
+    private final Throwable error;
+
+    private Chunk(ColumnarChunk rows, boolean last, Throwable error) {
+      this.rows = rows;
+      this.last = last;
+      this.error = error;
+    }
+
+    static Chunk of(ColumnarChunk rows, boolean last) {
+      return new Chunk(rows, last, null);
+    }
+
+    static Chunk error(Throwable error) {
+      return new Chunk(null, true, error);
+    }
+  }
+
+  private final BlockingQueue<Chunk> chunks;
+
+  private int remainingProducers;
+
+  private volatile boolean cancelled = false;
+
+  private ColumnarChunk currentChunk;
+
+  CloudSpannerPrefetchingResultSet(CloudSpannerStatement statement, String sql, int producers,
+      int queueCapacity) {
+    super(statement, sql);
+    this.remainingProducers = producers;
+    this.chunks = new ArrayBlockingQueue<>(queueCapacity);
+  }
+
+  /**
+   * Creates a result set that reads the rows of the given Cloud Spanner result set on a background
+   * thread into columnar chunks. The first row is read on the calling thread, so that any errors in
+   * the query are reported directly.
+   *
+   * @param statement The statement that executed the query
+   * @param resultSet The result set to read. The background thread closes the result set when all
+   *        rows have been read, or when this result set is closed.
+   * @param sql The sql string of the query
+   * @param fetchSize The number of rows per chunk, or 0 for the default chunk size
+   * @return A result set that returns the rows that are prefetched in the background
+   * @throws SQLException if the query returned an error
+   */
+  public static CloudSpannerPrefetchingResultSet of(CloudSpannerStatement statement,
+      com.google.cloud.spanner.ResultSet resultSet, String sql, int fetchSize)
+      throws SQLException {
+    CloudSpannerPrefetchingResultSet res =
+        new CloudSpannerPrefetchingResultSet(statement, sql, 1, SINGLE_PRODUCER_QUEUE_CAPACITY);
+    boolean hasRow;
+    try {
+      hasRow = resultSet.next();
+    } catch (SpannerException e) {
+      resultSet.close();
+      throw new CloudSpannerSQLException(e);
+    }
+    if (hasRow) {
+      int chunkSize = fetchSize > 0 ? fetchSize : DEFAULT_CHUNK_SIZE;
+      ParallelPartitionExecutor.submit(() -> {
+        try (com.google.cloud.spanner.ResultSet rs = resultSet) {
+          res.produce(rs, true, chunkSize);
+        }
+      });
+    } else {
+      try (com.google.cloud.spanner.ResultSet rs = resultSet) {
+        res.chunks.add(Chunk.of(new ColumnarChunk.Builder(rs.getType(), 0).build(), true));
+      }
+    }
+    return res;
+  }
+
+  /**
+   * Reads all rows of the given result set into chunks and hands them over to this result set.
+   * Any error is handed over to this result set and thrown to the reader of the rows.
+   *
+   * @param rs The result set to read
+   * @param positionedOnRow true if the result set is already positioned on its first row
+   * @param chunkSize The number of rows per chunk
+   * @return false if this result set was closed before all rows were handed over
+   */
+  boolean produce(com.google.cloud.spanner.ResultSet rs, boolean positionedOnRow, int chunkSize) {
+    if (cancelled)
+      return false;
+    try {
+      boolean hasRow = positionedOnRow || rs.next();
+      ColumnarChunk.Builder builder = null;
+      while (hasRow) {
+        if (builder == null)
+          builder = new ColumnarChunk.Builder(rs.getType(), chunkSize);
+        builder.addRow(rs);
+        if (builder.size() == chunkSize) {
+          if (!put(Chunk.of(builder.build(), false)))
+            return false;
+          builder = null;
+        }
+        hasRow = rs.next();
+      }
+      if (builder == null)
+        builder = new ColumnarChunk.Builder(rs.getType(), 0);
+      return put(Chunk.of(builder.build(), true));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (Throwable t) {
+      return fail(t);
+    }
+  }
+
+  /**
+   * Hands over an error of a producer to this result set. The error is thrown to the reader when
+   * it reaches the error.
+   *
+   * @return Always false, as the producer should stop
+   */
+  boolean fail(Throwable error) {
+    try {
+      put(Chunk.error(error));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  /**
+   * Hands over a chunk of rows from a producer to this result set. Blocks while the queue of this
+   * result set is full. Closing this result set clears the queue, which releases the blocked
+   * producers. Each released producer clears the queue again, so that the other producers are also
+   * released.
+   *
+   * @return false if this result set has been closed and the producer should stop
+   */
+  boolean put(Chunk chunk) throws InterruptedException {
+    if (cancelled)
+      return false;
+    chunks.put(chunk);
+    if (cancelled) {
+      chunks.clear();
+      return false;
+    }
+    return true;
+  }
+
+  boolean isCancelled() {
+    return cancelled;
+  }
+
+  @Override
+  protected boolean nextRow() throws SQLException {
+    while (true) {
+      if (currentChunk != null && currentChunk.next())
+        return true;
+      if (!nextChunk())
+        return false;
+    }
+  }
+
+  private boolean nextChunk() throws SQLException {
+    if (remainingProducers == 0)
+      return false;
+    Chunk chunk;
+    try {
+      chunk = chunks.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CloudSpannerSQLException("Interrupted while waiting for the next rows",
+          Code.CANCELLED, e);
+    }
+    if (chunk.error != null) {
+      remainingProducers = 0;
+      if (chunk.error instanceof SpannerException)
+        throw new CloudSpannerSQLException((SpannerException) chunk.error);
+      throw new CloudSpannerSQLException(
+          "Could not fetch the next rows: " + chunk.error.getMessage(), Code.UNKNOWN,
+          chunk.error);
+    }
+    if (chunk.last)
+      remainingProducers--;
+    currentChunk = chunk.rows;
+    setResultSet(currentChunk);
+    return true;
+  }
+
+  private void ensureOpenAndTypeKnown() throws SQLException {
+    ensureOpen();
+    if (currentChunk == null)
+      nextChunk();
+  }
+
+  @Override
+  public CloudSpannerResultSetMetaData getMetaData() throws SQLException {
+    ensureOpenAndTypeKnown();
+    return super.getMetaData();
+  }
+
+  @Override
+  public int findColumn(String columnLabel) throws SQLException {
+    ensureOpenAndTypeKnown();
+    return super.findColumn(columnLabel);
+  }
+
+  @Override
+  public void close() throws SQLException {
+    cancelled = true;
+    chunks.clear();
+    super.close();
+  }
+
+}
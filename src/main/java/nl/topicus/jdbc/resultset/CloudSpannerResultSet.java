@@ -11,7 +11,10 @@ import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
 import java.sql.Date;
+import java.sql.NClob;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
@@ -25,6 +28,8 @@ import com.google.cloud.spanner.SpannerException;
 import com.google.cloud.spanner.Type;
 import com.google.cloud.spanner.Type.Code;
 import nl.topicus.jdbc.CloudSpannerArray;
+import nl.topicus.jdbc.CloudSpannerBlob;
+import nl.topicus.jdbc.CloudSpannerClob;
 import nl.topicus.jdbc.CloudSpannerDataType;
 import nl.topicus.jdbc.exception.CloudSpannerSQLException;
 import nl.topicus.jdbc.statement.CloudSpannerStatement;
@@ -47,6 +52,11 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
 
   private boolean nextCalledForInternalReasonsResult = false;
 
+  /**
+   * Lookup table for the label getters. The table is created on the first lookup of a label.
+   */
+  private ColumnLabelIndex columnLabelIndex;
+
   private final CloudSpannerStatement statement;
 
   private final String sql;
@@ -68,6 +78,10 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
     this.resultSet = rs;
   }
 
+  com.google.cloud.spanner.ResultSet getSpannerResultSet() {
+    return resultSet;
+  }
+
   @Override
   public boolean wasNull() throws SQLException {
     return wasNull;
@@ -127,7 +141,7 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
     }
     boolean res = false;
     try {
-      res = resultSet.next();
+      res = nextRow();
     } catch (SpannerException e) {
       throw new CloudSpannerSQLException(e);
     }
@@ -138,6 +152,17 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
     return res;
   }
 
+  /**
+   * Moves the underlying {@link com.google.cloud.spanner.ResultSet} to the next row. Subclasses
+   * that read their rows from more than one underlying result set can override this method.
+   * 
+   * @return true if there is a next row
+   * @throws SQLException if the next row could not be read
+   */
+  protected boolean nextRow() throws SQLException {
+    return resultSet.next();
+  }
+
   @Override
   public boolean isFirst() throws SQLException {
     return currentRowIndex == 0;
@@ -224,59 +249,52 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
 
   @Override
   public String getString(String columnLabel) throws SQLException {
-    return isNull(columnLabel) ? null : resultSet.getString(columnLabel);
+    return getString(getColumnIndex(columnLabel));
   }
 
   @Override
   public URL getURL(String columnLabel) throws SQLException {
-    try {
-      return isNull(columnLabel) ? null : new URL(resultSet.getString(columnLabel));
-    } catch (MalformedURLException e) {
-      throw new CloudSpannerSQLException("Invalid URL: " + resultSet.getString(columnLabel),
-          com.google.rpc.Code.INVALID_ARGUMENT);
-    }
+    return getURL(getColumnIndex(columnLabel));
   }
 
   @Override
   public boolean getBoolean(String columnLabel) throws SQLException {
-    return isNull(columnLabel) ? false : resultSet.getBoolean(columnLabel);
+    return getBoolean(getColumnIndex(columnLabel));
   }
 
   @Override
   public long getLong(String columnLabel) throws SQLException {
-    return isNull(columnLabel) ? 0 : resultSet.getLong(columnLabel);
+    return getLong(getColumnIndex(columnLabel));
   }
 
   @Override
   public double getDouble(String columnLabel) throws SQLException {
-    return isNull(columnLabel) ? 0 : resultSet.getDouble(columnLabel);
+    return getDouble(getColumnIndex(columnLabel));
   }
 
   @Override
   public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
-    return isNull(columnLabel) ? null : toBigDecimal(resultSet.getDouble(columnLabel), scale);
+    return getBigDecimal(getColumnIndex(columnLabel), scale);
   }
 
   @Override
   public byte[] getBytes(String columnLabel) throws SQLException {
-    return isNull(columnLabel) ? null : resultSet.getBytes(columnLabel).toByteArray();
+    return getBytes(getColumnIndex(columnLabel));
   }
 
   @Override
   public Date getDate(String columnLabel) throws SQLException {
-    return isNull(columnLabel) ? null
-        : CloudSpannerConversionUtil.toSqlDate(resultSet.getDate(columnLabel));
+    return getDate(getColumnIndex(columnLabel));
   }
 
   @Override
   public Time getTime(String columnLabel) throws SQLException {
-    return isNull(columnLabel) ? null
-        : CloudSpannerConversionUtil.toSqlTime(resultSet.getTimestamp(columnLabel));
+    return getTime(getColumnIndex(columnLabel));
   }
 
   @Override
   public Timestamp getTimestamp(String columnLabel) throws SQLException {
-    return isNull(columnLabel) ? null : resultSet.getTimestamp(columnLabel).toSqlTimestamp();
+    return getTimestamp(getColumnIndex(columnLabel));
   }
 
   @Override
@@ -288,24 +306,35 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
   @Override
   public int findColumn(String columnLabel) throws SQLException {
     ensureOpen();
-    try {
-      return resultSet.getColumnIndex(columnLabel) + 1;
-    } catch (IllegalArgumentException e) {
-      throw new CloudSpannerSQLException("Column not found: " + columnLabel,
-          com.google.rpc.Code.INVALID_ARGUMENT, e);
-    }
+    return lookupColumn(columnLabel);
   }
 
-  private boolean isNull(int columnIndex) throws SQLException {
+  /**
+   * Returns the index of the column with the given label for the label getters of this result set.
+   * 
+   * @param columnLabel The label of the column
+   * @return The (1-based) index of the column
+   * @throws SQLException if the result set is not positioned on a row, or if there is no column
+   *         with the given label
+   */
+  private int getColumnIndex(String columnLabel) throws SQLException {
     ensureOpenAndInValidPosition();
-    boolean res = resultSet.isNull(columnIndex - 1);
-    wasNull = res;
-    return res;
+    return lookupColumn(columnLabel);
   }
 
-  private boolean isNull(String columnName) throws SQLException {
+  private int lookupColumn(String columnLabel) throws SQLException {
+    if (columnLabelIndex == null)
+      columnLabelIndex = ColumnLabelIndex.of(resultSet.getType());
+    int res = columnLabelIndex.get(columnLabel);
+    if (res < 0)
+      throw new CloudSpannerSQLException("Column not found: " + columnLabel,
+          com.google.rpc.Code.INVALID_ARGUMENT);
+    return res + 1;
+  }
+
+  private boolean isNull(int columnIndex) throws SQLException {
     ensureOpenAndInValidPosition();
-    boolean res = resultSet.isNull(columnName);
+    boolean res = resultSet.isNull(columnIndex - 1);
     wasNull = res;
     return res;
   }
@@ -317,7 +346,7 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
 
   @Override
   public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
-    return isNull(columnLabel) ? null : toBigDecimal(resultSet.getDouble(columnLabel));
+    return getBigDecimal(getColumnIndex(columnLabel));
   }
 
   @Override
@@ -334,8 +363,7 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
 
   @Override
   public Date getDate(String columnLabel, Calendar cal) throws SQLException {
-    return isNull(columnLabel) ? null
-        : CloudSpannerConversionUtil.toSqlDate(resultSet.getDate(columnLabel), cal);
+    return getDate(getColumnIndex(columnLabel), cal);
   }
 
   @Override
@@ -346,8 +374,7 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
 
   @Override
   public Time getTime(String columnLabel, Calendar cal) throws SQLException {
-    return isNull(columnLabel) ? null
-        : CloudSpannerConversionUtil.toSqlTime(resultSet.getTimestamp(columnLabel));
+    return getTime(getColumnIndex(columnLabel), cal);
   }
 
   @Override
@@ -357,7 +384,7 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
 
   @Override
   public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
-    return isNull(columnLabel) ? null : resultSet.getTimestamp(columnLabel).toSqlTimestamp();
+    return getTimestamp(getColumnIndex(columnLabel), cal);
   }
 
   @Override
@@ -387,28 +414,27 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
 
   @Override
   public byte getByte(String columnLabel) throws SQLException {
-    return isNull(columnLabel) ? 0 : (byte) resultSet.getLong(columnLabel);
+    return getByte(getColumnIndex(columnLabel));
   }
 
   @Override
   public short getShort(String columnLabel) throws SQLException {
-    return isNull(columnLabel) ? 0 : (short) resultSet.getLong(columnLabel);
+    return getShort(getColumnIndex(columnLabel));
   }
 
   @Override
   public int getInt(String columnLabel) throws SQLException {
-    return isNull(columnLabel) ? 0 : (int) resultSet.getLong(columnLabel);
+    return getInt(getColumnIndex(columnLabel));
   }
 
   @Override
   public float getFloat(String columnLabel) throws SQLException {
-    return isNull(columnLabel) ? 0 : (float) resultSet.getDouble(columnLabel);
+    return getFloat(getColumnIndex(columnLabel));
   }
 
   @Override
   public Object getObject(String columnLabel) throws SQLException {
-    Type type = resultSet.getColumnType(columnLabel);
-    return isNull(columnLabel) ? null : getObject(type, columnLabel);
+    return getObject(getColumnIndex(columnLabel));
   }
 
   @Override
@@ -417,10 +443,6 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
     return isNull(columnIndex) ? null : getObject(type, columnIndex);
   }
 
-  private Object getObject(Type type, String columnLabel) throws SQLException {
-    return getObject(type, resultSet.getColumnIndex(columnLabel) + 1);
-  }
-
   private Object getObject(Type type, int columnIndex) throws SQLException {
     if (type == Type.bool())
       return getBoolean(columnIndex);
@@ -444,12 +466,13 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
 
   @Override
   public Array getArray(String columnLabel) throws SQLException {
-    Type type = resultSet.getColumnType(columnLabel);
+    int columnIndex = getColumnIndex(columnLabel);
+    Type type = resultSet.getColumnType(columnIndex - 1);
     if (type.getCode() != Code.ARRAY)
       throw new CloudSpannerSQLException(
           "Column with label " + columnLabel + " does not contain an array",
           com.google.rpc.Code.INVALID_ARGUMENT);
-    return getArray(resultSet.getColumnIndex(columnLabel) + 1);
+    return getArray(columnIndex);
   }
 
   @Override
@@ -522,8 +545,7 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
 
   @Override
   public InputStream getBinaryStream(int columnIndex) throws SQLException {
-    byte[] val = getBytes(columnIndex);
-    return val == null ? null : new ByteArrayInputStream(val);
+    return isNull(columnIndex) ? null : resultSet.getBytes(columnIndex - 1).asInputStream();
   }
 
   @Override
@@ -538,8 +560,39 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
 
   @Override
   public InputStream getBinaryStream(String columnLabel) throws SQLException {
-    byte[] val = getBytes(columnLabel);
-    return val == null ? null : new ByteArrayInputStream(val);
+    return getBinaryStream(getColumnIndex(columnLabel));
+  }
+
+  @Override
+  public Blob getBlob(int columnIndex) throws SQLException {
+    return isNull(columnIndex) ? null
+        : new CloudSpannerBlob(resultSet.getBytes(columnIndex - 1));
+  }
+
+  @Override
+  public Blob getBlob(String columnLabel) throws SQLException {
+    return getBlob(getColumnIndex(columnLabel));
+  }
+
+  @Override
+  public Clob getClob(int columnIndex) throws SQLException {
+    return getNClob(columnIndex);
+  }
+
+  @Override
+  public Clob getClob(String columnLabel) throws SQLException {
+    return getNClob(columnLabel);
+  }
+
+  @Override
+  public NClob getNClob(int columnIndex) throws SQLException {
+    String val = getString(columnIndex);
+    return val == null ? null : new CloudSpannerClob(val);
+  }
+
+  @Override
+  public NClob getNClob(String columnLabel) throws SQLException {
+    return getNClob(getColumnIndex(columnLabel));
   }
 
   @Override
@@ -574,7 +627,7 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
 
   @Override
   public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
-    return convertObject(getObject(columnLabel), type, resultSet.getColumnType(columnLabel));
+    return getObject(getColumnIndex(columnLabel), type);
   }
 
   @Override
@@ -584,7 +637,7 @@ public class CloudSpannerResultSet extends AbstractCloudSpannerResultSet {
 
   @Override
   public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
-    return convertObject(getObject(columnLabel), map, resultSet.getColumnType(columnLabel));
+    return getObject(getColumnIndex(columnLabel), map);
   }
 
   @SuppressWarnings("unchecked")
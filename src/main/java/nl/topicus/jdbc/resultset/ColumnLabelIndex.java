@@ -0,0 +1,85 @@
+package nl.topicus.jdbc.resultset;
+
+import java.util.List;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+
+/**
+ * Case-insensitive lookup table from column label to column index for the columns of a result set.
+ * The table uses open addressing with linear probing, and is built once per result set. If
+ * multiple columns have the same label, the label refers to the first of these columns.
+ *
+ * @author loite
+ *
+ */
+final class ColumnLabelIndex {
+  private final String[] labels;
+
+  private final int[] indices;
+
+  private final int mask;
+
+  /**
+   * The last label that was looked up. Applications and ORMs normally use the same string
+   * instances for the same column, so an identity check on the last label is often enough.
+   */
+  private String lastLabel;
+
+  private int lastIndex;
+
+  private ColumnLabelIndex(int capacity) {
+    this.labels = new String[capacity];
+    this.indices = new int[capacity];
+    this.mask = capacity - 1;
+  }
+
+  static ColumnLabelIndex of(Type type) {
+    List<StructField> fields = type.getStructFields();
+    int capacity = 2;
+    while (capacity < fields.size() * 2)
+      capacity <<= 1;
+    ColumnLabelIndex res = new ColumnLabelIndex(capacity);
+    for (int i = 0; i < fields.size(); i++)
+      res.add(fields.get(i).getName(), i);
+    return res;
+  }
+
+  private void add(String label, int index) {
+    int slot = hash(label) & mask;
+    while (labels[slot] != null) {
+      if (labels[slot].equalsIgnoreCase(label))
+        return;
+      slot = (slot + 1) & mask;
+    }
+    labels[slot] = label;
+    indices[slot] = index;
+  }
+
+  /**
+   * @param label The label to look up
+   * @return The zero-based index of the column with the given label, or -1 if there is no column
+   *         with the label
+   */
+  int get(String label) {
+    if (label == lastLabel)
+      return lastIndex;
+    int slot = hash(label) & mask;
+    while (labels[slot] != null) {
+      if (labels[slot].equalsIgnoreCase(label)) {
+        lastLabel = label;
+        lastIndex = indices[slot];
+        return lastIndex;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private static int hash(String label) {
+    int h = 0;
+    for (int i = 0; i < label.length(); i++)
+      h = 31 * h + Character.toUpperCase(label.charAt(i));
+    return h ^ (h >>> 16);
+  }
+
+}
@@ -0,0 +1,359 @@
+package nl.topicus.jdbc.resultset;
+
+import java.util.BitSet;
+import java.util.List;
+import com.google.cloud.ByteArray;
+import com.google.cloud.Date;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.AbstractStructReader;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.StructReader;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import com.google.common.primitives.Booleans;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Longs;
+import com.google.spanner.v1.ResultSetStats;
+
+/**
+ * An in-memory {@link ResultSet} that stores a chunk of rows per column instead of per row. Values
+ * of BOOL, INT64 and FLOAT64 columns are stored in primitive arrays, all other values are stored as
+ * references. Null values are registered in a bitmap per column. A chunk is filled by a
+ * {@link Builder} on the thread that reads from Cloud Spanner, and can then be read by another
+ * thread.
+ *
+ * @author loite
+ *
+ */
+final class ColumnarChunk extends AbstractStructReader implements ResultSet {
+  private final Type type;
+
+  private final int rowCount;
+
+  private final Object[] columns;
+
+  private final BitSet[] nulls;
+
+  private int row = -1;
+
+  private ColumnarChunk(Type type, int rowCount, Object[] columns, BitSet[] nulls) {
+    this.type = type;
+    this.rowCount = rowCount;
+    this.columns = columns;
+    this.nulls = nulls;
+  }
+
+  /**
+   * Builder for a chunk of rows. The builder copies the values of the current row of a
+   * {@link StructReader} into the column arrays of the chunk.
+   */
+  static final class Builder {
+    private final Type type;
+
+    private final Type.Code[] codes;
+
+    private final Object[] columns;
+
+    private final BitSet[] nulls;
+
+    private int size;
+
+    Builder(Type type, int capacity) {
+      this.type = type;
+      List<StructField> fields = type.getStructFields();
+      this.codes = new Type.Code[fields.size()];
+      this.columns = new Object[fields.size()];
+      this.nulls = new BitSet[fields.size()];
+      for (int col = 0; col < fields.size(); col++) {
+        codes[col] = fields.get(col).getType().getCode();
+        columns[col] = createColumn(codes[col], capacity);
+        nulls[col] = new BitSet(capacity);
+      }
+    }
+
+    private static Object createColumn(Type.Code code, int capacity) {
+      switch (code) {
+        case BOOL:
+          return new boolean[capacity];
+        case INT64:
+          return new long[capacity];
+        case FLOAT64:
+          return new double[capacity];
+        default:
+          return new Object[capacity];
+      }
+    }
+
+    void addRow(StructReader row) {
+      for (int col = 0; col < codes.length; col++) {
+        if (row.isNull(col)) {
+          nulls[col].set(size);
+          continue;
+        }
+        switch (codes[col]) {
+          case BOOL:
+            ((boolean[]) columns[col])[size] = row.getBoolean(col);
+            break;
+          case INT64:
+            ((long[]) columns[col])[size] = row.getLong(col);
+            break;
+          case FLOAT64:
+            ((double[]) columns[col])[size] = row.getDouble(col);
+            break;
+          default:
+            ((Object[]) columns[col])[size] = getObject(row, col);
+        }
+      }
+      size++;
+    }
+
+    private Object getObject(StructReader row, int col) {
+      switch (codes[col]) {
+        case STRING:
+          return row.getString(col);
+        case BYTES:
+          return row.getBytes(col);
+        case TIMESTAMP:
+          return row.getTimestamp(col);
+        case DATE:
+          return row.getDate(col);
+        case ARRAY:
+          return getList(row, col);
+        default:
+          throw new IllegalArgumentException("Unsupported column type: " + codes[col]);
+      }
+    }
+
+    private Object getList(StructReader row, int col) {
+      switch (row.getColumnType(col).getArrayElementType().getCode()) {
+        case BOOL:
+          return row.getBooleanList(col);
+        case INT64:
+          return row.getLongList(col);
+        case FLOAT64:
+          return row.getDoubleList(col);
+        case STRING:
+          return row.getStringList(col);
+        case BYTES:
+          return row.getBytesList(col);
+        case TIMESTAMP:
+          return row.getTimestampList(col);
+        case DATE:
+          return row.getDateList(col);
+        case STRUCT:
+          return row.getStructList(col);
+        default:
+          throw new IllegalArgumentException(
+              "Unsupported array column type: " + row.getColumnType(col));
+      }
+    }
+
+    int size() {
+      return size;
+    }
+
+    ColumnarChunk build() {
+      return new ColumnarChunk(type, size, columns, nulls);
+    }
+  }
+
+  int getRowCount() {
+    return rowCount;
+  }
+
+  @Override
+  public boolean next() {
+    if (row < rowCount)
+      row++;
+    return row < rowCount;
+  }
+
+  @Override
+  public Type getType() {
+    return type;
+  }
+
+  @Override
+  public boolean isNull(int columnIndex) {
+    return nulls[columnIndex].get(row);
+  }
+
+  @Override
+  protected boolean getBooleanInternal(int columnIndex) {
+    return ((boolean[]) columns[columnIndex])[row];
+  }
+
+  @Override
+  protected long getLongInternal(int columnIndex) {
+    return ((long[]) columns[columnIndex])[row];
+  }
+
+  @Override
+  protected double getDoubleInternal(int columnIndex) {
+    return ((double[]) columns[columnIndex])[row];
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T getReference(int columnIndex) {
+    return (T) ((Object[]) columns[columnIndex])[row];
+  }
+
+  @Override
+  protected String getStringInternal(int columnIndex) {
+    return getReference(columnIndex);
+  }
+
+  @Override
+  protected ByteArray getBytesInternal(int columnIndex) {
+    return getReference(columnIndex);
+  }
+
+  @Override
+  protected Timestamp getTimestampInternal(int columnIndex) {
+    return getReference(columnIndex);
+  }
+
+  @Override
+  protected Date getDateInternal(int columnIndex) {
+    return getReference(columnIndex);
+  }
+
+  @Override
+  protected boolean[] getBooleanArrayInternal(int columnIndex) {
+    return Booleans.toArray(getBooleanListInternal(columnIndex));
+  }
+
+  @Override
+  protected List<Boolean> getBooleanListInternal(int columnIndex) {
+    return getReference(columnIndex);
+  }
+
+  @Override
+  protected long[] getLongArrayInternal(int columnIndex) {
+    return Longs.toArray(getLongListInternal(columnIndex));
+  }
+
+  @Override
+  protected List<Long> getLongListInternal(int columnIndex) {
+    return getReference(columnIndex);
+  }
+
+  @Override
+  protected double[] getDoubleArrayInternal(int columnIndex) {
+    return Doubles.toArray(getDoubleListInternal(columnIndex));
+  }
+
+  @Override
+  protected List<Double> getDoubleListInternal(int columnIndex) {
+    return getReference(columnIndex);
+  }
+
+  @Override
+  protected List<String> getStringListInternal(int columnIndex) {
+    return getReference(columnIndex);
+  }
+
+  @Override
+  protected List<ByteArray> getBytesListInternal(int columnIndex) {
+    return getReference(columnIndex);
+  }
+
+  @Override
+  protected List<Timestamp> getTimestampListInternal(int columnIndex) {
+    return getReference(columnIndex);
+  }
+
+  @Override
+  protected List<Date> getDateListInternal(int columnIndex) {
+    return getReference(columnIndex);
+  }
+
+  @Override
+  protected List<Struct> getStructListInternal(int columnIndex) {
+    return getReference(columnIndex);
+  }
+
+  @Override
+  public Struct getCurrentRowAsStruct() {
+    Struct.Builder builder = Struct.newBuilder();
+    List<StructField> fields = type.getStructFields();
+    for (int col = 0; col < fields.size(); col++) {
+      StructField field = fields.get(col);
+      boolean isNull = isNull(col);
+      switch (field.getType().getCode()) {
+        case BOOL:
+          builder.set(field.getName()).to(isNull ? null : getBooleanInternal(col));
+          break;
+        case INT64:
+          builder.set(field.getName()).to(isNull ? null : getLongInternal(col));
+          break;
+        case FLOAT64:
+          builder.set(field.getName()).to(isNull ? null : getDoubleInternal(col));
+          break;
+        case STRING:
+          builder.set(field.getName()).to(this.<String>getReference(col));
+          break;
+        case BYTES:
+          builder.set(field.getName()).to(this.<ByteArray>getReference(col));
+          break;
+        case TIMESTAMP:
+          builder.set(field.getName()).to(this.<Timestamp>getReference(col));
+          break;
+        case DATE:
+          builder.set(field.getName()).to(this.<Date>getReference(col));
+          break;
+        case ARRAY:
+          setArray(builder, field, col);
+          break;
+        default:
+          throw new IllegalArgumentException("Unsupported column type: " + field.getType());
+      }
+    }
+    return builder.build();
+  }
+
+  private void setArray(Struct.Builder builder, StructField field, int col) {
+    Type elementType = field.getType().getArrayElementType();
+    switch (elementType.getCode()) {
+      case BOOL:
+        builder.set(field.getName()).toBoolArray(this.<List<Boolean>>getReference(col));
+        break;
+      case INT64:
+        builder.set(field.getName()).toInt64Array(this.<List<Long>>getReference(col));
+        break;
+      case FLOAT64:
+        builder.set(field.getName()).toFloat64Array(this.<List<Double>>getReference(col));
+        break;
+      case STRING:
+        builder.set(field.getName()).toStringArray(this.<List<String>>getReference(col));
+        break;
+      case BYTES:
+        builder.set(field.getName()).toBytesArray(this.<List<ByteArray>>getReference(col));
+        break;
+      case TIMESTAMP:
+        builder.set(field.getName()).toTimestampArray(this.<List<Timestamp>>getReference(col));
+        break;
+      case DATE:
+        builder.set(field.getName()).toDateArray(this.<List<Date>>getReference(col));
+        break;
+      case STRUCT:
+        builder.set(field.getName()).toStructArray(elementType,
+            this.<List<Struct>>getReference(col));
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported array column type: " + field.getType());
+    }
+  }
+
+  @Override
+  public void close() {
+    // no resources to release
+  }
+
+  @Override
+  public ResultSetStats getStats() {
+    return null;
+  }
+
+}
@@ -0,0 +1,69 @@
+package nl.topicus.jdbc.resultset;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+import nl.topicus.jdbc.statement.CloudSpannerStatement;
+
+/**
+ * Immutable in-memory copy of the rows of a result set. A materialized result set can be replayed
+ * any number of times, and is used to cache the results of meta data queries.
+ *
+ * @author loite
+ *
+ */
+public final class MaterializedResultSet {
+  private final Type type;
+
+  private final List<Struct> rows;
+
+  private MaterializedResultSet(Type type, List<Struct> rows) {
+    this.type = type;
+    this.rows = Collections.unmodifiableList(rows);
+  }
+
+  /**
+   * Reads all rows of the given result set into memory and closes the result set.
+   *
+   * @param resultSet The result set to read. No rows of this result set should have been read.
+   * @return A materialized copy of the result set
+   * @throws SQLException if an error occurs while reading the result set
+   */
+  public static MaterializedResultSet of(CloudSpannerResultSet resultSet) throws SQLException {
+    try {
+      List<Struct> rows = new ArrayList<>();
+      // the underlying result set may change while moving through the rows
+      while (resultSet.next())
+        rows.add(resultSet.getSpannerResultSet().getCurrentRowAsStruct());
+      return new MaterializedResultSet(resultSet.getSpannerResultSet().getType(), rows);
+    } catch (SpannerException e) {
+      throw new CloudSpannerSQLException(e);
+    } finally {
+      resultSet.close();
+    }
+  }
+
+  /**
+   * Creates a new JDBC result set that returns the rows of this materialized result set.
+   *
+   * @param statement The statement that will be returned by the result set
+   * @param sql The sql string that produced the rows
+   * @return A new result set that is positioned before the first row
+   * @throws SQLException if the result set could not be created
+   */
+  public CloudSpannerResultSet createResultSet(CloudSpannerStatement statement, String sql)
+      throws SQLException {
+    return new CloudSpannerResultSet(statement, ResultSets.forRows(type, rows), sql);
+  }
+
+  public int getRowCount() {
+    return rows.size();
+  }
+
+}
@@ -0,0 +1,113 @@
+package nl.topicus.jdbc.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.google.cloud.spanner.BatchReadOnlyTransaction;
+import com.google.cloud.spanner.Partition;
+import com.google.common.base.Preconditions;
+import nl.topicus.jdbc.statement.CloudSpannerStatement;
+
+/**
+ * Executes the partitions of a partitioned query concurrently on a driver-wide pool of daemon
+ * threads. The number of partitions of one query that are executed at the same time is limited by
+ * the parallelism that is given by the caller.
+ *
+ * @author loite
+ *
+ */
+public final class ParallelPartitionExecutor {
+  private static final AtomicInteger threadNumber = new AtomicInteger();
+
+  private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable,
+        "Google Cloud Spanner JDBC Prefetch Thread-" + threadNumber.getAndIncrement());
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private ParallelPartitionExecutor() {}
+
+  /**
+   * Starts executing the given partitions and returns the result sets that will contain the rows
+   * of the partitions. The rows are fetched in the background, also before the caller starts
+   * reading the result sets.
+   *
+   * @param statement The statement that executed the query
+   * @param transaction The batch read-only transaction of the partitions
+   * @param partitions The partitions to execute
+   * @param sql The sql string of the query
+   * @param parallelism The maximum number of partitions to execute at the same time
+   * @param merge If true, the rows of all partitions are returned in one result set in no
+   *        particular order. If false, one result set is returned per partition, in the order of
+   *        the partitions.
+   * @return The result sets containing the rows of the partitions
+   * @throws SQLException if the fetch size of the statement could not be determined
+   */
+  public static List<ResultSet> execute(CloudSpannerStatement statement,
+      BatchReadOnlyTransaction transaction, List<Partition> partitions, String sql,
+      int parallelism, boolean merge) throws SQLException {
+    Preconditions.checkArgument(parallelism > 0);
+    if (partitions.isEmpty())
+      return new ArrayList<>();
+    int chunkSize = statement.getFetchSize() > 0 ? statement.getFetchSize()
+        : CloudSpannerPrefetchingResultSet.DEFAULT_CHUNK_SIZE;
+    List<CloudSpannerPrefetchingResultSet> targets;
+    if (merge) {
+      targets = Collections
+          .singletonList(new CloudSpannerPrefetchingResultSet(statement, sql, partitions.size(),
+              CloudSpannerPrefetchingResultSet.QUEUE_CAPACITY));
+    } else {
+      targets = new ArrayList<>(partitions.size());
+      for (int i = 0; i < partitions.size(); i++)
+        targets.add(new CloudSpannerPrefetchingResultSet(statement, sql, 1,
+            CloudSpannerPrefetchingResultSet.QUEUE_CAPACITY));
+    }
+    AtomicInteger nextPartition = new AtomicInteger();
+    int workers = Math.min(parallelism, partitions.size());
+    for (int i = 0; i < workers; i++) {
+      executor.execute(() -> {
+        int index;
+        while ((index = nextPartition.getAndIncrement()) < partitions.size()) {
+          CloudSpannerPrefetchingResultSet target = targets.get(merge ? 0 : index);
+          if (!fetch(transaction, partitions.get(index), target, chunkSize) && merge)
+            return;
+        }
+      });
+    }
+    return new ArrayList<>(targets);
+  }
+
+  /**
+   * Fetches all rows of a partition and hands them over to the target result set.
+   *
+   * @return false if the target was closed before all rows were fetched
+   */
+  private static boolean fetch(BatchReadOnlyTransaction transaction, Partition partition,
+      CloudSpannerPrefetchingResultSet target, int chunkSize) {
+    if (target.isCancelled())
+      return false;
+    com.google.cloud.spanner.ResultSet resultSet;
+    try {
+      resultSet = transaction.execute(partition);
+    } catch (Throwable t) {
+      return target.fail(t);
+    }
+    try (com.google.cloud.spanner.ResultSet rs = resultSet) {
+      return target.produce(rs, false, chunkSize);
+    }
+  }
+
+  /**
+   * Executes a task on the pool of background threads of the driver.
+   */
+  static void submit(Runnable task) {
+    executor.execute(task);
+  }
+
+}
@@ -0,0 +1,635 @@
+package nl.topicus.jdbc.resultset;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import com.google.cloud.ByteArray;
+import com.google.cloud.Date;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.ForwardingResultSet;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.TimestampBound;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import com.google.cloud.spanner.Value;
+import com.google.common.base.Preconditions;
+
+/**
+ * Cache of query results that is bounded by the number of bytes of the cached rows. The rows of a
+ * result are serialized into a compact binary format and stored outside the Java heap in a direct
+ * byte buffer, so that a large cache does not add to the garbage collection work of the
+ * application. Each result is cached for a limited time only, and the least recently used results
+ * are evicted when the cache is full. The cache is shared by all connections of a driver.
+ *
+ * @author loite
+ *
+ */
+public class QueryResultCache {
+  public static final long DEFAULT_MAX_BYTES = 64L * 1024L * 1024L;
+
+  /**
+   * A single result may use at most this fraction of the cache. Larger results are not cached.
+   */
+  private static final int MAX_ENTRY_FRACTION = 8;
+
+  /**
+   * The key of a cached result. Results are only shared between queries on the same database with
+   * the same sql string and parameter values (or the same read), and that were executed with the
+   * same timestamp bound.
+   */
+  public static final class Key {
+    private final Object database;
+
+    private final Object query;
+
+    private final TimestampBound bound;
+
+    private Key(Object database, Object query, TimestampBound bound) {
+      this.database = Preconditions.checkNotNull(database);
+      this.query = Preconditions.checkNotNull(query);
+      this.bound = Preconditions.checkNotNull(bound);
+    }
+
+    /**
+     * @param database The database that the query is executed on
+     * @param query The query, including its parameter values. This object must implement equals
+     *        and hashCode.
+     * @param bound The timestamp bound of the read context that executes the query
+     * @return The key for the query
+     */
+    public static Key of(Object database, Object query, TimestampBound bound) {
+      return new Key(database, query, bound);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(database, query, bound);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key))
+        return false;
+      Key other = (Key) o;
+      return database.equals(other.database) && query.equals(other.query)
+          && bound.equals(other.bound);
+    }
+  }
+
+  private static final class Entry {
+    private final Type type;
+
+    private final int rowCount;
+
+    private final ByteBuffer rows;
+
+    private final long expireTime;
+
+    private Entry(Type type, int rowCount, ByteBuffer rows, long expireTime) {
+      this.type = type;
+      this.rowCount = rowCount;
+      this.rows = rows;
+      this.expireTime = expireTime;
+    }
+
+    private boolean isExpired(long now) {
+      return now - expireTime >= 0L;
+    }
+  }
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  private final AtomicLong evictions = new AtomicLong();
+
+  private long maxBytes;
+
+  private long sizeBytes;
+
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  public QueryResultCache() {
+    this(DEFAULT_MAX_BYTES);
+  }
+
+  public QueryResultCache(long maxBytes) {
+    Preconditions.checkArgument(maxBytes >= 0L);
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   *
+   * @param key The key of the query to look up
+   * @return A result set with the cached rows of the query, or <code>null</code> if the result of
+   *         the query is not in the cache or has expired
+   */
+  public ResultSet get(Key key) {
+    Entry entry;
+    synchronized (entries) {
+      entry = entries.get(key);
+      if (entry != null && entry.isExpired(System.nanoTime())) {
+        remove(key);
+        entry = null;
+      }
+    }
+    if (entry == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return ResultSets.forRows(entry.type, decode(entry));
+  }
+
+  /**
+   * Wraps the given result set so that its rows are added to the cache when the result set has
+   * been read completely. Result sets that are closed before all rows have been read, and result
+   * sets that are too large for the cache, are not cached.
+   *
+   * @param key The key of the query
+   * @param rs The result of the query
+   * @param ttlMillis The number of milliseconds that the result may be cached
+   * @return A result set that returns the same rows as the given result set
+   */
+  public ResultSet cache(Key key, ResultSet rs, long ttlMillis) {
+    Preconditions.checkArgument(ttlMillis > 0L);
+    long max = getMaxBytes() / MAX_ENTRY_FRACTION;
+    if (max == 0L)
+      return rs;
+    return new CachingResultSet(key, rs, ttlMillis, max);
+  }
+
+  private void put(Key key, Type type, int rowCount, RowWriter writer, long ttlMillis) {
+    long expireTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    synchronized (entries) {
+      if (writer.size() > maxBytes / MAX_ENTRY_FRACTION)
+        return;
+      ByteBuffer rows = ByteBuffer.allocateDirect(writer.size());
+      rows.put(writer.buffer, 0, writer.size());
+      rows.flip();
+      remove(key);
+      entries.put(key, new Entry(type, rowCount, rows, expireTime));
+      sizeBytes += rows.capacity();
+      evict();
+    }
+  }
+
+  private void remove(Key key) {
+    Entry removed = entries.remove(key);
+    if (removed != null)
+      sizeBytes -= removed.rows.capacity();
+  }
+
+  private void evict() {
+    Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+    while (sizeBytes > maxBytes && iterator.hasNext()) {
+      sizeBytes -= iterator.next().getValue().rows.capacity();
+      iterator.remove();
+      evictions.incrementAndGet();
+    }
+  }
+
+  /**
+   * Removes all cached results of queries on the given database, for example because the schema
+   * of the database has changed.
+   *
+   * @param database The database to remove the cached results for
+   */
+  public void invalidate(Object database) {
+    synchronized (entries) {
+      Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<Key, Entry> entry = iterator.next();
+        if (entry.getKey().database.equals(database)) {
+          sizeBytes -= entry.getValue().rows.capacity();
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+      sizeBytes = 0L;
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /**
+   *
+   * @return The number of bytes that are used by the cached rows
+   */
+  public long getSizeBytes() {
+    synchronized (entries) {
+      return sizeBytes;
+    }
+  }
+
+  public long getMaxBytes() {
+    synchronized (entries) {
+      return maxBytes;
+    }
+  }
+
+  /**
+   * Sets the maximum number of bytes that the cached rows may use. Setting the size to zero
+   * disables the cache.
+   *
+   * @param maxBytes The maximum number of bytes of the cached rows
+   */
+  public void setMaxBytes(long maxBytes) {
+    Preconditions.checkArgument(maxBytes >= 0L);
+    synchronized (entries) {
+      this.maxBytes = maxBytes;
+      evict();
+    }
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  /**
+   *
+   * @return The fraction of lookups that were served from the cache, or 0 if there have been no
+   *         lookups
+   */
+  public double getHitRatio() {
+    long h = hits.get();
+    long total = h + misses.get();
+    return total == 0L ? 0d : (double) h / total;
+  }
+
+  /**
+   * Result set that serializes each row that is read, and that adds the rows to the cache when the
+   * last row has been read.
+   */
+  private final class CachingResultSet extends ForwardingResultSet {
+    private final Key key;
+
+    private final ResultSet delegate;
+
+    private final long ttlMillis;
+
+    private final long maxSize;
+
+    private RowWriter writer = new RowWriter();
+
+    private int rowCount;
+
+    private CachingResultSet(Key key, ResultSet delegate, long ttlMillis, long maxSize) {
+      super(delegate);
+      this.key = key;
+      this.delegate = delegate;
+      this.ttlMillis = ttlMillis;
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    public boolean next() {
+      boolean res = super.next();
+      if (writer != null) {
+        if (res) {
+          if (rowCount == 0 && !isCacheable(delegate.getType())) {
+            writer = null;
+          } else {
+            writer.writeRow(delegate);
+            rowCount++;
+            if (writer.size() > maxSize)
+              writer = null;
+          }
+        } else {
+          put(key, delegate.getType(), rowCount, writer, ttlMillis);
+          writer = null;
+        }
+      }
+      return res;
+    }
+
+    @Override
+    public void close() {
+      writer = null;
+      super.close();
+    }
+  }
+
+  private static boolean isCacheable(Type type) {
+    for (StructField field : type.getStructFields()) {
+      Type fieldType = field.getType();
+      if (fieldType.getCode() == Type.Code.ARRAY)
+        fieldType = fieldType.getArrayElementType();
+      if (fieldType.getCode() == Type.Code.STRUCT || fieldType.getCode() == Type.Code.ARRAY)
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Growable buffer that rows are serialized into. Each value is preceded by a null marker, and
+   * arrays are preceded by their length.
+   */
+  private static final class RowWriter {
+    private byte[] buffer = new byte[256];
+
+    private int position;
+
+    private int size() {
+      return position;
+    }
+
+    private void ensureCapacity(int bytes) {
+      if (position + bytes > buffer.length) {
+        byte[] newBuffer = new byte[Math.max(buffer.length * 2, position + bytes)];
+        System.arraycopy(buffer, 0, newBuffer, 0, position);
+        buffer = newBuffer;
+      }
+    }
+
+    private void writeByte(int value) {
+      ensureCapacity(1);
+      buffer[position++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+      ensureCapacity(4);
+      for (int shift = 24; shift >= 0; shift -= 8)
+        buffer[position++] = (byte) (value >>> shift);
+    }
+
+    private void writeLong(long value) {
+      ensureCapacity(8);
+      for (int shift = 56; shift >= 0; shift -= 8)
+        buffer[position++] = (byte) (value >>> shift);
+    }
+
+    private void writeBytes(byte[] value) {
+      writeInt(value.length);
+      ensureCapacity(value.length);
+      System.arraycopy(value, 0, buffer, position, value.length);
+      position += value.length;
+    }
+
+    private void writeRow(ResultSet rs) {
+      List<StructField> fields = rs.getType().getStructFields();
+      for (int i = 0; i < fields.size(); i++) {
+        if (rs.isNull(i)) {
+          writeByte(0);
+          continue;
+        }
+        writeByte(1);
+        Type type = fields.get(i).getType();
+        switch (type.getCode()) {
+          case ARRAY:
+            writeArray(rs, i, type.getArrayElementType().getCode());
+            break;
+          default:
+            writeValue(rs, i, type.getCode());
+        }
+      }
+    }
+
+    private void writeValue(ResultSet rs, int index, Type.Code code) {
+      switch (code) {
+        case BOOL:
+          writeByte(rs.getBoolean(index) ? 1 : 0);
+          break;
+        case INT64:
+          writeLong(rs.getLong(index));
+          break;
+        case FLOAT64:
+          writeLong(Double.doubleToRawLongBits(rs.getDouble(index)));
+          break;
+        case STRING:
+          writeBytes(rs.getString(index).getBytes(StandardCharsets.UTF_8));
+          break;
+        case BYTES:
+          writeBytes(rs.getBytes(index).toByteArray());
+          break;
+        case TIMESTAMP:
+          writeTimestamp(rs.getTimestamp(index));
+          break;
+        case DATE:
+          writeDate(rs.getDate(index));
+          break;
+        default:
+          throw new IllegalArgumentException("Unsupported type: " + code);
+      }
+    }
+
+    private void writeArray(ResultSet rs, int index, Type.Code code) {
+      List<?> values;
+      switch (code) {
+        case BOOL:
+          values = rs.getBooleanList(index);
+          break;
+        case INT64:
+          values = rs.getLongList(index);
+          break;
+        case FLOAT64:
+          values = rs.getDoubleList(index);
+          break;
+        case STRING:
+          values = rs.getStringList(index);
+          break;
+        case BYTES:
+          values = rs.getBytesList(index);
+          break;
+        case TIMESTAMP:
+          values = rs.getTimestampList(index);
+          break;
+        case DATE:
+          values = rs.getDateList(index);
+          break;
+        default:
+          throw new IllegalArgumentException("Unsupported array type: " + code);
+      }
+      writeInt(values.size());
+      for (Object value : values) {
+        if (value == null) {
+          writeByte(0);
+          continue;
+        }
+        writeByte(1);
+        switch (code) {
+          case BOOL:
+            writeByte(((Boolean) value) ? 1 : 0);
+            break;
+          case INT64:
+            writeLong((Long) value);
+            break;
+          case FLOAT64:
+            writeLong(Double.doubleToRawLongBits((Double) value));
+            break;
+          case STRING:
+            writeBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+            break;
+          case BYTES:
+            writeBytes(((ByteArray) value).toByteArray());
+            break;
+          case TIMESTAMP:
+            writeTimestamp((Timestamp) value);
+            break;
+          default:
+            writeDate((Date) value);
+        }
+      }
+    }
+
+    private void writeTimestamp(Timestamp value) {
+      writeLong(value.getSeconds());
+      writeInt(value.getNanos());
+    }
+
+    private void writeDate(Date value) {
+      writeInt(value.getYear());
+      writeByte(value.getMonth());
+      writeByte(value.getDayOfMonth());
+    }
+  }
+
+  private static List<Struct> decode(Entry entry) {
+    ByteBuffer buffer = entry.rows.duplicate();
+    List<StructField> fields = entry.type.getStructFields();
+    List<Struct> rows = new ArrayList<>(entry.rowCount);
+    for (int row = 0; row < entry.rowCount; row++) {
+      Struct.Builder builder = Struct.newBuilder();
+      for (StructField field : fields) {
+        boolean isNull = buffer.get() == 0;
+        Type type = field.getType();
+        Value value;
+        if (type.getCode() == Type.Code.ARRAY)
+          value = readArray(buffer, type.getArrayElementType().getCode(), isNull);
+        else
+          value = readValue(buffer, type.getCode(), isNull);
+        builder.set(field.getName()).to(value);
+      }
+      rows.add(builder.build());
+    }
+    return rows;
+  }
+
+  private static Value readValue(ByteBuffer buffer, Type.Code code, boolean isNull) {
+    switch (code) {
+      case BOOL:
+        return Value.bool(isNull ? null : buffer.get() != 0);
+      case INT64:
+        return Value.int64(isNull ? null : buffer.getLong());
+      case FLOAT64:
+        return Value.float64(isNull ? null : Double.longBitsToDouble(buffer.getLong()));
+      case STRING:
+        return Value.string(isNull ? null : readString(buffer));
+      case BYTES:
+        return Value.bytes(isNull ? null : ByteArray.copyFrom(readBytes(buffer)));
+      case TIMESTAMP:
+        return Value.timestamp(isNull ? null : readTimestamp(buffer));
+      case DATE:
+        return Value.date(isNull ? null : readDate(buffer));
+      default:
+        throw new IllegalArgumentException("Unsupported type: " + code);
+    }
+  }
+
+  private static Value readArray(ByteBuffer buffer, Type.Code code, boolean isNull) {
+    List<Object> values = null;
+    if (!isNull) {
+      int size = buffer.getInt();
+      values = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        if (buffer.get() == 0) {
+          values.add(null);
+          continue;
+        }
+        switch (code) {
+          case BOOL:
+            values.add(buffer.get() != 0);
+            break;
+          case INT64:
+            values.add(buffer.getLong());
+            break;
+          case FLOAT64:
+            values.add(Double.longBitsToDouble(buffer.getLong()));
+            break;
+          case STRING:
+            values.add(readString(buffer));
+            break;
+          case BYTES:
+            values.add(ByteArray.copyFrom(readBytes(buffer)));
+            break;
+          case TIMESTAMP:
+            values.add(readTimestamp(buffer));
+            break;
+          default:
+            values.add(readDate(buffer));
+        }
+      }
+    }
+    return createArray(code, values);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Value createArray(Type.Code code, List<?> values) {
+    switch (code) {
+      case BOOL:
+        return Value.boolArray((List<Boolean>) values);
+      case INT64:
+        return Value.int64Array((List<Long>) values);
+      case FLOAT64:
+        return Value.float64Array((List<Double>) values);
+      case STRING:
+        return Value.stringArray((List<String>) values);
+      case BYTES:
+        return Value.bytesArray((List<ByteArray>) values);
+      case TIMESTAMP:
+        return Value.timestampArray((List<Timestamp>) values);
+      case DATE:
+        return Value.dateArray((List<Date>) values);
+      default:
+        throw new IllegalArgumentException("Unsupported array type: " + code);
+    }
+  }
+
+  private static byte[] readBytes(ByteBuffer buffer) {
+    byte[] res = new byte[buffer.getInt()];
+    buffer.get(res);
+    return res;
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    return new String(readBytes(buffer), StandardCharsets.UTF_8);
+  }
+
+  private static Timestamp readTimestamp(ByteBuffer buffer) {
+    long seconds = buffer.getLong();
+    return Timestamp.ofTimeSecondsAndNanos(seconds, buffer.getInt());
+  }
+
+  private static Date readDate(ByteBuffer buffer) {
+    int year = buffer.getInt();
+    int month = buffer.get();
+    return Date.fromYearMonthDay(year, month, buffer.get());
+  }
+
+}
@@ -6,16 +6,25 @@ import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLWarning;
 import java.sql.Statement;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import com.google.cloud.spanner.BatchReadOnlyTransaction;
 import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Mutation;
 import com.google.cloud.spanner.Partition;
 import com.google.cloud.spanner.PartitionOptions;
 import com.google.cloud.spanner.ReadContext;
 import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.TimestampBound;
+import com.google.cloud.spanner.TimestampBound.Mode;
 import com.google.cloud.spanner.TransactionContext;
 import com.google.cloud.spanner.TransactionRunner.TransactionCallable;
+import com.google.common.base.Preconditions;
 import com.google.rpc.Code;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.schema.Table;
 import net.sf.jsqlparser.statement.select.FromItemVisitorAdapter;
@@ -28,6 +37,9 @@ import nl.topicus.jdbc.CloudSpannerConnection;
 import nl.topicus.jdbc.CloudSpannerDriver;
 import nl.topicus.jdbc.MetaDataStore.TableKeyMetaData;
 import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+import nl.topicus.jdbc.statement.AsyncStatementExecutor.SQLCallable;
+import nl.topicus.jdbc.statement.ParsedStatementCache.ParsedStatement;
+import nl.topicus.jdbc.transaction.CloudSpannerTransaction;
 
 /**
  * 
@@ -39,6 +51,15 @@ abstract class AbstractCloudSpannerStatement extends AbstractCloudSpannerFetcher
   protected static final String NO_MUTATIONS_IN_READ_ONLY_MODE_EXCEPTION =
       "The connection is in read-only mode. Mutations are not allowed.";
 
+  /**
+   * Hint in a comment of a query for the partition options of the query, for example
+   * <code>&#47;*&#64; MAX_PARTITIONS=10, PARTITION_SIZE_BYTES=100000000 *&#47; SELECT ...</code>
+   */
+  private static final Pattern PARTITION_HINT_PATTERN = Pattern.compile("(?is)/\\*@(.*?)\\*/");
+
+  private static final Pattern PARTITION_HINT_VALUE_PATTERN =
+      Pattern.compile("(?i)\\b(MAX_PARTITIONS|PARTITION_SIZE_BYTES)\\s*=\\s*(\\d{1,18})");
+
   private DatabaseClient dbClient;
 
   /**
@@ -62,6 +83,14 @@ abstract class AbstractCloudSpannerStatement extends AbstractCloudSpannerFetcher
 
   private int maxFieldSize = 0;
 
+  /**
+   * Statement-level values for the partition options of queries in batch read-only mode. A value
+   * of 0 means that the value of the connection is used.
+   */
+  private long maxPartitions = 0L;
+
+  private long partitionSizeBytes = 0L;
+
   AbstractCloudSpannerStatement(CloudSpannerConnection connection, DatabaseClient dbClient) {
     this.connection = connection;
     this.dbClient = dbClient;
@@ -94,6 +123,25 @@ abstract class AbstractCloudSpannerStatement extends AbstractCloudSpannerFetcher
     return sql;
   }
 
+  /**
+   * Sanitizes and parses the given sql string, or returns the parsed statement from the cache of
+   * the driver if the same sql string has been parsed before.
+   * 
+   * @param sql The sql string to parse
+   * @return The parsed statement. The statement is shared and may not be modified.
+   * @throws JSQLParserException if the sql string could not be parsed
+   */
+  protected ParsedStatement parseStatement(String sql) throws JSQLParserException {
+    ParsedStatementCache cache = CloudSpannerDriver.getParsedStatementCache();
+    ParsedStatement res = cache.get(sql);
+    if (res == null) {
+      String sanitizedSql = sanitizeSQL(sql);
+      res = new ParsedStatement(sql, sanitizedSql, CCJSqlParserUtil.parse(sanitizedSql));
+      cache.put(res);
+    }
+    return res;
+  }
+
   /**
    * Transform the given UPDATE-statement into an "INSERT INTO TAB1 (...) SELECT ... FROM TAB1 WHERE
    * ... ON DUPLICATE KEY UPDATE"
@@ -190,16 +238,145 @@ abstract class AbstractCloudSpannerStatement extends AbstractCloudSpannerFetcher
 
   protected ReadContext getReadContext() throws SQLException {
     if (connection.getAutoCommit() || forceSingleUseReadContext) {
-      return dbClient.singleUse();
+      TimestampBound bound = getSingleUseTimestampBound();
+      return bound.getMode() == Mode.STRONG ? dbClient.singleUse() : dbClient.singleUse(bound);
     }
     return connection.getTransaction();
   }
 
+  /**
+   * Queries in autocommit mode use the read-only staleness of the connection. Queries that are
+   * forced to use a single use read context, such as queries on the information schema, always
+   * use a strong read, so that schema changes are visible immediately.
+   * 
+   * @return The timestamp bound for a single use read context of this statement
+   * @throws SQLException if a database error occurs
+   */
+  protected TimestampBound getSingleUseTimestampBound() throws SQLException {
+    if (forceSingleUseReadContext)
+      return TimestampBound.strong();
+    return connection.getReadTimestampBound();
+  }
+
+  /**
+   * Returns the read context for a query that will be executed on another thread. Any transaction
+   * that is needed for the query is started on the calling thread.
+   * 
+   * @return The read context to use for an asynchronous query
+   * @throws SQLException if a database error occurs
+   */
+  protected ReadContext getAsyncReadContext() throws SQLException {
+    ReadContext context = getReadContext();
+    if (context instanceof CloudSpannerTransaction)
+      ((CloudSpannerTransaction) context).begin();
+    return context;
+  }
+
+  /**
+   * Executes the given callable on another thread. The caller is blocked if the maximum number of
+   * asynchronous statements on the connection has been reached.
+   * 
+   * @param callable The work to execute asynchronously
+   * @return A future for the result of the callable
+   * @throws SQLException if the caller was interrupted or timed out while waiting for the in-flight
+   *         limit of the connection
+   */
+  protected <T> CompletableFuture<T> executeAsync(SQLCallable<T> callable) throws SQLException {
+    return AsyncStatementExecutor.execute(connection.getAsyncStatementPermits(), queryTimeout,
+        callable);
+  }
+
+  /**
+   * Executes the given query on another thread. A single use read context is closed if the query
+   * could not be started, as it would otherwise keep its session.
+   * 
+   * @param context The read context from {@link #getAsyncReadContext()} that is used by the
+   *        callable
+   * @param callable The query to execute asynchronously
+   * @return A future for the result of the callable
+   * @throws SQLException if the caller was interrupted or timed out while waiting for the in-flight
+   *         limit of the connection
+   */
+  protected <T> CompletableFuture<T> executeAsync(ReadContext context, SQLCallable<T> callable)
+      throws SQLException {
+    try {
+      return executeAsync(callable);
+    } catch (SQLException | RuntimeException e) {
+      if (!(context instanceof CloudSpannerTransaction))
+        context.close();
+      throw e;
+    }
+  }
+
   protected List<Partition> partitionQuery(com.google.cloud.spanner.Statement statement) {
-    PartitionOptions po = PartitionOptions.getDefaultInstance();
+    PartitionOptions po = createPartitionOptions(statement.getSql());
     return connection.getTransaction().partitionQuery(po, statement);
   }
 
+  /**
+   * Creates the partition options for a query in batch read-only mode. A partition hint in the sql
+   * string takes precedence over the values of this statement, and the values of this statement
+   * take precedence over the values of the connection.
+   * 
+   * @param sql The sql string of the query
+   * @return The partition options to use for the query
+   */
+  protected PartitionOptions createPartitionOptions(String sql) {
+    long max = maxPartitions > 0L ? maxPartitions : connection.getMaxPartitions();
+    long size = partitionSizeBytes > 0L ? partitionSizeBytes : connection.getPartitionSizeBytes();
+    Matcher hint = PARTITION_HINT_PATTERN.matcher(sql);
+    if (hint.find()) {
+      Matcher values = PARTITION_HINT_VALUE_PATTERN.matcher(hint.group(1));
+      while (values.find()) {
+        long value = Long.parseLong(values.group(2));
+        if (values.group(1).equalsIgnoreCase("MAX_PARTITIONS"))
+          max = value;
+        else
+          size = value;
+      }
+    }
+    if (max == 0L && size == 0L)
+      return PartitionOptions.getDefaultInstance();
+    PartitionOptions.Builder builder = PartitionOptions.newBuilder();
+    if (max > 0L)
+      builder.setMaxPartitions(max);
+    if (size > 0L)
+      builder.setPartitionSizeBytes(size);
+    return builder.build();
+  }
+
+  public long getMaxPartitions() {
+    return maxPartitions;
+  }
+
+  /**
+   * Sets the desired maximum number of partitions for queries of this statement in batch read-only
+   * mode. Overrides the value of the connection.
+   * 
+   * @param maxPartitions The desired maximum number of partitions, or 0 to use the value of the
+   *        connection
+   */
+  public void setMaxPartitions(long maxPartitions) {
+    Preconditions.checkArgument(maxPartitions >= 0L, "Max partitions may not be negative");
+    this.maxPartitions = maxPartitions;
+  }
+
+  public long getPartitionSizeBytes() {
+    return partitionSizeBytes;
+  }
+
+  /**
+   * Sets the desired data size of each partition for queries of this statement in batch read-only
+   * mode. Overrides the value of the connection.
+   * 
+   * @param partitionSizeBytes The desired size in bytes, or 0 to use the value of the connection
+   */
+  public void setPartitionSizeBytes(long partitionSizeBytes) {
+    Preconditions.checkArgument(partitionSizeBytes >= 0L,
+        "Partition size bytes may not be negative");
+    this.partitionSizeBytes = partitionSizeBytes;
+  }
+
   protected BatchReadOnlyTransaction getBatchReadOnlyTransaction() {
     return connection.getTransaction().getBatchReadOnlyTransaction();
   }
@@ -222,14 +399,7 @@ abstract class AbstractCloudSpannerStatement extends AbstractCloudSpannerFetcher
     } else {
 
       if (connection.getAutoCommit()) {
-        dbClient.readWriteTransaction().run(new TransactionCallable<Void>() {
-
-          @Override
-          public Void run(TransactionContext transaction) throws Exception {
-            transaction.buffer(mutations.getMutations());
-            return null;
-          }
-        });
+        commitMutations(mutations.getMutations());
       } else {
         connection.getTransaction().buffer(mutations.getMutations());
       }
@@ -237,6 +407,38 @@ abstract class AbstractCloudSpannerStatement extends AbstractCloudSpannerFetcher
     return mutations.getNumberOfResults();
   }
 
+  /**
+   * Writes the given mutations. Mutations that are written in autocommit mode are committed
+   * asynchronously. Mutations that are written in a transaction or that need a worker are written
+   * before this method returns.
+   * 
+   * @param mutations The mutations to write
+   * @return A future for the number of affected records
+   * @throws SQLException if the mutations could not be written
+   */
+  protected CompletableFuture<Integer> writeMutationsAsync(Mutations mutations)
+      throws SQLException {
+    if (connection.getAutoCommit() && !connection.isReadOnly() && !mutations.isWorker()) {
+      return executeAsync(() -> {
+        commitMutations(mutations.getMutations());
+        return (int) mutations.getNumberOfResults();
+      });
+    }
+    return CompletableFuture.completedFuture((int) writeMutations(mutations));
+  }
+
+  private void commitMutations(List<Mutation> mutations) {
+    dbClient.readWriteTransaction().run(new TransactionCallable<Void>() {
+
+      @Override
+      public Void run(TransactionContext transaction) throws Exception {
+        transaction.buffer(mutations);
+        return null;
+      }
+    });
+    connection.markSuccessfulRequest();
+  }
+
   @Override
   public boolean isClosed() throws SQLException {
     return closed;
@@ -55,15 +55,13 @@ abstract class AbstractSpannerExpressionVisitorAdapter extends ExpressionVisitor
   @Override
   public void visit(SignedExpression value) {
     Expression underlyingValue = value.getExpression();
+    // Do not modify the underlying value, as parsed statements are cached and shared
     if (underlyingValue instanceof DoubleValue) {
-      DoubleValue doubleValue = (DoubleValue) underlyingValue;
-      doubleValue
-          .setValue(value.getSign() == '-' ? -doubleValue.getValue() : doubleValue.getValue());
-      visit(doubleValue);
+      double doubleValue = ((DoubleValue) underlyingValue).getValue();
+      setValue(value.getSign() == '-' ? -doubleValue : doubleValue, Types.DOUBLE);
     } else if (underlyingValue instanceof LongValue) {
-      LongValue longValue = (LongValue) underlyingValue;
-      longValue.setValue(value.getSign() == '-' ? -longValue.getValue() : longValue.getValue());
-      visit(longValue);
+      long longValue = ((LongValue) underlyingValue).getValue();
+      setValue(value.getSign() == '-' ? -longValue : longValue, Types.BIGINT);
     } else {
       super.visit(value);
     }
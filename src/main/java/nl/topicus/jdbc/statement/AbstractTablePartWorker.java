@@ -5,8 +5,19 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import com.google.cloud.spanner.SpannerException;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.rpc.Code;
@@ -23,6 +34,23 @@ public abstract class AbstractTablePartWorker implements Callable<ConversionResu
     UNKNOWN, NORMAL, EXTENDED;
   }
 
+  private static final AtomicInteger writerNumber = new AtomicInteger();
+
+  /**
+   * Driver-wide pool of daemon threads for the writers of pipelined bulk operations
+   */
+  private static final ExecutorService writerExecutor = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable,
+        "Google Cloud Spanner JDBC Bulk Writer-" + writerNumber.getAndIncrement());
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Marks the end of the rows for the writers of a pipelined bulk operation.
+   */
+  private static final List<Object[]> END_OF_ROWS = Collections.emptyList();
+
   enum DMLOperation {
     INSERT, ONDUPLICATEKEYUPDATE, UPDATE, DELETE;
   }
@@ -78,6 +106,10 @@ public abstract class AbstractTablePartWorker implements Callable<ConversionResu
     long batchSize = ConverterUtils.calculateActualBatchSize(columnNamesList.size(), connection,
         null, null, unquotedTableName);
     boolean isExtendedMode = isExtendedMode(batchSize);
+    if (isExtendedMode && connection.getBulkWriteParallelism() > 0) {
+      runPipelined(batchSize, connection.getBulkWriteParallelism());
+      return;
+    }
 
     boolean wasAutocommit = connection.getAutoCommit();
     if (!isExtendedMode && wasAutocommit) {
@@ -94,12 +126,7 @@ public abstract class AbstractTablePartWorker implements Callable<ConversionResu
           // Set force update
           ((CloudSpannerPreparedStatement) statement).setForceUpdate(true);
         }
-        CloudSpannerPreparedStatement selectStatement =
-            connection.prepareStatement(select.toString());
-        for (int i = 1; i <= parameters.getHighestIndex(); i++) {
-          selectStatement.setObject(i, parameters.getParameter(i));
-        }
-        try (ResultSet rs = selectStatement.executeQuery()) {
+        try (ResultSet rs = executeSelect()) {
           ResultSetMetaData metadata = rs.getMetaData();
           while (rs.next()) {
             for (int index = 1; index <= metadata.getColumnCount(); index++) {
@@ -135,6 +162,170 @@ public abstract class AbstractTablePartWorker implements Callable<ConversionResu
 
   }
 
+  private ResultSet executeSelect() throws SQLException {
+    CloudSpannerPreparedStatement selectStatement =
+        connection.prepareStatement(select.toString());
+    for (int i = 1; i <= parameters.getHighestIndex(); i++) {
+      selectStatement.setObject(i, parameters.getParameter(i));
+    }
+    return selectStatement.executeQuery();
+  }
+
+  private void runPipelined(long batchSize, int writers) throws SQLException {
+    try (ResultSet rs = executeSelect()) {
+      runPipelined(rs, createSQL(), batchSize, writers);
+    } catch (SpannerException e) {
+      throw new CloudSpannerSQLException(e);
+    }
+  }
+
+  /**
+   * Writes the rows of the source result set in extended mode using a pipeline. The calling thread
+   * reads the rows of the source into batches and hands these over through a bounded queue to a
+   * number of writers. Each writer creates the mutations of a batch on its own copy of the
+   * connection and commits these in one transaction. The calling thread blocks when all writers are
+   * busy and the queue is full. After a failure the writers take the remaining batches from the
+   * queue without writing them, until each writer has received an end marker. The calling thread
+   * waits for all writers to finish before it returns.
+   * 
+   * @param source The rows to write
+   * @param sql The DML statement to execute for each row
+   * @param batchSize The number of rows per transaction
+   * @param writers The number of transactions to write at the same time
+   * @throws SQLException if reading the source or writing a batch failed. The batches that have
+   *         already been committed are not rolled back.
+   */
+  @VisibleForTesting
+  void runPipelined(ResultSet source, String sql, long batchSize, int writers)
+      throws SQLException {
+    BlockingQueue<List<Object[]>> batches = new ArrayBlockingQueue<>(writers);
+    AtomicLong committed = new AtomicLong();
+    // Completed exceptionally by the first failure of a writer or of reading the source
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    List<Future<?>> futures = new ArrayList<>(writers);
+    try {
+      for (int i = 0; i < writers; i++) {
+        futures.add(writerExecutor.submit(() -> {
+          write(sql, batches, committed, result);
+          return null;
+        }));
+      }
+      int columnCount = source.getMetaData().getColumnCount();
+      List<Object[]> batch = new ArrayList<>();
+      while (source.next()) {
+        Object[] row = new Object[columnCount];
+        for (int index = 1; index <= columnCount; index++)
+          row[index - 1] = source.getObject(index);
+        batch.add(row);
+        if (batch.size() == batchSize) {
+          put(batches, batch, result);
+          batch = new ArrayList<>();
+        }
+      }
+      if (!batch.isEmpty())
+        put(batches, batch, result);
+    } catch (SQLException | RuntimeException e) {
+      result.completeExceptionally(e);
+      throw e;
+    } finally {
+      stopWriters(batches, futures);
+      recordCount = committed.get();
+    }
+    result.complete(null);
+    get(result);
+  }
+
+  private void write(String sql, BlockingQueue<List<Object[]>> batches, AtomicLong committed,
+      CompletableFuture<Void> result) throws InterruptedException {
+    boolean endOfRows = false;
+    try (CloudSpannerConnection destination = connection.createCopyConnection()) {
+      destination.setAutoCommit(false);
+      try (CloudSpannerPreparedStatement statement = destination.prepareStatement(sql)) {
+        if (operation == DMLOperation.UPDATE) {
+          // Set force update
+          statement.setForceUpdate(true);
+        }
+        List<Object[]> batch;
+        while ((batch = batches.take()) != END_OF_ROWS) {
+          if (result.isCompletedExceptionally())
+            continue;
+          for (Object[] row : batch) {
+            for (int index = 1; index <= row.length; index++)
+              statement.setObject(index, row[index - 1]);
+            statement.executeUpdate();
+          }
+          destination.commit();
+          committed.addAndGet(batch.size());
+        }
+        endOfRows = true;
+      }
+    } catch (InterruptedException e) {
+      throw e;
+    } catch (Throwable t) {
+      result.completeExceptionally(t);
+    }
+    // A failed writer keeps taking batches until its end marker, so that the reader never waits
+    // for room in the queue that no writer will make
+    while (!endOfRows)
+      endOfRows = batches.take() == END_OF_ROWS;
+  }
+
+  /**
+   * Hands over a batch to the writers. Blocks while the queue is full, and stops if one of the
+   * writers has failed.
+   */
+  private void put(BlockingQueue<List<Object[]>> batches, List<Object[]> batch,
+      CompletableFuture<Void> writers) throws SQLException {
+    if (writers.isCompletedExceptionally())
+      get(writers);
+    try {
+      batches.put(batch);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CloudSpannerSQLException("Interrupted while writing rows", Code.CANCELLED, e);
+    }
+  }
+
+  /**
+   * Hands over an end marker to each writer and waits until all writers have finished their
+   * current batch. The writers are only interrupted if the calling thread is interrupted.
+   */
+  private static void stopWriters(BlockingQueue<List<Object[]>> batches,
+      List<Future<?>> writers) {
+    try {
+      for (int i = 0; i < writers.size(); i++)
+        batches.put(END_OF_ROWS);
+      for (Future<?> writer : writers) {
+        try {
+          writer.get();
+        } catch (ExecutionException e) {
+          // The writers hand over their errors through the shared result
+        }
+      }
+    } catch (InterruptedException e) {
+      for (Future<?> writer : writers)
+        writer.cancel(true);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void get(Future<Void> writer) throws SQLException {
+    try {
+      writer.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CloudSpannerSQLException("Interrupted while writing rows", Code.CANCELLED, e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof CloudSpannerSQLException)
+        throw (CloudSpannerSQLException) cause;
+      if (cause instanceof SpannerException)
+        throw new CloudSpannerSQLException((SpannerException) cause);
+      throw new CloudSpannerSQLException("Could not write rows: " + cause.getMessage(),
+          Code.UNKNOWN, cause);
+    }
+  }
+
   protected abstract List<String> getColumnNames() throws SQLException;
 
   protected abstract Table getTable();
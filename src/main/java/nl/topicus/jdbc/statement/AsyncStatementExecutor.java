@@ -0,0 +1,99 @@
+package nl.topicus.jdbc.statement;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.google.cloud.spanner.SpannerException;
+import com.google.rpc.Code;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+
+/**
+ * Executes statements asynchronously on a driver-wide pool of daemon threads. The number of
+ * statements that may be in flight at the same time is limited per connection by a
+ * {@link Semaphore}. Callers that exceed the limit are blocked until a statement has finished.
+ *
+ * @author loite
+ *
+ */
+final class AsyncStatementExecutor {
+  @FunctionalInterface
+  interface SQLCallable<T> {
+    T call() throws SQLException;
+  }
+
+  private static final AtomicInteger threadNumber = new AtomicInteger();
+
+  private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable,
+        "Google Cloud Spanner JDBC Async Statement Thread-" + threadNumber.getAndIncrement());
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private AsyncStatementExecutor() {}
+
+  /**
+   * Executes the given callable asynchronously.
+   *
+   * @param permits The in-flight limit of the connection of the statement
+   * @param timeoutSeconds The maximum number of seconds to wait for a permit, or 0 for no limit
+   * @param callable The statement to execute
+   * @return A future that is completed with the result of the callable, or exceptionally with a
+   *         {@link SQLException}
+   * @throws SQLException if waiting for a permit was interrupted or timed out
+   */
+  static <T> CompletableFuture<T> execute(Semaphore permits, int timeoutSeconds,
+      SQLCallable<T> callable) throws SQLException {
+    acquire(permits, timeoutSeconds);
+    CompletableFuture<T> res = new CompletableFuture<>();
+    try {
+      executor.execute(() -> {
+        T value = null;
+        Throwable error = null;
+        try {
+          value = callable.call();
+        } catch (SpannerException e) {
+          error = new CloudSpannerSQLException(e);
+        } catch (Throwable t) {
+          error = t;
+        } finally {
+          // Release the permit before completing the future, so that a caller that waits for the
+          // future can immediately execute a new statement
+          permits.release();
+        }
+        if (error == null)
+          res.complete(value);
+        else
+          res.completeExceptionally(error);
+      });
+    } catch (RejectedExecutionException e) {
+      permits.release();
+      throw new CloudSpannerSQLException("Could not start asynchronous statement", Code.UNAVAILABLE,
+          e);
+    }
+    return res;
+  }
+
+  private static void acquire(Semaphore permits, int timeoutSeconds) throws SQLException {
+    try {
+      if (timeoutSeconds > 0) {
+        if (!permits.tryAcquire(timeoutSeconds, TimeUnit.SECONDS))
+          throw new CloudSpannerSQLException(
+              "Timeout while waiting for the number of asynchronous statements to drop below the limit of the connection",
+              Code.DEADLINE_EXCEEDED);
+      } else {
+        permits.acquire();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CloudSpannerSQLException("Interrupted while waiting for an asynchronous statement",
+          Code.CANCELLED, e);
+    }
+  }
+
+}
@@ -8,13 +8,20 @@ import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import com.google.cloud.spanner.DatabaseClient;
 import com.google.cloud.spanner.KeySet;
 import com.google.cloud.spanner.Mutation;
 import com.google.cloud.spanner.Mutation.WriteBuilder;
 import com.google.cloud.spanner.Partition;
 import com.google.cloud.spanner.ReadContext;
+import com.google.cloud.spanner.SpannerException;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterables;
 import com.google.rpc.Code;
 import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.expression.Expression;
@@ -22,7 +29,6 @@ import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
 import net.sf.jsqlparser.expression.JdbcParameter;
 import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
 import net.sf.jsqlparser.expression.operators.relational.ItemsList;
-import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.parser.TokenMgrException;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.schema.Table;
@@ -41,18 +47,21 @@ import net.sf.jsqlparser.statement.select.SetOperationList;
 import net.sf.jsqlparser.statement.select.SubSelect;
 import net.sf.jsqlparser.statement.update.Update;
 import nl.topicus.jdbc.CloudSpannerConnection;
+import nl.topicus.jdbc.ICloudSpannerPreparedStatement;
 import nl.topicus.jdbc.MetaDataStore.TableKeyMetaData;
+import nl.topicus.jdbc.exception.CloudSpannerBatchUpdateException;
 import nl.topicus.jdbc.exception.CloudSpannerSQLException;
-import nl.topicus.jdbc.resultset.CloudSpannerPartitionResultSet;
-import nl.topicus.jdbc.resultset.CloudSpannerResultSet;
 import nl.topicus.jdbc.statement.AbstractTablePartWorker.DMLOperation;
+import nl.topicus.jdbc.statement.ParsedStatementCache.ParsedStatement;
+import nl.topicus.jdbc.statement.ParsedStatementCache.StatementKind;
 
 /**
  * 
  * @author loite
  *
  */
-public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedStatement {
+public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedStatement
+    implements ICloudSpannerPreparedStatement {
   private static final Timestamp SPANNER_COMMIT_TIMESTAMP = new Timestamp(Long.MIN_VALUE);
   public static final String SPANNER_COMMIT_TIMESTAMP_PLACEHOLDER = "spanner.commit_timestamp()";
 
@@ -67,6 +76,12 @@ public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedS
 
   static final String PARSE_ERROR = "Error while parsing sql statement ";
 
+  /**
+   * The minimum number of rows that will be written in one commit when a batch is executed in
+   * autocommit mode
+   */
+  private static final int MIN_MUTATIONS_PER_COMMIT = 100;
+
   private final String sql;
 
   private final String[] sqlTokens;
@@ -79,6 +94,18 @@ public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedS
 
   private List<Mutations> batchMutations = new ArrayList<>();
 
+  /**
+   * Compiled template for single row INSERT, UPDATE and DELETE statements. The template is
+   * compiled the first time the statement is executed.
+   */
+  private MutationTemplate mutationTemplate;
+
+  private boolean mutationTemplateCompiled;
+
+  private boolean mutationTemplateForceUpdate;
+
+  private boolean useMutationTemplates = true;
+
   public CloudSpannerPreparedStatement(String sql, CloudSpannerConnection connection,
       DatabaseClient dbClient) {
     super(connection, dbClient);
@@ -128,26 +155,85 @@ public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedS
     throw new CloudSpannerSQLException(METHOD_NOT_ON_PREPARED_STATEMENT, Code.FAILED_PRECONDITION);
   }
 
+  @Override
+  public CompletableFuture<ResultSet> executeQueryAsync(String sql) throws SQLException {
+    throw new CloudSpannerSQLException(METHOD_NOT_ON_PREPARED_STATEMENT, Code.FAILED_PRECONDITION);
+  }
+
+  @Override
+  public CompletableFuture<Integer> executeUpdateAsync(String sql) throws SQLException {
+    throw new CloudSpannerSQLException(METHOD_NOT_ON_PREPARED_STATEMENT, Code.FAILED_PRECONDITION);
+  }
+
   @Override
   public ResultSet executeQuery() throws SQLException {
     CustomDriverStatement custom = getCustomDriverStatement(sqlTokens);
     if (custom != null && custom.isQuery()) {
       return custom.executeQuery(sqlTokens);
     }
-    Statement statement;
+    ParsedStatement parsed = parseSelectStatement();
+    KeyReadQuery read = createKeyReadQuery(parsed);
+    if (read != null)
+      return executeRead(getReadContext(), read);
+    return executeQuery(getReadContext(), createSelectBuilder(parsed).build(), sql);
+  }
+
+  @Override
+  public CompletableFuture<ResultSet> executeQueryAsync() throws SQLException {
+    CustomDriverStatement custom = getCustomDriverStatement(sqlTokens);
+    if (custom != null && custom.isQuery()) {
+      return CompletableFuture.completedFuture(custom.executeQuery(sqlTokens));
+    }
+    ParsedStatement parsed = parseSelectStatement();
+    com.google.cloud.spanner.Statement statement = createSelectBuilder(parsed).build();
+    KeyReadQuery read = createKeyReadQuery(parsed);
+    ReadContext context = getAsyncReadContext();
+    if (read != null)
+      return executeAsync(context, () -> executeRead(context, read));
+    return executeAsync(context, () -> executeQuery(context, statement, sql));
+  }
+
+  /**
+   * Creates a read for the query of this statement if the query selects rows from one table by
+   * key. Such queries are executed with the read API of Cloud Spanner instead of as a SQL query.
+   * 
+   * @param parsed The parsed query of this statement
+   * @return The read for the query, or <code>null</code> if the query must be executed as a SQL
+   *         query
+   * @throws SQLException if the meta data of the table could not be loaded
+   */
+  private KeyReadQuery createKeyReadQuery(ParsedStatement parsed) throws SQLException {
+    if (isForceSingleUseReadContext())
+      return null;
+    return KeyReadQuery.create((Select) parsed.getStatement(), sql, getConnection(),
+        getParameterStore());
+  }
+
+  private ResultSet executeRead(ReadContext readContext, KeyReadQuery read) throws SQLException {
+    try (ReadContext context = readContext) {
+      com.google.cloud.spanner.ResultSet rs = executeCachedQuery(context, read, read::execute);
+      return createResultSet(rs, sql);
+    }
+  }
+
+  /**
+   * Parses the sql string of this statement and checks that it is a query.
+   * 
+   * @return The parsed query of this prepared statement
+   * @throws SQLException if the sql string is not a valid query
+   */
+  private ParsedStatement parseSelectStatement() throws SQLException {
+    ParsedStatement parsed;
     try {
-      statement = CCJSqlParserUtil.parse(sanitizeSQL(sql));
+      parsed = parseStatement(sql);
     } catch (JSQLParserException | TokenMgrException e) {
       throw new CloudSpannerSQLException(PARSE_ERROR + sql + ": " + e.getLocalizedMessage(),
           Code.INVALID_ARGUMENT, e);
     }
+    Statement statement = parsed.getStatement();
     if (statement instanceof Select) {
       determineForceSingleUseReadContext((Select) statement);
-      com.google.cloud.spanner.Statement.Builder builder = createSelectBuilder(statement, sql);
-      try (ReadContext context = getReadContext()) {
-        com.google.cloud.spanner.ResultSet rs = context.executeQuery(builder.build());
-        return new CloudSpannerResultSet(this, rs, sql);
-      }
+      return parsed;
     }
     throw new CloudSpannerSQLException(
         "SQL statement not suitable for executeQuery. Expected SELECT-statement.",
@@ -156,7 +242,16 @@ public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedS
 
   private com.google.cloud.spanner.Statement.Builder createSelectBuilder(Statement statement,
       String sql) {
-    String namedSql = convertPositionalParametersToNamedParameters(sql);
+    return createNamedSelectBuilder(statement, convertPositionalParametersToNamedParameters(sql));
+  }
+
+  private com.google.cloud.spanner.Statement.Builder createSelectBuilder(
+      ParsedStatement statement) {
+    return createNamedSelectBuilder(statement.getStatement(), statement.getNamedSql());
+  }
+
+  private com.google.cloud.spanner.Statement.Builder createNamedSelectBuilder(Statement statement,
+      String namedSql) {
     com.google.cloud.spanner.Statement.Builder builder =
         com.google.cloud.spanner.Statement.newBuilder(namedSql);
     setSelectParameters(((Select) statement).getSelectBody(), builder);
@@ -320,10 +415,6 @@ public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedS
 
   @Override
   public void addBatch() throws SQLException {
-    if (getConnection().getAutoCommit()) {
-      throw new SQLFeatureNotSupportedException(
-          "Batching of statements is only allowed when not running in autocommit mode");
-    }
     if (isDDLStatement()) {
       throw new SQLFeatureNotSupportedException("DDL statements may not be batched");
     }
@@ -341,19 +432,123 @@ public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedS
     getParameterStore().clearParameters();
   }
 
+  /**
+   * Executes all batched statements. All single mutations in the batch are coalesced and written
+   * together. In autocommit mode the mutations are committed in chunks that each stay within the
+   * limits of Cloud Spanner, and each chunk is committed atomically. Statements that are executed
+   * by a worker (for example INSERT ... SELECT) are executed separately in the order in which they
+   * were added to the batch.
+   * 
+   * @throws CloudSpannerBatchUpdateException if writing the batch failed. The update counts of
+   *         the exception contain the results of the statements that were written before the
+   *         failure. In autocommit mode these statements have been committed.
+   */
   @Override
   public int[] executeBatch() throws SQLException {
+    if (!batchMutations.isEmpty() && getConnection().isReadOnly()) {
+      throw new CloudSpannerSQLException(NO_MUTATIONS_IN_READ_ONLY_MODE_EXCEPTION,
+          Code.FAILED_PRECONDITION);
+    }
     int[] res = new int[batchMutations.size()];
+    List<Mutation> pending = new ArrayList<>();
+    // The end of the mutations of each statement in the pending mutations
+    List<Integer> pendingStatementEnds = new ArrayList<>();
+    AtomicInteger writtenMutations = new AtomicInteger();
+    int writtenStatements = 0;
     int index = 0;
-    for (Mutations mutation : batchMutations) {
-      res[index] = (int) writeMutations(mutation);
-      index++;
+    try {
+      for (Mutations mutation : batchMutations) {
+        if (mutation.isWorker()) {
+          writeBatchedMutations(pending, writtenMutations);
+          writtenStatements += pendingStatementEnds.size();
+          pending.clear();
+          pendingStatementEnds.clear();
+          writtenMutations.set(0);
+          res[index] = (int) writeMutations(mutation);
+          writtenStatements++;
+        } else {
+          pending.addAll(mutation.getMutations());
+          pendingStatementEnds.add(pending.size());
+          res[index] = (int) mutation.getNumberOfResults();
+        }
+        index++;
+      }
+      writeBatchedMutations(pending, writtenMutations);
+    } catch (SQLException | SpannerException e) {
+      for (int end : pendingStatementEnds) {
+        if (end <= writtenMutations.get())
+          writtenStatements++;
+      }
+      SQLException cause = e instanceof SpannerException
+          ? new CloudSpannerSQLException((SpannerException) e) : (SQLException) e;
+      Code code = cause instanceof CloudSpannerSQLException
+          ? ((CloudSpannerSQLException) cause).getCode() : Code.UNKNOWN;
+      throw new CloudSpannerBatchUpdateException(
+          "Batch failed after " + writtenStatements + " of " + res.length
+              + " statements were written: " + cause.getMessage(),
+          code, Arrays.copyOf(res, writtenStatements), cause);
     }
     batchMutations.clear();
     getParameterStore().clearParameters();
     return res;
   }
 
+  /**
+   * Writes the given mutations. In autocommit mode the mutations are committed in chunks. The size
+   * of each chunk is limited by the widest mutation in the chunk, as a batch may contain mutations
+   * for different tables and with different numbers of columns.
+   * 
+   * @param mutations The mutations to write
+   * @param written Is set to the number of mutations that have been written
+   * @throws SQLException if a chunk could not be written. The chunks before it have been committed.
+   */
+  private void writeBatchedMutations(List<Mutation> mutations, AtomicInteger written)
+      throws SQLException {
+    if (mutations.isEmpty())
+      return;
+    if (!getConnection().getAutoCommit() || mutations.size() <= MIN_MUTATIONS_PER_COMMIT) {
+      writeMutations(new Mutations(new ArrayList<>(mutations)));
+      written.set(mutations.size());
+      return;
+    }
+    Map<String, Integer> maxMutationsPerCommit = new HashMap<>();
+    int start = 0;
+    int chunkSize = Integer.MAX_VALUE;
+    for (int index = 0; index < mutations.size(); index++) {
+      int max = getMaxMutationsPerCommit(mutations.get(index), maxMutationsPerCommit);
+      chunkSize = Math.min(chunkSize, max);
+      if (index - start >= chunkSize) {
+        writeMutations(new Mutations(new ArrayList<>(mutations.subList(start, index))));
+        written.set(index);
+        start = index;
+        chunkSize = max;
+      }
+    }
+    writeMutations(new Mutations(new ArrayList<>(mutations.subList(start, mutations.size()))));
+    written.set(mutations.size());
+  }
+
+  /**
+   * Calculates the number of rows that can be written in one commit for mutations that are
+   * similar to the given mutation. The results are cached per table and number of columns, as the
+   * calculation queries the metadata of the table.
+   */
+  private int getMaxMutationsPerCommit(Mutation mutation, Map<String, Integer> cache)
+      throws SQLException {
+    int numberOfCols = 1;
+    if (mutation.getOperation() != Mutation.Op.DELETE) {
+      numberOfCols = Math.max(1, Iterables.size(mutation.getColumns()));
+    }
+    String key = mutation.getTable() + "/" + numberOfCols;
+    Integer res = cache.get(key);
+    if (res == null) {
+      res = ConverterUtils.calculateActualBatchSize(numberOfCols, getConnection(), null, null,
+          mutation.getTable());
+      cache.put(key, res);
+    }
+    return res;
+  }
+
   @Override
   public int executeUpdate() throws SQLException {
     CustomDriverStatement custom = getCustomDriverStatement(sqlTokens);
@@ -368,10 +563,64 @@ public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedS
     return (int) writeMutations(mutations);
   }
 
-  private Mutations createMutations() throws SQLException {
+  @Override
+  public CompletableFuture<Integer> executeUpdateAsync() throws SQLException {
+    CustomDriverStatement custom = getCustomDriverStatement(sqlTokens);
+    if ((custom != null && !custom.isQuery()) || isDDLStatement()) {
+      return CompletableFuture.completedFuture(executeUpdate());
+    }
+    return writeMutationsAsync(createMutations());
+  }
+
+  Mutations createMutations() throws SQLException {
+    if (useMutationTemplates && !getConnection().isReadOnly() && !isDDLStatement()) {
+      MutationTemplate template = getMutationTemplate();
+      if (template != null) {
+        try {
+          return new Mutations(template.createMutation(getParameterStore()));
+        } catch (IllegalArgumentException e) {
+          throw new CloudSpannerSQLException(PARSE_ERROR + sql + ": " + e.getLocalizedMessage(),
+              Code.INVALID_ARGUMENT, e);
+        }
+      }
+    }
     return createMutations(sql, false, false);
   }
 
+  private MutationTemplate getMutationTemplate() throws SQLException {
+    if (mutationTemplateCompiled && mutationTemplateForceUpdate == forceUpdate
+        && (mutationTemplate == null || mutationTemplate.isValid(getConnection())))
+      return mutationTemplate;
+    mutationTemplate = null;
+    mutationTemplateCompiled = true;
+    mutationTemplateForceUpdate = forceUpdate;
+    ParsedStatement parsed;
+    try {
+      parsed = parseStatement(sql);
+    } catch (JSQLParserException | TokenMgrException e) {
+      // Let the normal execution path generate the error
+      return null;
+    }
+    TableKeyMetaData table = null;
+    if (parsed.getTable() != null && (parsed.getKind() == StatementKind.UPDATE
+        || parsed.getKind() == StatementKind.DELETE)) {
+      table = getConnection().getTable(parsed.getTable());
+    }
+    mutationTemplate = MutationTemplate.compile(parsed.getStatement(), table, forceUpdate);
+    return mutationTemplate;
+  }
+
+  /**
+   * Enables or disables the use of compiled mutation templates for this statement.
+   * 
+   * @param useMutationTemplates <code>true</code> if single row INSERT, UPDATE and DELETE
+   *        statements should be compiled into a reusable template
+   */
+  @VisibleForTesting
+  void setUseMutationTemplates(boolean useMutationTemplates) {
+    this.useMutationTemplates = useMutationTemplates;
+  }
+
   private Mutations createMutations(String sql, boolean forceUpdate,
       boolean generateParameterMetaData) throws SQLException {
     try {
@@ -384,7 +633,7 @@ public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedS
             "Cannot create mutation for DDL statement. Expected INSERT, UPDATE or DELETE",
             Code.INVALID_ARGUMENT);
       }
-      Statement statement = CCJSqlParserUtil.parse(sanitizeSQL(sql));
+      Statement statement = parseStatement(sql).getStatement();
       if (statement instanceof Insert) {
         Insert insertStatement = (Insert) statement;
         if (generateParameterMetaData || insertStatement.getSelect() == null)
@@ -417,6 +666,9 @@ public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedS
                 getConnection().getTable(unquoteIdentifier(deleteStatement.getTable().getName())),
                 deleteStatement.getWhere()))
           return new Mutations(createDeleteMutation(deleteStatement, generateParameterMetaData));
+        Mutation deleteRange = createDeleteRangeMutation(deleteStatement);
+        if (deleteRange != null)
+          return new Mutations(deleteRange);
         return new Mutations(createDeleteWorker(deleteStatement));
       } else {
         throw new CloudSpannerSQLException(
@@ -517,6 +769,25 @@ public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedS
     }
   }
 
+  /**
+   * Creates a mutation that deletes all rows in a range of primary keys if the WHERE-clause of the
+   * DELETE-statement only restricts a prefix of the key and/or the next key column.
+   * 
+   * @return The mutation, or <code>null</code> if the WHERE-clause cannot be translated into a key
+   *         range
+   */
+  private Mutation createDeleteRangeMutation(Delete delete) throws SQLException {
+    if (delete.getTables() != null && !delete.getTables().isEmpty())
+      return null;
+    String table = unquoteIdentifier(delete.getTable().getFullyQualifiedName());
+    KeySet keys = KeyRangeBuilder.forTable(getConnection().getTable(table), getParameterStore())
+        .build(delete.getWhere());
+    if (keys == null)
+      return null;
+    getParameterStore().setTable(table);
+    return Mutation.delete(table, keys);
+  }
+
   private void visitDeleteWhereClause(Expression where, DeleteKeyBuilder keyBuilder,
       boolean generateParameterMetaData) throws SQLException {
     if (where != null) {
@@ -587,30 +858,35 @@ public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedS
     CustomDriverStatement custom = getCustomDriverStatement(sqlTokens);
     if (custom != null)
       return custom.execute(sqlTokens);
-    Statement statement = null;
+    ParsedStatement parsed = null;
     boolean ddl = isDDLStatement();
     if (!ddl) {
       try {
-        statement = CCJSqlParserUtil.parse(sanitizeSQL(sql));
+        parsed = parseStatement(sql);
       } catch (JSQLParserException | TokenMgrException e) {
         throw new CloudSpannerSQLException(PARSE_ERROR + sql + ": " + e.getLocalizedMessage(),
             Code.INVALID_ARGUMENT, e);
       }
     }
-    if (!ddl && statement instanceof Select) {
-      determineForceSingleUseReadContext((Select) statement);
-      com.google.cloud.spanner.Statement.Builder builder = createSelectBuilder(statement, sql);
+    if (!ddl && parsed.getStatement() instanceof Select) {
+      determineForceSingleUseReadContext((Select) parsed.getStatement());
+      com.google.cloud.spanner.Statement.Builder builder = createSelectBuilder(parsed);
       if (!isForceSingleUseReadContext() && getConnection().isBatchReadOnly()) {
         List<Partition> partitions = partitionQuery(builder.build());
-        currentResultSets = new ArrayList<>(partitions.size());
-        for (Partition p : partitions) {
-          currentResultSets
-              .add(new CloudSpannerPartitionResultSet(this, getBatchReadOnlyTransaction(), p, sql));
-        }
+        currentResultSets = createPartitionResultSets(partitions, sql);
+        currentResultSetIndex = 0;
+        lastUpdateCount = -1;
       } else {
+        KeyReadQuery read = createKeyReadQuery(parsed);
         try (ReadContext context = getReadContext()) {
-          com.google.cloud.spanner.ResultSet rs = context.executeQuery(builder.build());
-          currentResultSets = Arrays.asList(new CloudSpannerResultSet(this, rs, sql));
+          com.google.cloud.spanner.ResultSet rs;
+          if (read == null) {
+            com.google.cloud.spanner.Statement query = builder.build();
+            rs = executeCachedQuery(context, query, c -> c.executeQuery(query));
+          } else {
+            rs = executeCachedQuery(context, read, read::execute);
+          }
+          currentResultSets = Arrays.asList(createResultSet(rs, sql));
           currentResultSetIndex = 0;
           lastUpdateCount = -1;
         }
@@ -632,7 +908,8 @@ public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedS
         throw new CloudSpannerSQLException("Cannot get parameter meta data for DDL statement",
             Code.INVALID_ARGUMENT);
       }
-      Statement statement = CCJSqlParserUtil.parse(sanitizeSQL(sql));
+      ParsedStatement parsed = parseStatement(sql);
+      Statement statement = parsed.getStatement();
       if (statement instanceof Insert || statement instanceof Update
           || statement instanceof Delete) {
         // Create mutation, but don't do anything with it. This
@@ -641,7 +918,7 @@ public class CloudSpannerPreparedStatement extends AbstractCloudSpannerPreparedS
       } else if (statement instanceof Select) {
         // Create select builder, but don't do anything with it. This
         // initializes column names of the parameter store.
-        createSelectBuilder(statement, sql);
+        createSelectBuilder(parsed);
       }
     } catch (JSQLParserException | TokenMgrException e) {
       throw new CloudSpannerSQLException(PARSE_ERROR + sql + ": " + e.getLocalizedMessage(),
@@ -8,30 +8,43 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ForwardingResultSet;
 import com.google.cloud.spanner.Partition;
 import com.google.cloud.spanner.ReadContext;
 import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.TimestampBound;
 import com.google.cloud.spanner.Type;
 import com.google.cloud.spanner.Type.StructField;
 import com.google.rpc.Code;
 import net.sf.jsqlparser.JSQLParserException;
-import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.parser.TokenMgrException;
 import net.sf.jsqlparser.statement.Statement;
 import net.sf.jsqlparser.statement.select.Select;
 import nl.topicus.jdbc.CloudSpannerConnection;
+import nl.topicus.jdbc.CloudSpannerDriver;
+import nl.topicus.jdbc.ICloudSpannerStatement;
 import nl.topicus.jdbc.exception.CloudSpannerSQLException;
 import nl.topicus.jdbc.resultset.CloudSpannerPartitionResultSet;
+import nl.topicus.jdbc.resultset.CloudSpannerPrefetchingResultSet;
 import nl.topicus.jdbc.resultset.CloudSpannerResultSet;
+import nl.topicus.jdbc.resultset.ParallelPartitionExecutor;
+import nl.topicus.jdbc.resultset.QueryResultCache;
+import nl.topicus.jdbc.transaction.TransactionMonitor;
+import nl.topicus.jdbc.transaction.TransactionThreadPool;
 
 /**
  * 
  * @author loite
  *
  */
-public class CloudSpannerStatement extends AbstractCloudSpannerStatement {
+public class CloudSpannerStatement extends AbstractCloudSpannerStatement
+    implements ICloudSpannerStatement {
   protected List<ResultSet> currentResultSets = null;
 
   protected int currentResultSetIndex = 0;
@@ -45,6 +58,8 @@ public class CloudSpannerStatement extends AbstractCloudSpannerStatement {
 
   private List<String> batchStatements = new ArrayList<>();
 
+  private boolean useQueryResultCache = true;
+
   enum BatchMode {
     NONE, DML, DDL;
   }
@@ -174,13 +189,140 @@ public class CloudSpannerStatement extends AbstractCloudSpannerStatement {
     if (custom != null && custom.isQuery()) {
       return custom.executeQuery(sqlTokens);
     }
-    try (ReadContext context = getReadContext()) {
+    return executeQuery(getReadContext(), com.google.cloud.spanner.Statement.of(sql), sql);
+  }
+
+  protected ResultSet executeQuery(ReadContext readContext,
+      com.google.cloud.spanner.Statement statement, String sql) throws SQLException {
+    try (ReadContext context = readContext) {
       com.google.cloud.spanner.ResultSet rs =
-          context.executeQuery(com.google.cloud.spanner.Statement.of(sql));
-      return new CloudSpannerResultSet(this, rs, sql);
+          executeCachedQuery(context, statement, c -> c.executeQuery(statement));
+      return createResultSet(rs, sql);
     }
   }
 
+  /**
+   * Executes a query in the given read context, or returns the result of the query from the query
+   * result cache of the driver. The cache is only used by read-only connections in autocommit mode
+   * that have set a query result cache TTL.
+   * 
+   * @param context The read context to execute the query in
+   * @param query The query including its parameter values, which identifies the result in the
+   *        cache
+   * @param executor The function that executes the query in a read context
+   * @return The result of the query
+   * @throws SQLException if a database error occurs
+   */
+  protected com.google.cloud.spanner.ResultSet executeCachedQuery(ReadContext context, Object query,
+      Function<ReadContext, com.google.cloud.spanner.ResultSet> executor) throws SQLException {
+    QueryResultCache.Key key = createQueryResultCacheKey(query);
+    if (key == null)
+      return executeOnSpanner(context, executor);
+    QueryResultCache cache = CloudSpannerDriver.getQueryResultCache();
+    com.google.cloud.spanner.ResultSet rs = cache.get(key);
+    if (rs == null)
+      rs = cache.cache(key, executeOnSpanner(context, executor), getQueryResultCacheTTL());
+    return rs;
+  }
+
+  /**
+   * Cloud Spanner executes a query when the first row is requested. The connection records a
+   * successful request once that has succeeded, which never happens for a cached result.
+   */
+  private com.google.cloud.spanner.ResultSet executeOnSpanner(ReadContext context,
+      Function<ReadContext, com.google.cloud.spanner.ResultSet> executor) throws SQLException {
+    CloudSpannerConnection connection = getConnection();
+    return new ForwardingResultSet(executor.apply(context)) {
+      private boolean executed;
+
+      @Override
+      public boolean next() {
+        boolean res = super.next();
+        if (!executed) {
+          executed = true;
+          connection.markSuccessfulRequest();
+        }
+        return res;
+      }
+    };
+  }
+
+  private QueryResultCache.Key createQueryResultCacheKey(Object query) throws SQLException {
+    CloudSpannerConnection connection = getConnection();
+    if (!useQueryResultCache || getQueryResultCacheTTL() == 0L || !connection.isReadOnly()
+        || !(connection.getAutoCommit() || isForceSingleUseReadContext())
+        || CloudSpannerDriver.getQueryResultCache().getMaxBytes() == 0L)
+      return null;
+    return QueryResultCache.Key.of(connection.getDatabaseSpecification(), query,
+        getSingleUseTimestampBound());
+  }
+
+  public boolean isUseQueryResultCache() {
+    return useQueryResultCache;
+  }
+
+  /**
+   * @param useQueryResultCache false if the queries of this statement must always be executed on
+   *        Cloud Spanner, even if the connection uses the query result cache
+   */
+  public void setUseQueryResultCache(boolean useQueryResultCache) {
+    this.useQueryResultCache = useQueryResultCache;
+  }
+
+  /**
+   * A cached result may not be older than the staleness that the query allows. Strong reads must
+   * always see the latest data, and are therefore never cached.
+   * 
+   * @return The number of milliseconds that a query result may be cached, or 0 if the result may
+   *         not be cached
+   */
+  private long getQueryResultCacheTTL() throws SQLException {
+    long ttl = getConnection().getQueryResultCacheTTL();
+    TimestampBound bound = getSingleUseTimestampBound();
+    switch (bound.getMode()) {
+      case STRONG:
+        return 0L;
+      case EXACT_STALENESS:
+        return Math.min(ttl, bound.getExactStaleness(TimeUnit.MILLISECONDS));
+      case MAX_STALENESS:
+        return Math.min(ttl, bound.getMaxStaleness(TimeUnit.MILLISECONDS));
+      default:
+        return ttl;
+    }
+  }
+
+  /**
+   * Creates the JDBC result set for the given Cloud Spanner result set. If the connection prefetches
+   * results, the rows are read on a background thread in chunks of the fetch size of this
+   * statement.
+   * 
+   * @param rs The Cloud Spanner result set of a query
+   * @param sql The sql string of the query
+   * @return The JDBC result set for the query
+   * @throws SQLException if the query returned an error
+   */
+  protected CloudSpannerResultSet createResultSet(com.google.cloud.spanner.ResultSet rs,
+      String sql) throws SQLException {
+    CloudSpannerResultSet res;
+    if (getConnection().isPrefetchResults())
+      res = CloudSpannerPrefetchingResultSet.of(this, rs, sql, getFetchSize());
+    else
+      res = new CloudSpannerResultSet(this, rs, sql);
+    return res;
+  }
+
+  @Override
+  public CompletableFuture<ResultSet> executeQueryAsync(String sql) throws SQLException {
+    String[] sqlTokens = getTokens(sql);
+    CustomDriverStatement custom = getCustomDriverStatement(sqlTokens);
+    if (custom != null && custom.isQuery()) {
+      return CompletableFuture.completedFuture(custom.executeQuery(sqlTokens));
+    }
+    ReadContext context = getAsyncReadContext();
+    com.google.cloud.spanner.Statement statement = com.google.cloud.spanner.Statement.of(sql);
+    return executeAsync(context, () -> executeQuery(context, statement, sql));
+  }
+
   @Override
   public int executeUpdate(String sql) throws SQLException {
     String[] sqlTokens = getTokens(sql);
@@ -196,6 +338,16 @@ public class CloudSpannerStatement extends AbstractCloudSpannerStatement {
     return ps.executeUpdate();
   }
 
+  @Override
+  public CompletableFuture<Integer> executeUpdateAsync(String sql) throws SQLException {
+    String[] sqlTokens = getTokens(sql);
+    CustomDriverStatement custom = getCustomDriverStatement(sqlTokens);
+    if ((custom != null && !custom.isQuery()) || isDDLStatement(sqlTokens)) {
+      return CompletableFuture.completedFuture(executeUpdate(sql));
+    }
+    return getConnection().prepareStatement(sql).executeUpdateAsync();
+  }
+
   @Override
   public boolean execute(String sql) throws SQLException {
     String[] sqlTokens = getTokens(sql);
@@ -206,7 +358,7 @@ public class CloudSpannerStatement extends AbstractCloudSpannerStatement {
     boolean ddl = isDDLStatement(sqlTokens);
     if (!ddl) {
       try {
-        statement = CCJSqlParserUtil.parse(sanitizeSQL(sql));
+        statement = parseStatement(sql).getStatement();
       } catch (JSQLParserException | TokenMgrException e) {
         throw new CloudSpannerSQLException(
             "Error while parsing sql statement " + sql + ": " + e.getLocalizedMessage(),
@@ -217,16 +369,15 @@ public class CloudSpannerStatement extends AbstractCloudSpannerStatement {
       determineForceSingleUseReadContext((Select) statement);
       if (!isForceSingleUseReadContext() && getConnection().isBatchReadOnly()) {
         List<Partition> partitions = partitionQuery(com.google.cloud.spanner.Statement.of(sql));
-        currentResultSets = new ArrayList<>(partitions.size());
-        for (Partition p : partitions) {
-          currentResultSets
-              .add(new CloudSpannerPartitionResultSet(this, getBatchReadOnlyTransaction(), p, sql));
-        }
+        currentResultSets = createPartitionResultSets(partitions, sql);
+        currentResultSetIndex = 0;
+        lastUpdateCount = -1;
       } else {
         try (ReadContext context = getReadContext()) {
+          com.google.cloud.spanner.Statement query = com.google.cloud.spanner.Statement.of(sql);
           com.google.cloud.spanner.ResultSet rs =
-              context.executeQuery(com.google.cloud.spanner.Statement.of(sql));
-          currentResultSets = Arrays.asList(new CloudSpannerResultSet(this, rs, sql));
+              executeCachedQuery(context, query, c -> c.executeQuery(query));
+          currentResultSets = Arrays.asList(createResultSet(rs, sql));
           currentResultSetIndex = 0;
           lastUpdateCount = -1;
         }
@@ -403,11 +554,13 @@ public class CloudSpannerStatement extends AbstractCloudSpannerStatement {
 
     @Override
     public int executeUpdate(String[] sqlTokens) throws SQLException {
-      if (sqlTokens.length != 4 || !"=".equals(sqlTokens[2]))
+      if (sqlTokens.length < 4 || !"=".equals(sqlTokens[2]))
         throw new CloudSpannerSQLException(
             "Invalid argument(s) for SET_CONNECTION_PROPERTY. Expected \"SET_CONNECTION_PROPERTY propertyName=propertyValue\"",
             Code.INVALID_ARGUMENT);
-      return getConnection().setDynamicConnectionProperty(sqlTokens[1], sqlTokens[3]);
+      // Values such as 'EXACT_STALENESS 10s' may contain spaces
+      String value = String.join(" ", Arrays.copyOfRange(sqlTokens, 3, sqlTokens.length));
+      return getConnection().setDynamicConnectionProperty(sqlTokens[1], value);
     }
   }
 
@@ -459,10 +612,80 @@ public class CloudSpannerStatement extends AbstractCloudSpannerStatement {
     }
   }
 
+  private class ShowStatementCache extends CustomDriverStatement {
+    private ShowStatementCache() {
+      super("SHOW_STATEMENT_CACHE", true);
+    }
+
+    @Override
+    public ResultSet executeQuery(String[] sqlTokens) throws SQLException {
+      if (sqlTokens.length != 1)
+        throw new CloudSpannerSQLException(
+            "Invalid argument(s) for SHOW_STATEMENT_CACHE. Expected \"SHOW_STATEMENT_CACHE\"",
+            Code.INVALID_ARGUMENT);
+      ParsedStatementCache cache = CloudSpannerDriver.getParsedStatementCache();
+      com.google.cloud.spanner.ResultSet rs = ResultSets.forRows(
+          Type.struct(StructField.of("SIZE", Type.int64()), StructField.of("MAX_SIZE", Type.int64()),
+              StructField.of("HITS", Type.int64()), StructField.of("MISSES", Type.int64()),
+              StructField.of("EVICTIONS", Type.int64())),
+          Arrays.asList(Struct.newBuilder().set("SIZE").to(cache.size()).set("MAX_SIZE")
+              .to(cache.getMaxSize()).set("HITS").to(cache.getHits()).set("MISSES")
+              .to(cache.getMisses()).set("EVICTIONS").to(cache.getEvictions()).build()));
+      return new CloudSpannerResultSet(CloudSpannerStatement.this, rs, null);
+    }
+  }
+
+  private class ShowTransactionPool extends CustomDriverStatement {
+    private ShowTransactionPool() {
+      super("SHOW_TRANSACTION_POOL", true);
+    }
+
+    @Override
+    public ResultSet executeQuery(String[] sqlTokens) throws SQLException {
+      if (sqlTokens.length != 1)
+        throw new CloudSpannerSQLException(
+            "Invalid argument(s) for SHOW_TRANSACTION_POOL. Expected \"SHOW_TRANSACTION_POOL\"",
+            Code.INVALID_ARGUMENT);
+      TransactionThreadPool pool = CloudSpannerDriver.getTransactionThreadPool();
+      TransactionMonitor monitor = CloudSpannerDriver.getTransactionMonitor();
+      com.google.cloud.spanner.ResultSet rs = ResultSets.forRows(
+          Type.struct(StructField.of("MAX_SIZE", Type.int64()),
+              StructField.of("VIRTUAL_THREADS", Type.bool()),
+              StructField.of("POOL_SIZE", Type.int64()), StructField.of("ACTIVE", Type.int64()),
+              StructField.of("QUEUED", Type.int64()), StructField.of("COMPLETED", Type.int64()),
+              StructField.of("IDLE", Type.int64()), StructField.of("LONG_RUNNING", Type.int64()),
+              StructField.of("KEEP_ALIVES", Type.int64())),
+          Arrays.asList(Struct.newBuilder().set("MAX_SIZE").to(pool.getMaxSize())
+              .set("VIRTUAL_THREADS").to(pool.isUseVirtualThreads()).set("POOL_SIZE")
+              .to(pool.getPoolSize()).set("ACTIVE").to(pool.getActiveCount()).set("QUEUED")
+              .to(pool.getQueuedCount()).set("COMPLETED").to(pool.getCompletedCount())
+              .set("IDLE").to(monitor.getIdleCount()).set("LONG_RUNNING")
+              .to(monitor.getLongRunningCount()).set("KEEP_ALIVES")
+              .to(monitor.getKeepAliveCount()).build()));
+      return new CloudSpannerResultSet(CloudSpannerStatement.this, rs, null);
+    }
+  }
+
+  private class ShowSessionPool extends CustomDriverStatement {
+    private ShowSessionPool() {
+      super("SHOW_SESSION_POOL", true);
+    }
+
+    @Override
+    public ResultSet executeQuery(String[] sqlTokens) throws SQLException {
+      if (sqlTokens.length != 1)
+        throw new CloudSpannerSQLException(
+            "Invalid argument(s) for SHOW_SESSION_POOL. Expected \"SHOW_SESSION_POOL\"",
+            Code.INVALID_ARGUMENT);
+      return getConnection().getSessionPoolSettings(CloudSpannerStatement.this);
+    }
+  }
+
   private final List<CustomDriverStatement> customDriverStatements =
       Arrays.asList(new ShowDdlOperations(), new CleanDdlOperations(), new WaitForDdlOperations(),
           new ExecuteDdlBatch(), new SetConnectionProperty(), new GetConnectionProperty(),
-          new ResetConnectionProperty(), new GetLastCommitTimestamp());
+          new ResetConnectionProperty(), new GetLastCommitTimestamp(), new ShowStatementCache(),
+          new ShowTransactionPool(), new ShowSessionPool());
 
   /**
    * Checks if a sql statement is a custom statement only recognized by this driver
@@ -482,6 +705,51 @@ public class CloudSpannerStatement extends AbstractCloudSpannerStatement {
     return null;
   }
 
+  /**
+   * Creates the result sets for the partitions of a query in batch read-only mode. If the
+   * connection has a partition parallelism larger than 0, the partitions are executed in parallel
+   * in the background. Otherwise each partition is executed when its result set is first used.
+   * 
+   * @param partitions The partitions of the query
+   * @param sql The sql string of the query
+   * @return The result sets of the partitions
+   * @throws SQLException If any of the result sets of a previous execution could not be closed
+   */
+  protected List<ResultSet> createPartitionResultSets(List<Partition> partitions, String sql)
+      throws SQLException {
+    closeCurrentResultSets();
+    int parallelism = getConnection().getPartitionParallelism();
+    if (parallelism > 0) {
+      return ParallelPartitionExecutor.execute(this, getBatchReadOnlyTransaction(), partitions,
+          sql, parallelism, getConnection().isMergePartitionResults());
+    }
+    List<ResultSet> res = new ArrayList<>(partitions.size());
+    for (Partition p : partitions) {
+      res.add(new CloudSpannerPartitionResultSet(this, getBatchReadOnlyTransaction(), p, sql));
+    }
+    return res;
+  }
+
+  /**
+   * Closes the result sets of the last execution that have not yet been closed, so that any
+   * partitions that are still being fetched in the background are stopped.
+   */
+  private void closeCurrentResultSets() throws SQLException {
+    if (currentResultSets != null) {
+      for (int i = currentResultSetIndex; i < currentResultSets.size(); i++) {
+        ResultSet rs = currentResultSets.get(i);
+        if (rs != null && !rs.isClosed())
+          rs.close();
+      }
+    }
+  }
+
+  @Override
+  public void close() throws SQLException {
+    closeCurrentResultSets();
+    super.close();
+  }
+
   @Override
   public ResultSet getResultSet() throws SQLException {
     return currentResultSets == null || currentResultSetIndex >= currentResultSets.size() ? null
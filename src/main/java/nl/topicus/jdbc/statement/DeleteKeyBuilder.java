@@ -51,7 +51,7 @@ public class DeleteKeyBuilder {
     return builder;
   }
 
-  private Object convert(Object value) {
+  static Object convert(Object value) {
     if (value != null) {
       if (Date.class.isAssignableFrom(value.getClass())) {
         Date dateValue = (Date) value;
@@ -0,0 +1,334 @@
+package nl.topicus.jdbc.statement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import com.google.cloud.ByteArray;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.KeyRange;
+import com.google.cloud.spanner.KeyRange.Endpoint;
+import com.google.cloud.spanner.KeySet;
+import net.sf.jsqlparser.expression.DateValue;
+import net.sf.jsqlparser.expression.DoubleValue;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.HexValue;
+import net.sf.jsqlparser.expression.JdbcParameter;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.SignedExpression;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.TimestampValue;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.ComparisonOperator;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.SupportsOldOracleJoinSyntax;
+import net.sf.jsqlparser.schema.Column;
+import nl.topicus.jdbc.CloudSpannerDriver;
+import nl.topicus.jdbc.MetaDataStore.IndexKeyMetaData;
+import nl.topicus.jdbc.MetaDataStore.TableKeyMetaData;
+
+/**
+ * Translates a WHERE-clause into a {@link KeySet} if the clause only restricts the rows to one key,
+ * or to a prefix of the key optionally followed by a range on the next key column. Examples are
+ * <code>ID=?</code>, <code>PARENT_ID=?</code>, <code>ID BETWEEN ? AND ?</code> and
+ * <code>PARENT_ID=? AND ID&gt;=?</code>. The key can be the primary key of a table or the key of a
+ * secondary index. The rows in the key set can then be deleted with one mutation, or read with the
+ * read API of Cloud Spanner instead of a query.
+ *
+ * @author loite
+ *
+ */
+class KeyRangeBuilder {
+  private static final class Bound {
+    private final Object value;
+
+    private final boolean inclusive;
+
+    private Bound(Object value, boolean inclusive) {
+      this.value = value;
+      this.inclusive = inclusive;
+    }
+  }
+
+  private static final class ValueEvaluator extends AbstractSpannerExpressionVisitorAdapter {
+    private Object value;
+
+    private ValueEvaluator(ParameterStore parameterStore, String column) {
+      super(parameterStore, column);
+    }
+
+    @Override
+    protected void setValue(Object value, Integer sqlType) {
+      this.value = value;
+    }
+  }
+
+  private final List<String> keyColumns;
+
+  private final Function<String, String> keyColumnOrdering;
+
+  private final Map<String, String> columnTypes;
+
+  private final ParameterStore parameterStore;
+
+  private final Map<String, Object> equalTo = new HashMap<>();
+
+  private final Map<String, Bound> lowerBounds = new HashMap<>();
+
+  private final Map<String, Bound> upperBounds = new HashMap<>();
+
+  private int conditions;
+
+  private boolean valid = true;
+
+  /**
+   * 
+   * @param keyColumns The upper case names of the key columns in key order
+   * @param keyColumnOrdering Returns ASC or DESC for a key column, or <code>null</code> if the
+   *        ordering is not known
+   * @param columnTypes The Cloud Spanner types of the columns of the table, or an empty map if the
+   *        types are not known
+   * @param parameterStore The parameters of the statement
+   */
+  KeyRangeBuilder(List<String> keyColumns, Function<String, String> keyColumnOrdering,
+      Map<String, String> columnTypes, ParameterStore parameterStore) {
+    this.keyColumns = keyColumns;
+    this.keyColumnOrdering = keyColumnOrdering;
+    this.columnTypes = columnTypes;
+    this.parameterStore = parameterStore;
+  }
+
+  static KeyRangeBuilder forTable(TableKeyMetaData table, ParameterStore parameterStore) {
+    return new KeyRangeBuilder(table.getKeyColumns(), table::getKeyColumnOrdering,
+        table.getColumns(), parameterStore);
+  }
+
+  /**
+   * The key of a secondary index consists of the key columns of the index followed by the primary
+   * key columns of the table that are not already part of the index. A condition on only the index
+   * columns is therefore translated into a prefix of the index key.
+   */
+  static KeyRangeBuilder forIndex(TableKeyMetaData table, IndexKeyMetaData index,
+      ParameterStore parameterStore) {
+    List<String> keyColumns = new ArrayList<>(index.getKeyColumns());
+    for (String column : table.getKeyColumns()) {
+      if (!keyColumns.contains(column))
+        keyColumns.add(column);
+    }
+    return new KeyRangeBuilder(keyColumns,
+        column -> index.getKeyColumns().contains(column) ? index.getKeyColumnOrdering(column)
+            : table.getKeyColumnOrdering(column),
+        table.getColumns(), parameterStore);
+  }
+
+  /**
+   *
+   * @param where A WHERE-clause
+   * @return The keys of the rows that are selected by the WHERE-clause, or <code>null</code> if
+   *         the WHERE-clause cannot be translated into a key set
+   */
+  KeySet build(Expression where) {
+    if (where == null)
+      return null;
+    visitCondition(where);
+    if (!valid)
+      return null;
+    try {
+      return buildKeySet();
+    } catch (IllegalArgumentException e) {
+      // One of the values is not a valid key value
+      return null;
+    }
+  }
+
+  private void visitCondition(Expression expression) {
+    if (!valid)
+      return;
+    if (expression instanceof AndExpression && !((AndExpression) expression).isNot()) {
+      visitCondition(((AndExpression) expression).getLeftExpression());
+      visitCondition(((AndExpression) expression).getRightExpression());
+    } else if (expression instanceof Parenthesis && !((Parenthesis) expression).isNot()) {
+      visitCondition(((Parenthesis) expression).getExpression());
+    } else if (expression instanceof Between && !((Between) expression).isNot()) {
+      Between between = (Between) expression;
+      String column = getKeyColumn(between.getLeftExpression());
+      addBound(lowerBounds, column, between.getBetweenExpressionStart(), true);
+      addBound(upperBounds, column, between.getBetweenExpressionEnd(), true);
+    } else if (expression instanceof ComparisonOperator) {
+      visitComparison((ComparisonOperator) expression);
+    } else {
+      valid = false;
+    }
+  }
+
+  private void visitComparison(ComparisonOperator comparison) {
+    if (comparison.isNot()
+        || comparison.getOldOracleJoinSyntax() != SupportsOldOracleJoinSyntax.NO_ORACLE_JOIN) {
+      valid = false;
+      return;
+    }
+    String column = getKeyColumn(comparison.getLeftExpression());
+    Expression valueExpression = comparison.getRightExpression();
+    if (comparison instanceof EqualsTo) {
+      Object value = getValue(column, valueExpression);
+      if (valid && equalTo.put(column, value) != null)
+        valid = false;
+      conditions++;
+    } else if (comparison instanceof GreaterThan || comparison instanceof GreaterThanEquals) {
+      addBound(lowerBounds, column, valueExpression, comparison instanceof GreaterThanEquals);
+    } else if (comparison instanceof MinorThan || comparison instanceof MinorThanEquals) {
+      addBound(upperBounds, column, valueExpression, comparison instanceof MinorThanEquals);
+    } else {
+      valid = false;
+    }
+  }
+
+  private void addBound(Map<String, Bound> bounds, String column, Expression expression,
+      boolean inclusive) {
+    Object value = getValue(column, expression);
+    if (valid && bounds.put(column, new Bound(value, inclusive)) != null)
+      valid = false;
+    conditions++;
+  }
+
+  private String getKeyColumn(Expression expression) {
+    if (valid && expression instanceof Column) {
+      String column =
+          CloudSpannerDriver.unquoteIdentifier(((Column) expression).getColumnName()).toUpperCase();
+      if (keyColumns.contains(column))
+        return column;
+    }
+    valid = false;
+    return null;
+  }
+
+  private Object getValue(String column, Expression expression) {
+    if (!valid || !isValue(expression)) {
+      valid = false;
+      return null;
+    }
+    ValueEvaluator evaluator = new ValueEvaluator(parameterStore, column);
+    expression.accept(evaluator);
+    // A comparison with NULL does not select any rows
+    if (evaluator.value == null) {
+      valid = false;
+      return null;
+    }
+    Object value = evaluator.value instanceof byte[] ? ByteArray.copyFrom((byte[]) evaluator.value)
+        : DeleteKeyBuilder.convert(evaluator.value);
+    if (!isValidKeyValue(columnTypes.get(column), value)) {
+      valid = false;
+      return null;
+    }
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+      return ((Number) value).longValue();
+    if (value instanceof Float)
+      return ((Float) value).doubleValue();
+    return value;
+  }
+
+  /**
+   * Checks whether the value can be used as a key value for a column of the given type. Queries
+   * coerce some values to the type of the column. Keys are not coerced, and these values are
+   * therefore rejected.
+   */
+  private static boolean isValidKeyValue(String type, Object value) {
+    if (type == null)
+      return true;
+    if (type.startsWith("INT64"))
+      return value instanceof Long || value instanceof Integer || value instanceof Short
+          || value instanceof Byte;
+    if (type.startsWith("FLOAT64"))
+      return value instanceof Double || value instanceof Float;
+    if (type.startsWith("STRING"))
+      return value instanceof String;
+    if (type.startsWith("BYTES"))
+      return value instanceof ByteArray;
+    if (type.startsWith("BOOL"))
+      return value instanceof Boolean;
+    if (type.startsWith("DATE"))
+      return value instanceof com.google.cloud.Date;
+    if (type.startsWith("TIMESTAMP"))
+      return value instanceof com.google.cloud.Timestamp;
+    return false;
+  }
+
+  private static boolean isValue(Expression expression) {
+    if (expression instanceof SignedExpression) {
+      Expression underlying = ((SignedExpression) expression).getExpression();
+      return underlying instanceof LongValue || underlying instanceof DoubleValue;
+    }
+    return expression instanceof JdbcParameter || expression instanceof LongValue
+        || expression instanceof DoubleValue || expression instanceof StringValue
+        || expression instanceof DateValue || expression instanceof TimestampValue
+        || expression instanceof HexValue;
+  }
+
+  private KeySet buildKeySet() {
+    List<Object> prefix = new ArrayList<>(keyColumns.size());
+    int index = 0;
+    while (index < keyColumns.size() && equalTo.containsKey(keyColumns.get(index))) {
+      prefix.add(equalTo.get(keyColumns.get(index)));
+      index++;
+    }
+    if (index == keyColumns.size())
+      return conditions == index ? KeySet.singleKey(createKey(prefix)) : null;
+    String column = keyColumns.get(index);
+    Bound lower = lowerBounds.get(column);
+    Bound upper = upperBounds.get(column);
+    int used = index + (lower == null ? 0 : 1) + (upper == null ? 0 : 1);
+    if (used == 0 || used != conditions)
+      return null;
+    if (lower == null && upper == null)
+      return KeySet.range(KeyRange.prefix(createKey(prefix)));
+
+    // The range must be specified in the order of the index, and NULL values sort before all
+    // other values in ascending order and after all other values in descending order
+    String ordering = keyColumnOrdering.apply(column);
+    if (ordering == null)
+      return null;
+    boolean descending = "DESC".equals(ordering);
+    Bound first = descending ? upper : lower;
+    Bound last = descending ? lower : upper;
+    KeyRange.Builder builder = KeyRange.newBuilder();
+    if (first != null) {
+      builder.setStart(createKey(prefix, first.value));
+      builder.setStartType(first.inclusive ? Endpoint.CLOSED : Endpoint.OPEN);
+    } else if (descending) {
+      builder.setStart(createKey(prefix)).setStartType(Endpoint.CLOSED);
+    } else {
+      builder.setStart(createKey(prefix, null)).setStartType(Endpoint.OPEN);
+    }
+    if (last != null) {
+      builder.setEnd(createKey(prefix, last.value));
+      builder.setEndType(last.inclusive ? Endpoint.CLOSED : Endpoint.OPEN);
+    } else if (descending) {
+      builder.setEnd(createKey(prefix, null)).setEndType(Endpoint.OPEN);
+    } else {
+      builder.setEnd(createKey(prefix)).setEndType(Endpoint.CLOSED);
+    }
+    return KeySet.range(builder.build());
+  }
+
+  private static Key createKey(List<Object> prefix) {
+    Key.Builder builder = Key.newBuilder();
+    for (Object value : prefix)
+      builder.appendObject(value);
+    return builder.build();
+  }
+
+  private static Key createKey(List<Object> prefix, Object value) {
+    Key.Builder builder = Key.newBuilder();
+    for (Object part : prefix)
+      builder.appendObject(part);
+    return builder.appendObject(value).build();
+  }
+
+}
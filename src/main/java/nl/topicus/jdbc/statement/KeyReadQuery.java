@@ -0,0 +1,201 @@
+package nl.topicus.jdbc.statement;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import com.google.cloud.spanner.KeySet;
+import com.google.cloud.spanner.ReadContext;
+import com.google.cloud.spanner.ResultSet;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.AllTableColumns;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectExpressionItem;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import nl.topicus.jdbc.CloudSpannerConnection;
+import nl.topicus.jdbc.CloudSpannerDriver;
+import nl.topicus.jdbc.MetaDataStore.IndexKeyMetaData;
+import nl.topicus.jdbc.MetaDataStore.TableKeyMetaData;
+
+/**
+ * A query that selects columns from one table by key, and that is therefore executed with the read
+ * API of Cloud Spanner instead of as a SQL query. This saves Cloud Spanner the planning of the
+ * query. Queries of the form <code>SELECT COL1, COL2 FROM FOO WHERE ID=?</code> are executed as a
+ * point read, and queries that select a prefix or a range of the key are executed as a read of a
+ * key range. A <code>@{FORCE_INDEX=...}</code> hint on the table is executed as a read using the
+ * index, in which case the WHERE-clause must select rows by the key of the index.
+ *
+ * @author loite
+ *
+ */
+final class KeyReadQuery {
+  private static final Pattern FORCE_INDEX =
+      Pattern.compile("(?is)@\\{\\s*FORCE_INDEX\\s*=\\s*([^\\s}]+)\\s*\\}");
+
+  private static final String BASE_TABLE = "_BASE_TABLE";
+
+  private final String table;
+
+  private final String index;
+
+  private final KeySet keys;
+
+  private final List<String> columns;
+
+  private KeyReadQuery(String table, String index, KeySet keys, List<String> columns) {
+    this.table = table;
+    this.index = index;
+    this.keys = keys;
+    this.columns = columns;
+  }
+
+  /**
+   * Creates a read for the given query if the query selects columns from one table by key.
+   *
+   * @param select The parsed query
+   * @param sql The sql string of the query, including any query hints
+   * @param connection The connection that executes the query
+   * @param parameterStore The parameters of the query
+   * @return The read for the query, or <code>null</code> if the query must be executed as a SQL
+   *         query
+   * @throws SQLException if the meta data of the table could not be loaded
+   */
+  static KeyReadQuery create(Select select, String sql, CloudSpannerConnection connection,
+      ParameterStore parameterStore) throws SQLException {
+    if (select.getWithItemsList() != null && !select.getWithItemsList().isEmpty())
+      return null;
+    if (!(select.getSelectBody() instanceof PlainSelect))
+      return null;
+    PlainSelect plainSelect = (PlainSelect) select.getSelectBody();
+    if (!isSimpleSelect(plainSelect))
+      return null;
+    Table from = (Table) plainSelect.getFromItem();
+    String tableName = CloudSpannerDriver.unquoteIdentifier(from.getName());
+    TableKeyMetaData table = connection.getTable(tableName);
+    if (table == null || table.getColumns().isEmpty())
+      return null;
+    List<String> columns = getColumns(plainSelect.getSelectItems(), tableName, table);
+    if (columns == null)
+      return null;
+
+    IndexKeyMetaData index = null;
+    Matcher matcher = FORCE_INDEX.matcher(sql);
+    if (matcher.find() && !BASE_TABLE.equalsIgnoreCase(matcher.group(1))) {
+      index = table.getIndex(CloudSpannerDriver.unquoteIdentifier(matcher.group(1)));
+      if (index == null || !isCoveredByIndex(columns, table, index))
+        return null;
+    }
+    KeyRangeBuilder builder = index == null ? KeyRangeBuilder.forTable(table, parameterStore)
+        : KeyRangeBuilder.forIndex(table, index, parameterStore);
+    KeySet keys = builder.build(plainSelect.getWhere());
+    if (keys == null)
+      return null;
+    List<String> names = new ArrayList<>(columns.size());
+    for (String column : columns)
+      names.add(table.getColumnName(column));
+    return new KeyReadQuery(tableName, index == null ? null : index.getName(), keys, names);
+  }
+
+  private static boolean isSimpleSelect(PlainSelect select) {
+    return select.getFromItem() instanceof Table && select.getFromItem().getAlias() == null
+        && ((Table) select.getFromItem()).getSchemaName() == null && select.getWhere() != null
+        && isEmpty(select.getJoins()) && isEmpty(select.getIntoTables())
+        && isEmpty(select.getOrderByElements()) && isEmpty(select.getGroupByColumnReferences())
+        && select.getHaving() == null && select.getDistinct() == null && select.getTop() == null
+        && select.getLimit() == null && select.getOffset() == null && select.getFetch() == null
+        && select.getSkip() == null && select.getFirst() == null && !select.isForUpdate()
+        && select.getOracleHierarchical() == null;
+  }
+
+  private static boolean isEmpty(List<?> list) {
+    return list == null || list.isEmpty();
+  }
+
+  /**
+   * @return The upper case names of the selected columns, or <code>null</code> if one or more of
+   *         the select items is not a column of the table
+   */
+  private static List<String> getColumns(List<SelectItem> items, String tableName,
+      TableKeyMetaData table) {
+    List<String> res = new ArrayList<>(items.size());
+    for (SelectItem item : items) {
+      if (item instanceof AllColumns || (item instanceof AllTableColumns
+          && isTable(((AllTableColumns) item).getTable(), tableName))) {
+        res.addAll(table.getColumns().keySet());
+      } else if (item instanceof SelectExpressionItem
+          && ((SelectExpressionItem) item).getAlias() == null) {
+        Expression expression = ((SelectExpressionItem) item).getExpression();
+        if (!(expression instanceof Column))
+          return null;
+        Column column = (Column) expression;
+        String name = CloudSpannerDriver.unquoteIdentifier(column.getColumnName()).toUpperCase();
+        if (!table.getColumns().containsKey(name)
+            || (column.getTable() != null && column.getTable().getName() != null
+                && !isTable(column.getTable(), tableName)))
+          return null;
+        res.add(name);
+      } else {
+        return null;
+      }
+    }
+    return res;
+  }
+
+  private static boolean isTable(Table table, String tableName) {
+    return table.getSchemaName() == null
+        && CloudSpannerDriver.unquoteIdentifier(table.getName()).equalsIgnoreCase(tableName);
+  }
+
+  private static boolean isCoveredByIndex(List<String> columns, TableKeyMetaData table,
+      IndexKeyMetaData index) {
+    for (String column : columns) {
+      if (!index.getKeyColumns().contains(column) && !index.getStoredColumns().contains(column)
+          && !table.getKeyColumns().contains(column))
+        return false;
+    }
+    return true;
+  }
+
+  ResultSet execute(ReadContext context) {
+    if (index == null)
+      return context.read(table, keys, columns);
+    return context.readUsingIndex(table, index, keys, columns);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(table, index, keys, columns);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof KeyReadQuery))
+      return false;
+    KeyReadQuery other = (KeyReadQuery) o;
+    return table.equals(other.table) && Objects.equals(index, other.index)
+        && keys.equals(other.keys) && columns.equals(other.columns);
+  }
+
+  String getTable() {
+    return table;
+  }
+
+  String getIndex() {
+    return index;
+  }
+
+  KeySet getKeys() {
+    return keys;
+  }
+
+  List<String> getColumns() {
+    return columns;
+  }
+
+}
@@ -0,0 +1,303 @@
+package nl.topicus.jdbc.statement;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.KeySet;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.Mutation.Op;
+import com.google.cloud.spanner.Mutation.WriteBuilder;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.JdbcParameter;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.update.Update;
+import nl.topicus.jdbc.CloudSpannerConnection;
+import nl.topicus.jdbc.CloudSpannerDriver;
+import nl.topicus.jdbc.MetaDataStore.TableKeyMetaData;
+
+/**
+ * A single row INSERT, UPDATE or DELETE statement that has been compiled into a list of columns and
+ * value slots. Creating a {@link Mutation} from a template only requires the current parameter
+ * values and does not need to traverse the parsed statement.
+ *
+ * @author loite
+ *
+ */
+final class MutationTemplate {
+  /**
+   * A value slot is either a reference to a parameter or a constant value.
+   */
+  private static final class Slot {
+    private final int parameterIndex;
+
+    private final Object value;
+
+    private final Integer sqlType;
+
+    private Slot(int parameterIndex, Object value, Integer sqlType) {
+      this.parameterIndex = parameterIndex;
+      this.value = value;
+      this.sqlType = sqlType;
+    }
+
+    private boolean isParameter() {
+      return parameterIndex > 0;
+    }
+  }
+
+  /**
+   * Evaluates an expression that does not contain any parameters to a constant value.
+   */
+  private static final class ConstantEvaluator extends AbstractSpannerExpressionVisitorAdapter {
+    private int count;
+
+    private boolean parameter;
+
+    private Object value;
+
+    private Integer sqlType;
+
+    private ConstantEvaluator() {
+      super(null);
+    }
+
+    @Override
+    public void visit(JdbcParameter parameter) {
+      this.parameter = true;
+    }
+
+    @Override
+    protected void setValue(Object value, Integer sqlType) {
+      this.count++;
+      this.value = value;
+      this.sqlType = sqlType;
+    }
+  }
+
+  private final Op operation;
+
+  private final String table;
+
+  private final TableKeyMetaData tableMetaData;
+
+  private final String[] columns;
+
+  private final Slot[] slots;
+
+  private MutationTemplate(Op operation, String table, TableKeyMetaData tableMetaData,
+      String[] columns, Slot[] slots) {
+    this.operation = operation;
+    this.table = table;
+    this.tableMetaData = tableMetaData;
+    this.columns = columns;
+    this.slots = slots;
+  }
+
+  /**
+   * Compiles the given statement into a template.
+   *
+   * @param statement The parsed INSERT, UPDATE or DELETE statement
+   * @param tableMetaData The key meta data of the table of the statement. Only needed for UPDATE
+   *        and DELETE statements.
+   * @param forceUpdate Whether an INSERT ... ON DUPLICATE KEY UPDATE statement should be executed
+   *        as an update
+   * @return The compiled template, or <code>null</code> if the statement cannot be executed as a
+   *         single mutation with a fixed set of columns
+   */
+  static MutationTemplate compile(Statement statement, TableKeyMetaData tableMetaData,
+      boolean forceUpdate) {
+    try {
+      if (statement instanceof Insert) {
+        return compileInsert((Insert) statement, forceUpdate);
+      } else if (statement instanceof Update) {
+        return compileUpdate((Update) statement, tableMetaData);
+      } else if (statement instanceof Delete) {
+        return compileDelete((Delete) statement, tableMetaData);
+      }
+    } catch (IllegalArgumentException e) {
+      // Let the normal execution path generate the error message
+    }
+    return null;
+  }
+
+  private static MutationTemplate compileInsert(Insert insert, boolean forceUpdate) {
+    if (insert.getSelect() != null || !(insert.getItemsList() instanceof ExpressionList)
+        || insert.getColumns() == null || insert.getColumns().isEmpty())
+      return null;
+    List<Expression> expressions = ((ExpressionList) insert.getItemsList()).getExpressions();
+    if (expressions.size() < insert.getColumns().size())
+      return null;
+    Op operation = Op.INSERT;
+    if (insert.isUseDuplicate())
+      operation = forceUpdate ? Op.UPDATE : Op.INSERT_OR_UPDATE;
+    int count = insert.getColumns().size();
+    String[] columns = new String[count];
+    Slot[] slots = new Slot[count];
+    for (int index = 0; index < count; index++) {
+      columns[index] = unquote(insert.getColumns().get(index));
+      slots[index] = createSlot(expressions.get(index));
+      if (slots[index] == null)
+        return null;
+    }
+    return new MutationTemplate(operation, unquote(insert.getTable().getFullyQualifiedName()),
+        null, columns, slots);
+  }
+
+  private static MutationTemplate compileUpdate(Update update, TableKeyMetaData tableMetaData) {
+    if (tableMetaData == null || update.getSelect() != null || update.getTables().size() != 1
+        || update.getWhere() == null || update.getExpressions().size() < update.getColumns().size())
+      return null;
+    List<String> columns = new ArrayList<>();
+    List<Slot> slots = new ArrayList<>();
+    for (int index = 0; index < update.getColumns().size(); index++) {
+      columns.add(unquote(update.getColumns().get(index)));
+      slots.add(createSlot(update.getExpressions().get(index)));
+    }
+    if (!compileWhereClause(update.getWhere(), tableMetaData, columns, slots))
+      return null;
+    return new MutationTemplate(Op.UPDATE,
+        unquote(update.getTables().get(0).getFullyQualifiedName()), tableMetaData,
+        columns.toArray(new String[columns.size()]), slots.toArray(new Slot[slots.size()]));
+  }
+
+  private static MutationTemplate compileDelete(Delete delete, TableKeyMetaData tableMetaData) {
+    String table = unquote(delete.getTable().getFullyQualifiedName());
+    if (delete.getWhere() == null)
+      return new MutationTemplate(Op.DELETE, table, null, new String[0], new Slot[0]);
+    if (tableMetaData == null)
+      return null;
+    List<String> whereColumns = new ArrayList<>();
+    List<Slot> whereSlots = new ArrayList<>();
+    if (!compileWhereClause(delete.getWhere(), tableMetaData, whereColumns, whereSlots))
+      return null;
+    // Order the slots by the key columns of the table. The last value specified for a key column
+    // in the where clause is used.
+    List<String> keyColumns = tableMetaData.getKeyColumns();
+    String[] columns = new String[keyColumns.size()];
+    Slot[] slots = new Slot[keyColumns.size()];
+    for (int i = 0; i < whereColumns.size(); i++) {
+      int keyIndex = keyColumns.indexOf(whereColumns.get(i).toUpperCase());
+      if (keyIndex > -1) {
+        columns[keyIndex] = whereColumns.get(i);
+        slots[keyIndex] = whereSlots.get(i);
+      }
+    }
+    for (Slot slot : slots) {
+      if (slot == null)
+        return null;
+    }
+    return new MutationTemplate(Op.DELETE, table, tableMetaData, columns, slots);
+  }
+
+  /**
+   * Collects the column/value pairs of a where clause that selects exactly one row by its primary
+   * key.
+   */
+  private static boolean compileWhereClause(Expression where, TableKeyMetaData tableMetaData,
+      List<String> columns, List<Slot> slots) {
+    SingleRowWhereClauseValidator validator = new SingleRowWhereClauseValidator(tableMetaData);
+    DMLWhereClauseVisitor visitor = new DMLWhereClauseVisitor(null) {
+      @Override
+      protected void visitExpression(Column col, Expression expression) {
+        String columnName = unquote(col);
+        validator.set(columnName);
+        validator.to(null);
+        columns.add(columnName);
+        slots.add(createSlot(expression));
+      }
+    };
+    where.accept(visitor);
+    if (!visitor.isValid() || !validator.isValid())
+      return false;
+    for (Slot slot : slots) {
+      if (slot == null)
+        return false;
+    }
+    return true;
+  }
+
+  private static Slot createSlot(Expression expression) {
+    if (expression instanceof JdbcParameter) {
+      return new Slot(((JdbcParameter) expression).getIndex(), null, null);
+    }
+    ConstantEvaluator evaluator = new ConstantEvaluator();
+    expression.accept(evaluator);
+    if (evaluator.parameter || evaluator.count != 1)
+      return null;
+    return new Slot(0, evaluator.value, evaluator.sqlType);
+  }
+
+  private static String unquote(Column column) {
+    return unquote(column.getFullyQualifiedName());
+  }
+
+  private static String unquote(String identifier) {
+    return CloudSpannerDriver.unquoteIdentifier(identifier);
+  }
+
+  /**
+   *
+   * @param connection The connection that will execute the mutation
+   * @return <code>true</code> if this template was compiled using the current key meta data of
+   *         the table on the given connection
+   * @throws SQLException if the key meta data of the table could not be retrieved
+   */
+  boolean isValid(CloudSpannerConnection connection) throws SQLException {
+    return tableMetaData == null || connection.getTable(table) == tableMetaData;
+  }
+
+  /**
+   * Creates a mutation using the current values of the given parameter store
+   *
+   * @param parameterStore The parameter values to use
+   * @return A mutation for the current parameter values
+   */
+  Mutation createMutation(ParameterStore parameterStore) {
+    parameterStore.setTable(table);
+    if (operation == Op.DELETE) {
+      if (slots.length == 0)
+        return Mutation.delete(table, KeySet.all());
+      Key.Builder key = Key.newBuilder();
+      for (int i = 0; i < slots.length; i++) {
+        key.appendObject(DeleteKeyBuilder.convert(getValue(parameterStore, i)));
+      }
+      return Mutation.delete(table, key.build());
+    }
+    WriteBuilder builder;
+    switch (operation) {
+      case INSERT_OR_UPDATE:
+        builder = Mutation.newInsertOrUpdateBuilder(table);
+        break;
+      case UPDATE:
+        builder = Mutation.newUpdateBuilder(table);
+        break;
+      default:
+        builder = Mutation.newInsertBuilder(table);
+        break;
+    }
+    for (int i = 0; i < slots.length; i++) {
+      Slot slot = slots[i];
+      ValueBinderExpressionVisitorAdapter<WriteBuilder> binder =
+          new ValueBinderExpressionVisitorAdapter<>(parameterStore, builder.set(columns[i]),
+              columns[i]);
+      binder.setValue(getValue(parameterStore, i), slot.isParameter()
+          ? parameterStore.getType(slot.parameterIndex) : slot.sqlType);
+    }
+    return builder.build();
+  }
+
+  private Object getValue(ParameterStore parameterStore, int index) {
+    Slot slot = slots[index];
+    if (slot.isParameter()) {
+      parameterStore.setColumn(slot.parameterIndex, columns[index]);
+      return parameterStore.getParameter(slot.parameterIndex);
+    }
+    return slot.value;
+  }
+
+}
@@ -0,0 +1,294 @@
+package nl.topicus.jdbc.statement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import com.google.common.base.Preconditions;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.update.Update;
+import nl.topicus.jdbc.CloudSpannerDriver;
+
+/**
+ * Bounded LRU cache of parsed sql statements. The cache is shared by all connections of a driver
+ * and prevents the same sql string from being sanitized and parsed by JSqlParser over and over
+ * again. The parsed statements in the cache are shared between threads, and must therefore be
+ * treated as read-only.
+ *
+ * @author loite
+ *
+ */
+public class ParsedStatementCache {
+  public static final int DEFAULT_MAX_SIZE = 1000;
+
+  public enum StatementKind {
+    SELECT, INSERT, UPDATE, DELETE, OTHER;
+  }
+
+  /**
+   * A parsed sql statement together with the meta data that can be derived from the statement
+   * without knowing the parameter values.
+   */
+  public static final class ParsedStatement {
+    private final String sql;
+
+    private final String sanitizedSql;
+
+    private final Statement statement;
+
+    private final StatementKind kind;
+
+    private final String table;
+
+    private final List<String> columns;
+
+    private final int[] parameterPositions;
+
+    private final String namedSql;
+
+    ParsedStatement(String sql, String sanitizedSql, Statement statement) {
+      this.sql = sql;
+      this.sanitizedSql = sanitizedSql;
+      this.statement = statement;
+      this.parameterPositions = findParameterPositions(sql);
+      this.namedSql = createNamedSql(sql, parameterPositions);
+      List<Column> cols = null;
+      if (statement instanceof Select) {
+        this.kind = StatementKind.SELECT;
+        this.table = null;
+      } else if (statement instanceof Insert) {
+        this.kind = StatementKind.INSERT;
+        this.table = tableName(((Insert) statement).getTable());
+        cols = ((Insert) statement).getColumns();
+      } else if (statement instanceof Update) {
+        this.kind = StatementKind.UPDATE;
+        Update update = (Update) statement;
+        this.table = update.getTables() == null || update.getTables().size() != 1 ? null
+            : tableName(update.getTables().get(0));
+        cols = update.getColumns();
+      } else if (statement instanceof Delete) {
+        this.kind = StatementKind.DELETE;
+        this.table = tableName(((Delete) statement).getTable());
+      } else {
+        this.kind = StatementKind.OTHER;
+        this.table = null;
+      }
+      List<String> names = new ArrayList<>(cols == null ? 0 : cols.size());
+      if (cols != null) {
+        for (Column col : cols)
+          names.add(CloudSpannerDriver.unquoteIdentifier(col.getFullyQualifiedName()));
+      }
+      this.columns = Collections.unmodifiableList(names);
+    }
+
+    private static String tableName(net.sf.jsqlparser.schema.Table table) {
+      return table == null ? null
+          : CloudSpannerDriver.unquoteIdentifier(table.getFullyQualifiedName());
+    }
+
+    private static int[] findParameterPositions(String sql) {
+      boolean inString = false;
+      int[] positions = new int[8];
+      int count = 0;
+      for (int i = 0; i < sql.length(); i++) {
+        char c = sql.charAt(i);
+        if (c == '\'') {
+          inString = !inString;
+        } else if (c == '?' && !inString) {
+          if (count == positions.length) {
+            int[] newPositions = new int[positions.length * 2];
+            System.arraycopy(positions, 0, newPositions, 0, count);
+            positions = newPositions;
+          }
+          positions[count] = i;
+          count++;
+        }
+      }
+      int[] res = new int[count];
+      System.arraycopy(positions, 0, res, 0, count);
+      return res;
+    }
+
+    private static String createNamedSql(String sql, int[] positions) {
+      if (positions.length == 0)
+        return sql;
+      StringBuilder res = new StringBuilder(sql.length() + positions.length * 3);
+      int start = 0;
+      for (int i = 0; i < positions.length; i++) {
+        res.append(sql, start, positions[i]).append("@p").append(i + 1);
+        start = positions[i] + 1;
+      }
+      res.append(sql, start, sql.length());
+      return res.toString();
+    }
+
+    public String getSql() {
+      return sql;
+    }
+
+    public String getSanitizedSql() {
+      return sanitizedSql;
+    }
+
+    /**
+     *
+     * @return The parsed statement. This statement is shared and may not be modified.
+     */
+    public Statement getStatement() {
+      return statement;
+    }
+
+    public StatementKind getKind() {
+      return kind;
+    }
+
+    /**
+     *
+     * @return The unquoted name of the table of an INSERT, UPDATE or DELETE statement, or
+     *         <code>null</code> for other statements
+     */
+    public String getTable() {
+      return table;
+    }
+
+    /**
+     *
+     * @return The unquoted names of the columns of an INSERT or UPDATE statement
+     */
+    public List<String> getColumns() {
+      return columns;
+    }
+
+    /**
+     *
+     * @return The positions of all parameters (question marks) in the original sql string
+     */
+    public int[] getParameterPositions() {
+      return parameterPositions.clone();
+    }
+
+    public int getParameterCount() {
+      return parameterPositions.length;
+    }
+
+    /**
+     *
+     * @return The sql string with all positional parameters replaced by named parameters in the
+     *         form @p1, @p2, ...
+     */
+    public String getNamedSql() {
+      return namedSql;
+    }
+  }
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  private final AtomicLong evictions = new AtomicLong();
+
+  private int maxSize;
+
+  private final LinkedHashMap<String, ParsedStatement> statements =
+      new LinkedHashMap<String, ParsedStatement>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ParsedStatement> eldest) {
+          if (size() > maxSize) {
+            evictions.incrementAndGet();
+            return true;
+          }
+          return false;
+        }
+      };
+
+  public ParsedStatementCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  public ParsedStatementCache(int maxSize) {
+    Preconditions.checkArgument(maxSize >= 0);
+    this.maxSize = maxSize;
+  }
+
+  /**
+   *
+   * @param sql The sql string to look up
+   * @return The cached parsed statement for the sql string, or <code>null</code> if the statement
+   *         is not in the cache
+   */
+  public ParsedStatement get(String sql) {
+    ParsedStatement res;
+    synchronized (statements) {
+      res = statements.get(sql);
+    }
+    if (res == null)
+      misses.incrementAndGet();
+    else
+      hits.incrementAndGet();
+    return res;
+  }
+
+  public void put(ParsedStatement statement) {
+    synchronized (statements) {
+      if (maxSize > 0)
+        statements.put(statement.getSql(), statement);
+    }
+  }
+
+  public void clear() {
+    synchronized (statements) {
+      statements.clear();
+    }
+  }
+
+  public int size() {
+    synchronized (statements) {
+      return statements.size();
+    }
+  }
+
+  public int getMaxSize() {
+    synchronized (statements) {
+      return maxSize;
+    }
+  }
+
+  /**
+   * Sets the maximum number of statements in the cache. Setting the size to zero disables the
+   * cache.
+   *
+   * @param maxSize The maximum number of parsed statements to keep
+   */
+  public void setMaxSize(int maxSize) {
+    Preconditions.checkArgument(maxSize >= 0);
+    synchronized (statements) {
+      this.maxSize = maxSize;
+      while (statements.size() > maxSize) {
+        statements.remove(statements.keySet().iterator().next());
+        evictions.incrementAndGet();
+      }
+    }
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+}
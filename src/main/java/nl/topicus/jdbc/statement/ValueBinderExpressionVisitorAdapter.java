@@ -1,10 +1,12 @@
 package nl.topicus.jdbc.statement;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
 import java.sql.Date;
 import java.sql.SQLException;
 import java.sql.Timestamp;
@@ -20,6 +22,7 @@ import com.google.common.io.CharStreams;
 import com.google.common.primitives.Booleans;
 import com.google.common.primitives.Doubles;
 import com.google.common.primitives.Longs;
+import nl.topicus.jdbc.CloudSpannerBlob;
 import nl.topicus.jdbc.util.CloudSpannerConversionUtil;
 
 class ValueBinderExpressionVisitorAdapter<R> extends AbstractSpannerExpressionVisitorAdapter {
@@ -103,12 +106,26 @@ class ValueBinderExpressionVisitorAdapter<R> extends AbstractSpannerExpressionVi
       return binder.to(((URL) value).toString());
     } else if (byte[].class.isAssignableFrom(value.getClass())) {
       return binder.to(ByteArray.copyFrom((byte[]) value));
-    } else if (ByteArrayInputStream.class.isAssignableFrom(value.getClass())) {
+    } else if (InputStream.class.isAssignableFrom(value.getClass())) {
+      return binder.to(readByteArray((InputStream) value));
+    } else if (CloudSpannerBlob.class.isAssignableFrom(value.getClass())) {
       try {
-        return binder.to(ByteArray.copyFrom((ByteArrayInputStream) value));
-      } catch (IOException e) {
-        throw new IllegalArgumentException(
-            "Could not copy bytes from input stream: " + e.getMessage(), e);
+        return binder.to(((CloudSpannerBlob) value).getByteArray());
+      } catch (SQLException e) {
+        throw new IllegalArgumentException("Could not read blob: " + e.getMessage(), e);
+      }
+    } else if (Blob.class.isAssignableFrom(value.getClass())) {
+      try {
+        return binder.to(readByteArray(((Blob) value).getBinaryStream()));
+      } catch (SQLException e) {
+        throw new IllegalArgumentException("Could not read blob: " + e.getMessage(), e);
+      }
+    } else if (Clob.class.isAssignableFrom(value.getClass())) {
+      try {
+        Clob clob = (Clob) value;
+        return binder.to(clob.getSubString(1L, (int) clob.length()));
+      } catch (SQLException e) {
+        throw new IllegalArgumentException("Could not read clob: " + e.getMessage(), e);
       }
     } else if (Array.class.isAssignableFrom(value.getClass())) {
       try {
@@ -121,6 +138,19 @@ class ValueBinderExpressionVisitorAdapter<R> extends AbstractSpannerExpressionVi
     return null;
   }
 
+  /**
+   * Reads the given stream into a {@link ByteArray}. The stream is read in chunks that are
+   * concatenated without copying them into one large buffer.
+   */
+  private static ByteArray readByteArray(InputStream stream) {
+    try {
+      return ByteArray.copyFrom(stream);
+    } catch (IOException e) {
+      throw new IllegalArgumentException(
+          "Could not copy bytes from input stream: " + e.getMessage(), e);
+    }
+  }
+
   private R splitAndSetArrayValue(String arrayString) {
     // Split on comma's, do not include '{' and '}'
     String[] array =
@@ -16,6 +16,7 @@ import com.google.cloud.spanner.Options.QueryOption;
 import com.google.cloud.spanner.Options.ReadOption;
 import com.google.cloud.spanner.Partition;
 import com.google.cloud.spanner.PartitionOptions;
+import com.google.cloud.spanner.ReadContext;
 import com.google.cloud.spanner.ReadOnlyTransaction;
 import com.google.cloud.spanner.ResultSet;
 import com.google.cloud.spanner.SpannerException;
@@ -23,6 +24,7 @@ import com.google.cloud.spanner.SpannerExceptionFactory;
 import com.google.cloud.spanner.Statement;
 import com.google.cloud.spanner.Struct;
 import com.google.cloud.spanner.TimestampBound;
+import com.google.cloud.spanner.TimestampBound.Mode;
 import com.google.cloud.spanner.TransactionContext;
 import com.google.common.base.Preconditions;
 import com.google.rpc.Code;
@@ -84,14 +86,25 @@ public class CloudSpannerTransaction implements TransactionContext, BatchReadOnl
     return transactionThread == null ? 0 : transactionThread.numberOfBufferedMutations();
   }
 
+  /**
+   * @return The size in bytes of the data of the mutations that have been buffered in the current
+   *         transaction
+   */
+  public long getBufferedMutationsByteSize() {
+    return transactionThread == null ? 0L : transactionThread.bufferedMutationsByteSize();
+  }
+
   public void begin() throws SQLException {
     if (connection.isBatchReadOnly()) {
       if (batchReadOnlyTransaction == null) {
-        batchReadOnlyTransaction = batchClient.batchReadOnlyTransaction(TimestampBound.strong());
+        batchReadOnlyTransaction =
+            batchClient.batchReadOnlyTransaction(getReadOnlyTransactionTimestampBound());
       }
     } else if (connection.isReadOnly()) {
       if (readOnlyTransaction == null) {
-        readOnlyTransaction = dbClient.readOnlyTransaction();
+        TimestampBound bound = getReadOnlyTransactionTimestampBound();
+        readOnlyTransaction = bound.getMode() == Mode.STRONG ? dbClient.readOnlyTransaction()
+            : dbClient.readOnlyTransaction(bound);
       }
     } else {
       if (transactionThread == null) {
@@ -101,6 +114,20 @@ public class CloudSpannerTransaction implements TransactionContext, BatchReadOnl
     }
   }
 
+  /**
+   * Bounded staleness can only be used for single use reads, not for read-only transactions.
+   */
+  private TimestampBound getReadOnlyTransactionTimestampBound() throws SQLException {
+    TimestampBound bound = connection.getReadTimestampBound();
+    if (bound.getMode() == Mode.MAX_STALENESS || bound.getMode() == Mode.MIN_READ_TIMESTAMP) {
+      throw new CloudSpannerSQLException(
+          "Read-only staleness " + bound.getMode()
+              + " can only be used in autocommit mode. Use EXACT_STALENESS or READ_TIMESTAMP for read-only transactions.",
+          Code.FAILED_PRECONDITION);
+    }
+    return bound;
+  }
+
   public Timestamp commit() throws SQLException {
     Timestamp res = null;
     try {
@@ -250,27 +277,48 @@ public class CloudSpannerTransaction implements TransactionContext, BatchReadOnl
   @Override
   public ResultSet read(String table, KeySet keys, Iterable<String> columns,
       ReadOption... options) {
-    throw SpannerExceptionFactory.newSpannerException(ErrorCode.UNIMPLEMENTED,
-        METHOD_NOT_IMPLEMENTED);
+    return read(table, null, keys, columns, options);
   }
 
   @Override
   public ResultSet readUsingIndex(String table, String index, KeySet keys, Iterable<String> columns,
       ReadOption... options) {
-    throw SpannerExceptionFactory.newSpannerException(ErrorCode.UNIMPLEMENTED,
-        METHOD_NOT_IMPLEMENTED);
+    Preconditions.checkNotNull(index);
+    return read(table, index, keys, columns, options);
+  }
+
+  private ResultSet read(String table, String index, KeySet keys, Iterable<String> columns,
+      ReadOption... options) {
+    checkTransaction();
+    ReadContext context = batchReadOnlyTransaction != null ? batchReadOnlyTransaction
+        : readOnlyTransaction;
+    if (context != null) {
+      return index == null ? context.read(table, keys, columns, options)
+          : context.readUsingIndex(table, index, keys, columns, options);
+    } else if (transactionThread != null) {
+      return transactionThread.read(table, index, keys, columns, options);
+    }
+
+    throw new IllegalStateException("No transaction found (this should not happen)");
   }
 
   @Override
   public Struct readRow(String table, Key key, Iterable<String> columns) {
-    throw SpannerExceptionFactory.newSpannerException(ErrorCode.UNIMPLEMENTED,
-        METHOD_NOT_IMPLEMENTED);
+    return readRow(read(table, null, KeySet.singleKey(key), columns));
   }
 
   @Override
   public Struct readRowUsingIndex(String table, String index, Key key, Iterable<String> columns) {
-    throw SpannerExceptionFactory.newSpannerException(ErrorCode.UNIMPLEMENTED,
-        METHOD_NOT_IMPLEMENTED);
+    Preconditions.checkNotNull(index);
+    return readRow(read(table, index, KeySet.singleKey(key), columns));
+  }
+
+  private static Struct readRow(ResultSet resultSet) {
+    try (ResultSet rs = resultSet) {
+      if (rs.next())
+        return rs.getCurrentRowAsStruct();
+      return null;
+    }
   }
 
   @Override
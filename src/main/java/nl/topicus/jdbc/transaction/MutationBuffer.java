@@ -0,0 +1,568 @@
+package nl.topicus.jdbc.transaction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import com.google.cloud.ByteArray;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.KeyRange;
+import com.google.cloud.spanner.KeySet;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.Mutation.Op;
+import com.google.cloud.spanner.Mutation.WriteBuilder;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Value;
+import com.google.common.base.Utf8;
+
+/**
+ * Buffer for the mutations of a read/write transaction. Consecutive write mutations on the same
+ * table with the same operation and the same columns are grouped into one segment that stores the
+ * column names once and the values column by column, using primitive arrays for INT64, FLOAT64 and
+ * BOOL columns. {@link Mutation} objects are only created again when the buffer is iterated at
+ * commit. Only consecutive mutations are grouped, so the mutations are always returned in the order
+ * in which they were buffered.
+ *
+ * <p>
+ * The buffer also keeps track of the size in bytes of the buffered data: 8 bytes for INT64 and
+ * FLOAT64 values, 1 byte for BOOL, 12 bytes for TIMESTAMP and 4 bytes for DATE values, the UTF-8
+ * length of STRING values and the length of BYTES values. Arrays count the sum of their elements,
+ * and NULL values do not count. Delete mutations count the size of the parts of their keys.
+ * </p>
+ *
+ * @author loite
+ *
+ */
+class MutationBuffer implements Iterable<Mutation> {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final List<Segment> segments = new ArrayList<>();
+
+  private int size;
+
+  private long byteSize;
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return The size in bytes of the data of the buffered mutations
+   */
+  long getByteSize() {
+    return byteSize;
+  }
+
+  void add(Mutation mutation) {
+    Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    if (last == null || !last.accepts(mutation)) {
+      last = mutation.getOperation() == Op.DELETE ? new DeleteSegment(mutation.getTable())
+          : new WriteSegment(mutation);
+      segments.add(last);
+    }
+    byteSize += last.add(mutation);
+    size++;
+  }
+
+  /**
+   * Removes all mutations after the given number of mutations from the buffer
+   */
+  void truncate(int newSize) {
+    while (size > newSize) {
+      Segment last = segments.get(segments.size() - 1);
+      int remove = Math.min(last.rows, size - newSize);
+      if (remove == last.rows) {
+        for (int row = 0; row < last.rows; row++)
+          byteSize -= last.sizeOf(row);
+        segments.remove(segments.size() - 1);
+      } else {
+        for (int row = last.rows - remove; row < last.rows; row++)
+          byteSize -= last.sizeOf(row);
+        last.truncate(last.rows - remove);
+      }
+      size -= remove;
+    }
+  }
+
+  @Override
+  public Iterator<Mutation> iterator() {
+    return new Iterator<Mutation>() {
+      private int segment;
+
+      private int row;
+
+      @Override
+      public boolean hasNext() {
+        while (segment < segments.size() && row >= segments.get(segment).rows) {
+          segment++;
+          row = 0;
+        }
+        return segment < segments.size();
+      }
+
+      @Override
+      public Mutation next() {
+        if (!hasNext())
+          throw new NoSuchElementException();
+        return segments.get(segment).get(row++);
+      }
+    };
+  }
+
+  private abstract static class Segment {
+    final String table;
+
+    int rows;
+
+    Segment(String table) {
+      this.table = table;
+    }
+
+    abstract boolean accepts(Mutation mutation);
+
+    /**
+     * @return The size in bytes of the data of the added mutation
+     */
+    abstract long add(Mutation mutation);
+
+    abstract Mutation get(int row);
+
+    abstract long sizeOf(int row);
+
+    abstract void truncate(int rows);
+  }
+
+  /**
+   * Delete mutations only consist of a table name and a key set, and are kept as they are.
+   */
+  private static final class DeleteSegment extends Segment {
+    private final List<Mutation> mutations = new ArrayList<>();
+
+    private DeleteSegment(String table) {
+      super(table);
+    }
+
+    @Override
+    boolean accepts(Mutation mutation) {
+      return mutation.getOperation() == Op.DELETE && table.equals(mutation.getTable());
+    }
+
+    @Override
+    long add(Mutation mutation) {
+      mutations.add(mutation);
+      rows++;
+      return sizeOf(mutation.getKeySet());
+    }
+
+    @Override
+    Mutation get(int row) {
+      return mutations.get(row);
+    }
+
+    @Override
+    long sizeOf(int row) {
+      return sizeOf(mutations.get(row).getKeySet());
+    }
+
+    private static long sizeOf(KeySet keySet) {
+      long res = 0L;
+      for (Key key : keySet.getKeys())
+        res += sizeOf(key);
+      for (KeyRange range : keySet.getRanges())
+        res += sizeOf(range.getStart()) + sizeOf(range.getEnd());
+      return res;
+    }
+
+    private static long sizeOf(Key key) {
+      long res = 0L;
+      for (Object part : key.getParts()) {
+        if (part instanceof Long || part instanceof Double)
+          res += 8L;
+        else if (part instanceof Boolean)
+          res += 1L;
+        else if (part instanceof String)
+          res += Utf8.encodedLength((String) part);
+        else if (part instanceof ByteArray)
+          res += ((ByteArray) part).length();
+        else if (part instanceof com.google.cloud.Timestamp)
+          res += 12L;
+        else if (part instanceof com.google.cloud.Date)
+          res += 4L;
+      }
+      return res;
+    }
+
+    @Override
+    void truncate(int rows) {
+      mutations.subList(rows, mutations.size()).clear();
+      this.rows = rows;
+    }
+  }
+
+  private static final class WriteSegment extends Segment {
+    private final Op operation;
+
+    private final String[] columns;
+
+    private final Column[] values;
+
+    private WriteSegment(Mutation mutation) {
+      super(mutation.getTable());
+      this.operation = mutation.getOperation();
+      List<String> list = new ArrayList<>();
+      List<Column> columnList = new ArrayList<>();
+      Iterator<Value> it = mutation.getValues().iterator();
+      for (String column : mutation.getColumns()) {
+        list.add(column);
+        columnList.add(Column.of(it.next().getType()));
+      }
+      this.columns = list.toArray(new String[list.size()]);
+      this.values = columnList.toArray(new Column[columnList.size()]);
+    }
+
+    @Override
+    boolean accepts(Mutation mutation) {
+      if (mutation.getOperation() != operation || !table.equals(mutation.getTable()))
+        return false;
+      int index = 0;
+      for (String column : mutation.getColumns()) {
+        if (index == columns.length || !columns[index].equals(column))
+          return false;
+        index++;
+      }
+      return index == columns.length;
+    }
+
+    @Override
+    long add(Mutation mutation) {
+      long res = 0L;
+      int index = 0;
+      for (Value value : mutation.getValues()) {
+        if (!values[index].accepts(value))
+          values[index] = new ValueColumn(values[index], rows);
+        values[index].set(rows, value);
+        res += values[index].sizeOf(rows);
+        index++;
+      }
+      rows++;
+      return res;
+    }
+
+    @Override
+    Mutation get(int row) {
+      WriteBuilder builder = newBuilder();
+      for (int index = 0; index < columns.length; index++)
+        builder.set(columns[index]).to(values[index].get(row));
+      return builder.build();
+    }
+
+    private WriteBuilder newBuilder() {
+      switch (operation) {
+        case INSERT:
+          return Mutation.newInsertBuilder(table);
+        case UPDATE:
+          return Mutation.newUpdateBuilder(table);
+        case INSERT_OR_UPDATE:
+          return Mutation.newInsertOrUpdateBuilder(table);
+        case REPLACE:
+          return Mutation.newReplaceBuilder(table);
+        default:
+          throw new IllegalStateException("Unsupported operation: " + operation);
+      }
+    }
+
+    @Override
+    long sizeOf(int row) {
+      long res = 0L;
+      for (Column column : values)
+        res += column.sizeOf(row);
+      return res;
+    }
+
+    @Override
+    void truncate(int rows) {
+      for (Column column : values)
+        column.truncate(rows, this.rows);
+      this.rows = rows;
+    }
+  }
+
+  /**
+   * The values of one column of a {@link WriteSegment}. A column only accepts values of the type
+   * that it was created for. If a value of another type is added, the segment replaces the column
+   * with a {@link ValueColumn}.
+   */
+  private abstract static class Column {
+    private static Column of(Type type) {
+      switch (type.getCode()) {
+        case INT64:
+          return new Int64Column();
+        case FLOAT64:
+          return new Float64Column();
+        case BOOL:
+          return new BoolColumn();
+        case STRING:
+          return new StringColumn();
+        default:
+          return new ValueColumn();
+      }
+    }
+
+    abstract boolean accepts(Value value);
+
+    abstract void set(int row, Value value);
+
+    abstract Value get(int row);
+
+    abstract long sizeOf(int row);
+
+    /**
+     * Clears the values of the rows from the first row up to the current number of rows
+     */
+    abstract void truncate(int rows, int currentRows);
+
+    static int newCapacity(int capacity, int row) {
+      return Math.max(row + 1, Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1)));
+    }
+  }
+
+  private abstract static class PrimitiveColumn extends Column {
+    private final Type.Code code;
+
+    final BitSet nulls = new BitSet();
+
+    private PrimitiveColumn(Type.Code code) {
+      this.code = code;
+    }
+
+    @Override
+    final boolean accepts(Value value) {
+      return value.getType().getCode() == code;
+    }
+
+    @Override
+    final void set(int row, Value value) {
+      nulls.set(row, value.isNull());
+      if (!value.isNull())
+        setNotNull(row, value);
+    }
+
+    abstract void setNotNull(int row, Value value);
+
+    @Override
+    void truncate(int rows, int currentRows) {
+      nulls.clear(rows, currentRows);
+    }
+  }
+
+  private static final class Int64Column extends PrimitiveColumn {
+    private long[] values = new long[0];
+
+    private Int64Column() {
+      super(Type.Code.INT64);
+    }
+
+    @Override
+    void setNotNull(int row, Value value) {
+      if (row >= values.length)
+        values = Arrays.copyOf(values, newCapacity(values.length, row));
+      values[row] = value.getInt64();
+    }
+
+    @Override
+    Value get(int row) {
+      return nulls.get(row) ? Value.int64(null) : Value.int64(values[row]);
+    }
+
+    @Override
+    long sizeOf(int row) {
+      return nulls.get(row) ? 0L : 8L;
+    }
+  }
+
+  private static final class Float64Column extends PrimitiveColumn {
+    private double[] values = new double[0];
+
+    private Float64Column() {
+      super(Type.Code.FLOAT64);
+    }
+
+    @Override
+    void setNotNull(int row, Value value) {
+      if (row >= values.length)
+        values = Arrays.copyOf(values, newCapacity(values.length, row));
+      values[row] = value.getFloat64();
+    }
+
+    @Override
+    Value get(int row) {
+      return nulls.get(row) ? Value.float64(null) : Value.float64(values[row]);
+    }
+
+    @Override
+    long sizeOf(int row) {
+      return nulls.get(row) ? 0L : 8L;
+    }
+  }
+
+  private static final class BoolColumn extends PrimitiveColumn {
+    private final BitSet values = new BitSet();
+
+    private BoolColumn() {
+      super(Type.Code.BOOL);
+    }
+
+    @Override
+    void setNotNull(int row, Value value) {
+      values.set(row, value.getBool());
+    }
+
+    @Override
+    Value get(int row) {
+      return nulls.get(row) ? Value.bool(null) : Value.bool(values.get(row));
+    }
+
+    @Override
+    long sizeOf(int row) {
+      return nulls.get(row) ? 0L : 1L;
+    }
+
+    @Override
+    void truncate(int rows, int currentRows) {
+      super.truncate(rows, currentRows);
+      values.clear(rows, currentRows);
+    }
+  }
+
+  private static final class StringColumn extends Column {
+    private String[] values = new String[0];
+
+    @Override
+    boolean accepts(Value value) {
+      return value.getType().getCode() == Type.Code.STRING;
+    }
+
+    @Override
+    void set(int row, Value value) {
+      if (row >= values.length)
+        values = Arrays.copyOf(values, newCapacity(values.length, row));
+      values[row] = value.isNull() ? null : value.getString();
+    }
+
+    @Override
+    Value get(int row) {
+      return Value.string(values[row]);
+    }
+
+    @Override
+    long sizeOf(int row) {
+      return values[row] == null ? 0L : Utf8.encodedLength(values[row]);
+    }
+
+    @Override
+    void truncate(int rows, int currentRows) {
+      Arrays.fill(values, rows, currentRows, null);
+    }
+  }
+
+  /**
+   * Column for all other types. The {@link Value}s of these columns are kept as they are.
+   */
+  private static final class ValueColumn extends Column {
+    private Value[] values;
+
+    private ValueColumn() {
+      values = new Value[0];
+    }
+
+    private ValueColumn(Column column, int rows) {
+      values = new Value[Math.max(rows, INITIAL_CAPACITY)];
+      for (int row = 0; row < rows; row++)
+        values[row] = column.get(row);
+    }
+
+    @Override
+    boolean accepts(Value value) {
+      return true;
+    }
+
+    @Override
+    void set(int row, Value value) {
+      if (row >= values.length)
+        values = Arrays.copyOf(values, newCapacity(values.length, row));
+      values[row] = value;
+    }
+
+    @Override
+    Value get(int row) {
+      return values[row];
+    }
+
+    @Override
+    long sizeOf(int row) {
+      return MutationBuffer.sizeOf(values[row]);
+    }
+
+    @Override
+    void truncate(int rows, int currentRows) {
+      Arrays.fill(values, rows, currentRows, null);
+    }
+  }
+
+  static long sizeOf(Value value) {
+    if (value.isNull())
+      return 0L;
+    switch (value.getType().getCode()) {
+      case INT64:
+      case FLOAT64:
+        return 8L;
+      case BOOL:
+        return 1L;
+      case STRING:
+        return Utf8.encodedLength(value.getString());
+      case BYTES:
+        return value.getBytes().length();
+      case TIMESTAMP:
+        return 12L;
+      case DATE:
+        return 4L;
+      case ARRAY:
+        return sizeOfArray(value);
+      default:
+        return 0L;
+    }
+  }
+
+  private static long sizeOfArray(Value value) {
+    long res = 0L;
+    switch (value.getType().getArrayElementType().getCode()) {
+      case INT64:
+        return 8L * value.getInt64Array().stream().filter(v -> v != null).count();
+      case FLOAT64:
+        return 8L * value.getFloat64Array().stream().filter(v -> v != null).count();
+      case BOOL:
+        return value.getBoolArray().stream().filter(v -> v != null).count();
+      case STRING:
+        for (String s : value.getStringArray())
+          res += s == null ? 0L : Utf8.encodedLength(s);
+        return res;
+      case BYTES:
+        for (ByteArray b : value.getBytesArray())
+          res += b == null ? 0L : b.length();
+        return res;
+      case TIMESTAMP:
+        return 12L * value.getTimestampArray().stream().filter(v -> v != null).count();
+      case DATE:
+        return 4L * value.getDateArray().stream().filter(v -> v != null).count();
+      default:
+        return 0L;
+    }
+  }
+
+}
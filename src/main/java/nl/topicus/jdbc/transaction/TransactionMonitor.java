@@ -0,0 +1,158 @@
+package nl.topicus.jdbc.transaction;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import com.google.common.base.Preconditions;
+import nl.topicus.jdbc.CloudSpannerDriver;
+
+/**
+ * Driver-wide monitor for the active read/write transactions of all connections. The monitor uses
+ * one timer thread for all transactions, and only wakes up when a transaction is due for a
+ * keep-alive or passes the long-running trigger of the driver. A keep-alive query is only executed
+ * for transactions that have been idle for longer than {@link #getKeepAliveIdleMillis()}, as Cloud
+ * Spanner aborts transactions that have been idle for more than 10 seconds.
+ *
+ * @author loite
+ *
+ */
+public class TransactionMonitor {
+  public static final long DEFAULT_KEEP_ALIVE_IDLE_MILLIS = 8000L;
+
+  private final ScheduledThreadPoolExecutor timer;
+
+  private final Set<TransactionThread> transactions = ConcurrentHashMap.newKeySet();
+
+  private final AtomicLong keepAliveCount = new AtomicLong();
+
+  private final AtomicLong longRunningCount = new AtomicLong();
+
+  private volatile long keepAliveIdleMillis = DEFAULT_KEEP_ALIVE_IDLE_MILLIS;
+
+  public TransactionMonitor() {
+    timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, "Google Cloud Spanner JDBC Transaction Monitor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    timer.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * Starts monitoring a transaction. Registering a transaction that is already monitored has no
+   * effect.
+   */
+  void register(TransactionThread transaction) {
+    if (transactions.add(transaction))
+      schedule(transaction, System.currentTimeMillis());
+  }
+
+  /**
+   * Stops monitoring a transaction.
+   */
+  void unregister(TransactionThread transaction) {
+    if (transactions.remove(transaction))
+      transaction.setMonitorTask(null);
+  }
+
+  private void schedule(TransactionThread transaction, long now) {
+    long next = Math.max(transaction.getLastActivity(), transaction.getLastKeepAlive())
+        + keepAliveIdleMillis;
+    if (!transaction.isLongRunning())
+      next = Math.min(next,
+          transaction.getStartTime() + CloudSpannerDriver.getLongTransactionTrigger());
+    transaction.setMonitorTask(
+        timer.schedule(() -> check(transaction), Math.max(next - now, 1L), TimeUnit.MILLISECONDS));
+  }
+
+  private void check(TransactionThread transaction) {
+    if (!transactions.contains(transaction))
+      return;
+    long now = System.currentTimeMillis();
+    if (now - Math.max(transaction.getLastActivity(),
+        transaction.getLastKeepAlive()) >= keepAliveIdleMillis) {
+      transaction.keepAlive(now);
+      keepAliveCount.incrementAndGet();
+    }
+    if (!transaction.isLongRunning()
+        && now - transaction.getStartTime() >= CloudSpannerDriver.getLongTransactionTrigger()) {
+      transaction.markLongRunning();
+      longRunningCount.incrementAndGet();
+    }
+    if (transactions.contains(transaction))
+      schedule(transaction, now);
+  }
+
+  public long getKeepAliveIdleMillis() {
+    return keepAliveIdleMillis;
+  }
+
+  /**
+   * Sets the number of milliseconds that a transaction may be idle before the monitor executes a
+   * keep-alive query on the transaction. The value should be well below the 10 seconds after which
+   * Cloud Spanner aborts idle transactions.
+   *
+   * @param keepAliveIdleMillis The number of milliseconds. Only values larger than zero are
+   *        allowed.
+   */
+  public void setKeepAliveIdleMillis(long keepAliveIdleMillis) {
+    Preconditions.checkArgument(keepAliveIdleMillis > 0L);
+    this.keepAliveIdleMillis = keepAliveIdleMillis;
+  }
+
+  /**
+   *
+   * @return The number of read/write transactions that are currently monitored
+   */
+  public int getActiveCount() {
+    return transactions.size();
+  }
+
+  /**
+   *
+   * @return The number of active transactions that have not executed a statement for longer than
+   *         the keep-alive idle time
+   */
+  public int getIdleCount() {
+    long now = System.currentTimeMillis();
+    int res = 0;
+    for (TransactionThread transaction : transactions) {
+      if (now - transaction.getLastActivity() >= keepAliveIdleMillis)
+        res++;
+    }
+    return res;
+  }
+
+  /**
+   *
+   * @return The number of active transactions that have been running for longer than the
+   *         long-running trigger of the driver
+   */
+  public int getLongRunningCount() {
+    int res = 0;
+    for (TransactionThread transaction : transactions) {
+      if (transaction.isLongRunning())
+        res++;
+    }
+    return res;
+  }
+
+  /**
+   *
+   * @return The total number of transactions that have been marked as long-running
+   */
+  public long getTotalLongRunningCount() {
+    return longRunningCount.get();
+  }
+
+  /**
+   *
+   * @return The total number of keep-alive queries that have been executed
+   */
+  public long getKeepAliveCount() {
+    return keepAliveCount.get();
+  }
+
+}
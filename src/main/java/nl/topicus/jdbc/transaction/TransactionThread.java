@@ -2,21 +2,17 @@ package nl.topicus.jdbc.transaction;
 
 import java.sql.SQLException;
 import java.sql.Savepoint;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.ScheduledFuture;
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.KeySet;
 import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.Options.ReadOption;
 import com.google.cloud.spanner.ResultSet;
 import com.google.cloud.spanner.SpannerException;
 import com.google.cloud.spanner.Statement;
@@ -29,7 +25,13 @@ import nl.topicus.jdbc.CloudSpannerDriver;
 import nl.topicus.jdbc.Logger;
 import nl.topicus.jdbc.exception.CloudSpannerSQLException;
 
-class TransactionThread extends Thread {
+/**
+ * A read/write transaction that is executed on a thread of the driver-wide
+ * {@link TransactionThreadPool}. The transaction keeps the thread until it is committed or rolled
+ * back. Keep-alives and long-running transactions are handled by the driver-wide
+ * {@link TransactionMonitor}.
+ */
+class TransactionThread implements Runnable {
   public static class QueryException extends RuntimeException {
     private static final long serialVersionUID = 1L;
 
@@ -50,6 +52,35 @@ class TransactionThread extends Thread {
     COMMIT, ROLLBACK, PREPARE, COMMIT_PREPARED, ROLLBACK_PREPARED;
   }
 
+  /**
+   * A query or read that is executed on the transaction by the transaction thread.
+   */
+  @FunctionalInterface
+  private static interface Query {
+    ResultSet execute(TransactionContext transaction);
+  }
+
+  /**
+   * Statement that is put on the queue by the {@link TransactionMonitor} when the transaction needs
+   * a keep-alive. The result of this statement is not returned to the client.
+   */
+  private static final Statement KEEP_ALIVE_STATEMENT = Statement.of("SELECT 1");
+
+  private static final Query KEEP_ALIVE = transaction -> {
+    try (ResultSet rs = transaction.executeQuery(KEEP_ALIVE_STATEMENT)) {
+      rs.next();
+    }
+    return null;
+  };
+
+  /**
+   * Put on the queue when the transaction must stop, in order to get the transaction thread to
+   * proceed.
+   */
+  private static final Query STOP = transaction -> null;
+
+  private final String name;
+
   private final Logger logger;
 
   private final StackTraceElement[] stackTraceElements;
@@ -58,11 +89,17 @@ class TransactionThread extends Thread {
 
   private DatabaseClient dbClient;
 
-  private boolean stop;
+  private volatile boolean stop;
+
+  private volatile boolean stopped;
 
-  private boolean stopped;
+  /**
+   * Set when the client gave up waiting for a thread of the transaction pool. The transaction is
+   * then skipped when it gets a thread.
+   */
+  private boolean cancelled;
 
-  private TransactionStatus status = TransactionStatus.NOT_STARTED;
+  private volatile TransactionStatus status = TransactionStatus.NOT_STARTED;
 
   private Timestamp commitTimestamp;
 
@@ -70,20 +107,26 @@ class TransactionThread extends Thread {
 
   private TransactionStopStatement stopStatement = null;
 
+  private volatile long startTime;
+
+  private volatile long lastActivity;
+
+  private volatile long lastKeepAlive;
+
+  private volatile boolean longRunning;
+
+  private volatile ScheduledFuture<?> monitorTask;
+
   /**
    * The XA transaction id to be prepared/committed/rolled back
    */
   private String xid;
 
-  private final Set<String> stopStatementStrings =
-      new HashSet<>(Arrays.asList(TransactionStopStatement.values()).stream().map(x -> x.name())
-          .collect(Collectors.toList()));
-
-  private List<Mutation> mutations = new ArrayList<>(40);
+  private final MutationBuffer mutations = new MutationBuffer();
 
   private Map<Savepoint, Integer> savepoints = new HashMap<>();
 
-  private BlockingQueue<Statement> statements = new LinkedBlockingQueue<>();
+  private BlockingQueue<Query> queries = new LinkedBlockingQueue<>();
 
   private BlockingQueue<ResultSet> resultSets = new LinkedBlockingQueue<>();
 
@@ -94,7 +137,7 @@ class TransactionThread extends Thread {
   }
 
   TransactionThread(DatabaseClient dbClient, Logger logger) {
-    super("Google Cloud Spanner JDBC Transaction Thread-" + nextThreadNum());
+    this.name = "Google Cloud Spanner JDBC Transaction Thread-" + nextThreadNum();
     Preconditions.checkNotNull(dbClient, "dbClient may not be null");
     Preconditions.checkNotNull(logger, "logger may not be null");
     this.dbClient = dbClient;
@@ -104,132 +147,158 @@ class TransactionThread extends Thread {
     } else {
       this.stackTraceElements = null;
     }
-    setDaemon(true);
+  }
+
+  String getName() {
+    return name;
+  }
+
+  /**
+   * Starts the transaction on the driver-wide transaction thread pool
+   */
+  void start() {
+    CloudSpannerDriver.getTransactionThreadPool().execute(this);
   }
 
   @Override
   public void run() {
-    TransactionRunner runner = dbClient.readWriteTransaction();
     synchronized (monitor) {
-      try {
-        status = runner.run(new TransactionCallable<TransactionStatus>() {
-
-          @Override
-          public TransactionStatus run(TransactionContext transaction) throws Exception {
-            long startTime = System.currentTimeMillis();
-            long lastTriggerTime = startTime;
-            boolean transactionStartedLogged = false;
-            boolean stackTraceLoggedForKeepAlive = false;
-            boolean stackTraceLoggedForLongRunning = false;
+      if (cancelled) {
+        stopped = true;
+        return;
+      }
+    }
+    TransactionRunner runner = dbClient.readWriteTransaction();
+    TransactionMonitor transactionMonitor = CloudSpannerDriver.getTransactionMonitor();
+    try {
+      status = runner.run(new TransactionCallable<TransactionStatus>() {
+
+        @Override
+        public TransactionStatus run(TransactionContext transaction) throws Exception {
+          startTime = System.currentTimeMillis();
+          lastActivity = startTime;
+          synchronized (monitor) {
             status = TransactionStatus.RUNNING;
-            while (!stop) {
-              try {
-                Statement statement = statements.poll(5, TimeUnit.SECONDS);
-                if (statement != null) {
-                  String sql = statement.getSql();
-                  if (!stopStatementStrings.contains(sql)) {
-                    resultSets.put(transaction.executeQuery(statement));
-                  }
-                } else {
-                  // keep alive
-                  transactionStartedLogged =
-                      logTransactionStarted(transactionStartedLogged, startTime);
-                  logger.info(String.format("%s, %s", getName(),
-                      "Transaction has been inactive for more than 5 seconds and will do a keep-alive query"));
-                  if (!stackTraceLoggedForKeepAlive) {
-                    logStartStackTrace();
-                    stackTraceLoggedForKeepAlive = true;
-                  }
-                  try (ResultSet rs = transaction.executeQuery(Statement.of("SELECT 1"))) {
-                    rs.next();
-                  }
-                }
-                if (!stop && logger.logInfo()
-                    && (System.currentTimeMillis() - lastTriggerTime) > CloudSpannerDriver
-                        .getLongTransactionTrigger()) {
-                  transactionStartedLogged =
-                      logTransactionStarted(transactionStartedLogged, startTime);
-                  logger.info(String.format("%s, %s", getName(), "Transaction has been running for "
-                      + (System.currentTimeMillis() - startTime) + "ms"));
-                  if (!stackTraceLoggedForLongRunning) {
-                    logStartStackTrace();
-                    stackTraceLoggedForLongRunning = true;
-                  }
-                  lastTriggerTime = System.currentTimeMillis();
-                }
-              } catch (InterruptedException e) {
-                logDebugIfTransactionStartedLogged(transactionStartedLogged,
-                    "Transaction interrupted");
-                stopped = true;
-                exception = e;
-                throw e;
+            monitor.notifyAll();
+          }
+          transactionMonitor.register(TransactionThread.this);
+          while (!stop) {
+            try {
+              Query query = queries.take();
+              if (query == KEEP_ALIVE) {
+                query.execute(transaction);
+              } else if (query != STOP) {
+                resultSets.put(query.execute(transaction));
               }
+            } catch (InterruptedException e) {
+              logDebugIfLongRunning("Transaction interrupted");
+              stopped = true;
+              exception = e;
+              throw e;
             }
-
-            switch (stopStatement) {
-              case COMMIT:
-                logDebugIfTransactionStartedLogged(transactionStartedLogged,
-                    "Transaction committed");
-                transaction.buffer(mutations);
-                break;
-              case ROLLBACK:
-                // throw an exception to force a rollback
-                logDebugIfTransactionStartedLogged(transactionStartedLogged,
-                    "Transaction rolled back");
-                throw new RollbackException();
-              case PREPARE:
-                logDebugIfTransactionStartedLogged(transactionStartedLogged,
-                    "Transaction prepare called");
-                XATransaction.prepareMutations(transaction, xid, mutations);
-                break;
-              case COMMIT_PREPARED:
-                logDebugIfTransactionStartedLogged(transactionStartedLogged,
-                    "Transaction commit prepared called");
-                XATransaction.commitPrepared(transaction, xid);
-                break;
-              case ROLLBACK_PREPARED:
-                logDebugIfTransactionStartedLogged(transactionStartedLogged,
-                    "Transaction rollback prepared called");
-                XATransaction.rollbackPrepared(transaction, xid);
-                break;
-            }
-            logDebugIfTransactionStartedLogged(transactionStartedLogged,
-                "Transaction successfully stopped");
-            return TransactionStatus.SUCCESS;
           }
-        });
-        commitTimestamp = runner.getCommitTimestamp();
-      } catch (Exception e) {
-        if (e.getCause() instanceof RollbackException) {
-          status = TransactionStatus.SUCCESS;
-        } else {
-          // if statement prevents unnecessary String.format(...) call
-          if (logger.logDebug()) {
-            logger.debug(String.format("%s, %s", getName(),
-                "Transaction threw an exception: " + e.getMessage()));
+
+          switch (stopStatement) {
+            case COMMIT:
+              logDebugIfLongRunning("Transaction committed");
+              transaction.buffer(mutations);
+              break;
+            case ROLLBACK:
+              // throw an exception to force a rollback
+              logDebugIfLongRunning("Transaction rolled back");
+              throw new RollbackException();
+            case PREPARE:
+              logDebugIfLongRunning("Transaction prepare called");
+              XATransaction.prepareMutations(transaction, xid, mutations);
+              break;
+            case COMMIT_PREPARED:
+              logDebugIfLongRunning("Transaction commit prepared called");
+              XATransaction.commitPrepared(transaction, xid);
+              break;
+            case ROLLBACK_PREPARED:
+              logDebugIfLongRunning("Transaction rollback prepared called");
+              XATransaction.rollbackPrepared(transaction, xid);
+              break;
           }
-          status = TransactionStatus.FAIL;
-          exception = e;
+          logDebugIfLongRunning("Transaction successfully stopped");
+          return TransactionStatus.SUCCESS;
         }
-      } finally {
+      });
+      commitTimestamp = runner.getCommitTimestamp();
+    } catch (Exception e) {
+      if (e.getCause() instanceof RollbackException) {
+        status = TransactionStatus.SUCCESS;
+      } else {
+        // if statement prevents unnecessary String.format(...) call
+        if (logger.logDebug()) {
+          logger.debug(String.format("%s, %s", getName(),
+              "Transaction threw an exception: " + e.getMessage()));
+        }
+        status = TransactionStatus.FAIL;
+        exception = e;
+      }
+    } finally {
+      transactionMonitor.unregister(this);
+      synchronized (monitor) {
         stopped = true;
         monitor.notifyAll();
       }
     }
   }
 
-  private void logDebugIfTransactionStartedLogged(boolean transactionStartedLogged, String log) {
-    if (transactionStartedLogged) {
+  private void logDebugIfLongRunning(String log) {
+    if (longRunning && logger.logDebug()) {
       logger.debug(String.format("%s, %s", getName(), log));
     }
   }
 
-  private boolean logTransactionStarted(boolean transactionStartedLogged, long startTime) {
-    if (!transactionStartedLogged) {
+  long getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * 
+   * @return The last time that a statement of the client was executed on this transaction
+   */
+  long getLastActivity() {
+    return lastActivity;
+  }
+
+  long getLastKeepAlive() {
+    return lastKeepAlive;
+  }
+
+  /**
+   * Called by the {@link TransactionMonitor} when the transaction has been idle for too long.
+   */
+  void keepAlive(long now) {
+    lastKeepAlive = now;
+    queries.add(KEEP_ALIVE);
+  }
+
+  boolean isLongRunning() {
+    return longRunning;
+  }
+
+  /**
+   * Called by the {@link TransactionMonitor} when the transaction passes the long-running trigger
+   * of the driver. If debug logging is enabled, the stack trace of the call that started the
+   * transaction is logged.
+   */
+  void markLongRunning() {
+    longRunning = true;
+    if (logger.logDebug()) {
       logger.debug(String.format("%s, %s", getName(),
           "This transaction started at " + new java.sql.Timestamp(startTime).toString()));
+      logStartStackTrace();
     }
-    return true;
+  }
+
+  void setMonitorTask(ScheduledFuture<?> task) {
+    ScheduledFuture<?> previous = monitorTask;
+    monitorTask = task;
+    if (task == null && previous != null)
+      previous.cancel(false);
   }
 
   private void logStartStackTrace() {
@@ -241,9 +310,41 @@ class TransactionThread extends Thread {
     }
   }
 
+  /**
+   * Executes a query on the transaction.
+   */
   ResultSet executeQuery(Statement statement) {
+    return execute(transaction -> transaction.executeQuery(statement));
+  }
+
+  /**
+   * Reads rows from a table or index on the transaction. The keys and columns are passed on to
+   * {@link TransactionContext#read(String, KeySet, Iterable, ReadOption...)} or
+   * {@link TransactionContext#readUsingIndex(String, String, KeySet, Iterable, ReadOption...)}.
+   */
+  ResultSet read(String table, String index, KeySet keys, Iterable<String> columns,
+      ReadOption... options) {
+    if (index == null)
+      return execute(transaction -> transaction.read(table, keys, columns, options));
+    return execute(transaction -> transaction.readUsingIndex(table, index, keys, columns, options));
+  }
+
+  /**
+   * Executes a query or read on the transaction thread. This method is synchronized, as the queries
+   * and results are exchanged with the transaction through queues, and a result must be returned to
+   * the caller that submitted the query.
+   */
+  private synchronized ResultSet execute(Query query) {
     try {
-      statements.put(statement);
+      awaitStarted();
+    } catch (CloudSpannerSQLException e) {
+      throw new QueryException(e.getMessage(), e);
+    }
+    if (stopped)
+      throw new QueryException("The transaction is no longer running", exception);
+    try {
+      lastActivity = System.currentTimeMillis();
+      queries.put(query);
       return resultSets.take();
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
@@ -259,6 +360,10 @@ class TransactionThread extends Thread {
     return mutations.size();
   }
 
+  long bufferedMutationsByteSize() {
+    return mutations.getByteSize();
+  }
+
   void buffer(Mutation mutation) {
     if (mutation == null)
       throw new NullPointerException("Mutation is null");
@@ -283,7 +388,7 @@ class TransactionThread extends Thread {
       throw new CloudSpannerSQLException("Unknown savepoint: " + savepoint.toString(),
           Code.INVALID_ARGUMENT);
     }
-    mutations.subList(index.intValue(), mutations.size()).clear();
+    mutations.truncate(index.intValue());
     removeSavepointsAfter(index.intValue());
   }
 
@@ -325,23 +430,52 @@ class TransactionThread extends Thread {
     stopTransaction(TransactionStopStatement.ROLLBACK_PREPARED);
   }
 
+  /**
+   * Waits until the transaction has been picked up by a thread of the {@link TransactionThreadPool}.
+   * If the pool is bounded and all its threads are in use, the wait is limited by the start timeout
+   * of the pool. The transaction is cancelled when the timeout expires, so that it will not occupy
+   * a thread of the pool when one becomes available later.
+   */
+  private void awaitStarted() throws CloudSpannerSQLException {
+    long timeout = CloudSpannerDriver.getTransactionThreadPool().getStartTimeout();
+    long deadline = System.currentTimeMillis() + timeout;
+    synchronized (monitor) {
+      while (!cancelled && !stopped && status == TransactionStatus.NOT_STARTED) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0L) {
+          cancelled = true;
+          break;
+        }
+        try {
+          monitor.wait(remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new CloudSpannerSQLException("Interrupted while waiting for the transaction to start",
+              Code.CANCELLED, e);
+        }
+      }
+      if (cancelled)
+        throw new CloudSpannerSQLException("The transaction could not be started within " + timeout
+            + " milliseconds, as all threads of the transaction pool are in use",
+            Code.DEADLINE_EXCEEDED);
+    }
+  }
+
   private void stopTransaction(TransactionStopStatement statement) throws SQLException {
     if (status == TransactionStatus.FAIL || status == TransactionStatus.SUCCESS)
       return;
-    while (status == TransactionStatus.NOT_STARTED) {
-      try {
-        Thread.sleep(1);
-      } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
-        throw new CloudSpannerSQLException(getFailedMessage(statement, e), Code.ABORTED, e);
-      }
+    try {
+      awaitStarted();
+    } catch (CloudSpannerSQLException e) {
+      // A transaction that never started has nothing to roll back
+      if (e.getCode() == Code.DEADLINE_EXCEEDED && statement == TransactionStopStatement.ROLLBACK)
+        return;
+      throw new CloudSpannerSQLException(getFailedMessage(statement, e), e.getCode(), e);
     }
 
     this.stopStatement = statement;
     stop = true;
-    // Add a statement object in order to get the transaction thread to
-    // proceed
-    statements.add(Statement.of(statement.name()));
+    queries.add(STOP);
     synchronized (monitor) {
       while (!stopped || status == TransactionStatus.NOT_STARTED
           || status == TransactionStatus.RUNNING) {
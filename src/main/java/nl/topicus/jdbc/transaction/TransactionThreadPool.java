@@ -0,0 +1,232 @@
+package nl.topicus.jdbc.transaction;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import com.google.common.base.Preconditions;
+
+/**
+ * Driver-wide pool of threads that execute read/write transactions. A read/write transaction
+ * occupies a thread from this pool for as long as the transaction is active. The pool is unbounded
+ * by default and reuses idle threads. When a maximum size is set, transactions that are started
+ * while all threads are in use are queued until a thread becomes available. A client waits at most
+ * the start timeout of the pool for a queued transaction to start.
+ *
+ * @author loite
+ *
+ */
+public class TransactionThreadPool {
+  public static final int UNBOUNDED = 0;
+
+  public static final long DEFAULT_START_TIMEOUT_MILLIS = 60000L;
+
+  private static final long KEEP_ALIVE_SECONDS = 60L;
+
+  private static final AtomicInteger poolThreadNumber = new AtomicInteger();
+
+  private final AtomicInteger active = new AtomicInteger();
+
+  private final AtomicInteger queued = new AtomicInteger();
+
+  private final AtomicLong completed = new AtomicLong();
+
+  private int maxSize = UNBOUNDED;
+
+  private boolean useVirtualThreads = false;
+
+  private volatile long startTimeout = DEFAULT_START_TIMEOUT_MILLIS;
+
+  private ThreadPoolExecutor executor;
+
+  public TransactionThreadPool() {
+    this.executor = createExecutor(maxSize, createThreadFactory(useVirtualThreads));
+  }
+
+  private static ThreadPoolExecutor createExecutor(int maxSize, ThreadFactory threadFactory) {
+    if (maxSize == UNBOUNDED) {
+      return new ThreadPoolExecutor(0, Integer.MAX_VALUE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+          new SynchronousQueue<>(), threadFactory);
+    }
+    ThreadPoolExecutor res = new ThreadPoolExecutor(maxSize, maxSize, KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+    res.allowCoreThreadTimeOut(true);
+    return res;
+  }
+
+  private static ThreadFactory createThreadFactory(boolean useVirtualThreads) {
+    if (useVirtualThreads) {
+      ThreadFactory factory = createVirtualThreadFactory();
+      if (factory != null)
+        return factory;
+    }
+    return runnable -> {
+      Thread thread = new Thread(runnable,
+          "Google Cloud Spanner JDBC Transaction Pool-" + poolThreadNumber.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * Creates a factory for virtual threads using reflection, as virtual threads are only available
+   * on JDK 21 and higher.
+   *
+   * @return A virtual thread factory, or <code>null</code> if virtual threads are not supported by
+   *         the current JVM
+   */
+  private static ThreadFactory createVirtualThreadFactory() {
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder,
+          "Google Cloud Spanner JDBC Virtual Transaction Thread-", 0L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Submits a transaction to the pool.
+   *
+   * @param transaction The transaction to execute
+   */
+  void execute(Runnable transaction) {
+    Preconditions.checkNotNull(transaction);
+    Runnable task = () -> {
+      queued.decrementAndGet();
+      active.incrementAndGet();
+      try {
+        transaction.run();
+      } finally {
+        active.decrementAndGet();
+        completed.incrementAndGet();
+      }
+    };
+    queued.incrementAndGet();
+    while (true) {
+      ThreadPoolExecutor current = getExecutor();
+      try {
+        current.execute(task);
+        return;
+      } catch (RejectedExecutionException e) {
+        // the executor may have been replaced by a reconfiguration of the pool
+        if (current == getExecutor()) {
+          queued.decrementAndGet();
+          throw e;
+        }
+      }
+    }
+  }
+
+  private synchronized ThreadPoolExecutor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Reconfigures the pool. Transactions that are already running or queued will be finished by the
+   * previous threads of the pool.
+   */
+  private synchronized void reconfigure(int maxSize, boolean useVirtualThreads) {
+    if (this.maxSize == maxSize && this.useVirtualThreads == useVirtualThreads)
+      return;
+    ThreadPoolExecutor previous = executor;
+    this.maxSize = maxSize;
+    this.useVirtualThreads = useVirtualThreads;
+    this.executor = createExecutor(maxSize, createThreadFactory(useVirtualThreads));
+    previous.shutdown();
+  }
+
+  /**
+   *
+   * @return The maximum number of concurrent read/write transactions, or {@link #UNBOUNDED}
+   */
+  public synchronized int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Sets the maximum number of read/write transactions that can run concurrently. Transactions that
+   * are started when the maximum has been reached, will wait until a running transaction has
+   * finished.
+   *
+   * @param maxSize The maximum number of threads in the pool, or {@link #UNBOUNDED}
+   */
+  public synchronized void setMaxSize(int maxSize) {
+    Preconditions.checkArgument(maxSize >= 0);
+    reconfigure(maxSize, useVirtualThreads);
+  }
+
+  public long getStartTimeout() {
+    return startTimeout;
+  }
+
+  /**
+   * Sets the maximum time that a statement on a read/write transaction waits for the transaction
+   * to get a thread of a bounded pool. The statement fails with a timeout error when all threads
+   * are still in use after this time, for example because the application itself holds all
+   * transactions of the pool open.
+   *
+   * @param startTimeout The timeout in milliseconds
+   */
+  public void setStartTimeout(long startTimeout) {
+    Preconditions.checkArgument(startTimeout >= 0L, "Start timeout may not be negative");
+    this.startTimeout = startTimeout;
+  }
+
+  public synchronized boolean isUseVirtualThreads() {
+    return useVirtualThreads;
+  }
+
+  /**
+   * Use virtual threads for running transactions. This setting is ignored if the JVM does not
+   * support virtual threads (JDK 21 and higher).
+   *
+   * @param useVirtualThreads true if virtual threads should be used if possible
+   */
+  public synchronized void setUseVirtualThreads(boolean useVirtualThreads) {
+    reconfigure(maxSize, useVirtualThreads && isVirtualThreadsSupported());
+  }
+
+  public static boolean isVirtualThreadsSupported() {
+    return createVirtualThreadFactory() != null;
+  }
+
+  /**
+   *
+   * @return The current number of threads in the pool, including idle threads
+   */
+  public int getPoolSize() {
+    return getExecutor().getPoolSize();
+  }
+
+  /**
+   *
+   * @return The number of read/write transactions that are currently running
+   */
+  public int getActiveCount() {
+    return active.get();
+  }
+
+  /**
+   *
+   * @return The number of read/write transactions that are waiting for a thread
+   */
+  public int getQueuedCount() {
+    return queued.get();
+  }
+
+  /**
+   *
+   * @return The total number of read/write transactions that have finished
+   */
+  public long getCompletedCount() {
+    return completed.get();
+  }
+
+}
@@ -7,7 +7,6 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.sql.SQLException;
 import java.util.Base64;
-import java.util.List;
 import com.google.cloud.spanner.Key;
 import com.google.cloud.spanner.KeySet;
 import com.google.cloud.spanner.Mutation;
@@ -40,8 +39,8 @@ class XATransaction {
           + CloudSpannerXAConnection.XA_XID_COLUMN + "=@xid ORDER BY "
           + CloudSpannerXAConnection.XA_NUMBER_COLUMN;
 
-  static void prepareMutations(TransactionContext transaction, String xid, List<Mutation> mutations)
-      throws SQLException {
+  static void prepareMutations(TransactionContext transaction, String xid,
+      Iterable<Mutation> mutations) throws SQLException {
     int index = 0;
     for (Mutation mutation : mutations) {
       WriteBuilder prepared =
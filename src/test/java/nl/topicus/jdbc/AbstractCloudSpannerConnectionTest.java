@@ -25,7 +25,8 @@ public class AbstractCloudSpannerConnectionTest {
     return new CloudSpannerConnection(
         (CloudSpannerDriver) DriverManager.getDriver("jdbc:cloudspanner://localhost"),
         "jdbc:cloudspanner://localhost",
-        new CloudSpannerDatabaseSpecification("test", "test", "test"), null, "oauth", props, false);
+        new CloudSpannerDatabaseSpecification("test", "test", "test"), null, "oauth", props, false,
+        SessionPoolSettings.DEFAULT);
   }
 
   @Test
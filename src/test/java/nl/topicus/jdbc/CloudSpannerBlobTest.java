@@ -0,0 +1,102 @@
+package nl.topicus.jdbc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+import com.google.cloud.ByteArray;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import nl.topicus.jdbc.test.category.UnitTest;
+
+@Category(UnitTest.class)
+public class CloudSpannerBlobTest {
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void testBlob() throws SQLException, IOException {
+    ByteArray value = ByteArray.copyFrom("FOOBAR");
+    CloudSpannerBlob blob = new CloudSpannerBlob(value);
+    assertEquals(6L, blob.length());
+    assertEquals(value, blob.getByteArray());
+    assertArrayEquals("FOOBAR".getBytes(), blob.getBytes(1L, 6));
+    assertArrayEquals("BAR".getBytes(), blob.getBytes(4L, 10));
+    assertArrayEquals(new byte[0], blob.getBytes(7L, 10));
+    try (InputStream stream = blob.getBinaryStream()) {
+      assertArrayEquals("FOOBAR".getBytes(), ByteStreams.toByteArray(stream));
+    }
+    try (InputStream stream = blob.getBinaryStream(2L, 3L)) {
+      assertArrayEquals("OOB".getBytes(), ByteStreams.toByteArray(stream));
+    }
+    assertEquals(new CloudSpannerBlob(ByteArray.copyFrom("FOOBAR")), blob);
+  }
+
+  @Test
+  public void testBlobInvalidPosition() throws SQLException {
+    CloudSpannerBlob blob = new CloudSpannerBlob(ByteArray.copyFrom("FOOBAR"));
+    thrown.expect(SQLException.class);
+    thrown.expectMessage("Invalid position");
+    blob.getBinaryStream(5L, 3L);
+  }
+
+  @Test
+  public void testBlobFree() throws SQLException {
+    CloudSpannerBlob blob = new CloudSpannerBlob(ByteArray.copyFrom("FOOBAR"));
+    blob.free();
+    thrown.expect(SQLException.class);
+    thrown.expectMessage("free() has been called");
+    blob.getBinaryStream();
+  }
+
+  @Test
+  public void testBlobReadOnly() throws SQLException {
+    CloudSpannerBlob blob = new CloudSpannerBlob(ByteArray.copyFrom("FOOBAR"));
+    thrown.expect(SQLFeatureNotSupportedException.class);
+    blob.setBytes(1L, "BAZ".getBytes());
+  }
+
+  @Test
+  public void testClob() throws SQLException, IOException {
+    CloudSpannerClob clob = new CloudSpannerClob("FOOBAR");
+    assertEquals(6L, clob.length());
+    assertEquals("FOOBAR", clob.getSubString(1L, 6));
+    assertEquals("BAR", clob.getSubString(4L, 10));
+    assertEquals(4L, clob.position("BAR", 1L));
+    assertEquals(-1L, clob.position("BAZ", 1L));
+    assertEquals(4L, clob.position(new CloudSpannerClob("BA"), 2L));
+    try (Reader reader = clob.getCharacterStream()) {
+      assertEquals("FOOBAR", CharStreams.toString(reader));
+    }
+    try (Reader reader = clob.getCharacterStream(2L, 3L)) {
+      assertEquals("OOB", CharStreams.toString(reader));
+    }
+    try (InputStream stream = clob.getAsciiStream()) {
+      assertArrayEquals("FOOBAR".getBytes(), ByteStreams.toByteArray(stream));
+    }
+  }
+
+  @Test
+  public void testClobFree() throws SQLException {
+    CloudSpannerClob clob = new CloudSpannerClob("FOOBAR");
+    clob.free();
+    thrown.expect(SQLException.class);
+    thrown.expectMessage("free() has been called");
+    clob.length();
+  }
+
+  @Test
+  public void testClobReadOnly() throws SQLException {
+    CloudSpannerClob clob = new CloudSpannerClob("FOOBAR");
+    thrown.expect(SQLFeatureNotSupportedException.class);
+    clob.truncate(1L);
+  }
+
+}
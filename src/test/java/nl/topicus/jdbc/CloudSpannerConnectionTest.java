@@ -14,14 +14,19 @@ import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Savepoint;
 import java.sql.Statement;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.rules.ExpectedException;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.TimestampBound;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
 import nl.topicus.jdbc.test.category.UnitTest;
 
 @Category(UnitTest.class)
@@ -119,6 +124,21 @@ public class CloudSpannerConnectionTest {
     Assert.assertEquals(SIMPLE_SELECT, sql);
   }
 
+  @Test
+  public void testMaxInFlightAsyncStatements() {
+    assertEquals(CloudSpannerConnection.DEFAULT_MAX_IN_FLIGHT_ASYNC_STATEMENTS,
+        subject.getMaxInFlightAsyncStatements());
+    assertEquals(CloudSpannerConnection.DEFAULT_MAX_IN_FLIGHT_ASYNC_STATEMENTS,
+        subject.getAsyncStatementPermits().availablePermits());
+    subject.setMaxInFlightAsyncStatements(2);
+    assertEquals(2, subject.getMaxInFlightAsyncStatements());
+    assertEquals(2, subject.getAsyncStatementPermits().availablePermits());
+    subject.setMaxInFlightAsyncStatements(5);
+    assertEquals(5, subject.getAsyncStatementPermits().availablePermits());
+    thrown.expect(IllegalArgumentException.class);
+    subject.setMaxInFlightAsyncStatements(0);
+  }
+
   @Test
   public void testAutoCommit() throws SQLException {
     Assert.assertTrue(subject.getAutoCommit());
@@ -232,6 +252,125 @@ public class CloudSpannerConnectionTest {
     assertTrue(connection.isBatchReadOnly());
     connection.resetDynamicConnectionProperty("BatchReadOnlyMode");
     assertFalse(connection.isBatchReadOnly());
+
+    connection.setDynamicConnectionProperty("PartitionParallelism", "4");
+    assertEquals(0, connection.getOriginalPartitionParallelism());
+    assertEquals(4, connection.getPartitionParallelism());
+    connection.resetDynamicConnectionProperty("PartitionParallelism");
+    assertEquals(0, connection.getPartitionParallelism());
+
+    connection.setDynamicConnectionProperty("MergePartitionResults", "true");
+    assertFalse(connection.isOriginalMergePartitionResults());
+    assertTrue(connection.isMergePartitionResults());
+    connection.resetDynamicConnectionProperty("MergePartitionResults");
+    assertFalse(connection.isMergePartitionResults());
+
+    connection.setDynamicConnectionProperty("MaxPartitions", "16");
+    assertEquals(0L, connection.getOriginalMaxPartitions());
+    assertEquals(16L, connection.getMaxPartitions());
+    connection.resetDynamicConnectionProperty("MaxPartitions");
+    assertEquals(0L, connection.getMaxPartitions());
+
+    connection.setDynamicConnectionProperty("PartitionSizeBytes", "10000000000");
+    assertEquals(0L, connection.getOriginalPartitionSizeBytes());
+    assertEquals(10000000000L, connection.getPartitionSizeBytes());
+    connection.resetDynamicConnectionProperty("PartitionSizeBytes");
+    assertEquals(0L, connection.getPartitionSizeBytes());
+
+    connection.setPrefetchResults(true);
+    assertFalse(connection.isOriginalPrefetchResults());
+    assertTrue(connection.isPrefetchResults());
+    connection.resetDynamicConnectionProperty("PrefetchResults");
+    assertFalse(connection.isPrefetchResults());
+
+    connection.setDynamicConnectionProperty("BulkWriteParallelism", "8");
+    assertEquals(0, connection.getOriginalBulkWriteParallelism());
+    assertEquals(8, connection.getBulkWriteParallelism());
+    connection.resetDynamicConnectionProperty("BulkWriteParallelism");
+    assertEquals(0, connection.getBulkWriteParallelism());
+
+    connection.setDynamicConnectionProperty("QueryResultCacheTTL", "60000");
+    assertEquals(0L, connection.getOriginalQueryResultCacheTTL());
+    assertEquals(60000L, connection.getQueryResultCacheTTL());
+    connection.resetDynamicConnectionProperty("QueryResultCacheTTL");
+    assertEquals(0L, connection.getQueryResultCacheTTL());
+
+    connection.setAutoCommit(true);
+    connection.setDynamicConnectionProperty("ReadOnlyStaleness", "EXACT_STALENESS 10s");
+    assertEquals(TimestampBound.strong(), connection.getOriginalReadTimestampBound());
+    assertEquals(TimestampBound.ofExactStaleness(10L, TimeUnit.SECONDS),
+        connection.getReadTimestampBound());
+    assertEquals("EXACT_STALENESS 10s", connection.getReadOnlyStaleness());
+    connection.resetDynamicConnectionProperty("ReadOnlyStaleness");
+    assertEquals(TimestampBound.strong(), connection.getReadTimestampBound());
+  }
+
+  @Test
+  public void testSessionPoolSettings() throws SQLException {
+    Properties properties = createDefaultProperties();
+    try (CloudSpannerConnection defaultConnection = createConnection(properties)) {
+      properties.setProperty("MaxSessions", "100");
+      properties.setProperty("NumChannels", "2");
+      try (CloudSpannerConnection connection1 = createConnection(properties);
+          CloudSpannerConnection connection2 = createConnection(properties)) {
+        assertEquals(connection1.getSpanner(), connection2.getSpanner());
+        assertFalse(defaultConnection.getSpanner().equals(connection1.getSpanner()));
+        Map<String, String> settings = new HashMap<>();
+        try (ResultSet rs = connection1.createStatement().executeQuery("SHOW_SESSION_POOL")) {
+          while (rs.next())
+            settings.put(rs.getString("NAME"), rs.getString("VALUE"));
+        }
+        assertEquals("100", settings.get("MaxSessions"));
+        assertEquals("2", settings.get("NumChannels"));
+        assertEquals("0", settings.get("MinSessions"));
+      }
+    }
+  }
+
+  @Test
+  public void testInvalidSessionPoolSettings() throws SQLException {
+    Properties properties = createDefaultProperties();
+    properties.setProperty("MinSessions", "10");
+    properties.setProperty("MaxSessions", "5");
+    thrown.expect(CloudSpannerSQLException.class);
+    thrown.expectMessage("Invalid session pool settings");
+    createConnection(properties);
+  }
+
+  @Test
+  public void testParseReadOnlyStaleness() throws SQLException {
+    assertEquals(TimestampBound.strong(), ConnectionProperties.parseTimestampBound("strong"));
+    assertEquals(TimestampBound.ofExactStaleness(15L, TimeUnit.SECONDS),
+        ConnectionProperties.parseTimestampBound("EXACT_STALENESS 15s"));
+    assertEquals(TimestampBound.ofMaxStaleness(500L, TimeUnit.MILLISECONDS),
+        ConnectionProperties.parseTimestampBound("max_staleness 500ms"));
+    Timestamp ts = Timestamp.parseTimestamp("2018-01-01T10:00:00Z");
+    assertEquals(TimestampBound.ofReadTimestamp(ts),
+        ConnectionProperties.parseTimestampBound("READ_TIMESTAMP 2018-01-01T10:00:00Z"));
+    assertEquals(TimestampBound.ofMinReadTimestamp(ts),
+        ConnectionProperties.parseTimestampBound("MIN_READ_TIMESTAMP 2018-01-01T10:00:00Z"));
+    for (String value : new String[] {"STRONG", "EXACT_STALENESS 15s", "MAX_STALENESS 500ms",
+        "EXACT_STALENESS 1500us", "MAX_STALENESS 7ns", "READ_TIMESTAMP 2018-01-01T10:00:00Z",
+        "MIN_READ_TIMESTAMP 2018-01-01T10:00:00.123456789Z"}) {
+      assertEquals(value, ConnectionProperties
+          .formatTimestampBound(ConnectionProperties.parseTimestampBound(value)));
+    }
+  }
+
+  @Test
+  public void testInvalidReadOnlyStaleness() throws SQLException {
+    thrown.expect(CloudSpannerSQLException.class);
+    thrown.expectMessage("Invalid read-only staleness");
+    ConnectionProperties.parseTimestampBound("EXACT_STALENESS 10 minutes");
+  }
+
+  @Test
+  public void testInvalidPartitionParallelism() throws SQLException {
+    Properties properties = createDefaultProperties();
+    try (CloudSpannerConnection connection = createConnection(properties)) {
+      thrown.expect(CloudSpannerSQLException.class);
+      connection.setDynamicConnectionProperty("PartitionParallelism", "two");
+    }
   }
 
   @Test
@@ -251,16 +390,43 @@ public class CloudSpannerConnectionTest {
     assertFalse(connection.isValid(1));
   }
 
+  @Test
+  public void testIsValidWithinValidationWindow() throws SQLException {
+    Properties properties = createDefaultProperties();
+    properties.setProperty("ValidationWindow", "60000");
+    CloudSpannerConnection connection = createConnection(properties);
+    assertEquals(60000L, connection.getValidationWindow());
+    // A recent successful request makes a round trip to Cloud Spanner unnecessary
+    connection.markSuccessfulRequest();
+    assertTrue(connection.isValid(1));
+    connection.close();
+    assertFalse(connection.isValid(1));
+  }
+
+  @Test
+  public void testInvalidValidationWindow() throws SQLException {
+    thrown.expect(IllegalArgumentException.class);
+    subject.setValidationWindow(-1L);
+  }
+
   @Test
   public void testGetDynamicConnectionProperties() throws SQLException {
     Properties properties = createDefaultProperties();
     try (CloudSpannerConnection connection = createConnection(properties)) {
-      testGetDynamicConnectionProperty(connection, null, 5);
+      testGetDynamicConnectionProperty(connection, null, 13);
       testGetDynamicConnectionProperty(connection, "ALLOWEXTENDEDMODE", 1);
       testGetDynamicConnectionProperty(connection, "ASYNCDDLOPERATIONS", 1);
       testGetDynamicConnectionProperty(connection, "AUTOBATCHDDLOPERATIONS", 1);
       testGetDynamicConnectionProperty(connection, "REPORTDEFAULTSCHEMAASNULL", 1);
       testGetDynamicConnectionProperty(connection, "BATCHREADONLYMODE", 1);
+      testGetDynamicConnectionProperty(connection, "PARTITIONPARALLELISM", 1);
+      testGetDynamicConnectionProperty(connection, "MERGEPARTITIONRESULTS", 1);
+      testGetDynamicConnectionProperty(connection, "MAXPARTITIONS", 1);
+      testGetDynamicConnectionProperty(connection, "PARTITIONSIZEBYTES", 1);
+      testGetDynamicConnectionProperty(connection, "PREFETCHRESULTS", 1);
+      testGetDynamicConnectionProperty(connection, "BULKWRITEPARALLELISM", 1);
+      testGetDynamicConnectionProperty(connection, "QUERYRESULTCACHETTL", 1);
+      testGetDynamicConnectionProperty(connection, "READONLYSTALENESS", 1);
       testGetDynamicConnectionProperty(connection, "NOT_A_PROPERTY", 0);
     }
   }
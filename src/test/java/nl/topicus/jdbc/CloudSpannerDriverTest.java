@@ -14,6 +14,7 @@ import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.EnvironmentVariables;
@@ -24,8 +25,12 @@ import org.junit.runner.RunWith;
 import com.google.auth.oauth2.ComputeEngineCredentials;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.NoCredentials;
+import com.google.cloud.spanner.TimestampBound;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+import nl.topicus.jdbc.resultset.QueryResultCache;
 import nl.topicus.jdbc.test.category.UnitTest;
 import nl.topicus.jdbc.test.util.EnvironmentVariablesUtil;
+import nl.topicus.jdbc.transaction.TransactionThreadPool;
 
 @RunWith(Enclosed.class)
 @Category(UnitTest.class)
@@ -130,6 +135,19 @@ public class CloudSpannerDriverTest {
       assertProperties(properties);
     }
 
+    @Test
+    public void parseTransactionThreadPoolSize() throws Exception {
+      ConnectionProperties properties = ConnectionProperties
+          .parse("jdbc:cloudspanner://localhost;Project=foo;TransactionThreadPoolSize=50");
+      assertEquals(Integer.valueOf(50), properties.transactionThreadPoolSize);
+      Properties info = new Properties();
+      info.setProperty("TransactionThreadPoolSize", "20");
+      properties.setAdditionalConnectionProperties(info);
+      assertEquals(Integer.valueOf(20), properties.transactionThreadPoolSize);
+      assertNull(ConnectionProperties
+          .parse("jdbc:cloudspanner://localhost;Project=foo").transactionThreadPoolSize);
+    }
+
     private void assertProperties(ConnectionProperties properties) {
       assertEquals("foo", properties.project);
       assertEquals("bar", properties.instance);
@@ -161,7 +179,9 @@ public class CloudSpannerDriverTest {
       for (DriverPropertyInfo property : properties) {
         if (property.name.equals("AllowExtendedMode") || property.name.equals("AsyncDdlOperations")
             || property.name.equals("AutoBatchDdlOperations")
-            || property.name.equals("BatchReadOnlyMode") || property.name.equals("UseCustomHost"))
+            || property.name.equals("BatchReadOnlyMode") || property.name.equals("UseCustomHost")
+            || property.name.equals("MergePartitionResults")
+            || property.name.equals("PrefetchResults"))
           assertEquals("false", property.value);
         else if (property.name.equals("ReportDefaultSchemaAsNull"))
           assertEquals("true", property.value);
@@ -185,6 +205,53 @@ public class CloudSpannerDriverTest {
       assertNull(properties[4].value);
       assertEquals("PostgreSQL", properties[5].value);
     }
+
+    @Test
+    public void driverPropertyInfoWithPartitionValues() throws SQLException {
+      Driver driver = getDriver();
+      DriverPropertyInfo[] properties = driver.getPropertyInfo(
+          "jdbc:cloudspanner://localhost;Project=adroit-hall-xxx;Instance=test-instance;Database=testdb;PartitionParallelism=4;MaxPartitions=16;PartitionSizeBytes=100000000;BulkWriteParallelism=8",
+          null);
+      assertEquals("4", properties[15].value);
+      assertEquals("16", properties[17].value);
+      assertEquals("100000000", properties[18].value);
+      assertEquals("8", properties[20].value);
+    }
+
+    @Test
+    public void driverPropertyInfoWithQueryResultCacheValues() throws SQLException {
+      Driver driver = getDriver();
+      DriverPropertyInfo[] properties = driver.getPropertyInfo(
+          "jdbc:cloudspanner://localhost;Project=adroit-hall-xxx;Instance=test-instance;Database=testdb;QueryResultCacheSize=1000000;QueryResultCacheTTL=60000",
+          null);
+      assertEquals("1000000", properties[21].value);
+      assertEquals("60000", properties[22].value);
+    }
+
+    @Test
+    public void driverPropertyInfoWithReadOnlyStaleness() throws SQLException {
+      Driver driver = getDriver();
+      DriverPropertyInfo[] properties = driver.getPropertyInfo(
+          "jdbc:cloudspanner://localhost;Project=adroit-hall-xxx;Instance=test-instance;Database=testdb;ReadOnlyStaleness=MAX_STALENESS 10s",
+          null);
+      // spaces are removed from the URL, the staleness value is still valid without them
+      assertEquals(TimestampBound.ofMaxStaleness(10L, TimeUnit.SECONDS),
+          ConnectionProperties.parseTimestampBound(properties[23].value));
+    }
+
+    @Test
+    public void driverPropertyInfoWithSessionPoolValues() throws SQLException {
+      Driver driver = getDriver();
+      DriverPropertyInfo[] properties = driver.getPropertyInfo(
+          "jdbc:cloudspanner://localhost;Project=adroit-hall-xxx;Instance=test-instance;Database=testdb;MinSessions=25;MaxSessions=200;MaxIdleSessions=10;WriteSessionsFraction=0.5;KeepAliveIntervalMinutes=20;NumChannels=8",
+          null);
+      assertEquals("25", properties[24].value);
+      assertEquals("200", properties[25].value);
+      assertEquals("10", properties[26].value);
+      assertEquals("0.5", properties[27].value);
+      assertEquals("20", properties[28].value);
+      assertEquals("8", properties[29].value);
+    }
   }
 
   public static class DriverTest {
@@ -226,6 +293,36 @@ public class CloudSpannerDriverTest {
       assertEquals("FOO", CloudSpannerDriver.unquoteIdentifier("`FOO`"));
       assertNull(CloudSpannerDriver.unquoteIdentifier(null));
     }
+
+    @Test
+    public void testConflictingTransactionThreadPoolSize() throws SQLException {
+      CloudSpannerDriver.setTransactionThreadPoolSize(4);
+      try {
+        thrown.expect(CloudSpannerSQLException.class);
+        thrown.expectMessage("TransactionThreadPoolSize=8 conflicts");
+        getDriver().connect(
+            "jdbc:cloudspanner://localhost;Project=adroit-hall-xxx;Instance=test-instance;Database=testdb;TransactionThreadPoolSize=8",
+            new Properties());
+      } finally {
+        assertEquals(4, CloudSpannerDriver.getTransactionThreadPool().getMaxSize());
+        CloudSpannerDriver.setTransactionThreadPoolSize(TransactionThreadPool.UNBOUNDED);
+      }
+    }
+
+    @Test
+    public void testConflictingQueryResultCacheSize() throws SQLException {
+      CloudSpannerDriver.setQueryResultCacheSize(1000000L);
+      try {
+        thrown.expect(CloudSpannerSQLException.class);
+        thrown.expectMessage("QueryResultCacheSize=0 conflicts");
+        getDriver().connect(
+            "jdbc:cloudspanner://localhost;Project=adroit-hall-xxx;Instance=test-instance;Database=testdb;QueryResultCacheSize=0",
+            new Properties());
+      } finally {
+        assertEquals(1000000L, CloudSpannerDriver.getQueryResultCache().getMaxBytes());
+        CloudSpannerDriver.setQueryResultCacheSize(QueryResultCache.DEFAULT_MAX_BYTES);
+      }
+    }
   }
 
   public static class ConnectAndCloseTest {
@@ -0,0 +1,92 @@
+package nl.topicus.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import nl.topicus.jdbc.statement.CloudSpannerPreparedStatement;
+
+/**
+ * Compares binding parameters on a prepared statement of a physical connection with binding
+ * parameters on a prepared statement of a connection handle of a
+ * {@link CloudSpannerPooledConnection}. Run the main method of this class from the test class
+ * path.
+ *
+ * @author loite
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CloudSpannerPooledConnectionBenchmark {
+  private static final String SQL =
+      "INSERT INTO FOO (ID, COL1, COL2, COL3, COL4) VALUES (?, ?, ?, ?, ?)";
+
+  private PreparedStatement unpooledStatement;
+
+  private PreparedStatement pooledStatement;
+
+  private long id;
+
+  @Setup
+  public void setup() throws SQLException {
+    unpooledStatement = createConnection().prepareStatement(SQL);
+    CloudSpannerPooledConnection pooledConnection =
+        new CloudSpannerPooledConnection(createConnection(), false);
+    pooledStatement = pooledConnection.getConnection().prepareStatement(SQL);
+  }
+
+  private static CloudSpannerConnection createConnection() throws SQLException {
+    // Use stub-only mocks, as normal mocks record all invocations
+    CloudSpannerConnection connection =
+        Mockito.mock(CloudSpannerConnection.class, Mockito.withSettings().stubOnly());
+    Mockito.when(connection.prepareStatement(SQL))
+        .thenAnswer(invocation -> new CloudSpannerPreparedStatement(SQL, connection, null));
+    return connection;
+  }
+
+  private PreparedStatement bindParameters(PreparedStatement ps) throws SQLException {
+    id++;
+    ps.clearParameters();
+    ps.setLong(1, id);
+    ps.setString(2, "value2");
+    ps.setString(3, "value3");
+    ps.setLong(4, 4L);
+    ps.setBoolean(5, true);
+    return ps;
+  }
+
+  @Benchmark
+  public PreparedStatement unpooled() throws SQLException {
+    return bindParameters(unpooledStatement);
+  }
+
+  @Benchmark
+  public PreparedStatement pooled() throws SQLException {
+    return bindParameters(pooledStatement);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+        .include(CloudSpannerPooledConnectionBenchmark.class.getSimpleName()).build();
+    new Runner(options).run();
+  }
+
+}
@@ -142,6 +142,16 @@ public class CloudSpannerPooledConnectionTest {
     Assert.assertTrue(con2.isClosed());
   }
 
+  @Test
+  public void testUseAutomaticallyClosedConnection() throws SQLException {
+    CloudSpannerPooledConnection subject = createConnection();
+    Connection con1 = subject.getConnection();
+    subject.getConnection();
+    thrown.expect(SQLException.class);
+    thrown.expectMessage("Connection has been closed automatically");
+    con1.createStatement();
+  }
+
   @Test
   public void testCloseConnection() throws SQLException {
     SimpleConnectionEventListener listener = new SimpleConnectionEventListener();
@@ -168,7 +178,7 @@ public class CloudSpannerPooledConnectionTest {
     assertTrue(connection.toString().contains("Pooled connection wrapping physical connection "));
     assertEquals(System.identityHashCode(connection), connection.hashCode());
     assertTrue(connection.equals(connection));
-    assertTrue(connection.getClass().toString().contains("Proxy"));
+    assertEquals(CloudSpannerPooledConnectionHandle.class, connection.getClass());
   }
 
   @Test
@@ -179,7 +189,7 @@ public class CloudSpannerPooledConnectionTest {
     assertTrue(ps.toString().contains("Pooled statement wrapping physical statement "));
     assertEquals(System.identityHashCode(ps), ps.hashCode());
     assertTrue(ps.equals(ps));
-    assertTrue(ps.getClass().toString().contains("Proxy"));
+    assertEquals(CloudSpannerPooledPreparedStatement.class, ps.getClass());
   }
 
   @Test
@@ -0,0 +1,147 @@
+package nl.topicus.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.sql.Connection;
+import java.sql.SQLException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+import nl.topicus.jdbc.test.category.UnitTest;
+
+@Category(UnitTest.class)
+public class CloudSpannerPoolingDataSourceTest {
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private CloudSpannerPoolingDataSource ds;
+
+  @Before
+  public void setup() {
+    ds = new CloudSpannerPoolingDataSource();
+    ds.setProjectId("helpful-adroit-123456");
+    ds.setInstanceId("test-instance");
+    ds.setDatabase("test");
+    ds.setOauthAccessToken("TEST");
+    // Validating a connection requires a round trip to Cloud Spanner
+    ds.setValidationInterval(Long.MAX_VALUE / 2);
+  }
+
+  @After
+  public void teardown() {
+    ds.close();
+  }
+
+  @Test
+  public void testReuseConnection() throws SQLException {
+    Connection con1 = ds.getConnection();
+    CloudSpannerConnection physical = con1.unwrap(CloudSpannerConnection.class);
+    assertEquals(1, ds.getActiveCount());
+    assertEquals(0, ds.getIdleCount());
+    con1.close();
+    assertTrue(con1.isClosed());
+    assertEquals(0, ds.getActiveCount());
+    assertEquals(1, ds.getIdleCount());
+
+    Connection con2 = ds.getConnection();
+    assertEquals(physical, con2.unwrap(CloudSpannerConnection.class));
+    con2.close();
+    assertEquals(1, ds.getTotalCount());
+    assertEquals(1L, ds.getCreatedCount());
+    assertEquals(2L, ds.getBorrowCount());
+    assertEquals(0L, ds.getWaitCount());
+  }
+
+  @Test
+  public void testResetConnectionState() throws SQLException {
+    Connection con = ds.getConnection();
+    ICloudSpannerConnection cs = (ICloudSpannerConnection) con;
+    cs.setAsyncDdlOperations(true);
+    cs.setPartitionParallelism(4);
+    con.setAutoCommit(false);
+    con.setReadOnly(true);
+    con.close();
+
+    con = ds.getConnection();
+    cs = (ICloudSpannerConnection) con;
+    assertFalse(cs.isAsyncDdlOperations());
+    assertEquals(0, cs.getPartitionParallelism());
+    assertTrue(con.getAutoCommit());
+    assertFalse(con.isReadOnly());
+    con.close();
+  }
+
+  @Test
+  public void testConnectionTimeout() throws SQLException {
+    ds.setMaxPoolSize(1);
+    ds.setConnectionTimeout(10L);
+    try (Connection con = ds.getConnection()) {
+      thrown.expect(CloudSpannerSQLException.class);
+      thrown.expectMessage("Timeout while waiting for a connection");
+      try {
+        ds.getConnection();
+      } finally {
+        assertEquals(1L, ds.getWaitCount());
+        assertEquals(1L, ds.getTimeoutCount());
+        assertTrue(ds.getMaxWaitMillis() >= 10L);
+      }
+    }
+  }
+
+  @Test
+  public void testWaitForConnection() throws SQLException, InterruptedException {
+    ds.setMaxPoolSize(1);
+    Connection con = ds.getConnection();
+    Thread thread = new Thread(() -> {
+      try {
+        Thread.sleep(20L);
+        con.close();
+      } catch (SQLException | InterruptedException e) {
+        // ignore
+      }
+    });
+    thread.start();
+    try (Connection con2 = ds.getConnection()) {
+      assertEquals(1L, ds.getWaitCount());
+      assertEquals(1, ds.getTotalCount());
+    }
+    thread.join();
+  }
+
+  @Test
+  public void testClosedConnectionIsDiscarded() throws SQLException {
+    Connection con = ds.getConnection();
+    CloudSpannerConnection physical = con.unwrap(CloudSpannerConnection.class);
+    con.close();
+    physical.close();
+
+    con = ds.getConnection();
+    assertFalse(physical.equals(con.unwrap(CloudSpannerConnection.class)));
+    assertEquals(1L, ds.getValidationFailureCount());
+    assertEquals(1L, ds.getDestroyedCount());
+    assertEquals(1, ds.getTotalCount());
+    con.close();
+  }
+
+  @Test
+  public void testCloseDataSource() throws SQLException {
+    Connection idle = ds.getConnection();
+    Connection active = ds.getConnection();
+    idle.close();
+    assertEquals(2, ds.getTotalCount());
+    ds.close();
+    assertEquals(1, ds.getTotalCount());
+    active.close();
+    assertEquals(0, ds.getTotalCount());
+    assertEquals(0, ds.getIdleCount());
+
+    thrown.expect(CloudSpannerSQLException.class);
+    ds.getConnection();
+  }
+
+}
@@ -15,21 +15,36 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.mockito.internal.stubbing.answers.Returns;
 import com.google.cloud.spanner.DatabaseAdminClient;
 import com.google.cloud.spanner.Operation;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.TimestampBound;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
 import com.google.spanner.admin.database.v1.UpdateDatabaseDdlMetadata;
 import nl.topicus.jdbc.CloudSpannerConnection.CloudSpannerDatabaseSpecification;
+import nl.topicus.jdbc.resultset.QueryResultCache;
 import nl.topicus.jdbc.test.category.UnitTest;
 
 @Category(UnitTest.class)
 public class CustomStatementsTest {
   private static final List<String> CONNECTION_PROPERTIES =
       Arrays.asList("AllowExtendedMode", "AsyncDdlOperations", "AutoBatchDdlOperations",
-          "ReportDefaultSchemaAsNull", "BatchReadOnlyMode");
+          "ReportDefaultSchemaAsNull", "BatchReadOnlyMode", "MergePartitionResults",
+          "PrefetchResults");
+
+  private static final List<String> INTEGER_CONNECTION_PROPERTIES =
+      Arrays.asList("PartitionParallelism", "MaxPartitions", "PartitionSizeBytes",
+          "BulkWriteParallelism", "QueryResultCacheTTL");
+
+  private static final List<String> STRING_CONNECTION_PROPERTIES =
+      Arrays.asList("ReadOnlyStaleness");
 
   private Connection connection;
 
@@ -44,11 +59,14 @@ public class CustomStatementsTest {
     Statement statement = connection.createStatement();
     try (ResultSet rs = statement.executeQuery("GET_CONNECTION_PROPERTY")) {
       while (rs.next()) {
-        assertTrue(CONNECTION_PROPERTIES.contains(rs.getString("NAME")));
+        assertTrue(CONNECTION_PROPERTIES.contains(rs.getString("NAME"))
+            || INTEGER_CONNECTION_PROPERTIES.contains(rs.getString("NAME"))
+            || STRING_CONNECTION_PROPERTIES.contains(rs.getString("NAME")));
         count++;
       }
     }
-    assertEquals(CONNECTION_PROPERTIES.size(), count);
+    assertEquals(CONNECTION_PROPERTIES.size() + INTEGER_CONNECTION_PROPERTIES.size()
+        + STRING_CONNECTION_PROPERTIES.size(), count);
 
     for (String prop : CONNECTION_PROPERTIES) {
       try (ResultSet rs = statement.executeQuery("GET_CONNECTION_PROPERTY " + prop)) {
@@ -73,6 +91,44 @@ public class CustomStatementsTest {
         }
       }
     }
+    for (String prop : INTEGER_CONNECTION_PROPERTIES) {
+      for (Integer value : new Integer[] {4, 0}) {
+        int count = statement.executeUpdate("SET_CONNECTION_PROPERTY " + prop + "=" + value);
+        assertEquals(1, count);
+        try (ResultSet rs = statement.executeQuery("GET_CONNECTION_PROPERTY " + prop)) {
+          assertTrue(rs.next());
+          assertEquals(value.toString(), rs.getString("VALUE"));
+          assertFalse(rs.next());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSetReadOnlyStaleness() throws SQLException {
+    Statement statement = connection.createStatement();
+    for (String value : new String[] {"EXACT_STALENESS 10s", "MAX_STALENESS 100ms",
+        "READ_TIMESTAMP 2018-01-01T10:00:00Z", "STRONG"}) {
+      assertEquals(1,
+          statement.executeUpdate("SET_CONNECTION_PROPERTY ReadOnlyStaleness=" + value));
+      try (ResultSet rs = statement.executeQuery("GET_CONNECTION_PROPERTY ReadOnlyStaleness")) {
+        assertTrue(rs.next());
+        assertEquals(value, rs.getString("VALUE"));
+        assertFalse(rs.next());
+      }
+    }
+  }
+
+  @Test
+  public void testShowSessionPool() throws SQLException {
+    Statement statement = connection.createStatement();
+    try (ResultSet rs = statement.executeQuery("SHOW_SESSION_POOL")) {
+      assertTrue(rs.next());
+      assertEquals("MinSessions", rs.getString("NAME"));
+      assertEquals("0", rs.getString("VALUE"));
+      assertTrue(rs.next());
+      assertEquals("MaxSessions", rs.getString("NAME"));
+    }
   }
 
   @Test
@@ -108,4 +164,45 @@ public class CustomStatementsTest {
     }
   }
 
+  @Test
+  public void testAsyncDdlInvalidatesQueryResultCacheWhenDone() throws SQLException,
+      NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException {
+    Field adminClientField = CloudSpannerConnection.class.getDeclaredField("adminClient");
+    adminClientField.setAccessible(true);
+    DatabaseAdminClient adminClient = mock(DatabaseAdminClient.class);
+    AtomicBoolean done = new AtomicBoolean();
+    @SuppressWarnings("unchecked")
+    Operation<Void, UpdateDatabaseDdlMetadata> operation = mock(Operation.class);
+    when(operation.reload()).then(new Returns(operation));
+    when(operation.getName()).then(new Returns("test"));
+    when(operation.isDone()).thenAnswer(invocation -> done.get());
+    when(adminClient.updateDatabaseDdl(any(), any(), any(), any())).then(new Returns(operation));
+    adminClientField.set(connection, adminClient);
+    CloudSpannerConnection cs = (CloudSpannerConnection) connection;
+    cs.setAsyncDdlOperations(true);
+
+    QueryResultCache cache = CloudSpannerDriver.getQueryResultCache();
+    QueryResultCache.Key key = QueryResultCache.Key.of(cs.getDatabaseSpecification(),
+        "SELECT * FROM FOO", TimestampBound.strong());
+    com.google.cloud.spanner.ResultSet rs = cache.cache(key,
+        ResultSets.forRows(Type.struct(StructField.of("ID", Type.int64())),
+            Arrays.asList(Struct.newBuilder().set("ID").to(1L).build())),
+        60000L);
+    while (rs.next()) {
+      // read all rows to cache the result
+    }
+    rs.close();
+    try {
+      connection.createStatement()
+          .execute("CREATE TABLE FOO (ID INT64 NOT NULL) PRIMARY KEY (ID)");
+      // results that are read while the operation is running stay valid until it has finished
+      assertNotNull(cache.get(key));
+      done.set(true);
+      cs.waitForDdlOperations();
+      assertNull(cache.get(key));
+    } finally {
+      cache.invalidate(cs.getDatabaseSpecification());
+    }
+  }
+
 }
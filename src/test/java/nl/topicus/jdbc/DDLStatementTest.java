@@ -9,11 +9,17 @@ import static nl.topicus.jdbc.DDLStatement.ObjectType.TABLE;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.junit.Rule;
 import org.junit.Test;
@@ -21,6 +27,10 @@ import org.junit.experimental.categories.Category;
 import org.junit.rules.ExpectedException;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
 import nl.topicus.jdbc.DDLStatement.Command;
 import nl.topicus.jdbc.DDLStatement.ExistsStatement;
 import nl.topicus.jdbc.DDLStatement.ObjectType;
@@ -302,6 +312,72 @@ public class DDLStatementTest {
     }
   }
 
+  @Test
+  public void testGetExecutableSql() throws SQLException {
+    CloudSpannerConnection connection = createMockConnection();
+    CloudSpannerDatabaseMetaData metadata = connection.getMetaData();
+    Type type = Type.struct(StructField.of("OBJECT_TYPE", Type.string()),
+        StructField.of("OBJECT_NAME", Type.string()));
+    when(metadata.getTablesAndIndexes()).thenReturn(new CloudSpannerResultSet(null,
+        ResultSets.forRows(type,
+            Arrays.asList(Struct.newBuilder().set("OBJECT_TYPE").to("TABLE").set("OBJECT_NAME")
+                .to("FOO").build(),
+                Struct.newBuilder().set("OBJECT_TYPE").to("INDEX").set("OBJECT_NAME").to("BAR")
+                    .build())),
+        null));
+    List<String> sql = Arrays.asList(
+        "CREATE TABLE IF NOT EXISTS FOO (ID INT64 NOT NULL) PRIMARY KEY (ID)",
+        "CREATE TABLE IF NOT EXISTS TAB (ID INT64 NOT NULL) PRIMARY KEY (ID)",
+        "CREATE INDEX IF NOT EXISTS IDX ON TAB (ID)",
+        "CREATE TABLE IF NOT EXISTS tab (ID INT64 NOT NULL) PRIMARY KEY (ID)",
+        "DROP INDEX IF EXISTS BAR", "DROP INDEX IF EXISTS BAR",
+        "CREATE TABLE FOO2 (ID INT64 NOT NULL) PRIMARY KEY (ID)", "DROP TABLE IF EXISTS FOO2");
+    List<String> actual =
+        DDLStatement.getExecutableSql(connection, DDLStatement.parseDdlStatements(sql));
+    assertEquals(Arrays.asList("CREATE TABLE   TAB (ID INT64 NOT NULL) PRIMARY KEY (ID)",
+        "CREATE INDEX   IDX ON TAB (ID)", "DROP INDEX   BAR",
+        "CREATE TABLE FOO2 (ID INT64 NOT NULL) PRIMARY KEY (ID)", "DROP TABLE   FOO2"), actual);
+    // The tables and indexes are fetched once for all statements
+    verify(metadata, times(1)).getTablesAndIndexes();
+    verify(metadata, never()).getTables(anyString(), anyString(), anyString(), any());
+    verify(metadata, never()).getIndexInfo(anyString(), anyString(), anyString());
+  }
+
+  @Test
+  public void testGetExecutableSqlWithoutExistsStatements() throws SQLException {
+    CloudSpannerConnection connection = createMockConnection();
+    List<String> sql = Arrays.asList("CREATE TABLE FOO (ID INT64 NOT NULL) PRIMARY KEY (ID)",
+        "CREATE INDEX BAR ON FOO (ID)");
+    assertEquals(sql,
+        DDLStatement.getExecutableSql(connection, DDLStatement.parseDdlStatements(sql)));
+    verify(connection.getMetaData(), never()).getTablesAndIndexes();
+  }
+
+  @Test
+  public void testGetExecutableSqlWithUnknownObjectType() throws SQLException {
+    CloudSpannerConnection connection = createMockConnection();
+    // An object of an unknown type never exists
+    List<String> sql = Arrays.asList("DROP VIEW IF EXISTS FOO");
+    assertEquals(Collections.emptyList(),
+        DDLStatement.getExecutableSql(connection, DDLStatement.parseDdlStatements(sql)));
+    verify(connection.getMetaData(), never()).getTablesAndIndexes();
+  }
+
+  @Test
+  public void testGetExecutableSqlWithUnknownAndKnownObjectTypes() throws SQLException {
+    CloudSpannerConnection connection = createMockConnection();
+    CloudSpannerDatabaseMetaData metadata = connection.getMetaData();
+    Type type = Type.struct(StructField.of("OBJECT_TYPE", Type.string()),
+        StructField.of("OBJECT_NAME", Type.string()));
+    when(metadata.getTablesAndIndexes()).thenReturn(new CloudSpannerResultSet(null,
+        ResultSets.forRows(type, Arrays.asList(Struct.newBuilder().set("OBJECT_TYPE").to("TABLE")
+            .set("OBJECT_NAME").to("FOO").build())),
+        null));
+    List<String> sql = Arrays.asList("DROP VIEW IF EXISTS FOO", "DROP TABLE IF EXISTS FOO");
+    assertEquals(Arrays.asList("DROP TABLE   FOO"),
+        DDLStatement.getExecutableSql(connection, DDLStatement.parseDdlStatements(sql)));
+  }
+
   private void assertStatement(DDLStatement statement, Command command, ObjectType objectType,
       ExistsStatement exists, String objectName) {
     assertEquals(command, statement.getCommand());
@@ -4,13 +4,18 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
 import org.mockito.internal.stubbing.answers.Returns;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -18,12 +23,16 @@ import com.google.cloud.spanner.ErrorCode;
 import com.google.cloud.spanner.Operation;
 import com.google.cloud.spanner.SpannerExceptionFactory;
 import com.google.spanner.admin.database.v1.UpdateDatabaseDdlMetadata;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
 import nl.topicus.jdbc.statement.CloudSpannerStatement;
 import nl.topicus.jdbc.test.category.UnitTest;
 
 @Category(UnitTest.class)
 public class RunningOperationsStoreTest {
-  private boolean reportDone = false;
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private volatile boolean reportDone = false;
 
   private RunningOperationsStore createSubject() {
     RunningOperationsStore res = new RunningOperationsStore();
@@ -68,21 +77,77 @@ public class RunningOperationsStoreTest {
           assertNotNull(rs.getTimestamp("TIME_STARTED"));
           assertEquals(sql, rs.getString("STATEMENT"));
           assertFalse(rs.getBoolean("DONE"));
-          if (count % 2 == 0) {
-            assertEquals("INVALID_ARGUMENT: Some exception", rs.getString("EXCEPTION"));
-          } else {
-            assertNull(rs.getString("EXCEPTION"));
-          }
+          assertNull(rs.getString("EXCEPTION"));
         }
         assertEquals(counter, count);
       }
-      subject.clearFinishedOperations();
+      assertEquals(0, subject.clearFinishedOperations());
     }
     reportDone = true;
-    subject.clearFinishedOperations();
+    subject.waitForOperations();
+    try (ResultSet rs = subject.getOperations(mock(CloudSpannerStatement.class))) {
+      int count = 0;
+      while (rs.next()) {
+        count++;
+        assertTrue(rs.getBoolean("DONE"));
+        if (count % 2 == 0) {
+          assertEquals("INVALID_ARGUMENT: Some exception", rs.getString("EXCEPTION"));
+        } else {
+          assertNull(rs.getString("EXCEPTION"));
+        }
+      }
+      assertEquals(2, count);
+    }
+    assertEquals(2, subject.clearFinishedOperations());
     try (ResultSet rs = subject.getOperations(mock(CloudSpannerStatement.class))) {
       assertFalse(rs.next());
     }
   }
 
+  @Test
+  public void testWaitReturnsWhenOperationsFinish() throws SQLException {
+    RunningOperationsStore subject = createSubject();
+    subject.addOperation(Arrays.asList("CREATE TABLE FOO"), mockOperation(false));
+    subject.addOperation(Arrays.asList("CREATE TABLE BAR"), mockOperation(false));
+    long start = System.nanoTime();
+    new Thread(() -> {
+      try {
+        Thread.sleep(100L);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      reportDone = true;
+    }).start();
+    subject.waitForOperations();
+    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    // The poller backs off to at most MAX_POLL_INTERVAL_MILLIS, so the wait returns well before
+    // the next whole second after the operations finished
+    assertTrue(millis < 100L + RunningOperationsStore.MAX_POLL_INTERVAL_MILLIS);
+    assertEquals(2, subject.clearFinishedOperations());
+  }
+
+  @Test
+  public void testOnDoneIsCalledWhenOperationFinishes() throws SQLException {
+    RunningOperationsStore subject = createSubject();
+    AtomicInteger calls = new AtomicInteger();
+    subject.addOperation(Arrays.asList("CREATE TABLE FOO"), mockOperation(true),
+        calls::incrementAndGet);
+    assertEquals(0, calls.get());
+    reportDone = true;
+    subject.waitForOperations();
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void testReloadError() throws SQLException {
+    RunningOperationsStore subject = createSubject();
+    Operation<Void, UpdateDatabaseDdlMetadata> op = mockOperation(false);
+    when(op.reload()).thenThrow(
+        SpannerExceptionFactory.newSpannerException(ErrorCode.UNAVAILABLE, "Not available"));
+    subject.addOperation(Arrays.asList("CREATE TABLE FOO"), op);
+    thrown.expect(CloudSpannerSQLException.class);
+    thrown.expectMessage("Not available");
+    subject.waitForOperations();
+  }
+
 }
@@ -0,0 +1,207 @@
+package nl.topicus.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import nl.topicus.jdbc.MetaDataStore.IndexKeyMetaData;
+import nl.topicus.jdbc.MetaDataStore.TableKeyMetaData;
+import nl.topicus.jdbc.resultset.CloudSpannerResultSet;
+import nl.topicus.jdbc.resultset.MaterializedResultSet;
+import nl.topicus.jdbc.statement.CloudSpannerPreparedStatement;
+import nl.topicus.jdbc.statement.CloudSpannerStatement;
+import nl.topicus.jdbc.test.category.UnitTest;
+
+@Category(UnitTest.class)
+public class SchemaCacheTest {
+  private CloudSpannerConnection connection;
+
+  private static Struct row(String kind, String table, String name, String info) {
+    return row(kind, table, name, info, null);
+  }
+
+  private static Struct row(String kind, String table, String name, String info,
+      String ordering) {
+    return Struct.newBuilder().set("KIND").to(kind).set("TABLE_NAME").to(table).set("NAME")
+        .to(name).set("INFO").to(info).set("ORDERING").to(ordering).build();
+  }
+
+  private static List<Struct> createSchema() {
+    return Arrays.asList(row("C", "BAR", "ID1", "INT64"), row("C", "BAR", "ID2", "STRING(100)"),
+        row("K", "BAR", "ID1", "PRIMARY_KEY", "ASC"), row("K", "BAR", "ID2", "PRIMARY_KEY", "DESC"),
+        row("C", "FOO", "ID", "INT64"), row("C", "FOO", "Col1", "STRING(MAX)"),
+        row("I", "FOO", "IDX_FOO_COL1", "INDEX"), row("K", "FOO", "ID", "PRIMARY_KEY", "ASC"),
+        row("K", "FOO", "Col1", "IDX_FOO_COL1", "DESC"),
+        row("K", "FOO", "COL2", "IDX_FOO_COL1", null));
+  }
+
+  @Before
+  public void setup() throws SQLException {
+    connection = Mockito.mock(CloudSpannerConnection.class);
+    Mockito.when(connection.prepareStatement(Mockito.anyString())).thenAnswer(invocation -> {
+      String sql = invocation.getArgument(0);
+      List<Struct> rows = new ArrayList<>(createSchema());
+      // queries for a single table only return the NEW table
+      if (sql.contains("UPPER(TABLE_NAME)=?")) {
+        rows.clear();
+        rows.add(row("K", "NEW", "ID", "PRIMARY_KEY", "ASC"));
+      }
+      CloudSpannerPreparedStatement statement = Mockito.mock(CloudSpannerPreparedStatement.class);
+      Mockito.when(statement.executeQuery())
+          .thenReturn(new CloudSpannerResultSet(null,
+              ResultSets.forRows(Type.struct(StructField.of("KIND", Type.string()),
+                  StructField.of("TABLE_NAME", Type.string()),
+                  StructField.of("NAME", Type.string()), StructField.of("INFO", Type.string()),
+                  StructField.of("ORDERING", Type.string())),
+                  rows),
+              sql));
+      return statement;
+    });
+  }
+
+  @Test
+  public void testBulkLoad() throws SQLException {
+    SchemaCache cache = new SchemaCache();
+    TableKeyMetaData foo = cache.getTable(connection, "foo");
+    TableKeyMetaData bar = cache.getTable(connection, "BAR");
+    assertEquals(Arrays.asList("ID"), foo.getKeyColumns());
+    assertEquals(Arrays.asList("ID", "COL1"), new ArrayList<>(foo.getColumns().keySet()));
+    assertEquals("STRING(MAX)", foo.getColumns().get("COL1"));
+    assertEquals(Arrays.asList("IDX_FOO_COL1"), foo.getIndices());
+    assertEquals("Col1", foo.getColumnName("COL1"));
+    IndexKeyMetaData index = foo.getIndex("idx_foo_col1");
+    assertEquals(Arrays.asList("COL1"), index.getKeyColumns());
+    assertEquals("DESC", index.getKeyColumnOrdering("COL1"));
+    assertEquals(Collections.singleton("COL2"), index.getStoredColumns());
+    assertNull(foo.getIndex("IDX_FOO_COL2"));
+    assertEquals(Arrays.asList("ID1", "ID2"), bar.getKeyColumns());
+    assertEquals("ASC", bar.getKeyColumnOrdering("ID1"));
+    assertEquals("DESC", bar.getKeyColumnOrdering("ID2"));
+    assertTrue(bar.getIndices().isEmpty());
+    assertSame(foo, cache.getTable(connection, "Foo"));
+    assertEquals(2, cache.size());
+    // both tables were loaded by one query
+    Mockito.verify(connection, Mockito.times(1)).prepareStatement(Mockito.anyString());
+  }
+
+  @Test
+  public void testLoadMissingTable() throws SQLException {
+    SchemaCache cache = new SchemaCache();
+    cache.getTable(connection, "FOO");
+    TableKeyMetaData table = cache.getTable(connection, "new");
+    assertEquals(Arrays.asList("ID"), table.getKeyColumns());
+    assertEquals(3, cache.size());
+    Mockito.verify(connection, Mockito.times(2)).prepareStatement(Mockito.anyString());
+  }
+
+  @Test
+  public void testInvalidate() throws SQLException {
+    SchemaCache cache = new SchemaCache();
+    TableKeyMetaData foo = cache.getTable(connection, "FOO");
+    long version = cache.getVersion();
+    cache.invalidate();
+    assertNotEquals(version, cache.getVersion());
+    assertEquals(0, cache.size());
+    TableKeyMetaData reloaded = cache.getTable(connection, "FOO");
+    assertNotSame(foo, reloaded);
+    assertEquals(foo.getKeyColumns(), reloaded.getKeyColumns());
+    Mockito.verify(connection, Mockito.times(2)).prepareStatement(Mockito.anyString());
+  }
+
+  @Test
+  public void testExpire() throws SQLException, InterruptedException {
+    SchemaCache cache = new SchemaCache();
+    cache.setTTL(1L);
+    TableKeyMetaData foo = cache.getTable(connection, "FOO");
+    Thread.sleep(5L);
+    assertNotSame(foo, cache.getTable(connection, "FOO"));
+  }
+
+  @Test
+  public void testSharedBetweenStores() throws SQLException {
+    SchemaCache cache = new SchemaCache();
+    MetaDataStore store1 = new MetaDataStore(connection, cache);
+    MetaDataStore store2 = new MetaDataStore(connection, cache);
+    TableKeyMetaData foo = store1.getTable("FOO");
+    assertSame(foo, store2.getTable("foo"));
+    // executing DDL on one connection clears the tables of all connections
+    store1.clear();
+    TableKeyMetaData reloaded = store2.getTable("FOO");
+    assertNotSame(foo, reloaded);
+    assertSame(reloaded, store1.getTable("FOO"));
+  }
+
+  @Test
+  public void testCachedResults() throws SQLException {
+    SchemaCache cache = new SchemaCache();
+    long version = cache.getVersion();
+    MaterializedResultSet result = MaterializedResultSet
+        .of((CloudSpannerResultSet) connection.prepareStatement("SELECT").executeQuery());
+    assertEquals(createSchema().size(), result.getRowCount());
+    cache.putResult("key", result, version);
+    assertSame(result, cache.getResult("key"));
+    cache.invalidate();
+    assertEquals(0, cache.getResultCount());
+    // results of queries that were executed before the invalidation are not cached
+    cache.putResult("key", result, version);
+    assertEquals(0, cache.getResultCount());
+  }
+
+  @Test
+  public void testCachedMetaDataQueries() throws SQLException {
+    SchemaCache cache = new SchemaCache();
+    Mockito.when(connection.getSchemaCache()).thenReturn(cache);
+    Mockito.when(connection.createStatement())
+        .thenReturn(Mockito.mock(CloudSpannerStatement.class));
+    CloudSpannerDatabaseMetaData metaData = new CloudSpannerDatabaseMetaData(connection);
+    for (int i = 0; i < 2; i++) {
+      try (ResultSet rs = metaData.getPrimaryKeys(null, null, "FOO")) {
+        int count = 0;
+        while (rs.next()) {
+          assertEquals(createSchema().get(count).getString("NAME"), rs.getString("NAME"));
+          count++;
+        }
+        assertEquals(createSchema().size(), count);
+      }
+    }
+    assertEquals(1, cache.getResultCount());
+    metaData.getColumns(null, null, "FOO", null).close();
+    assertEquals(2, cache.getResultCount());
+    Mockito.verify(connection, Mockito.times(2)).prepareStatement(Mockito.anyString());
+    // executing DDL invalidates the cached results
+    cache.invalidate();
+    try (ResultSet rs = metaData.getPrimaryKeys(null, null, "FOO")) {
+      assertTrue(rs.next());
+    }
+    Mockito.verify(connection, Mockito.times(3)).prepareStatement(Mockito.anyString());
+    assertEquals(1, cache.getResultCount());
+  }
+
+  @Test
+  public void testTablesAndIndexesAreNotCached() throws SQLException {
+    SchemaCache cache = new SchemaCache();
+    Mockito.when(connection.getSchemaCache()).thenReturn(cache);
+    CloudSpannerDatabaseMetaData metaData = new CloudSpannerDatabaseMetaData(connection);
+    for (int i = 0; i < 2; i++)
+      metaData.getTablesAndIndexes().close();
+    assertEquals(0, cache.getResultCount());
+    Mockito.verify(connection, Mockito.times(2)).prepareStatement(Mockito.anyString());
+  }
+
+}
@@ -0,0 +1,68 @@
+package nl.topicus.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import java.sql.SQLException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+import com.google.cloud.spanner.SessionPoolOptions;
+import com.google.cloud.spanner.SpannerOptions;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+import nl.topicus.jdbc.test.category.UnitTest;
+
+@Category(UnitTest.class)
+public class SessionPoolSettingsTest {
+  private static final String URL =
+      "jdbc:cloudspanner://localhost;Project=test-project;Instance=test-instance;Database=testdb";
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private static SessionPoolSettings parse(String settings) throws SQLException {
+    return SessionPoolSettings.of(ConnectionProperties.parse(URL + settings));
+  }
+
+  @Test
+  public void testDefault() throws SQLException {
+    assertSame(SessionPoolSettings.DEFAULT, parse(""));
+  }
+
+  @Test
+  public void testEquals() throws SQLException {
+    assertEquals(parse(";MinSessions=10;NumChannels=4"), parse(";NumChannels=4;MinSessions=10"));
+    assertEquals(parse(";MinSessions=10").hashCode(), parse(";MinSessions=10").hashCode());
+    assertFalse(parse(";MinSessions=10").equals(parse(";MinSessions=20")));
+    assertFalse(parse(";MinSessions=10").equals(SessionPoolSettings.DEFAULT));
+  }
+
+  @Test
+  public void testApply() throws SQLException {
+    SpannerOptions.Builder builder = SpannerOptions.newBuilder().setProjectId("test-project");
+    parse(";MinSessions=10;MaxSessions=50;MaxIdleSessions=5;WriteSessionsFraction=0.4"
+        + ";KeepAliveIntervalMinutes=15").apply(builder);
+    SessionPoolOptions options = builder.build().getSessionPoolOptions();
+    assertEquals(10, options.getMinSessions());
+    assertEquals(50, options.getMaxSessions());
+    assertEquals(5, options.getMaxIdleSessions());
+    assertEquals(0.4f, options.getWriteSessionsFraction(), 0f);
+    assertEquals(15, options.getKeepAliveIntervalMinutes());
+  }
+
+  @Test
+  public void testInvalidWriteSessionsFraction() throws SQLException {
+    thrown.expect(CloudSpannerSQLException.class);
+    thrown.expectMessage("Invalid session pool settings");
+    parse(";WriteSessionsFraction=1.5");
+  }
+
+  @Test
+  public void testInvalidNumChannels() throws SQLException {
+    thrown.expect(CloudSpannerSQLException.class);
+    thrown.expectMessage("NumChannels");
+    parse(";NumChannels=0");
+  }
+
+}
@@ -57,7 +57,8 @@ public class CloudSpannerPartitionResultSetTest {
   @Test
   public void testFindColumn() throws SQLException {
     try (CloudSpannerPartitionResultSet rs = createSubject()) {
-      assertEquals(2, rs.findColumn(CloudSpannerResultSetTest.STRING_COL_NOT_NULL));
+      assertEquals(CloudSpannerResultSetTest.URL_COLINDEX_NOTNULL + 2,
+          rs.findColumn(CloudSpannerResultSetTest.STRING_COL_NOT_NULL));
     }
   }
 
@@ -0,0 +1,217 @@
+package nl.topicus.jdbc.resultset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+import org.mockito.Mockito;
+import com.google.cloud.ByteArray;
+import com.google.cloud.Date;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.ForwardingResultSet;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+import nl.topicus.jdbc.statement.CloudSpannerStatement;
+import nl.topicus.jdbc.test.category.UnitTest;
+
+@Category(UnitTest.class)
+public class CloudSpannerPrefetchingResultSetTest {
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private static final Type TYPE = Type.struct(StructField.of("ID", Type.int64()),
+      StructField.of("NAME", Type.string()), StructField.of("ACTIVE", Type.bool()),
+      StructField.of("AMOUNT", Type.float64()), StructField.of("DATA", Type.bytes()),
+      StructField.of("CREATED", Type.timestamp()), StructField.of("BIRTHDAY", Type.date()),
+      StructField.of("TAGS", Type.array(Type.string())),
+      StructField.of("SCORES", Type.array(Type.int64())));
+
+  private static List<Struct> createRows(int count) {
+    List<Struct> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      if (i % 2 == 0) {
+        rows.add(Struct.newBuilder().set("ID").to((long) i).set("NAME").to("Name " + i)
+            .set("ACTIVE").to(i % 4 == 0).set("AMOUNT").to(i * 1.5d).set("DATA")
+            .to(ByteArray.copyFrom("data" + i)).set("CREATED")
+            .to(Timestamp.ofTimeSecondsAndNanos(i, 0)).set("BIRTHDAY")
+            .to(Date.fromYearMonthDay(2000, 1, 1 + i % 28)).set("TAGS")
+            .toStringArray(Arrays.asList("A", null, "B")).set("SCORES")
+            .toInt64Array(new long[] {i, i + 1L}).build());
+      } else {
+        rows.add(Struct.newBuilder().set("ID").to((long) i).set("NAME").to((String) null)
+            .set("ACTIVE").to((Boolean) null).set("AMOUNT").to((Double) null).set("DATA")
+            .to((ByteArray) null).set("CREATED").to((Timestamp) null).set("BIRTHDAY")
+            .to((Date) null).set("TAGS").toStringArray(null).set("SCORES")
+            .toInt64Array((long[]) null).build());
+      }
+    }
+    return rows;
+  }
+
+  private static CloudSpannerPrefetchingResultSet createSubject(ResultSet rs, int fetchSize)
+      throws SQLException {
+    return CloudSpannerPrefetchingResultSet.of(mock(CloudSpannerStatement.class), rs,
+        "SELECT * FROM FOO", fetchSize);
+  }
+
+  @Test
+  public void testReadAllTypes() throws SQLException {
+    List<Struct> rows = createRows(25);
+    try (
+        CloudSpannerPrefetchingResultSet rs =
+            createSubject(ResultSets.forRows(TYPE, rows), 4);
+        CloudSpannerResultSet expected = new CloudSpannerResultSet(
+            mock(CloudSpannerStatement.class), ResultSets.forRows(TYPE, rows), "SELECT")) {
+      assertEquals(TYPE.getStructFields().size(), rs.getMetaData().getColumnCount());
+      int count = 0;
+      while (rs.next()) {
+        assertTrue(expected.next());
+        assertEquals(count + 1, rs.getRow());
+        assertEquals(expected.getLong(1), rs.getLong("ID"));
+        assertEquals(expected.getString(2), rs.getString("NAME"));
+        assertEquals(expected.wasNull(), rs.wasNull());
+        assertEquals(expected.getBoolean(3), rs.getBoolean(3));
+        assertEquals(expected.getDouble(4), rs.getDouble(4), 0d);
+        assertArrayEquals(expected.getBytes(5), rs.getBytes(5));
+        assertEquals(expected.getTimestamp(6), rs.getTimestamp(6));
+        assertEquals(expected.getDate(7), rs.getDate(7));
+        assertEquals(expected.getObject(8), rs.getObject(8));
+        assertEquals(expected.getObject(9), rs.getObject(9));
+        assertEquals(rows.get(count), rs.getSpannerResultSet().getCurrentRowAsStruct());
+        count++;
+      }
+      assertFalse(expected.next());
+      assertEquals(rows.size(), count);
+      assertTrue(rs.isAfterLast());
+    }
+  }
+
+  @Test
+  public void testEmptyResultSet() throws SQLException {
+    try (CloudSpannerPrefetchingResultSet rs =
+        createSubject(ResultSets.forRows(TYPE, Collections.emptyList()), 0)) {
+      assertEquals(9, rs.getMetaData().getColumnCount());
+      assertFalse(rs.next());
+    }
+  }
+
+  @Test
+  public void testMaterialize() throws SQLException {
+    List<Struct> rows = createRows(300);
+    MaterializedResultSet materialized =
+        MaterializedResultSet.of(createSubject(ResultSets.forRows(TYPE, rows), 0));
+    assertEquals(rows.size(), materialized.getRowCount());
+  }
+
+  @Test
+  public void testErrorOnFirstRow() throws SQLException {
+    ResultSet rs = Mockito.mock(ResultSet.class);
+    Mockito.when(rs.next()).thenThrow(
+        SpannerExceptionFactory.newSpannerException(ErrorCode.INVALID_ARGUMENT, "Syntax error"));
+    thrown.expect(CloudSpannerSQLException.class);
+    thrown.expectMessage("Syntax error");
+    try {
+      createSubject(rs, 10);
+    } finally {
+      Mockito.verify(rs).close();
+    }
+  }
+
+  @Test
+  public void testErrorWhileFetching() throws SQLException {
+    ResultSet rs = Mockito.mock(ResultSet.class);
+    Mockito.when(rs.getType()).thenReturn(Type.struct(StructField.of("ID", Type.int64())));
+    Mockito.when(rs.getColumnType(0)).thenReturn(Type.int64());
+    Mockito.when(rs.getLong(0)).thenReturn(1L);
+    Mockito.when(rs.next()).thenReturn(true, true)
+        .thenThrow(SpannerExceptionFactory.newSpannerException(ErrorCode.ABORTED, "Aborted"));
+    try (CloudSpannerPrefetchingResultSet subject = createSubject(rs, 10)) {
+      thrown.expect(CloudSpannerSQLException.class);
+      thrown.expectMessage("Aborted");
+      while (subject.next()) {
+        assertEquals(1L, subject.getLong(1));
+      }
+    }
+  }
+
+  private static final class CountingResultSet extends ForwardingResultSet {
+    private final AtomicInteger nextCount = new AtomicInteger();
+
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    private CountingResultSet(ResultSet delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public boolean next() {
+      nextCount.incrementAndGet();
+      return super.next();
+    }
+
+    @Override
+    public void close() {
+      super.close();
+      closed.countDown();
+    }
+  }
+
+  @Test
+  public void testCloseStopsFetching() throws SQLException, InterruptedException {
+    CountingResultSet source = new CountingResultSet(ResultSets.forRows(TYPE, createRows(1000)));
+    CloudSpannerPrefetchingResultSet rs = createSubject(source, 10);
+    assertTrue(rs.next());
+    assertEquals("Name 0", rs.getString(2));
+    rs.close();
+    assertTrue(source.closed.await(1L, TimeUnit.SECONDS));
+    // the producer stopped before it read all rows
+    assertTrue(source.nextCount.get() < 100);
+  }
+
+  @Test
+  public void testCloseReleasesAllBlockedProducers()
+      throws SQLException, InterruptedException, ExecutionException, TimeoutException {
+    int producers = 4;
+    CloudSpannerPrefetchingResultSet rs = new CloudSpannerPrefetchingResultSet(
+        mock(CloudSpannerStatement.class), "SELECT * FROM FOO", producers, 1);
+    ExecutorService executor = Executors.newFixedThreadPool(producers);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>(producers);
+      for (int i = 0; i < producers; i++) {
+        ResultSet source = ResultSets.forRows(TYPE, createRows(100));
+        results.add(executor.submit(() -> rs.produce(source, false, 10)));
+      }
+      assertTrue(rs.next());
+      rs.close();
+      for (Future<Boolean> result : results)
+        assertFalse(result.get(1L, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
@@ -15,12 +15,15 @@ import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.sql.Blob;
 import java.sql.SQLException;
 import java.sql.Time;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 import org.junit.Rule;
@@ -34,6 +37,7 @@ import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.ResultSet;
 import com.google.cloud.spanner.Type;
 import com.google.cloud.spanner.Type.StructField;
+import com.google.common.io.ByteStreams;
 import nl.topicus.jdbc.CloudSpannerArray;
 import nl.topicus.jdbc.CloudSpannerDataType;
 import nl.topicus.jdbc.exception.CloudSpannerSQLException;
@@ -285,24 +289,24 @@ public class CloudSpannerResultSetTest {
         .thenAnswer(new Returns(ARRAY_COLINDEX_NOTNULL - 1));
     when(res.getColumnIndex(ARRAY_COL_NULL)).thenAnswer(new Returns(ARRAY_COLINDEX_NULL - 1));
 
-    when(res.getType()).thenReturn(Type.struct(StructField.of(STRING_COL_NULL, Type.string()),
-        StructField.of(STRING_COL_NOT_NULL, Type.string()),
-        StructField.of(BOOLEAN_COL_NULL, Type.bool()),
-        StructField.of(BOOLEAN_COL_NOT_NULL, Type.bool()),
-        StructField.of(DOUBLE_COL_NULL, Type.float64()),
-        StructField.of(DOUBLE_COL_NOT_NULL, Type.float64()),
-        StructField.of(BYTES_COL_NULL, Type.bytes()),
-        StructField.of(BYTES_COL_NOT_NULL, Type.bytes()),
-        StructField.of(LONG_COL_NULL, Type.int64()),
-        StructField.of(LONG_COL_NOT_NULL, Type.int64()), StructField.of(DATE_COL_NULL, Type.date()),
-        StructField.of(DATE_COL_NOT_NULL, Type.date()),
-        StructField.of(TIMESTAMP_COL_NULL, Type.timestamp()),
-        StructField.of(TIMESTAMP_COL_NOT_NULL, Type.timestamp()),
-        StructField.of(TIME_COL_NULL, Type.timestamp()),
-        StructField.of(TIME_COL_NOT_NULL, Type.timestamp()),
-        StructField.of(URL_COL_NULL, Type.string()), StructField.of(URL_COL_NOT_NULL, Type.string())
-
-    ));
+    // The label getters of the result set look up the index of the label in the type of the
+    // result set. The columns with a label are therefore placed after the columns that are only
+    // accessed by index, and the index getters of these columns return the values of the label
+    // getters.
+    List<String> labels = Arrays.asList(STRING_COL_NULL, STRING_COL_NOT_NULL, BOOLEAN_COL_NULL,
+        BOOLEAN_COL_NOT_NULL, DOUBLE_COL_NULL, DOUBLE_COL_NOT_NULL, BYTES_COL_NULL,
+        BYTES_COL_NOT_NULL, LONG_COL_NULL, LONG_COL_NOT_NULL, DATE_COL_NULL, DATE_COL_NOT_NULL,
+        TIMESTAMP_COL_NULL, TIMESTAMP_COL_NOT_NULL, TIME_COL_NULL, TIME_COL_NOT_NULL,
+        ARRAY_COL_NULL, ARRAY_COL_NOT_NULL, URL_COL_NULL, URL_COL_NOT_NULL);
+    List<StructField> fields = new ArrayList<>();
+    for (int i = 0; i < URL_COLINDEX_NOTNULL; i++)
+      fields.add(StructField.of("COL" + (i + 1), res.getColumnType(i)));
+    for (String label : labels) {
+      int index = fields.size();
+      fields.add(StructField.of(label, res.getColumnType(label)));
+      mirrorLabelColumn(res, label, index);
+    }
+    when(res.getType()).thenReturn(Type.struct(fields));
 
     // Next behaviour.
     when(res.next()).thenReturn(true, true, true, true, false);
@@ -310,6 +314,20 @@ public class CloudSpannerResultSetTest {
     return res;
   }
 
+  private static void mirrorLabelColumn(ResultSet res, String label, int index) {
+    Type type = res.getColumnType(label);
+    when(res.getColumnType(index)).thenReturn(type);
+    when(res.isNull(index)).thenAnswer(invocation -> res.isNull(label));
+    when(res.getString(index)).thenAnswer(invocation -> res.getString(label));
+    when(res.getBoolean(index)).thenAnswer(invocation -> res.getBoolean(label));
+    when(res.getDouble(index)).thenAnswer(invocation -> res.getDouble(label));
+    when(res.getLong(index)).thenAnswer(invocation -> res.getLong(label));
+    when(res.getBytes(index)).thenAnswer(invocation -> res.getBytes(label));
+    when(res.getDate(index)).thenAnswer(invocation -> res.getDate(label));
+    when(res.getTimestamp(index)).thenAnswer(invocation -> res.getTimestamp(label));
+    when(res.getLongList(index)).thenAnswer(invocation -> res.getLongList(label));
+  }
+
   public CloudSpannerResultSetTest() throws SQLException {
     subject = new CloudSpannerResultSet(mock(CloudSpannerStatement.class), getMockResultSet(),
         "SELECT * FROM FOO");
@@ -604,7 +622,7 @@ public class CloudSpannerResultSetTest {
 
   @Test
   public void testFindColumn() throws SQLException {
-    assertEquals(2, subject.findColumn(STRING_COL_NOT_NULL));
+    assertEquals(URL_COLINDEX_NOTNULL + 2, subject.findColumn(STRING_COL_NOT_NULL));
   }
 
   @Test
@@ -995,6 +1013,36 @@ public class CloudSpannerResultSetTest {
     assertTrue(subject.wasNull());
   }
 
+  @Test
+  public void testGetBlobIndex() throws SQLException, IOException {
+    Blob blob = subject.getBlob(BYTES_COLINDEX_NOTNULL);
+    assertEquals(false, subject.wasNull());
+    assertEquals(3L, blob.length());
+    assertArrayEquals("BAR".getBytes(), blob.getBytes(1L, 3));
+    assertNull(subject.getBlob(BYTES_COLINDEX_NULL));
+    assertTrue(subject.wasNull());
+  }
+
+  @Test
+  public void testGetBlobLabel() throws SQLException, IOException {
+    Blob blob = subject.getBlob(BYTES_COL_NOT_NULL);
+    assertEquals(false, subject.wasNull());
+    assertArrayEquals("FOO".getBytes(), ByteStreams.toByteArray(blob.getBinaryStream()));
+    assertNull(subject.getBlob(BYTES_COL_NULL));
+    assertTrue(subject.wasNull());
+  }
+
+  @Test
+  public void testGetClob() throws SQLException {
+    assertEquals("BAR", subject.getClob(STRING_COLINDEX_NOTNULL).getSubString(1L, 3));
+    assertEquals("FOO", subject.getNClob(STRING_COL_NOT_NULL).getSubString(1L, 3));
+    assertEquals(false, subject.wasNull());
+    assertNull(subject.getClob(STRING_COL_NULL));
+    assertTrue(subject.wasNull());
+    assertNull(subject.getNClob(STRING_COLINDEX_NULL));
+    assertTrue(subject.wasNull());
+  }
+
   @Test
   public void testGetAsciiStreamLabel() throws SQLException, IOException {
     assertNotNull(subject.getAsciiStream(STRING_COL_NOT_NULL));
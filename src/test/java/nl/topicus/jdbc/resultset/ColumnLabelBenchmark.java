@@ -0,0 +1,131 @@
+package nl.topicus.jdbc.resultset;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import com.google.cloud.spanner.ForwardingResultSet;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import nl.topicus.jdbc.statement.CloudSpannerStatement;
+
+/**
+ * Compares reading all columns of a wide result set by column label with reading them by column
+ * index. Run the main method of this class from the test class path.
+ *
+ * @author loite
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ColumnLabelBenchmark {
+  private static final int COLUMN_COUNT = 50;
+
+  private static final int ROW_COUNT = 1000000;
+
+  private static final String[] LABELS = new String[COLUMN_COUNT];
+
+  private static final Type TYPE;
+
+  private static final Struct ROW;
+
+  static {
+    List<StructField> fields = new ArrayList<>(COLUMN_COUNT);
+    Struct.Builder builder = Struct.newBuilder();
+    for (int i = 0; i < COLUMN_COUNT; i++) {
+      LABELS[i] = "COLUMN_" + (i + 1);
+      fields.add(StructField.of(LABELS[i], Type.int64()));
+      builder.set(LABELS[i]).to((long) i);
+    }
+    TYPE = Type.struct(fields);
+    ROW = builder.build();
+  }
+
+  /**
+   * Synthetic result set that returns the same row a fixed number of times.
+   */
+  private static final class RepeatingResultSet extends ForwardingResultSet {
+    private int remaining = ROW_COUNT;
+
+    private RepeatingResultSet() {
+      super(ResultSets.forRows(TYPE, Collections.singletonList(ROW)));
+      super.next();
+    }
+
+    @Override
+    public boolean next() {
+      return remaining-- > 0;
+    }
+  }
+
+  private static CloudSpannerResultSet createResultSet() throws SQLException {
+    return new CloudSpannerResultSet(
+        Mockito.mock(CloudSpannerStatement.class, Mockito.withSettings().stubOnly()),
+        new RepeatingResultSet(), "SELECT * FROM FOO");
+  }
+
+  @Benchmark
+  public long index() throws SQLException {
+    long sum = 0L;
+    try (CloudSpannerResultSet rs = createResultSet()) {
+      while (rs.next()) {
+        for (int i = 1; i <= COLUMN_COUNT; i++)
+          sum += rs.getLong(i);
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long label() throws SQLException {
+    long sum = 0L;
+    try (CloudSpannerResultSet rs = createResultSet()) {
+      while (rs.next()) {
+        for (int i = 0; i < COLUMN_COUNT; i++)
+          sum += rs.getLong(LABELS[i]);
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long spannerLabel() {
+    long sum = 0L;
+    try (ResultSet rs = new RepeatingResultSet()) {
+      while (rs.next()) {
+        for (int i = 0; i < COLUMN_COUNT; i++)
+          sum += rs.getLong(LABELS[i]);
+      }
+    }
+    return sum;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options =
+        new OptionsBuilder().include(ColumnLabelBenchmark.class.getSimpleName()).build();
+    new Runner(options).run();
+  }
+
+}
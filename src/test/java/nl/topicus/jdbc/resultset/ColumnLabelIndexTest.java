@@ -0,0 +1,47 @@
+package nl.topicus.jdbc.resultset;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import nl.topicus.jdbc.test.category.UnitTest;
+
+@Category(UnitTest.class)
+public class ColumnLabelIndexTest {
+
+  @Test
+  public void testGet() {
+    ColumnLabelIndex index = ColumnLabelIndex.of(Type.struct(StructField.of("ID", Type.int64()),
+        StructField.of("Name", Type.string()), StructField.of("id", Type.string())));
+    assertEquals(0, index.get("ID"));
+    assertEquals(0, index.get("id"));
+    assertEquals(0, index.get("Id"));
+    assertEquals(1, index.get("NAME"));
+    assertEquals(1, index.get("name"));
+    assertEquals(-1, index.get("FOO"));
+    assertEquals(-1, index.get(""));
+  }
+
+  @Test
+  public void testEmptyType() {
+    ColumnLabelIndex index = ColumnLabelIndex.of(Type.struct());
+    assertEquals(-1, index.get("ID"));
+  }
+
+  @Test
+  public void testManyColumns() {
+    List<StructField> fields = new ArrayList<>();
+    for (int i = 0; i < 500; i++)
+      fields.add(StructField.of("Column" + i, Type.int64()));
+    ColumnLabelIndex index = ColumnLabelIndex.of(Type.struct(fields));
+    for (int i = 0; i < 500; i++) {
+      assertEquals(i, index.get("COLUMN" + i));
+      assertEquals(i, index.get("column" + i));
+    }
+    assertEquals(-1, index.get("COLUMN500"));
+  }
+
+}
@@ -0,0 +1,133 @@
+package nl.topicus.jdbc.resultset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+import com.google.cloud.spanner.BatchReadOnlyTransaction;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.Partition;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+import nl.topicus.jdbc.statement.CloudSpannerStatement;
+import nl.topicus.jdbc.test.category.UnitTest;
+
+@Category(UnitTest.class)
+public class ParallelPartitionExecutorTest {
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private static final Type TYPE = Type.struct(StructField.of("ID", Type.int64()));
+
+  private static final int ROWS_PER_PARTITION = 1000;
+
+  private final BatchReadOnlyTransaction transaction = mock(BatchReadOnlyTransaction.class);
+
+  private final AtomicInteger executedPartitions = new AtomicInteger();
+
+  private List<Partition> createPartitions(int count) {
+    List<Partition> res = new ArrayList<>(count);
+    for (int p = 0; p < count; p++) {
+      Partition partition = mock(Partition.class);
+      List<Struct> rows = new ArrayList<>(ROWS_PER_PARTITION);
+      for (int i = 0; i < ROWS_PER_PARTITION; i++)
+        rows.add(Struct.newBuilder().set("ID").to((long) p * ROWS_PER_PARTITION + i).build());
+      when(transaction.execute(partition)).thenAnswer(invocation -> {
+        executedPartitions.incrementAndGet();
+        return ResultSets.forRows(TYPE, rows);
+      });
+      res.add(partition);
+    }
+    return res;
+  }
+
+  private List<ResultSet> execute(List<Partition> partitions, boolean merge)
+      throws SQLException {
+    return ParallelPartitionExecutor.execute(mock(CloudSpannerStatement.class), transaction,
+        partitions, "SELECT ID FROM FOO", 2, merge);
+  }
+
+  @Test
+  public void testIndependentResults() throws SQLException {
+    List<ResultSet> results = execute(createPartitions(3), false);
+    assertEquals(3, results.size());
+    for (int p = 0; p < results.size(); p++) {
+      try (ResultSet rs = results.get(p)) {
+        assertEquals(1, rs.getMetaData().getColumnCount());
+        long expected = (long) p * ROWS_PER_PARTITION;
+        while (rs.next()) {
+          assertEquals(expected, rs.getLong("ID"));
+          expected++;
+        }
+        assertEquals((long) (p + 1) * ROWS_PER_PARTITION, expected);
+        assertTrue(rs.isAfterLast());
+      }
+    }
+    assertEquals(3, executedPartitions.get());
+  }
+
+  @Test
+  public void testMergedResults() throws SQLException {
+    List<ResultSet> results = execute(createPartitions(5), true);
+    assertEquals(1, results.size());
+    Set<Long> ids = new HashSet<>();
+    try (ResultSet rs = results.get(0)) {
+      while (rs.next())
+        assertTrue(ids.add(rs.getLong(1)));
+    }
+    assertEquals(5 * ROWS_PER_PARTITION, ids.size());
+  }
+
+  @Test
+  public void testNoPartitions() throws SQLException {
+    assertTrue(execute(new ArrayList<>(), true).isEmpty());
+  }
+
+  @Test
+  public void testError() throws SQLException {
+    List<Partition> partitions = createPartitions(2);
+    when(transaction.execute(partitions.get(1))).thenThrow(
+        SpannerExceptionFactory.newSpannerException(ErrorCode.NOT_FOUND, "Table not found"));
+    List<ResultSet> results = execute(partitions, true);
+    thrown.expect(CloudSpannerSQLException.class);
+    thrown.expectMessage("Table not found");
+    try (ResultSet rs = results.get(0)) {
+      while (rs.next()) {
+        // read until the error is thrown
+      }
+    }
+  }
+
+  @Test
+  public void testCloseStopsFetching() throws SQLException, InterruptedException {
+    // one worker for many partitions: closing the result set must stop the worker before it
+    // executes all partitions
+    List<ResultSet> results = ParallelPartitionExecutor.execute(mock(CloudSpannerStatement.class),
+        transaction, createPartitions(50), "SELECT ID FROM FOO", 1, true);
+    ResultSet rs = results.get(0);
+    assertTrue(rs.next());
+    rs.close();
+    Thread.sleep(300L);
+    int executed = executedPartitions.get();
+    Thread.sleep(200L);
+    assertEquals(executed, executedPartitions.get());
+    assertTrue(executed < 50);
+    assertTrue(rs.isClosed());
+  }
+
+}
@@ -0,0 +1,210 @@
+package nl.topicus.jdbc.resultset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+import com.google.cloud.ByteArray;
+import com.google.cloud.Date;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.TimestampBound;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import nl.topicus.jdbc.resultset.QueryResultCache.Key;
+import nl.topicus.jdbc.test.category.UnitTest;
+
+@Category(UnitTest.class)
+public class QueryResultCacheTest {
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private static final Type TYPE = Type.struct(StructField.of("ID", Type.int64()),
+      StructField.of("NAME", Type.string()), StructField.of("ACTIVE", Type.bool()),
+      StructField.of("AMOUNT", Type.float64()), StructField.of("DATA", Type.bytes()),
+      StructField.of("CREATED", Type.timestamp()), StructField.of("BIRTHDAY", Type.date()),
+      StructField.of("TAGS", Type.array(Type.string())),
+      StructField.of("SCORES", Type.array(Type.int64())),
+      StructField.of("FLAGS", Type.array(Type.bool())),
+      StructField.of("DATES", Type.array(Type.date())));
+
+  private static List<Struct> createRows(int count) {
+    List<Struct> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      if (i % 2 == 0) {
+        rows.add(Struct.newBuilder().set("ID").to((long) i).set("NAME").to("Naïve name " + i)
+            .set("ACTIVE").to(i % 4 == 0).set("AMOUNT").to(i * 1.5d).set("DATA")
+            .to(ByteArray.copyFrom("data" + i)).set("CREATED")
+            .to(Timestamp.ofTimeSecondsAndNanos(i, 999)).set("BIRTHDAY")
+            .to(Date.fromYearMonthDay(2000, 12, 1 + i % 28)).set("TAGS")
+            .toStringArray(Arrays.asList("A", null, "B")).set("SCORES")
+            .toInt64Array(new long[] {i, i + 1L}).set("FLAGS")
+            .toBoolArray(Arrays.asList(true, null, false)).set("DATES")
+            .toDateArray(Arrays.asList(Date.fromYearMonthDay(1970, 1, 1))).build());
+      } else {
+        rows.add(Struct.newBuilder().set("ID").to((long) i).set("NAME").to((String) null)
+            .set("ACTIVE").to((Boolean) null).set("AMOUNT").to((Double) null).set("DATA")
+            .to((ByteArray) null).set("CREATED").to((Timestamp) null).set("BIRTHDAY")
+            .to((Date) null).set("TAGS").toStringArray(null).set("SCORES")
+            .toInt64Array((long[]) null).set("FLAGS").toBoolArray((boolean[]) null).set("DATES")
+            .toDateArray(Collections.emptyList()).build());
+      }
+    }
+    return rows;
+  }
+
+  private static Key key(String sql) {
+    return Key.of("test-db", Statement.of(sql), TimestampBound.strong());
+  }
+
+  private static List<Struct> readAll(ResultSet rs) {
+    List<Struct> res = new ArrayList<>();
+    while (rs.next())
+      res.add(rs.getCurrentRowAsStruct());
+    rs.close();
+    return res;
+  }
+
+  @Test
+  public void testCacheAllTypes() {
+    QueryResultCache cache = new QueryResultCache();
+    List<Struct> rows = createRows(25);
+    assertNull(cache.get(key("SELECT * FROM FOO")));
+    assertEquals(rows,
+        readAll(cache.cache(key("SELECT * FROM FOO"), ResultSets.forRows(TYPE, rows), 60000L)));
+    assertEquals(1, cache.size());
+    assertTrue(cache.getSizeBytes() > 0L);
+
+    ResultSet cached = cache.get(key("SELECT * FROM FOO"));
+    assertNotNull(cached);
+    assertEquals(rows, readAll(cached));
+    assertEquals(1L, cache.getHits());
+    assertEquals(1L, cache.getMisses());
+    assertEquals(0.5d, cache.getHitRatio(), 0d);
+  }
+
+  @Test
+  public void testEmptyResult() {
+    QueryResultCache cache = new QueryResultCache();
+    readAll(cache.cache(key("SELECT * FROM FOO"),
+        ResultSets.forRows(TYPE, Collections.emptyList()), 60000L));
+    ResultSet cached = cache.get(key("SELECT * FROM FOO"));
+    assertNotNull(cached);
+    assertFalse(cached.next());
+  }
+
+  @Test
+  public void testKeyIncludesParametersAndBound() {
+    QueryResultCache cache = new QueryResultCache();
+    Statement statement = Statement.newBuilder("SELECT * FROM FOO WHERE ID=@p1").bind("p1").to(1L)
+        .build();
+    readAll(cache.cache(Key.of("test-db", statement, TimestampBound.strong()),
+        ResultSets.forRows(TYPE, createRows(1)), 60000L));
+    assertNotNull(cache.get(Key.of("test-db",
+        Statement.newBuilder("SELECT * FROM FOO WHERE ID=@p1").bind("p1").to(1L).build(),
+        TimestampBound.strong())));
+    assertNull(cache.get(Key.of("test-db",
+        Statement.newBuilder("SELECT * FROM FOO WHERE ID=@p1").bind("p1").to(2L).build(),
+        TimestampBound.strong())));
+    assertNull(cache.get(Key.of("other-db", statement, TimestampBound.strong())));
+    assertNull(cache.get(Key.of("test-db", statement,
+        TimestampBound.ofExactStaleness(10L, TimeUnit.SECONDS))));
+  }
+
+  @Test
+  public void testIncompleteResultIsNotCached() {
+    QueryResultCache cache = new QueryResultCache();
+    ResultSet rs = cache.cache(key("SELECT * FROM FOO"), ResultSets.forRows(TYPE, createRows(10)),
+        60000L);
+    assertTrue(rs.next());
+    rs.close();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testExpiredResult() throws InterruptedException {
+    QueryResultCache cache = new QueryResultCache();
+    readAll(cache.cache(key("SELECT * FROM FOO"), ResultSets.forRows(TYPE, createRows(1)), 1L));
+    Thread.sleep(5L);
+    assertNull(cache.get(key("SELECT * FROM FOO")));
+    assertEquals(0, cache.size());
+    assertEquals(0L, cache.getSizeBytes());
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() {
+    QueryResultCache cache = new QueryResultCache(1000000L);
+    readAll(cache.cache(key("SELECT 1"), ResultSets.forRows(TYPE, createRows(10)), 60000L));
+    long entrySize = cache.getSizeBytes();
+    readAll(cache.cache(key("SELECT 2"), ResultSets.forRows(TYPE, createRows(10)), 60000L));
+    readAll(cache.cache(key("SELECT 3"), ResultSets.forRows(TYPE, createRows(10)), 60000L));
+    assertEquals(3 * entrySize, cache.getSizeBytes());
+    // touch the first result so that the second result is the least recently used
+    assertNotNull(cache.get(key("SELECT 1")));
+    readAll(cache.cache(key("SELECT 4"), ResultSets.forRows(TYPE, createRows(10)), 60000L));
+    cache.setMaxBytes(3 * entrySize);
+    assertEquals(3, cache.size());
+    assertEquals(1L, cache.getEvictions());
+    assertNull(cache.get(key("SELECT 2")));
+    assertNotNull(cache.get(key("SELECT 1")));
+    assertNotNull(cache.get(key("SELECT 3")));
+    assertNotNull(cache.get(key("SELECT 4")));
+  }
+
+  @Test
+  public void testLargeResultIsNotCached() {
+    QueryResultCache cache = new QueryResultCache(8000L);
+    List<Struct> rows = createRows(100);
+    assertEquals(rows,
+        readAll(cache.cache(key("SELECT * FROM FOO"), ResultSets.forRows(TYPE, rows), 60000L)));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testStructColumnIsNotCached() {
+    QueryResultCache cache = new QueryResultCache();
+    Type type = Type.struct(StructField.of("ID", Type.int64()), StructField.of("CHILDREN",
+        Type.array(Type.struct(StructField.of("NAME", Type.string())))));
+    Struct row = Struct.newBuilder().set("ID").to(1L).set("CHILDREN")
+        .toStructArray(Type.struct(StructField.of("NAME", Type.string())),
+            Arrays.asList(Struct.newBuilder().set("NAME").to("child").build()))
+        .build();
+    readAll(cache.cache(key("SELECT * FROM FOO"), ResultSets.forRows(type, Arrays.asList(row)),
+        60000L));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testInvalidate() {
+    QueryResultCache cache = new QueryResultCache();
+    readAll(cache.cache(key("SELECT 1"), ResultSets.forRows(TYPE, createRows(1)), 60000L));
+    readAll(cache.cache(Key.of("other-db", Statement.of("SELECT 1"), TimestampBound.strong()),
+        ResultSets.forRows(TYPE, createRows(1)), 60000L));
+    cache.invalidate("test-db");
+    assertEquals(1, cache.size());
+    assertNull(cache.get(key("SELECT 1")));
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0L, cache.getSizeBytes());
+  }
+
+  @Test
+  public void testInvalidTTL() {
+    thrown.expect(IllegalArgumentException.class);
+    new QueryResultCache().cache(key("SELECT 1"), ResultSets.forRows(TYPE, createRows(1)), 0L);
+  }
+
+}
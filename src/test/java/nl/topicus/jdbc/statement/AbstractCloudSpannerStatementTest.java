@@ -13,6 +13,7 @@ import org.junit.experimental.categories.Category;
 import org.junit.rules.ExpectedException;
 import org.mockito.Mockito;
 import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.PartitionOptions;
 import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.statement.update.Update;
@@ -138,4 +139,38 @@ public class AbstractCloudSpannerStatementTest {
     subject.createInsertSelectOnDuplicateKeyUpdateStatement(update);
   }
 
+  @Test
+  public void testCreatePartitionOptions() throws SQLException {
+    CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
+    AbstractCloudSpannerStatement statement = Mockito.mock(AbstractCloudSpannerStatement.class,
+        Mockito.withSettings().useConstructor(connection, null)
+            .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+    assertEquals(PartitionOptions.getDefaultInstance(),
+        statement.createPartitionOptions("SELECT * FROM FOO"));
+
+    Mockito.when(connection.getMaxPartitions()).thenReturn(20L);
+    Mockito.when(connection.getPartitionSizeBytes()).thenReturn(1000000L);
+    PartitionOptions options = statement.createPartitionOptions("SELECT * FROM FOO");
+    assertEquals(20L, options.getMaxPartitions());
+    assertEquals(1000000L, options.getPartitionSizeBytes());
+
+    // statement values override the connection values
+    statement.setMaxPartitions(8L);
+    options = statement.createPartitionOptions("SELECT * FROM FOO");
+    assertEquals(8L, options.getMaxPartitions());
+    assertEquals(1000000L, options.getPartitionSizeBytes());
+
+    // a hint in the query overrides the statement values
+    options = statement.createPartitionOptions(
+        "/*@ max_partitions=4, PARTITION_SIZE_BYTES = 500 */ SELECT * FROM FOO");
+    assertEquals(4L, options.getMaxPartitions());
+    assertEquals(500L, options.getPartitionSizeBytes());
+    options = statement.createPartitionOptions("SELECT /*@PARTITION_SIZE_BYTES=500*/ * FROM FOO");
+    assertEquals(8L, options.getMaxPartitions());
+    assertEquals(500L, options.getPartitionSizeBytes());
+    // normal comments are ignored
+    options = statement.createPartitionOptions("/* MAX_PARTITIONS=4 */ SELECT * FROM FOO");
+    assertEquals(8L, options.getMaxPartitions());
+  }
+
 }
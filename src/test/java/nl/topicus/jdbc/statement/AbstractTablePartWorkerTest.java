@@ -1,20 +1,47 @@
 package nl.topicus.jdbc.statement;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.rpc.Code;
 import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.statement.select.Select;
 import nl.topicus.jdbc.CloudSpannerConnection;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+import nl.topicus.jdbc.resultset.CloudSpannerResultSet;
 import nl.topicus.jdbc.statement.AbstractTablePartWorker.DMLOperation;
 import nl.topicus.jdbc.test.category.UnitTest;
 
 @Category(UnitTest.class)
 public class AbstractTablePartWorkerTest {
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
 
   private AbstractTablePartWorker createWorker(String sql) throws JSQLParserException {
     return createWorker(sql, new ParameterStore());
@@ -58,4 +85,130 @@ public class AbstractTablePartWorkerTest {
         getTestCount("SELECT * FROM FOO WHERE BAR > ?", 1000L));
   }
 
+  private static CloudSpannerResultSet createSource(int rowCount) throws SQLException {
+    List<Struct> rows = new ArrayList<>(rowCount);
+    for (int i = 0; i < rowCount; i++)
+      rows.add(Struct.newBuilder().set("ID").to((long) i).set("NAME").to("Name " + i).build());
+    return new CloudSpannerResultSet(mock(CloudSpannerStatement.class),
+        ResultSets.forRows(Type.struct(StructField.of("ID", Type.int64()),
+            StructField.of("NAME", Type.string())), rows),
+        "SELECT ID, NAME FROM FOO");
+  }
+
+  private AbstractTablePartWorker createPipelineWorker(Set<Object> written, AtomicInteger commits,
+      boolean failOnWrite) throws JSQLParserException, SQLException {
+    return createPipelineWorker(written, commits, id -> failOnWrite);
+  }
+
+  private AbstractTablePartWorker createPipelineWorker(Set<Object> written, AtomicInteger commits,
+      LongPredicate failOnWrite) throws JSQLParserException, SQLException {
+    AbstractTablePartWorker worker = createWorker("SELECT ID, NAME FROM FOO");
+    when(worker.connection.createCopyConnection()).then(invocation -> {
+      CloudSpannerConnection copy = mock(CloudSpannerConnection.class);
+      CloudSpannerPreparedStatement statement = mock(CloudSpannerPreparedStatement.class);
+      when(copy.prepareStatement("INSERT INTO BAR (ID, NAME) VALUES (?, ?)"))
+          .thenReturn(statement);
+      AtomicLong id = new AtomicLong();
+      doAnswer(set -> {
+        if ((Integer) set.getArgument(0) == 1) {
+          written.add(set.getArgument(1));
+          id.set((Long) set.getArgument(1));
+        }
+        return null;
+      }).when(statement).setObject(anyInt(), any());
+      when(statement.executeUpdate()).then(update -> {
+        if (failOnWrite.test(id.get()))
+          throw new CloudSpannerSQLException("Could not insert row", Code.ALREADY_EXISTS);
+        return 1;
+      });
+      doAnswer(commit -> commits.incrementAndGet()).when(copy).commit();
+      return copy;
+    });
+    return worker;
+  }
+
+  @Test
+  public void testRunPipelined() throws JSQLParserException, SQLException {
+    Set<Object> written = ConcurrentHashMap.newKeySet();
+    AtomicInteger commits = new AtomicInteger();
+    AbstractTablePartWorker worker = createPipelineWorker(written, commits, false);
+    try (CloudSpannerResultSet source = createSource(95)) {
+      worker.runPipelined(source, "INSERT INTO BAR (ID, NAME) VALUES (?, ?)", 10L, 4);
+    }
+    assertEquals(95L, worker.getRecordCount());
+    assertEquals(95, written.size());
+    for (long i = 0; i < 95; i++)
+      assertTrue(written.contains(i));
+    assertEquals(10, commits.get());
+  }
+
+  @Test
+  public void testRunPipelinedEmptySource() throws JSQLParserException, SQLException {
+    Set<Object> written = ConcurrentHashMap.newKeySet();
+    AtomicInteger commits = new AtomicInteger();
+    AbstractTablePartWorker worker = createPipelineWorker(written, commits, false);
+    try (CloudSpannerResultSet source = createSource(0)) {
+      worker.runPipelined(source, "INSERT INTO BAR (ID, NAME) VALUES (?, ?)", 10L, 2);
+    }
+    assertEquals(0L, worker.getRecordCount());
+    assertEquals(0, commits.get());
+  }
+
+  @Test
+  public void testRunPipelinedWriteError() throws JSQLParserException, SQLException {
+    AtomicInteger commits = new AtomicInteger();
+    AbstractTablePartWorker worker =
+        createPipelineWorker(ConcurrentHashMap.newKeySet(), commits, true);
+    try (CloudSpannerResultSet source = createSource(1000)) {
+      thrown.expect(CloudSpannerSQLException.class);
+      thrown.expectMessage("Could not insert row");
+      worker.runPipelined(source, "INSERT INTO BAR (ID, NAME) VALUES (?, ?)", 10L, 2);
+    } finally {
+      assertEquals(0L, worker.getRecordCount());
+      assertEquals(0, commits.get());
+    }
+  }
+
+  @Test(timeout = 10000L)
+  public void testRunPipelinedWaitsForOtherWriters()
+      throws JSQLParserException, SQLException, InterruptedException {
+    AtomicInteger commits = new AtomicInteger();
+    // The first batch fails while the other writers are still writing their batches
+    AbstractTablePartWorker worker =
+        createPipelineWorker(ConcurrentHashMap.newKeySet(), commits, id -> {
+          if (id == 0L)
+            return true;
+          Uninterruptibles.sleepUninterruptibly(1L, TimeUnit.MILLISECONDS);
+          return false;
+        });
+    try (CloudSpannerResultSet source = createSource(1000)) {
+      worker.runPipelined(source, "INSERT INTO BAR (ID, NAME) VALUES (?, ?)", 10L, 4);
+      fail("missing expected exception");
+    } catch (CloudSpannerSQLException e) {
+      assertEquals("Could not insert row", e.getMessage());
+    }
+    int committed = commits.get();
+    assertEquals(committed * 10L, worker.getRecordCount());
+    // No writer is still busy when the failure has been reported
+    Thread.sleep(50L);
+    assertEquals(committed, commits.get());
+  }
+
+  @Test(timeout = 10000L)
+  public void testRunPipelinedWriteErrorInLastBatch() throws JSQLParserException, SQLException {
+    AtomicInteger commits = new AtomicInteger();
+    // The last batch fails after all batches and end markers have been handed over
+    AbstractTablePartWorker worker =
+        createPipelineWorker(ConcurrentHashMap.newKeySet(), commits, id -> id == 94L);
+    try (CloudSpannerResultSet source = createSource(95)) {
+      thrown.expect(CloudSpannerSQLException.class);
+      thrown.expectMessage("Could not insert row");
+      worker.runPipelined(source, "INSERT INTO BAR (ID, NAME) VALUES (?, ?)", 10L, 4);
+    } finally {
+      // The record count includes all batches that were committed before the failure was reported
+      assertTrue(commits.get() <= 9);
+      assertEquals(commits.get() * 10L, worker.getRecordCount());
+    }
+  }
+
 }
@@ -0,0 +1,182 @@
+package nl.topicus.jdbc.statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.ReadContext;
+import com.google.cloud.spanner.TransactionContext;
+import com.google.cloud.spanner.TransactionRunner;
+import com.google.cloud.spanner.TransactionRunner.TransactionCallable;
+import com.google.rpc.Code;
+import nl.topicus.jdbc.CloudSpannerConnection;
+import nl.topicus.jdbc.ICloudSpannerPreparedStatement;
+import nl.topicus.jdbc.ICloudSpannerStatement;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
+import nl.topicus.jdbc.test.category.UnitTest;
+import nl.topicus.jdbc.test.util.CloudSpannerTestObjects;
+
+@Category(UnitTest.class)
+public class AsyncStatementTest {
+
+  /**
+   * Creates a database client that blocks all commits until the given latch is released
+   */
+  private static DatabaseClient createBlockingClient(CountDownLatch release,
+      List<Mutation> mutations) {
+    TransactionContext transaction = Mockito.mock(TransactionContext.class);
+    Mockito.doAnswer(invocation -> {
+      for (Mutation mutation : invocation.<Iterable<Mutation>>getArgument(0))
+        mutations.add(mutation);
+      return null;
+    }).when(transaction).buffer(Mockito.<Iterable<Mutation>>any());
+    TransactionRunner runner = Mockito.mock(TransactionRunner.class);
+    Mockito.when(runner.run(Mockito.any())).thenAnswer(invocation -> {
+      release.await(10L, TimeUnit.SECONDS);
+      return ((TransactionCallable<?>) invocation.getArgument(0)).run(transaction);
+    });
+    DatabaseClient dbClient = Mockito.mock(DatabaseClient.class);
+    Mockito.when(dbClient.readWriteTransaction()).thenReturn(runner);
+    return dbClient;
+  }
+
+  @Test
+  public void testUnwrap() throws SQLException {
+    CloudSpannerPreparedStatement ps =
+        CloudSpannerTestObjects.createPreparedStatement("SELECT * FROM FOO");
+    assertTrue(ps.isWrapperFor(ICloudSpannerPreparedStatement.class));
+    assertNotNull(ps.unwrap(ICloudSpannerPreparedStatement.class));
+    assertTrue(ps.isWrapperFor(ICloudSpannerStatement.class));
+  }
+
+  @Test
+  public void testExecuteQueryAsync() throws SQLException, InterruptedException,
+      ExecutionException, TimeoutException {
+    CloudSpannerPreparedStatement ps =
+        CloudSpannerTestObjects.createPreparedStatement("SELECT * FROM FOO WHERE ID=?");
+    ps.setLong(1, 1L);
+    CompletableFuture<ResultSet> future = ps.executeQueryAsync();
+    try (ResultSet rs = future.get(10L, TimeUnit.SECONDS)) {
+      assertFalse(rs.next());
+    }
+    CloudSpannerConnection connection = ps.getConnection();
+    CloudSpannerStatement statement = new CloudSpannerStatement(connection, null);
+    try (ResultSet rs = statement.executeQueryAsync("SELECT * FROM FOO").get(10L,
+        TimeUnit.SECONDS)) {
+      assertFalse(rs.next());
+    }
+    assertEquals(CloudSpannerConnection.DEFAULT_MAX_IN_FLIGHT_ASYNC_STATEMENTS,
+        connection.getAsyncStatementPermits().availablePermits());
+  }
+
+  @Test
+  public void testExecuteUpdateAsyncInTransactionIsBuffered() throws SQLException {
+    CloudSpannerPreparedStatement ps =
+        CloudSpannerTestObjects.createPreparedStatement("INSERT INTO FOO (ID) VALUES (?)");
+    ps.setLong(1, 1L);
+    CompletableFuture<Integer> future = ps.executeUpdateAsync();
+    assertTrue(future.isDone());
+    assertEquals(Integer.valueOf(1), future.join());
+    Mockito.verify(ps.getConnection().getTransaction())
+        .buffer(Mockito.<Iterable<Mutation>>any());
+  }
+
+  @Test
+  public void testExecuteUpdateAsyncInAutocommit() throws SQLException, InterruptedException,
+      ExecutionException, TimeoutException {
+    CountDownLatch release = new CountDownLatch(1);
+    List<Mutation> mutations = new ArrayList<>();
+    CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
+    connection.setAutoCommit(true);
+    CloudSpannerPreparedStatement ps = new CloudSpannerPreparedStatement(
+        "INSERT INTO FOO (ID) VALUES (?)", connection, createBlockingClient(release, mutations));
+    ps.setLong(1, 1L);
+    CompletableFuture<Integer> future = ps.executeUpdateAsync();
+    // the parameter values have been bound before the method returned
+    ps.setLong(1, 2L);
+    assertFalse(future.isDone());
+    release.countDown();
+    assertEquals(Integer.valueOf(1), future.get(10L, TimeUnit.SECONDS));
+    assertEquals(1, mutations.size());
+    assertEquals(1L, mutations.get(0).asMap().get("ID").getInt64());
+  }
+
+  @Test
+  public void testInFlightLimit() throws SQLException, InterruptedException, ExecutionException,
+      TimeoutException {
+    CountDownLatch release = new CountDownLatch(1);
+    CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
+    connection.setAutoCommit(true);
+    Semaphore permits = new Semaphore(1);
+    Mockito.when(connection.getAsyncStatementPermits()).thenReturn(permits);
+    CloudSpannerPreparedStatement ps = new CloudSpannerPreparedStatement(
+        "INSERT INTO FOO (ID) VALUES (?)", connection,
+        createBlockingClient(release, new ArrayList<>()));
+    ps.setQueryTimeout(1);
+    ps.setLong(1, 1L);
+    CompletableFuture<Integer> future = ps.executeUpdateAsync();
+    assertEquals(0, permits.availablePermits());
+    try {
+      ps.executeUpdateAsync();
+      throw new AssertionError("Missing expected exception");
+    } catch (CloudSpannerSQLException e) {
+      assertEquals(Code.DEADLINE_EXCEEDED, e.getCode());
+    }
+    release.countDown();
+    assertEquals(Integer.valueOf(1), future.get(10L, TimeUnit.SECONDS));
+    while (permits.availablePermits() == 0)
+      Thread.sleep(1L);
+    assertEquals(Integer.valueOf(1), ps.executeUpdateAsync().get(10L, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testReadContextIsClosedWhenWaitTimesOut() throws SQLException,
+      InterruptedException {
+    CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
+    connection.setAutoCommit(true);
+    Semaphore permits = new Semaphore(1);
+    Mockito.when(connection.getAsyncStatementPermits()).thenReturn(permits);
+    permits.acquire();
+    ReadContext context = Mockito.mock(ReadContext.class);
+    DatabaseClient dbClient = Mockito.mock(DatabaseClient.class);
+    Mockito.when(dbClient.singleUse()).thenReturn(context);
+    CloudSpannerStatement statement = new CloudSpannerStatement(connection, dbClient);
+    statement.setQueryTimeout(1);
+    try {
+      statement.executeQueryAsync("SELECT * FROM FOO");
+      throw new AssertionError("Missing expected exception");
+    } catch (CloudSpannerSQLException e) {
+      assertEquals(Code.DEADLINE_EXCEEDED, e.getCode());
+    }
+    Mockito.verify(context).close();
+    Mockito.verify(context, Mockito.never()).executeQuery(Mockito.any());
+  }
+
+  @Test
+  public void testAsyncMethodsWithSqlOnPreparedStatement() throws SQLException {
+    CloudSpannerPreparedStatement ps =
+        CloudSpannerTestObjects.createPreparedStatement("SELECT * FROM FOO");
+    try {
+      ps.executeQueryAsync("SELECT * FROM FOO");
+      throw new AssertionError("Missing expected exception");
+    } catch (CloudSpannerSQLException e) {
+      assertEquals(Code.FAILED_PRECONDITION, e.getCode());
+    }
+  }
+
+}
@@ -22,6 +22,7 @@ import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.List;
@@ -40,11 +41,18 @@ import org.mockito.Mockito;
 import com.google.api.client.util.Lists;
 import com.google.cloud.ByteArray;
 import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ErrorCode;
 import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.KeyRange;
 import com.google.cloud.spanner.Mutation;
 import com.google.cloud.spanner.Mutation.Op;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.TransactionContext;
+import com.google.cloud.spanner.TransactionRunner;
+import com.google.cloud.spanner.TransactionRunner.TransactionCallable;
 import com.google.cloud.spanner.Type;
 import com.google.cloud.spanner.Value;
+import com.google.common.collect.Iterables;
 import com.google.rpc.Code;
 import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
@@ -52,6 +60,7 @@ import net.sf.jsqlparser.statement.Statement;
 import net.sf.jsqlparser.statement.create.table.CreateTable;
 import nl.topicus.jdbc.CloudSpannerArray;
 import nl.topicus.jdbc.CloudSpannerConnection;
+import nl.topicus.jdbc.exception.CloudSpannerBatchUpdateException;
 import nl.topicus.jdbc.exception.CloudSpannerSQLException;
 import nl.topicus.jdbc.test.category.UnitTest;
 import nl.topicus.jdbc.test.util.CloudSpannerTestObjects;
@@ -165,44 +174,100 @@ public class CloudSpannerPreparedStatementTest {
           mutations.getWorker().select.toString());
     }
 
+    private static void assertKeyRange(Mutation mutation, KeyRange expected) {
+      Assert.assertEquals(Op.DELETE, mutation.getOperation());
+      Assert.assertFalse(mutation.getKeySet().isAll());
+      Assert.assertEquals(0, Iterables.size(mutation.getKeySet().getKeys()));
+      Assert.assertEquals(Arrays.asList(expected),
+          Lists.newArrayList(mutation.getKeySet().getRanges()));
+    }
+
+    private static Key keyWithNull(Object... parts) {
+      Key.Builder builder = Key.newBuilder();
+      for (Object part : parts)
+        builder.appendObject(part);
+      return builder.appendObject(null).build();
+    }
+
     @Test()
     public void testDeleteStatementWithBetween() throws SQLException {
-      Mutations mutations = getMutations("DELETE FROM FOO WHERE ID BETWEEN 1 AND 10");
-      Assert.assertEquals(DeleteWorker.class, mutations.getWorker().getClass());
-      Assert.assertEquals("SELECT `FOO`.`ID` FROM `FOO` WHERE ID BETWEEN 1 AND 10",
-          mutations.getWorker().select.toString());
+      assertKeyRange(getMutation("DELETE FROM FOO WHERE ID BETWEEN 1 AND 10"),
+          KeyRange.closedClosed(Key.of(1L), Key.of(10L)));
     }
 
     @Test()
     public void testDeleteStatementWithLargerThan() throws SQLException {
-      Mutations mutations = getMutations("DELETE FROM FOO WHERE ID>2");
-      Assert.assertEquals(DeleteWorker.class, mutations.getWorker().getClass());
-      Assert.assertEquals("SELECT `FOO`.`ID` FROM `FOO` WHERE ID > 2",
-          mutations.getWorker().select.toString());
+      assertKeyRange(getMutation("DELETE FROM FOO WHERE ID>2"),
+          KeyRange.openClosed(Key.of(2L), Key.of()));
     }
 
     @Test()
     public void testDeleteStatementWithLargerOrEquals() throws SQLException {
-      Mutations mutations = getMutations("DELETE FROM FOO WHERE ID>=2");
-      Assert.assertEquals(DeleteWorker.class, mutations.getWorker().getClass());
-      Assert.assertEquals("SELECT `FOO`.`ID` FROM `FOO` WHERE ID >= 2",
-          mutations.getWorker().select.toString());
+      assertKeyRange(getMutation("DELETE FROM FOO WHERE ID>=2"),
+          KeyRange.closedClosed(Key.of(2L), Key.of()));
     }
 
     @Test()
     public void testDeleteStatementWithLessThan() throws SQLException {
-      Mutations mutations = getMutations("DELETE FROM FOO WHERE ID<2");
-      Assert.assertEquals(DeleteWorker.class, mutations.getWorker().getClass());
-      Assert.assertEquals("SELECT `FOO`.`ID` FROM `FOO` WHERE ID < 2",
-          mutations.getWorker().select.toString());
+      assertKeyRange(getMutation("DELETE FROM FOO WHERE ID<2"),
+          KeyRange.openOpen(keyWithNull(), Key.of(2L)));
     }
 
     @Test()
     public void testDeleteStatementWithLessOrEquals() throws SQLException {
-      Mutations mutations = getMutations("DELETE FROM FOO WHERE ID<=2");
+      assertKeyRange(getMutation("DELETE FROM FOO WHERE ID<=2"),
+          KeyRange.openClosed(keyWithNull(), Key.of(2L)));
+    }
+
+    @Test()
+    public void testDeleteStatementWithRangeInParentheses() throws SQLException {
+      assertKeyRange(getMutation("DELETE FROM FOO WHERE (ID>2) AND (ID<=10)"),
+          KeyRange.openClosed(Key.of(2L), Key.of(10L)));
+    }
+
+    @Test()
+    public void testDeleteStatementWithKeyPrefix() throws SQLException {
+      CloudSpannerPreparedStatement ps =
+          CloudSpannerTestObjects.createPreparedStatement("DELETE FROM BAR WHERE ID1=?");
+      ps.setLong(1, 100L);
+      Mutations mutations = ps.createMutations();
+      Assert.assertFalse(mutations.isWorker());
+      assertKeyRange(mutations.getMutations().get(0), KeyRange.prefix(Key.of(100L)));
+    }
+
+    @Test()
+    public void testDeleteStatementWithKeyPrefixAndRange() throws SQLException {
+      // ID2 is a descending key column of BAR
+      assertKeyRange(getMutation("DELETE FROM BAR WHERE ID1=1 AND ID2>='A' AND ID2<'C'"),
+          KeyRange.openClosed(Key.of(1L, "C"), Key.of(1L, "A")));
+      assertKeyRange(getMutation("DELETE FROM BAR WHERE ID1=1 AND ID2<'C'"),
+          KeyRange.openOpen(Key.of(1L, "C"), keyWithNull(1L)));
+    }
+
+    @Test()
+    public void testDeleteStatementWithRangeAfterGap() throws SQLException {
+      Mutations mutations = getMutations("DELETE FROM BAR WHERE ID2>'A'");
+      Assert.assertEquals(DeleteWorker.class, mutations.getWorker().getClass());
+    }
+
+    @Test()
+    public void testDeleteStatementWithDuplicateBound() throws SQLException {
+      Mutations mutations = getMutations("DELETE FROM FOO WHERE ID>1 AND ID>2");
+      Assert.assertEquals(DeleteWorker.class, mutations.getWorker().getClass());
+    }
+
+    @Test()
+    public void testDeleteStatementWithRangeAndOtherColumn() throws SQLException {
+      Mutations mutations = getMutations("DELETE FROM FOO WHERE ID>1 AND COL1='test'");
       Assert.assertEquals(DeleteWorker.class, mutations.getWorker().getClass());
-      Assert.assertEquals("SELECT `FOO`.`ID` FROM `FOO` WHERE ID <= 2",
-          mutations.getWorker().select.toString());
+    }
+
+    @Test()
+    public void testDeleteStatementWithNullBound() throws SQLException {
+      CloudSpannerPreparedStatement ps =
+          CloudSpannerTestObjects.createPreparedStatement("DELETE FROM FOO WHERE ID>?");
+      ps.setNull(1, Types.BIGINT);
+      Assert.assertEquals(DeleteWorker.class, ps.createMutations().getWorker().getClass());
     }
 
     @Test()
@@ -552,6 +617,16 @@ public class CloudSpannerPreparedStatementTest {
           Mutation.Op.INSERT);
     }
 
+    @Test
+    public void testRepeatedInsertStatementWithSignedValues() throws SQLException {
+      String sql = "INSERT INTO FOO (COL1, COL2) VALUES (-1, -2.5)";
+      for (int i = 0; i < 3; i++) {
+        Mutation mutation = getMutation(sql);
+        Assert.assertEquals(-1L, mutation.asMap().get("COL1").getInt64());
+        Assert.assertEquals(-2.5D, mutation.asMap().get("COL2").getFloat64(), 0D);
+      }
+    }
+
     @Test
     public void testInsertStatementWithoutColumns() throws SQLException {
       thrown.expect(SQLException.class);
@@ -771,6 +846,121 @@ public class CloudSpannerPreparedStatementTest {
       ps.executeBatch();
     }
 
+    @Test
+    public void testBatchedInsertStatementsInAutocommitMode() throws SQLException {
+      List<Integer> commitSizes = new ArrayList<>();
+      TransactionContext transaction = Mockito.mock(TransactionContext.class);
+      Mockito.doAnswer(invocation -> {
+        commitSizes.add(Iterables.size(invocation.getArgument(0)));
+        return null;
+      }).when(transaction).buffer(Mockito.<Iterable<Mutation>>any());
+      TransactionRunner runner = Mockito.mock(TransactionRunner.class);
+      Mockito.when(runner.run(Mockito.any())).thenAnswer(
+          invocation -> ((TransactionCallable<?>) invocation.getArgument(0)).run(transaction));
+      DatabaseClient dbClient = Mockito.mock(DatabaseClient.class);
+      Mockito.when(dbClient.readWriteTransaction()).thenReturn(runner);
+
+      CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
+      connection.setAutoCommit(true);
+      String sql = "INSERT INTO FOO (ID, COL1, COL2) VALUES (?, ?, ?)";
+      CloudSpannerPreparedStatement ps = new CloudSpannerPreparedStatement(sql, connection, dbClient);
+      int rows = 12000;
+      for (int i = 0; i < rows; i++) {
+        ps.setLong(1, i);
+        ps.setString(2, "two");
+        ps.setString(3, "three");
+        ps.addBatch();
+      }
+      int[] res = ps.executeBatch();
+      Assert.assertEquals(rows, res.length);
+      Assert.assertEquals(rows, Arrays.stream(res).sum());
+      // The test table FOO allows 5,000 rows per commit
+      Assert.assertEquals(Arrays.asList(5000, 5000, 2000), commitSizes);
+    }
+
+    @Test
+    public void testSmallBatchInAutocommitModeUsesOneCommit() throws SQLException {
+      TransactionRunner runner = Mockito.mock(TransactionRunner.class);
+      DatabaseClient dbClient = Mockito.mock(DatabaseClient.class);
+      Mockito.when(dbClient.readWriteTransaction()).thenReturn(runner);
+      CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
+      connection.setAutoCommit(true);
+      String sql = "DELETE FROM FOO WHERE ID=?";
+      CloudSpannerPreparedStatement ps = new CloudSpannerPreparedStatement(sql, connection, dbClient);
+      for (int i = 0; i < 10; i++) {
+        ps.setLong(1, i);
+        ps.addBatch();
+      }
+      Assert.assertArrayEquals(new int[] {1, 1, 1, 1, 1, 1, 1, 1, 1, 1}, ps.executeBatch());
+      Mockito.verify(runner, Mockito.times(1)).run(Mockito.any());
+      Mockito.verify(connection, Mockito.never()).getMetaData();
+    }
+
+    private static DatabaseClient createDatabaseClient(List<Integer> commitSizes,
+        int failingCommit) {
+      TransactionContext transaction = Mockito.mock(TransactionContext.class);
+      Mockito.doAnswer(invocation -> {
+        if (commitSizes.size() == failingCommit)
+          throw SpannerExceptionFactory.newSpannerException(ErrorCode.ABORTED, "Aborted");
+        commitSizes.add(Iterables.size(invocation.getArgument(0)));
+        return null;
+      }).when(transaction).buffer(Mockito.<Iterable<Mutation>>any());
+      TransactionRunner runner = Mockito.mock(TransactionRunner.class);
+      Mockito.when(runner.run(Mockito.any())).thenAnswer(
+          invocation -> ((TransactionCallable<?>) invocation.getArgument(0)).run(transaction));
+      DatabaseClient dbClient = Mockito.mock(DatabaseClient.class);
+      Mockito.when(dbClient.readWriteTransaction()).thenReturn(runner);
+      return dbClient;
+    }
+
+    @Test
+    public void testBatchWithMutationsOfDifferentWidths() throws SQLException,
+        NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException {
+      List<Integer> commitSizes = new ArrayList<>();
+      CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
+      connection.setAutoCommit(true);
+      CloudSpannerPreparedStatement ps = new CloudSpannerPreparedStatement(
+          "DELETE FROM FOO WHERE ID=?", connection, createDatabaseClient(commitSizes, -1));
+      Field batchMutationsField =
+          CloudSpannerPreparedStatement.class.getDeclaredField("batchMutations");
+      batchMutationsField.setAccessible(true);
+      @SuppressWarnings("unchecked")
+      List<Mutations> batchMutations = (List<Mutations>) batchMutationsField.get(ps);
+      // A narrow delete is followed by wide inserts that allow fewer rows per commit
+      for (long i = 0; i < 6000; i++)
+        batchMutations.add(new Mutations(Mutation.delete("FOO", Key.of(i))));
+      for (long i = 0; i < 6000; i++)
+        batchMutations.add(new Mutations(Mutation.newInsertBuilder("FOO").set("ID").to(i)
+            .set("COL1").to("one").set("COL2").to("two").build()));
+      ps.executeBatch();
+      Assert.assertEquals(Arrays.asList(6000, 5000, 1000), commitSizes);
+    }
+
+    @Test
+    public void testBatchFailsAfterPartialCommit() throws SQLException {
+      List<Integer> commitSizes = new ArrayList<>();
+      CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
+      connection.setAutoCommit(true);
+      String sql = "INSERT INTO FOO (ID, COL1, COL2) VALUES (?, ?, ?)";
+      CloudSpannerPreparedStatement ps =
+          new CloudSpannerPreparedStatement(sql, connection, createDatabaseClient(commitSizes, 1));
+      for (int i = 0; i < 12000; i++) {
+        ps.setLong(1, i);
+        ps.setString(2, "two");
+        ps.setString(3, "three");
+        ps.addBatch();
+      }
+      try {
+        ps.executeBatch();
+        Assert.fail("missing expected exception");
+      } catch (CloudSpannerBatchUpdateException e) {
+        Assert.assertEquals(Code.ABORTED, e.getCode());
+        // Only the statements of the first chunk have been committed
+        Assert.assertEquals(5000, e.getUpdateCounts().length);
+        Assert.assertEquals(Arrays.asList(5000), commitSizes);
+      }
+    }
+
   }
 
   public static class DDLStatementTests {
@@ -0,0 +1,197 @@
+package nl.topicus.jdbc.statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.KeyRange;
+import com.google.cloud.spanner.KeySet;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import nl.topicus.jdbc.CloudSpannerConnection;
+import nl.topicus.jdbc.MetaDataStore.IndexKeyMetaData;
+import nl.topicus.jdbc.MetaDataStore.TableKeyMetaData;
+import nl.topicus.jdbc.test.category.UnitTest;
+import nl.topicus.jdbc.test.util.CloudSpannerTestObjects;
+import nl.topicus.jdbc.transaction.CloudSpannerTransaction;
+
+@Category(UnitTest.class)
+public class KeyReadQueryTest {
+  private CloudSpannerConnection connection;
+
+  private CloudSpannerTransaction transaction;
+
+  @Before
+  public void setup() throws SQLException {
+    connection = CloudSpannerTestObjects.createConnection();
+    transaction = connection.getTransaction();
+    Map<String, String> columns = new LinkedHashMap<>();
+    columns.put("ID", "INT64");
+    columns.put("COL1", "STRING(100)");
+    columns.put("COL2", "INT64");
+    TableKeyMetaData table = mock(TableKeyMetaData.class);
+    when(table.getKeyColumns()).thenReturn(Arrays.asList("ID"));
+    when(table.getKeyColumnOrdering("ID")).thenReturn("ASC");
+    when(table.getColumns()).thenReturn(columns);
+    when(table.getColumnName("ID")).thenReturn("Id");
+    when(table.getColumnName("COL1")).thenReturn("Col1");
+    when(table.getColumnName("COL2")).thenReturn("Col2");
+    IndexKeyMetaData index = mock(IndexKeyMetaData.class);
+    when(index.getName()).thenReturn("Idx_Col1");
+    when(index.getKeyColumns()).thenReturn(Arrays.asList("COL1"));
+    when(index.getKeyColumnOrdering("COL1")).thenReturn("ASC");
+    when(index.getStoredColumns()).thenReturn(Collections.emptySet());
+    when(table.getIndex("IDX_COL1")).thenReturn(index);
+    when(connection.getTable("TEST")).thenReturn(table);
+
+    Type type = Type.struct(StructField.of("Id", Type.int64()),
+        StructField.of("Col1", Type.string()));
+    Struct row = Struct.newBuilder().set("Id").to(1L).set("Col1").to("one").build();
+    when(transaction.read(anyString(), any(KeySet.class), any())).thenAnswer(
+        invocation -> ResultSets.forRows(type, Collections.singletonList(row)));
+    when(transaction.readUsingIndex(anyString(), anyString(), any(KeySet.class), any()))
+        .thenAnswer(invocation -> ResultSets.forRows(type, Collections.singletonList(row)));
+  }
+
+  private CloudSpannerPreparedStatement prepare(String sql) throws SQLException {
+    return new CloudSpannerPreparedStatement(sql, connection, null);
+  }
+
+  private void assertExecutedAsQuery(CloudSpannerPreparedStatement statement)
+      throws SQLException {
+    statement.executeQuery();
+    verify(transaction).executeQuery(any());
+    verify(transaction, never()).read(anyString(), any(), any());
+    verify(transaction, never()).readUsingIndex(anyString(), anyString(), any(), any());
+  }
+
+  @Test
+  public void testPointRead() throws SQLException {
+    CloudSpannerPreparedStatement statement = prepare("SELECT ID, COL1 FROM TEST WHERE ID=?");
+    statement.setInt(1, 1);
+    try (ResultSet rs = statement.executeQuery()) {
+      assertTrue(rs.next());
+      assertEquals(1L, rs.getLong("ID"));
+      assertEquals("one", rs.getString("COL1"));
+      assertFalse(rs.next());
+    }
+    verify(transaction).read("TEST", KeySet.singleKey(Key.of(1L)), Arrays.asList("Id", "Col1"));
+    verify(transaction, never()).executeQuery(any());
+  }
+
+  @Test
+  public void testRangeRead() throws SQLException {
+    CloudSpannerPreparedStatement statement =
+        prepare("SELECT * FROM TEST WHERE ID BETWEEN ? AND ?");
+    statement.setLong(1, 1L);
+    statement.setLong(2, 10L);
+    statement.execute();
+    verify(transaction).read("TEST", KeySet.range(KeyRange.closedClosed(Key.of(1L), Key.of(10L))),
+        Arrays.asList("Id", "Col1", "Col2"));
+  }
+
+  @Test
+  public void testReadUsingIndex() throws SQLException {
+    CloudSpannerPreparedStatement statement =
+        prepare("SELECT ID, COL1 FROM TEST@{FORCE_INDEX=IDX_COL1} WHERE COL1=?");
+    statement.setString(1, "one");
+    statement.executeQuery();
+    // The index key also contains the primary key of the table, so a value for the index column
+    // is only a prefix of the index key
+    verify(transaction).readUsingIndex("TEST", "Idx_Col1",
+        KeySet.range(KeyRange.prefix(Key.of("one"))), Arrays.asList("Id", "Col1"));
+  }
+
+  @Test
+  public void testReadUsingIndexWithCompleteKey() throws SQLException {
+    CloudSpannerPreparedStatement statement =
+        prepare("SELECT ID, COL1 FROM TEST@{FORCE_INDEX=IDX_COL1} WHERE COL1=? AND ID=?");
+    statement.setString(1, "one");
+    statement.setLong(2, 1L);
+    statement.executeQuery();
+    verify(transaction).readUsingIndex("TEST", "Idx_Col1", KeySet.singleKey(Key.of("one", 1L)),
+        Arrays.asList("Id", "Col1"));
+  }
+
+  @Test
+  public void testReadUsingIndexWithRangeOnTableKey() throws SQLException {
+    CloudSpannerPreparedStatement statement =
+        prepare("SELECT ID, COL1 FROM TEST@{FORCE_INDEX=IDX_COL1} WHERE COL1=? AND ID>=?");
+    statement.setString(1, "one");
+    statement.setLong(2, 1L);
+    statement.executeQuery();
+    verify(transaction).readUsingIndex("TEST", "Idx_Col1",
+        KeySet.range(KeyRange.closedClosed(Key.of("one", 1L), Key.of("one"))),
+        Arrays.asList("Id", "Col1"));
+  }
+
+  @Test
+  public void testColumnNotInIndex() throws SQLException {
+    CloudSpannerPreparedStatement statement =
+        prepare("SELECT COL2 FROM TEST@{FORCE_INDEX=IDX_COL1} WHERE COL1=?");
+    statement.setString(1, "one");
+    assertExecutedAsQuery(statement);
+  }
+
+  @Test
+  public void testNonKeyColumn() throws SQLException {
+    CloudSpannerPreparedStatement statement = prepare("SELECT ID FROM TEST WHERE COL1=?");
+    statement.setString(1, "one");
+    assertExecutedAsQuery(statement);
+  }
+
+  @Test
+  public void testOrderBy() throws SQLException {
+    CloudSpannerPreparedStatement statement =
+        prepare("SELECT ID FROM TEST WHERE ID>? ORDER BY ID DESC");
+    statement.setLong(1, 1L);
+    assertExecutedAsQuery(statement);
+  }
+
+  @Test
+  public void testExpressionInSelectList() throws SQLException {
+    CloudSpannerPreparedStatement statement = prepare("SELECT ID+1 FROM TEST WHERE ID=?");
+    statement.setLong(1, 1L);
+    assertExecutedAsQuery(statement);
+  }
+
+  @Test
+  public void testColumnAlias() throws SQLException {
+    CloudSpannerPreparedStatement statement = prepare("SELECT ID AS X FROM TEST WHERE ID=?");
+    statement.setLong(1, 1L);
+    assertExecutedAsQuery(statement);
+  }
+
+  @Test
+  public void testKeyValueOfOtherType() throws SQLException {
+    CloudSpannerPreparedStatement statement = prepare("SELECT ID FROM TEST WHERE ID=?");
+    statement.setString(1, "1");
+    assertExecutedAsQuery(statement);
+  }
+
+  @Test
+  public void testUnknownColumns() throws SQLException {
+    // The columns of FOO are not known
+    CloudSpannerPreparedStatement statement = prepare("SELECT ID FROM FOO WHERE ID=?");
+    statement.setLong(1, 1L);
+    assertExecutedAsQuery(statement);
+  }
+
+}
@@ -0,0 +1,96 @@
+package nl.topicus.jdbc.statement;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import nl.topicus.jdbc.CloudSpannerConnection;
+import nl.topicus.jdbc.MetaDataStore.TableKeyMetaData;
+
+/**
+ * Compares creating mutations by visiting the parsed statement with creating mutations from a
+ * compiled {@link MutationTemplate}. Run the main method of this class from the test class path.
+ *
+ * @author loite
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MutationTemplateBenchmark {
+  @Param({"INSERT INTO FOO (ID, COL1, COL2, COL3, COL4) VALUES (?, ?, ?, ?, ?)",
+      "UPDATE FOO SET COL1=?, COL2=?, COL3=?, COL4=? WHERE ID=?", "DELETE FROM FOO WHERE ID=?"})
+  public String sql;
+
+  private CloudSpannerPreparedStatement visitorStatement;
+
+  private CloudSpannerPreparedStatement templateStatement;
+
+  private int parameterCount;
+
+  private long id;
+
+  @Setup
+  public void setup() throws SQLException {
+    parameterCount = (int) sql.chars().filter(c -> c == '?').count();
+    visitorStatement = createStatement(false);
+    templateStatement = createStatement(true);
+  }
+
+  private CloudSpannerPreparedStatement createStatement(boolean useTemplates) throws SQLException {
+    // Use stub-only mocks, as normal mocks record all invocations
+    CloudSpannerConnection connection =
+        Mockito.mock(CloudSpannerConnection.class, Mockito.withSettings().stubOnly());
+    TableKeyMetaData table =
+        Mockito.mock(TableKeyMetaData.class, Mockito.withSettings().stubOnly());
+    Mockito.when(table.getKeyColumns()).thenReturn(Arrays.asList("ID"));
+    Mockito.when(connection.getTable("FOO")).thenReturn(table);
+    CloudSpannerPreparedStatement ps = new CloudSpannerPreparedStatement(sql, connection, null);
+    ps.setUseMutationTemplates(useTemplates);
+    return ps;
+  }
+
+  private Mutations createMutations(CloudSpannerPreparedStatement ps) throws SQLException {
+    id++;
+    // The key column is the last parameter of UPDATE and DELETE statements
+    for (int i = 1; i < parameterCount; i++)
+      ps.setString(i, "value" + i);
+    ps.setLong(parameterCount, id);
+    return ps.createMutations();
+  }
+
+  @Benchmark
+  public Mutations visitor() throws SQLException {
+    return createMutations(visitorStatement);
+  }
+
+  @Benchmark
+  public Mutations template() throws SQLException {
+    return createMutations(templateStatement);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options =
+        new OptionsBuilder().include(MutationTemplateBenchmark.class.getSimpleName()).build();
+    new Runner(options).run();
+  }
+
+}
@@ -0,0 +1,93 @@
+package nl.topicus.jdbc.statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import com.google.cloud.spanner.Mutation;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import nl.topicus.jdbc.test.category.UnitTest;
+import nl.topicus.jdbc.test.util.CloudSpannerTestObjects;
+
+@Category(UnitTest.class)
+public class MutationTemplateTest {
+
+  private static Mutation createMutation(String sql, boolean useTemplate, Object... parameters)
+      throws SQLException {
+    CloudSpannerPreparedStatement ps = CloudSpannerTestObjects.createPreparedStatement(sql);
+    ps.setUseMutationTemplates(useTemplate);
+    for (int i = 0; i < parameters.length; i++)
+      ps.setObject(i + 1, parameters[i]);
+    Mutations mutations = ps.createMutations();
+    return mutations.getMutations().get(0);
+  }
+
+  private static void assertSameMutation(String sql, Object... parameters) throws SQLException {
+    Mutation expected = createMutation(sql, false, parameters);
+    Mutation actual = createMutation(sql, true, parameters);
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testInsert() throws SQLException {
+    assertSameMutation("INSERT INTO FOO (ID, COL1, COL2) VALUES (?, ?, ?)", 1L, "two",
+        new Timestamp(1000L));
+    assertSameMutation("INSERT INTO FOO (ID, COL1, COL2, COL3) VALUES (?, 'two', -3, true)", 1L);
+    assertSameMutation("INSERT INTO FOO (ID, COL1) VALUES (?, ?) ON DUPLICATE KEY UPDATE", 1L,
+        "one");
+  }
+
+  @Test
+  public void testUpdate() throws SQLException {
+    assertSameMutation("UPDATE FOO SET COL1=?, COL2=2.5 WHERE ID=?", "test", 1L);
+    assertSameMutation("UPDATE BAR SET COL1=? WHERE ID1=? AND ID2='two'", "test", 1L);
+  }
+
+  @Test
+  public void testDelete() throws SQLException {
+    assertSameMutation("DELETE FROM FOO");
+    assertSameMutation("DELETE FROM FOO WHERE ID=?", 1L);
+    assertSameMutation("DELETE FROM BAR WHERE ID2=? AND ID1=?", "two", 1L);
+  }
+
+  @Test
+  public void testRepeatedExecution() throws SQLException {
+    CloudSpannerPreparedStatement ps = CloudSpannerTestObjects
+        .createPreparedStatement("INSERT INTO FOO (ID, COL1) VALUES (?, ?)");
+    for (long i = 0L; i < 3L; i++) {
+      ps.setLong(1, i);
+      ps.setString(2, "value" + i);
+      Mutation mutation = ps.createMutations().getMutations().get(0);
+      assertEquals(i, mutation.asMap().get("ID").getInt64());
+      assertEquals("value" + i, mutation.asMap().get("COL1").getString());
+    }
+  }
+
+  @Test
+  public void testCompile() throws JSQLParserException, SQLException {
+    assertNotNull(MutationTemplate
+        .compile(CCJSqlParserUtil.parse("INSERT INTO FOO (ID) VALUES (?)"), null, false));
+    // Multiple rows, expressions and selects cannot be compiled into a template
+    assertNull(MutationTemplate
+        .compile(CCJSqlParserUtil.parse("INSERT INTO FOO (ID) VALUES (?), (?)"), null, false));
+    assertNull(MutationTemplate
+        .compile(CCJSqlParserUtil.parse("INSERT INTO FOO (ID) VALUES (1 + ?)"), null, false));
+    assertNull(MutationTemplate.compile(
+        CCJSqlParserUtil.parse("INSERT INTO FOO (ID) SELECT ID FROM BAR"), null, false));
+    // Update and delete statements need the key meta data
+    assertNull(MutationTemplate
+        .compile(CCJSqlParserUtil.parse("UPDATE FOO SET COL1=? WHERE ID=?"), null, false));
+    CloudSpannerPreparedStatement ps =
+        CloudSpannerTestObjects.createPreparedStatement("DELETE FROM FOO WHERE ID>?");
+    assertNull(MutationTemplate.compile(CCJSqlParserUtil.parse("DELETE FROM FOO WHERE ID>?"),
+        ps.getConnection().getTable("FOO"), false));
+    assertTrue(MutationTemplate.compile(CCJSqlParserUtil.parse("DELETE FROM FOO WHERE ID=?"),
+        ps.getConnection().getTable("FOO"), false).isValid(ps.getConnection()));
+  }
+
+}
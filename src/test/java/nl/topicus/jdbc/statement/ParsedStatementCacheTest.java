@@ -0,0 +1,128 @@
+package nl.topicus.jdbc.statement;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import nl.topicus.jdbc.CloudSpannerConnection;
+import nl.topicus.jdbc.CloudSpannerDriver;
+import nl.topicus.jdbc.statement.ParsedStatementCache.ParsedStatement;
+import nl.topicus.jdbc.statement.ParsedStatementCache.StatementKind;
+import nl.topicus.jdbc.test.category.UnitTest;
+import nl.topicus.jdbc.test.util.CloudSpannerTestObjects;
+
+@Category(UnitTest.class)
+public class ParsedStatementCacheTest {
+
+  private static ParsedStatement parse(String sql) throws JSQLParserException {
+    return new ParsedStatement(sql, sql, CCJSqlParserUtil.parse(sql));
+  }
+
+  @Test
+  public void testHitsAndMisses() throws JSQLParserException {
+    ParsedStatementCache cache = new ParsedStatementCache(10);
+    String sql = "SELECT * FROM FOO WHERE ID=?";
+    assertNull(cache.get(sql));
+    ParsedStatement statement = parse(sql);
+    cache.put(statement);
+    assertSame(statement, cache.get(sql));
+    assertSame(statement, cache.get(sql));
+    assertEquals(2L, cache.getHits());
+    assertEquals(1L, cache.getMisses());
+    assertEquals(0L, cache.getEvictions());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEviction() throws JSQLParserException {
+    ParsedStatementCache cache = new ParsedStatementCache(2);
+    cache.put(parse("SELECT 1"));
+    cache.put(parse("SELECT 2"));
+    // touch the first statement so the second becomes the least recently used
+    assertNotNull(cache.get("SELECT 1"));
+    cache.put(parse("SELECT 3"));
+    assertEquals(2, cache.size());
+    assertEquals(1L, cache.getEvictions());
+    assertNotNull(cache.get("SELECT 1"));
+    assertNull(cache.get("SELECT 2"));
+    assertNotNull(cache.get("SELECT 3"));
+
+    cache.setMaxSize(1);
+    assertEquals(1, cache.size());
+    assertEquals(2L, cache.getEvictions());
+    assertNotNull(cache.get("SELECT 3"));
+  }
+
+  @Test
+  public void testDisabledCache() throws JSQLParserException {
+    ParsedStatementCache cache = new ParsedStatementCache(0);
+    cache.put(parse("SELECT 1"));
+    assertEquals(0, cache.size());
+    assertNull(cache.get("SELECT 1"));
+  }
+
+  @Test
+  public void testDerivedMetaData() throws JSQLParserException {
+    ParsedStatement insert = parse("INSERT INTO `FOO` (ID, `COL1`) VALUES (?, '?')");
+    assertEquals(StatementKind.INSERT, insert.getKind());
+    assertEquals("FOO", insert.getTable());
+    assertEquals(Arrays.asList("ID", "COL1"), insert.getColumns());
+    assertEquals(1, insert.getParameterCount());
+    assertArrayEquals(new int[] {39}, insert.getParameterPositions());
+    assertEquals("INSERT INTO `FOO` (ID, `COL1`) VALUES (@p1, '?')", insert.getNamedSql());
+
+    ParsedStatement update = parse("UPDATE FOO SET COL1=? WHERE ID=?");
+    assertEquals(StatementKind.UPDATE, update.getKind());
+    assertEquals("FOO", update.getTable());
+    assertEquals(Collections.singletonList("COL1"), update.getColumns());
+    assertEquals("UPDATE FOO SET COL1=@p1 WHERE ID=@p2", update.getNamedSql());
+
+    ParsedStatement delete = parse("DELETE FROM FOO WHERE ID=?");
+    assertEquals(StatementKind.DELETE, delete.getKind());
+    assertEquals("FOO", delete.getTable());
+    assertEquals(Collections.emptyList(), delete.getColumns());
+
+    ParsedStatement select = parse("SELECT * FROM FOO");
+    assertEquals(StatementKind.SELECT, select.getKind());
+    assertNull(select.getTable());
+    assertEquals("SELECT * FROM FOO", select.getNamedSql());
+  }
+
+  @Test
+  public void testStatementUsesDriverCache() throws SQLException {
+    ParsedStatementCache cache = CloudSpannerDriver.getParsedStatementCache();
+    String sql = "SELECT * FROM FOO WHERE ID=? AND COL1='testStatementUsesDriverCache'";
+    CloudSpannerPreparedStatement ps = CloudSpannerTestObjects.createPreparedStatement(sql);
+    long misses = cache.getMisses();
+    ps.setLong(1, 1L);
+    ps.executeQuery();
+    assertEquals(misses + 1, cache.getMisses());
+    long hits = cache.getHits();
+    ps.executeQuery();
+    assertEquals(hits + 1, cache.getHits());
+  }
+
+  @Test
+  public void testShowStatementCache() throws SQLException {
+    CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
+    Mockito.when(connection.createStatement()).thenCallRealMethod();
+    try (ResultSet rs = connection.createStatement().executeQuery("SHOW_STATEMENT_CACHE")) {
+      ParsedStatementCache cache = CloudSpannerDriver.getParsedStatementCache();
+      assertEquals(true, rs.next());
+      assertEquals(cache.getMaxSize(), rs.getLong("MAX_SIZE"));
+      assertEquals(cache.getEvictions(), rs.getLong("EVICTIONS"));
+      assertEquals(false, rs.next());
+    }
+  }
+
+}
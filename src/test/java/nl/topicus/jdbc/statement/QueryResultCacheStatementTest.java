@@ -0,0 +1,153 @@
+package nl.topicus.jdbc.statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ReadContext;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.TimestampBound;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import nl.topicus.jdbc.CloudSpannerConnection;
+import nl.topicus.jdbc.CloudSpannerConnection.CloudSpannerDatabaseSpecification;
+import nl.topicus.jdbc.CloudSpannerDriver;
+import nl.topicus.jdbc.test.category.UnitTest;
+import nl.topicus.jdbc.test.util.CloudSpannerTestObjects;
+
+@Category(UnitTest.class)
+public class QueryResultCacheStatementTest {
+  private static final Type TYPE =
+      Type.struct(StructField.of("ID", Type.int64()), StructField.of("NAME", Type.string()));
+
+  private CloudSpannerConnection connection;
+
+  private DatabaseClient dbClient;
+
+  private ReadContext context;
+
+  private static final TimestampBound STALE = TimestampBound.ofMaxStaleness(60L, TimeUnit.SECONDS);
+
+  @Before
+  public void setup() throws SQLException {
+    CloudSpannerDriver.getQueryResultCache().clear();
+    connection = CloudSpannerTestObjects.createConnection();
+    connection.setAutoCommit(true);
+    connection.setReadOnly(true);
+    when(connection.getQueryResultCacheTTL()).thenReturn(60000L);
+    when(connection.getReadTimestampBound()).thenReturn(STALE);
+    when(connection.getDatabaseSpecification())
+        .thenReturn(new CloudSpannerDatabaseSpecification("test", "test"));
+    dbClient = mock(DatabaseClient.class);
+    context = mock(ReadContext.class);
+    when(dbClient.singleUse()).thenReturn(context);
+    when(dbClient.singleUse(STALE)).thenReturn(context);
+    when(context.executeQuery(any())).thenAnswer(invocation -> ResultSets.forRows(TYPE,
+        Arrays.asList(Struct.newBuilder().set("ID").to(1L).set("NAME").to("one").build())));
+  }
+
+  @After
+  public void clearCache() {
+    CloudSpannerDriver.getQueryResultCache().clear();
+  }
+
+  private static void assertResult(ResultSet rs) throws SQLException {
+    assertTrue(rs.next());
+    assertEquals(1L, rs.getLong("ID"));
+    assertEquals("one", rs.getString("NAME"));
+    assertFalse(rs.next());
+    rs.close();
+  }
+
+  @Test
+  public void testPreparedQueryIsCached() throws SQLException {
+    CloudSpannerPreparedStatement statement =
+        new CloudSpannerPreparedStatement("SELECT * FROM FOO WHERE ID=?", connection, dbClient);
+    statement.setLong(1, 1L);
+    assertResult(statement.executeQuery());
+    assertResult(statement.executeQuery());
+    verify(context, times(1)).executeQuery(any());
+
+    statement.setLong(1, 2L);
+    assertResult(statement.executeQuery());
+    verify(context, times(2)).executeQuery(any());
+  }
+
+  @Test
+  public void testQueryIsCached() throws SQLException {
+    CloudSpannerStatement statement = new CloudSpannerStatement(connection, dbClient);
+    assertResult(statement.executeQuery("SELECT * FROM FOO"));
+    assertTrue(statement.execute("SELECT * FROM FOO"));
+    assertResult(statement.getResultSet());
+    verify(context, times(1)).executeQuery(any());
+  }
+
+  @Test
+  public void testCacheHitIsNotASuccessfulRequest() throws SQLException {
+    CloudSpannerStatement statement = new CloudSpannerStatement(connection, dbClient);
+    assertResult(statement.executeQuery("SELECT * FROM FOO"));
+    verify(connection, times(1)).markSuccessfulRequest();
+    assertResult(statement.executeQuery("SELECT * FROM FOO"));
+    verify(connection, times(1)).markSuccessfulRequest();
+    when(connection.getQueryResultCacheTTL()).thenReturn(0L);
+    assertResult(statement.executeQuery("SELECT * FROM FOO"));
+    verify(connection, times(2)).markSuccessfulRequest();
+  }
+
+  @Test
+  public void testReadWriteConnectionDoesNotUseCache() throws SQLException {
+    connection.setReadOnly(false);
+    CloudSpannerStatement statement = new CloudSpannerStatement(connection, dbClient);
+    assertResult(statement.executeQuery("SELECT * FROM FOO"));
+    assertResult(statement.executeQuery("SELECT * FROM FOO"));
+    verify(context, times(2)).executeQuery(any());
+  }
+
+  @Test
+  public void testStrongQueryIsNotCached() throws SQLException {
+    when(connection.getReadTimestampBound()).thenReturn(TimestampBound.strong());
+    CloudSpannerStatement statement = new CloudSpannerStatement(connection, dbClient);
+    assertResult(statement.executeQuery("SELECT * FROM FOO"));
+    assertResult(statement.executeQuery("SELECT * FROM FOO"));
+    verify(context, times(2)).executeQuery(any());
+    assertEquals(0, CloudSpannerDriver.getQueryResultCache().size());
+  }
+
+  @Test
+  public void testCacheWithoutTTLIsNotUsed() throws SQLException {
+    when(connection.getQueryResultCacheTTL()).thenReturn(0L);
+    CloudSpannerStatement statement = new CloudSpannerStatement(connection, dbClient);
+    assertResult(statement.executeQuery("SELECT * FROM FOO"));
+    assertResult(statement.executeQuery("SELECT * FROM FOO"));
+    verify(context, times(2)).executeQuery(any());
+  }
+
+  @Test
+  public void testStaleQueryUsesBoundAndStalenessAsTTL() throws SQLException, InterruptedException {
+    TimestampBound bound = TimestampBound.ofExactStaleness(1L, TimeUnit.MILLISECONDS);
+    when(connection.getReadTimestampBound()).thenReturn(bound);
+    when(dbClient.singleUse(bound)).thenReturn(context);
+    CloudSpannerStatement statement = new CloudSpannerStatement(connection, dbClient);
+    assertResult(statement.executeQuery("SELECT * FROM FOO"));
+    verify(dbClient).singleUse(bound);
+    // The staleness of the result determines the maximum time it may be cached
+    Thread.sleep(5L);
+    assertResult(statement.executeQuery("SELECT * FROM FOO"));
+    verify(context, times(2)).executeQuery(any());
+  }
+
+}
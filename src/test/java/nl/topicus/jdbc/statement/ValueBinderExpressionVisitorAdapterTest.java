@@ -1,12 +1,24 @@
 package nl.topicus.jdbc.statement;
 
+import static org.junit.Assert.assertEquals;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.sql.Types;
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import com.google.cloud.ByteArray;
 import com.google.cloud.spanner.Mutation;
 import com.google.cloud.spanner.Mutation.WriteBuilder;
+import com.google.cloud.spanner.Value;
 import com.google.cloud.spanner.ValueBinder;
+import nl.topicus.jdbc.CloudSpannerBlob;
+import nl.topicus.jdbc.CloudSpannerClob;
 import nl.topicus.jdbc.test.category.UnitTest;
 
 @Category(UnitTest.class)
@@ -57,4 +69,27 @@ public class ValueBinderExpressionVisitorAdapterTest {
 
   }
 
+  @Test
+  public void testSetStreamingValues() throws SQLException {
+    byte[] bytes = new byte[100000];
+    for (int i = 0; i < bytes.length; i++)
+      bytes[i] = (byte) i;
+    ByteArray expected = ByteArray.copyFrom(bytes);
+    // Use a stream that is not a ByteArrayInputStream
+    InputStream stream = new BufferedInputStream(new ByteArrayInputStream(bytes));
+    assertEquals(Value.bytes(expected), bind(stream, Types.BINARY));
+    assertEquals(Value.bytes(expected), bind(new CloudSpannerBlob(expected), Types.BLOB));
+    assertEquals(Value.bytes(expected), bind(new SerialBlob(bytes), Types.BLOB));
+    assertEquals(Value.string("FOO"), bind(new CloudSpannerClob("FOO"), Types.CLOB));
+    assertEquals(Value.string("FOO"), bind(new SerialClob("FOO".toCharArray()), Types.CLOB));
+    assertEquals(Value.string("FOO"), bind(new StringReader("FOO"), Types.NVARCHAR));
+  }
+
+  private Value bind(Object value, int sqlType) {
+    WriteBuilder builder = Mutation.newInsertBuilder("FOO");
+    new ValueBinderExpressionVisitorAdapter<>(new ParameterStore(), builder.set("COL1"), "COL1")
+        .setValue(value, sqlType);
+    return builder.build().asMap().get("COL1");
+  }
+
 }
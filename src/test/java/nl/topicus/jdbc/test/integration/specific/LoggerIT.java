@@ -37,11 +37,12 @@ public class LoggerIT extends AbstractSpecificIntegrationTest {
       while (rs.next()) {
       }
     }
-    // Wait for 7 seconds to ensure the keep-alive query is triggered
-    Thread.sleep(7000L);
+    long keepAlives = CloudSpannerDriver.getTransactionMonitor().getKeepAliveCount();
+    // Wait for 9 seconds to ensure the keep-alive query is triggered
+    Thread.sleep(9000L);
+    assertTrue(CloudSpannerDriver.getTransactionMonitor().getLongRunningCount() > 0);
     connection.commit();
-    assertTrue(writer.toString().contains(
-        "Transaction has been inactive for more than 5 seconds and will do a keep-alive query"));
+    assertTrue(CloudSpannerDriver.getTransactionMonitor().getKeepAliveCount() > keepAlives);
     assertEquals(logLevel >= CloudSpannerDriver.DEBUG,
         writer.toString().contains("Transaction was started by: "));
   }
@@ -7,12 +7,14 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.Arrays;
+import java.util.concurrent.Semaphore;
 import java.util.regex.Pattern;
 import org.mockito.Mockito;
 import org.mockito.internal.stubbing.answers.Returns;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import com.google.cloud.spanner.Partition;
+import com.google.cloud.spanner.TimestampBound;
 import nl.topicus.jdbc.CloudSpannerConnection;
 import nl.topicus.jdbc.CloudSpannerDatabaseMetaData;
 import nl.topicus.jdbc.Logger;
@@ -33,6 +35,7 @@ public class CloudSpannerTestObjects {
     Mockito.when(connection.isBatchReadOnly()).thenCallRealMethod();
     Mockito.doCallRealMethod().when(connection).setReadOnly(Mockito.anyBoolean());
     Mockito.when(connection.isReadOnly()).thenCallRealMethod();
+    Mockito.when(connection.getReadTimestampBound()).thenReturn(TimestampBound.strong());
 
     Mockito.when(connection.isAllowExtendedMode()).thenAnswer(new Returns(true));
     Mockito.when(connection.createArrayOf(Mockito.anyString(), Mockito.any())).thenCallRealMethod();
@@ -47,6 +50,7 @@ public class CloudSpannerTestObjects {
 
     TableKeyMetaData tableFoo = Mockito.mock(TableKeyMetaData.class);
     Mockito.when(tableFoo.getKeyColumns()).thenAnswer(new Returns(Arrays.asList("ID")));
+    Mockito.when(tableFoo.getKeyColumnOrdering("ID")).thenReturn("ASC");
     Mockito
         .when(connection.getTable(Mockito
             .matches(Pattern.compile("FOO", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE))))
@@ -54,11 +58,15 @@ public class CloudSpannerTestObjects {
 
     TableKeyMetaData tableBar = Mockito.mock(TableKeyMetaData.class);
     Mockito.when(tableBar.getKeyColumns()).thenAnswer(new Returns(Arrays.asList("ID1", "ID2")));
+    Mockito.when(tableBar.getKeyColumnOrdering("ID1")).thenReturn("ASC");
+    Mockito.when(tableBar.getKeyColumnOrdering("ID2")).thenReturn("DESC");
     Mockito
         .when(connection.getTable(Mockito
             .matches(Pattern.compile("BAR", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE))))
         .thenAnswer(new Returns(tableBar));
     Mockito.when(connection.getLogger()).thenAnswer(new Returns(new Logger()));
+    Mockito.when(connection.getAsyncStatementPermits())
+        .thenReturn(new Semaphore(CloudSpannerConnection.DEFAULT_MAX_IN_FLIGHT_ASYNC_STATEMENTS));
 
     mockXAMethods(connection);
 
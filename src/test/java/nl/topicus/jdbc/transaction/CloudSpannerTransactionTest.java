@@ -1,45 +1,137 @@
 package nl.topicus.jdbc.transaction;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.KeyRange;
+import com.google.cloud.spanner.KeySet;
+import com.google.cloud.spanner.ReadOnlyTransaction;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.ResultSets;
 import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.TimestampBound;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
 import nl.topicus.jdbc.CloudSpannerConnection;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
 import nl.topicus.jdbc.test.category.UnitTest;
 import nl.topicus.jdbc.test.util.CloudSpannerTestObjects;
 
 @Category(UnitTest.class)
 public class CloudSpannerTransactionTest {
 
-  @Test(expected = SpannerException.class)
-  public void testRead() throws SQLException {
+  private static final Type TYPE = Type.struct(StructField.of("ID", Type.int64()));
+
+  private static ResultSet createResultSet(long... ids) {
+    List<Struct> rows = new ArrayList<>(ids.length);
+    for (long id : ids)
+      rows.add(Struct.newBuilder().set("ID").to(id).build());
+    return ResultSets.forRows(TYPE, rows);
+  }
+
+  private static CloudSpannerTransaction createReadOnlyTransaction(
+      ReadOnlyTransaction readOnlyTransaction) throws SQLException {
     CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
-    try (CloudSpannerTransaction tx = new CloudSpannerTransaction(null, null, connection)) {
-      tx.read(null, null, null);
+    connection.setReadOnly(true);
+    DatabaseClient dbClient = mock(DatabaseClient.class);
+    when(dbClient.readOnlyTransaction()).thenReturn(readOnlyTransaction);
+    return new CloudSpannerTransaction(dbClient, null, connection);
+  }
+
+  @Test
+  public void testRead() throws SQLException {
+    ReadOnlyTransaction readOnlyTransaction = mock(ReadOnlyTransaction.class);
+    KeySet keys = KeySet.range(KeyRange.closedOpen(Key.of(1L), Key.of(3L)));
+    when(readOnlyTransaction.read("FOO", keys, Arrays.asList("ID")))
+        .thenReturn(createResultSet(1L, 2L));
+    try (CloudSpannerTransaction tx = createReadOnlyTransaction(readOnlyTransaction);
+        ResultSet rs = tx.read("FOO", keys, Arrays.asList("ID"))) {
+      assertTrue(rs.next());
+      assertEquals(1L, rs.getLong(0));
+      assertTrue(rs.next());
+      assertEquals(2L, rs.getLong(0));
+      assertFalse(rs.next());
     }
   }
 
-  @Test(expected = SpannerException.class)
+  @Test
   public void testReadUsingIndex() throws SQLException {
-    CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
-    try (CloudSpannerTransaction tx = new CloudSpannerTransaction(null, null, connection)) {
-      tx.readUsingIndex(null, null, null, null);
+    ReadOnlyTransaction readOnlyTransaction = mock(ReadOnlyTransaction.class);
+    when(readOnlyTransaction.readUsingIndex("FOO", "IDX_FOO", KeySet.all(), Arrays.asList("ID")))
+        .thenReturn(createResultSet(1L));
+    try (CloudSpannerTransaction tx = createReadOnlyTransaction(readOnlyTransaction);
+        ResultSet rs = tx.readUsingIndex("FOO", "IDX_FOO", KeySet.all(), Arrays.asList("ID"))) {
+      assertTrue(rs.next());
+      assertFalse(rs.next());
     }
   }
 
-  @Test(expected = SpannerException.class)
+  @Test
   public void testReadRow() throws SQLException {
-    CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
-    try (CloudSpannerTransaction tx = new CloudSpannerTransaction(null, null, connection)) {
-      tx.readRow(null, null, null);
+    ReadOnlyTransaction readOnlyTransaction = mock(ReadOnlyTransaction.class);
+    when(readOnlyTransaction.read("FOO", KeySet.singleKey(Key.of(1L)), Arrays.asList("ID")))
+        .thenReturn(createResultSet(1L));
+    when(readOnlyTransaction.read("FOO", KeySet.singleKey(Key.of(2L)), Arrays.asList("ID")))
+        .thenReturn(createResultSet());
+    try (CloudSpannerTransaction tx = createReadOnlyTransaction(readOnlyTransaction)) {
+      assertEquals(1L, tx.readRow("FOO", Key.of(1L), Arrays.asList("ID")).getLong(0));
+      assertNull(tx.readRow("FOO", Key.of(2L), Arrays.asList("ID")));
     }
   }
 
-  @Test(expected = SpannerException.class)
+  @Test
   public void testReadRowUsingIndex() throws SQLException {
+    ReadOnlyTransaction readOnlyTransaction = mock(ReadOnlyTransaction.class);
+    when(readOnlyTransaction.readUsingIndex("FOO", "IDX_FOO", KeySet.singleKey(Key.of("one")),
+        Arrays.asList("ID"))).thenReturn(createResultSet(1L));
+    try (CloudSpannerTransaction tx = createReadOnlyTransaction(readOnlyTransaction)) {
+      assertEquals(1L,
+          tx.readRowUsingIndex("FOO", "IDX_FOO", Key.of("one"), Arrays.asList("ID")).getLong(0));
+    }
+  }
+
+  @Test
+  public void testReadWithExactStaleness() throws SQLException {
+    TimestampBound bound = TimestampBound.ofExactStaleness(10L, TimeUnit.SECONDS);
     CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
-    try (CloudSpannerTransaction tx = new CloudSpannerTransaction(null, null, connection)) {
-      tx.readRowUsingIndex(null, null, null, null);
+    connection.setReadOnly(true);
+    when(connection.getReadTimestampBound()).thenReturn(bound);
+    ReadOnlyTransaction readOnlyTransaction = mock(ReadOnlyTransaction.class);
+    when(readOnlyTransaction.read("FOO", KeySet.all(), Arrays.asList("ID")))
+        .thenReturn(createResultSet(1L));
+    DatabaseClient dbClient = mock(DatabaseClient.class);
+    when(dbClient.readOnlyTransaction(bound)).thenReturn(readOnlyTransaction);
+    try (CloudSpannerTransaction tx = new CloudSpannerTransaction(dbClient, null, connection);
+        ResultSet rs = tx.read("FOO", KeySet.all(), Arrays.asList("ID"))) {
+      assertTrue(rs.next());
+      assertFalse(rs.next());
+    }
+    verify(dbClient).readOnlyTransaction(bound);
+  }
+
+  @Test(expected = CloudSpannerSQLException.class)
+  public void testReadWithMaxStaleness() throws SQLException {
+    CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
+    connection.setReadOnly(true);
+    when(connection.getReadTimestampBound())
+        .thenReturn(TimestampBound.ofMaxStaleness(10L, TimeUnit.SECONDS));
+    try (CloudSpannerTransaction tx =
+        new CloudSpannerTransaction(mock(DatabaseClient.class), null, connection)) {
+      tx.begin();
     }
   }
 
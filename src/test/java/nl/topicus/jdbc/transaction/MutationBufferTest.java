@@ -0,0 +1,113 @@
+package nl.topicus.jdbc.transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import com.google.cloud.ByteArray;
+import com.google.cloud.Date;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.Value;
+import com.google.common.collect.Lists;
+import nl.topicus.jdbc.test.category.UnitTest;
+
+@Category(UnitTest.class)
+public class MutationBufferTest {
+
+  private static Mutation insert(long id, String name, Double amount, Boolean active) {
+    return Mutation.newInsertBuilder("FOO").set("ID").to(id).set("NAME").to(name).set("AMOUNT")
+        .to(amount).set("ACTIVE").to(active).build();
+  }
+
+  private static List<Mutation> createMutations() {
+    List<Mutation> res = new ArrayList<>();
+    res.add(insert(1L, "one", 1.5d, true));
+    res.add(insert(2L, null, null, null));
+    res.add(insert(3L, "drie", -3d, false));
+    res.add(Mutation.newUpdateBuilder("FOO").set("ID").to(1L).set("NAME").to("een").build());
+    res.add(Mutation.delete("FOO", Key.of(2L)));
+    res.add(Mutation.delete("FOO", Key.of(3L)));
+    res.add(Mutation.newInsertOrUpdateBuilder("BAR").set("ID").to("bar").set("DATA")
+        .to(ByteArray.copyFrom("data")).set("DAY").to(Date.fromYearMonthDay(2018, 1, 1))
+        .set("NUMBERS").toInt64Array(new long[] {1L, 2L}).build());
+    res.add(insert(4L, "four", 4d, true));
+    res.add(Mutation.newReplaceBuilder("FOO").set("ID").to(5L).set("NAME").to("five").build());
+    return res;
+  }
+
+  private static MutationBuffer createBuffer(List<Mutation> mutations) {
+    MutationBuffer buffer = new MutationBuffer();
+    for (Mutation mutation : mutations)
+      buffer.add(mutation);
+    return buffer;
+  }
+
+  @Test
+  public void testIterate() {
+    List<Mutation> mutations = createMutations();
+    MutationBuffer buffer = createBuffer(mutations);
+    assertEquals(mutations.size(), buffer.size());
+    assertEquals(mutations, Lists.newArrayList(buffer));
+    // Iterating the buffer a second time must return the same mutations
+    assertEquals(mutations, Lists.newArrayList(buffer));
+  }
+
+  @Test
+  public void testByteSize() {
+    MutationBuffer buffer = new MutationBuffer();
+    assertTrue(buffer.isEmpty());
+    buffer.add(insert(1L, "one", 1.5d, true));
+    assertEquals(8L + 3L + 8L + 1L, buffer.getByteSize());
+    buffer.add(insert(2L, null, null, null));
+    assertEquals(20L + 8L, buffer.getByteSize());
+    buffer.add(Mutation.delete("FOO", Key.of("\u00e9\u00e9n")));
+    assertEquals(28L + 5L, buffer.getByteSize());
+    buffer.add(Mutation.newInsertBuilder("BAR").set("ID").to(ByteArray.copyFrom("abcde"))
+        .set("NUMBERS").toInt64Array(Arrays.asList(1L, null, 3L)).build());
+    assertEquals(33L + 5L + 16L, buffer.getByteSize());
+  }
+
+  @Test
+  public void testTruncate() {
+    List<Mutation> mutations = createMutations();
+    MutationBuffer buffer = createBuffer(mutations);
+    for (int size = mutations.size(); size >= 0; size--) {
+      buffer.truncate(size);
+      assertEquals(size, buffer.size());
+      assertEquals(mutations.subList(0, size), Lists.newArrayList(buffer));
+      assertEquals(createBuffer(mutations.subList(0, size)).getByteSize(), buffer.getByteSize());
+    }
+    assertTrue(buffer.isEmpty());
+    assertEquals(0L, buffer.getByteSize());
+  }
+
+  @Test
+  public void testTruncateAndAdd() {
+    List<Mutation> mutations = createMutations();
+    MutationBuffer buffer = createBuffer(mutations.subList(0, 3));
+    buffer.truncate(1);
+    buffer.add(insert(2L, "two", 2d, false));
+    buffer.add(insert(3L, null, null, null));
+    assertEquals(Arrays.asList(mutations.get(0), insert(2L, "two", 2d, false),
+        insert(3L, null, null, null)), Lists.newArrayList(buffer));
+  }
+
+  @Test
+  public void testMixedValueTypes() {
+    List<Mutation> mutations = new ArrayList<>();
+    mutations.add(Mutation.newInsertBuilder("FOO").set("ID").to(1L).set("VALUE").to(1L).build());
+    mutations.add(Mutation.newInsertBuilder("FOO").set("ID").to(2L).set("VALUE").to("two").build());
+    mutations.add(Mutation.newInsertBuilder("FOO").set("ID").to(3L).set("VALUE")
+        .to(Value.int64(null)).build());
+    MutationBuffer buffer = createBuffer(mutations);
+    assertEquals(mutations, Lists.newArrayList(buffer));
+    assertEquals(24L + 8L + 3L, buffer.getByteSize());
+    assertFalse(buffer.isEmpty());
+  }
+
+}
@@ -5,6 +5,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import javax.transaction.xa.Xid;
 import org.mockito.ArgumentMatchers;
@@ -12,7 +13,11 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import com.google.cloud.spanner.Mutation;
 import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Struct;
 import com.google.cloud.spanner.TransactionContext;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
 import nl.topicus.jdbc.xa.RecoveredXid;
 
 class TransactionContextMock {
@@ -64,10 +69,19 @@ class TransactionContextMock {
         return null;
       }
     }).when(res).buffer(ArgumentMatchers.any(Iterable.class));
+    when(res.read(ArgumentMatchers.anyString(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+        .then(invocation -> mockReadResultSet());
+    when(res.readUsingIndex(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(),
+        ArgumentMatchers.any(), ArgumentMatchers.any())).then(invocation -> mockReadResultSet());
 
     return res;
   }
 
+  private ResultSet mockReadResultSet() {
+    return ResultSets.forRows(Type.struct(StructField.of("ID", Type.int64())),
+        Arrays.asList(Struct.newBuilder().set("ID").to(1L).build()));
+  }
+
   private ResultSet mockPreparedWithoutMutationsResultSet() {
     ResultSet rs = mock(ResultSet.class);
     when(rs.next()).thenReturn(false);
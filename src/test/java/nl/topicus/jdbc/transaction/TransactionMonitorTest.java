@@ -0,0 +1,111 @@
+package nl.topicus.jdbc.transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.sql.SQLException;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.TransactionContext;
+import com.google.cloud.spanner.TransactionRunner;
+import nl.topicus.jdbc.CloudSpannerDriver;
+import nl.topicus.jdbc.Logger;
+import nl.topicus.jdbc.test.category.UnitTest;
+
+@Category(UnitTest.class)
+public class TransactionMonitorTest {
+
+  private static class TestRunner implements TransactionRunner {
+    private final TransactionContext context = mock(TransactionContext.class);
+
+    private TestRunner() {
+      when(context.executeQuery(Mockito.any(Statement.class))).thenReturn(mock(ResultSet.class));
+    }
+
+    @Override
+    public <T> T run(TransactionCallable<T> callable) {
+      try {
+        return callable.run(context);
+      } catch (Exception e) {
+        throw new RuntimeException(e.getMessage(), e);
+      }
+    }
+
+    @Override
+    public Timestamp getCommitTimestamp() {
+      return Timestamp.now();
+    }
+  }
+
+  private static TransactionThread startTransaction(TestRunner runner) {
+    DatabaseClient dbClient = mock(DatabaseClient.class);
+    when(dbClient.readWriteTransaction()).thenReturn(runner);
+    TransactionThread thread = new TransactionThread(dbClient, new Logger());
+    thread.start();
+    return thread;
+  }
+
+  @Test
+  public void testKeepAlive() throws SQLException, InterruptedException {
+    TransactionMonitor monitor = CloudSpannerDriver.getTransactionMonitor();
+    long keepAliveIdleMillis = monitor.getKeepAliveIdleMillis();
+    try {
+      monitor.setKeepAliveIdleMillis(20L);
+      long keepAlives = monitor.getKeepAliveCount();
+      TestRunner runner = new TestRunner();
+      TransactionThread thread = startTransaction(runner);
+      while (monitor.getKeepAliveCount() < keepAlives + 2)
+        Thread.sleep(5L);
+      assertTrue(monitor.getActiveCount() > 0);
+      assertTrue(monitor.getIdleCount() > 0);
+      thread.commit();
+      assertEquals(TransactionThread.TransactionStatus.SUCCESS, thread.getTransactionStatus());
+      Mockito.verify(runner.context, Mockito.atLeast(2))
+          .executeQuery(Statement.of("SELECT 1"));
+      // the monitor does not send keep-alives for finished transactions
+      long keepAlivesAfterCommit = monitor.getKeepAliveCount();
+      Thread.sleep(100L);
+      assertEquals(keepAlivesAfterCommit, monitor.getKeepAliveCount());
+    } finally {
+      monitor.setKeepAliveIdleMillis(keepAliveIdleMillis);
+    }
+  }
+
+  @Test
+  public void testNoKeepAliveForActiveTransaction() throws SQLException, InterruptedException {
+    TestRunner runner = new TestRunner();
+    TransactionThread thread = startTransaction(runner);
+    for (int i = 0; i < 5; i++) {
+      thread.executeQuery(Statement.of("SELECT * FROM FOO"));
+      Thread.sleep(10L);
+    }
+    thread.commit();
+    Mockito.verify(runner.context, Mockito.never()).executeQuery(Statement.of("SELECT 1"));
+  }
+
+  @Test
+  public void testLongRunning() throws SQLException, InterruptedException {
+    TransactionMonitor monitor = CloudSpannerDriver.getTransactionMonitor();
+    long trigger = CloudSpannerDriver.getLongTransactionTrigger();
+    try {
+      CloudSpannerDriver.setLongTransactionTrigger(20L);
+      long longRunning = monitor.getTotalLongRunningCount();
+      TransactionThread thread = startTransaction(new TestRunner());
+      while (!thread.isLongRunning())
+        Thread.sleep(5L);
+      assertTrue(monitor.getLongRunningCount() > 0);
+      assertTrue(monitor.getTotalLongRunningCount() > longRunning);
+      thread.rollback();
+      assertEquals(TransactionThread.TransactionStatus.SUCCESS, thread.getTransactionStatus());
+    } finally {
+      CloudSpannerDriver.setLongTransactionTrigger(trigger);
+    }
+  }
+
+}
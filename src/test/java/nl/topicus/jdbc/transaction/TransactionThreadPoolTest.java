@@ -0,0 +1,110 @@
+package nl.topicus.jdbc.transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+import nl.topicus.jdbc.CloudSpannerConnection;
+import nl.topicus.jdbc.CloudSpannerDriver;
+import nl.topicus.jdbc.test.category.UnitTest;
+import nl.topicus.jdbc.test.util.CloudSpannerTestObjects;
+
+@Category(UnitTest.class)
+public class TransactionThreadPoolTest {
+
+  private static void waitFor(CountDownLatch latch) {
+    try {
+      latch.await(10L, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Test
+  public void testBoundedPoolQueuesTransactions() throws InterruptedException {
+    TransactionThreadPool pool = new TransactionThreadPool();
+    pool.setMaxSize(2);
+    CountDownLatch started = new CountDownLatch(2);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch finished = new CountDownLatch(3);
+    for (int i = 0; i < 3; i++) {
+      pool.execute(() -> {
+        started.countDown();
+        waitFor(release);
+        finished.countDown();
+      });
+    }
+    assertTrue(started.await(10L, TimeUnit.SECONDS));
+    assertEquals(2, pool.getActiveCount());
+    assertEquals(1, pool.getQueuedCount());
+    assertEquals(2, pool.getPoolSize());
+    release.countDown();
+    assertTrue(finished.await(10L, TimeUnit.SECONDS));
+    while (pool.getCompletedCount() < 3L)
+      Thread.sleep(1L);
+    assertEquals(0, pool.getActiveCount());
+    assertEquals(0, pool.getQueuedCount());
+  }
+
+  @Test
+  public void testUnboundedPoolReusesThreads() throws InterruptedException {
+    TransactionThreadPool pool = new TransactionThreadPool();
+    assertEquals(TransactionThreadPool.UNBOUNDED, pool.getMaxSize());
+    for (int i = 0; i < 5; i++) {
+      CountDownLatch finished = new CountDownLatch(1);
+      pool.execute(finished::countDown);
+      assertTrue(finished.await(10L, TimeUnit.SECONDS));
+      // give the thread some time to return to the pool
+      while (pool.getActiveCount() > 0)
+        Thread.sleep(1L);
+      Thread.sleep(10L);
+    }
+    assertTrue(pool.getPoolSize() < 5);
+    assertEquals(5L, pool.getCompletedCount());
+  }
+
+  @Test
+  public void testReconfigureFinishesRunningTransactions() throws InterruptedException {
+    TransactionThreadPool pool = new TransactionThreadPool();
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch finished = new CountDownLatch(2);
+    pool.execute(() -> {
+      waitFor(release);
+      finished.countDown();
+    });
+    pool.setMaxSize(1);
+    pool.execute(finished::countDown);
+    release.countDown();
+    assertTrue(finished.await(10L, TimeUnit.SECONDS));
+    assertEquals(1, pool.getMaxSize());
+  }
+
+  @Test
+  public void testVirtualThreads() {
+    TransactionThreadPool pool = new TransactionThreadPool();
+    pool.setUseVirtualThreads(true);
+    assertEquals(TransactionThreadPool.isVirtualThreadsSupported(), pool.isUseVirtualThreads());
+    pool.setUseVirtualThreads(false);
+    assertFalse(pool.isUseVirtualThreads());
+  }
+
+  @Test
+  public void testShowTransactionPool() throws SQLException {
+    CloudSpannerConnection connection = CloudSpannerTestObjects.createConnection();
+    Mockito.when(connection.createStatement()).thenCallRealMethod();
+    try (ResultSet rs = connection.createStatement().executeQuery("SHOW_TRANSACTION_POOL")) {
+      TransactionThreadPool pool = CloudSpannerDriver.getTransactionThreadPool();
+      assertTrue(rs.next());
+      assertEquals(pool.getMaxSize(), rs.getInt("MAX_SIZE"));
+      assertEquals(pool.isUseVirtualThreads(), rs.getBoolean("VIRTUAL_THREADS"));
+      assertFalse(rs.next());
+    }
+  }
+
+}
@@ -1,6 +1,8 @@
 package nl.topicus.jdbc.transaction;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import java.sql.SQLException;
@@ -11,10 +13,18 @@ import org.junit.experimental.categories.Category;
 import org.mockito.internal.stubbing.answers.Returns;
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.KeySet;
 import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.Statement;
 import com.google.cloud.spanner.TransactionRunner;
+import com.google.rpc.Code;
+import nl.topicus.jdbc.CloudSpannerDriver;
 import nl.topicus.jdbc.Logger;
+import nl.topicus.jdbc.exception.CloudSpannerSQLException;
 import nl.topicus.jdbc.test.category.UnitTest;
+import nl.topicus.jdbc.transaction.TransactionThread.QueryException;
 import nl.topicus.jdbc.transaction.TransactionThread.TransactionStatus;
 
 @Category(UnitTest.class)
@@ -80,6 +90,39 @@ public class TransactionThreadTest {
     return new TestSubject(new TransactionThread(dbClient, new Logger()), runner.mock);
   }
 
+  @Test
+  public void testStartTimeout() throws SQLException {
+    TransactionThreadPool pool = CloudSpannerDriver.getTransactionThreadPool();
+    pool.setMaxSize(1);
+    pool.setStartTimeout(50L);
+    try {
+      TestSubject running = createTestSubject();
+      running.thread.start();
+      TestSubject queued = createTestSubject();
+      queued.thread.start();
+      try {
+        queued.thread.executeQuery(Statement.of("SELECT * FROM FOO"));
+        throw new AssertionError("Missing expected exception");
+      } catch (QueryException e) {
+        assertEquals(Code.DEADLINE_EXCEEDED, ((CloudSpannerSQLException) e.getCause()).getCode());
+      }
+      try {
+        queued.thread.commit();
+        throw new AssertionError("Missing expected exception");
+      } catch (CloudSpannerSQLException e) {
+        assertEquals(Code.DEADLINE_EXCEEDED, e.getCode());
+      }
+      queued.thread.rollback();
+      running.thread.commit();
+      assertEquals(TransactionStatus.SUCCESS, running.thread.getTransactionStatus());
+      // the cancelled transaction is skipped when it gets a thread
+      assertEquals(TransactionStatus.NOT_STARTED, queued.thread.getTransactionStatus());
+    } finally {
+      pool.setMaxSize(TransactionThreadPool.UNBOUNDED);
+      pool.setStartTimeout(TransactionThreadPool.DEFAULT_START_TIMEOUT_MILLIS);
+    }
+  }
+
   @Test
   public void testRunSimpleCommit() throws SQLException {
     testRunAction(t -> t.commit());
@@ -175,6 +218,22 @@ public class TransactionThreadTest {
     }
   }
 
+  @Test
+  public void testRead() throws SQLException {
+    testRunAction(t -> {
+      try (ResultSet rs = t.read("FOO", null, KeySet.all(), Arrays.asList("ID"))) {
+        assertTrue(rs.next());
+        assertEquals(1L, rs.getLong(0));
+      }
+      try (ResultSet rs =
+          t.read("FOO", "IDX_FOO", KeySet.singleKey(Key.of(1L)), Arrays.asList("ID"))) {
+        assertTrue(rs.next());
+        assertFalse(rs.next());
+      }
+      t.commit();
+    });
+  }
+
   @Test
   public void testRunCommitWithMutations() throws SQLException {
     testRunAction(t -> t.commit(),